@@ -73,18 +73,19 @@ public interface HandleGraph<N extends NodeHandle, E extends EdgeHandle<N>> {
      * @param edge to start traversal from
      * @param left to end traversal at
      * @return the next node the node that joins them?
+     * @throws IllegalArgumentException if left is not a side of the edge
      */
     public default N traverseEdgeHandle(E edge, N left) {
         if (left.equals(edge.left())) {
             // The cannonical orientation is the one we want
             return edge.right();
-        } else if (left == flip(edge.right())) {
+        } else if (equalNodes(left, flip(edge.right()))) {
             // We really want the other orientation
-            return flip(left);
+            return flip(edge.left());
         } else {
             String leftMsg = asLong(edge.left()) + " " + isReverseNodeHandle(edge.left());
             String rightMsg = asLong(edge.right()) + " " + isReverseNodeHandle(edge.right());
-            throw new RuntimeException("Cannot view edge " + leftMsg
+            throw new IllegalArgumentException("Cannot view edge " + leftMsg
                     + " -> "
                     + rightMsg
                     + " from non-participant " + asLong(left) + " " + isReverseNodeHandle(left));
@@ -120,6 +121,28 @@ public interface HandleGraph<N extends NodeHandle, E extends EdgeHandle<N>> {
         return hasEdge(edge.left(), edge.right());
     }
 
+    /**
+     * Test a batch of edges for presence in the graph.
+     *
+     * Implementations that keep the neighbours of a node in a sorted primitive
+     * array should override this and {@link #hasEdge(NodeHandle, NodeHandle)}
+     * with a binary search.
+     *
+     * @param lefts the asLong values of the left sides
+     * @param rights the asLong values of the right sides, as many as lefts
+     * @return for each left and right pair true if the edge is in the graph.
+     */
+    public default boolean[] hasEdges(long[] lefts, long[] rights) {
+        if (lefts.length != rights.length) {
+            throw new IllegalArgumentException("Not as many lefts as rights");
+        }
+        boolean[] present = new boolean[lefts.length];
+        for (int i = 0; i < lefts.length; i++) {
+            present[i] = hasEdge(fromLong(lefts[i]), fromLong(rights[i]));
+        }
+        return present;
+    }
+
     /**
      * Count the numbers of edges in the graph.
      *
@@ -257,6 +280,17 @@ public interface HandleGraph<N extends NodeHandle, E extends EdgeHandle<N>> {
      */
     public AutoClosedIterator<N> nodes();
 
+    /**
+     * The nodes as a cursor moved in place, for loops that should not make a
+     * handle per node. The default reads {@link #nodes()} so only
+     * implementations that override it save anything.
+     *
+     * @return a cursor over all nodes, must be closed after use.
+     */
+    public default NodeCursor nodeCursor() {
+        return new IteratingNodeCursor<>(this, nodes());
+    }
+
     /**
      * Retrieve a specific base of sequence associated with a node.
      *
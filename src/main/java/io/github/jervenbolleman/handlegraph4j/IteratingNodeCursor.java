@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * The default NodeCursor, that reads the handles of an iterator. It saves the
+ * caller nothing but lets any graph offer a cursor.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ */
+class IteratingNodeCursor<N extends NodeHandle> implements NodeCursor {
+
+    private final HandleGraph<N, ?> graph;
+    private final AutoClosedIterator<N> nodes;
+    private N current;
+
+    IteratingNodeCursor(HandleGraph<N, ?> graph, AutoClosedIterator<N> nodes) {
+        this.graph = graph;
+        this.nodes = nodes;
+    }
+
+    @Override
+    public boolean advance() {
+        if (nodes.hasNext()) {
+            current = nodes.next();
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    @Override
+    public long id() {
+        return current.id();
+    }
+
+    @Override
+    public boolean isReverse() {
+        return graph.isReverseNodeHandle(current);
+    }
+
+    @Override
+    public long asLong() {
+        return graph.asLong(current);
+    }
+
+    @Override
+    public void close() {
+        nodes.close();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * The default StepCursor, that reads the handles of an iterator. It saves the
+ * caller nothing but lets any graph offer a cursor.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ */
+class IteratingStepCursor<S extends StepHandle, N extends NodeHandle> implements StepCursor {
+
+    private final PathGraph<?, S, N, ?> graph;
+    private final AutoClosedIterator<S> steps;
+    private S current;
+    private N node;
+
+    IteratingStepCursor(PathGraph<?, S, N, ?> graph, AutoClosedIterator<S> steps) {
+        this.graph = graph;
+        this.steps = steps;
+    }
+
+    @Override
+    public boolean advance() {
+        if (steps.hasNext()) {
+            current = steps.next();
+            node = graph.nodeOfStep(current);
+            return true;
+        }
+        current = null;
+        node = null;
+        return false;
+    }
+
+    @Override
+    public long nodeId() {
+        return node.id();
+    }
+
+    @Override
+    public boolean isReverse() {
+        return graph.isReverseNodeHandle(node);
+    }
+
+    @Override
+    public long nodeAsLong() {
+        return graph.asLong(node);
+    }
+
+    @Override
+    public long rank() {
+        return graph.rankOfStep(current);
+    }
+
+    @Override
+    public long beginPosition() {
+        return graph.beginPositionOfStep(current);
+    }
+
+    @Override
+    public long endPosition() {
+        return graph.endPositionOfStep(current);
+    }
+
+    @Override
+    public void close() {
+        steps.close();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j;
+
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * A HandleGraph that nodes and edges can be added to, and nodes removed from.
+ *
+ * The names follow libhandlegraph. Implementations document whether they may
+ * be changed from more than one thread.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> Specific implementation of NodeHandle for a specific graph data
+ * structure
+ * @param <E> Specific implementation of EdgeHandle for a specific graph data
+ * structure
+ */
+public interface MutableHandleGraph<N extends NodeHandle, E extends EdgeHandle<N>> extends HandleGraph<N, E> {
+
+    /**
+     * Create a new node, with a new id.
+     *
+     * @param sequence of the forward orientation
+     * @return the forward handle of the new node
+     */
+    public N createHandle(Sequence sequence);
+
+    /**
+     * Create an edge, if it is not yet present.
+     *
+     * @param left side of the edge
+     * @param right side of the edge
+     * @return the edge
+     * @throws IllegalArgumentException if either node is not in the graph
+     */
+    public E createEdge(N left, N right);
+
+    /**
+     * Remove a node and all its edges. The node must not be on a path.
+     *
+     * @param node in any orientation
+     * @return true if the node was in the graph
+     */
+    public boolean destroyHandle(N node);
+}
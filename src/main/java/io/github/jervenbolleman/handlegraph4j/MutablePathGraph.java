@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j;
+
+/**
+ * A PathGraph that paths can be added to and extended.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public interface MutablePathGraph<P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>>
+        extends PathGraph<P, S, N, E>, MutableHandleGraph<N, E> {
+
+    /**
+     * Create a new path without steps.
+     *
+     * @param name of the path, unique in the graph
+     * @return the new path
+     * @throws IllegalArgumentException if there already is a path with the name
+     */
+    public P createPath(String name);
+
+    /**
+     * Add a step at the end of a path.
+     *
+     * @param path to extend
+     * @param node in the orientation in which the path walks it
+     * @return the new step
+     * @throws IllegalArgumentException if the node is not in the graph
+     */
+    public S appendStep(P path, N node);
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j;
+
+/**
+ * A mutable position over the nodes of a HandleGraph, that is moved forward in
+ * place by {@link #advance()}.
+ *
+ * Unlike {@link HandleGraph#nodes()} no handle object needs to be made for each
+ * node. The values returned are only valid until the next call to advance, to
+ * keep a node use {@link HandleGraph#fromLong(long)} on {@link #asLong()}.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public interface NodeCursor extends AutoCloseable {
+
+    /**
+     * Move to the next node, must be called before reading the first one.
+     *
+     * @return false if there are no more nodes
+     */
+    public boolean advance();
+
+    /**
+     *
+     * @return the id of the current node, as {@link NodeHandle#id()}
+     */
+    public long id();
+
+    /**
+     *
+     * @return if the current node is in reverse orientation
+     */
+    public boolean isReverse();
+
+    /**
+     *
+     * @return the current node as {@link HandleGraph#asLong(NodeHandle)}
+     */
+    public long asLong();
+
+    /**
+     * Release any resources held, may hold on to native resources and must be
+     * closed after use.
+     */
+    @Override
+    public void close();
+}
@@ -70,6 +70,27 @@ public interface PathGraph<P extends PathHandle, S extends StepHandle, N extends
      */
     public AutoClosedIterator<S> stepsOf(P path);
 
+    /**
+     * The steps as a cursor moved in place, for loops that should not make a
+     * handle per step. The default reads {@link #steps()}.
+     *
+     * @return a cursor over all steps of all paths, must be closed after use
+     */
+    public default StepCursor stepCursor() {
+        return new IteratingStepCursor<>(this, steps());
+    }
+
+    /**
+     * The steps of one path as a cursor moved in place. The default reads
+     * {@link #stepsOf(PathHandle)}.
+     *
+     * @param path to get all steps of
+     * @return a cursor over the steps of the path, must be closed after use
+     */
+    public default StepCursor stepCursor(P path) {
+        return new IteratingStepCursor<>(this, stepsOf(path));
+    }
+
     /**
      * @param step to find out which path this step is on
      * @return the path of the step
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j;
+
+/**
+ * A mutable position over steps of a PathGraph, that is moved forward in place
+ * by {@link #advance()}.
+ *
+ * Unlike {@link PathGraph#steps()} or {@link PathGraph#stepsOf(PathHandle)}
+ * no handle object needs to be made for each step. The values returned are
+ * only valid until the next call to advance.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public interface StepCursor extends AutoCloseable {
+
+    /**
+     * Move to the next step, must be called before reading the first one.
+     *
+     * @return false if there are no more steps
+     */
+    public boolean advance();
+
+    /**
+     *
+     * @return the id of the node of the current step, as
+     * {@link NodeHandle#id()}
+     */
+    public long nodeId();
+
+    /**
+     *
+     * @return if the current step is on the reverse orientation of its node
+     */
+    public boolean isReverse();
+
+    /**
+     *
+     * @return the node of the current step as
+     * {@link HandleGraph#asLong(NodeHandle)}
+     */
+    public long nodeAsLong();
+
+    /**
+     *
+     * @return the rank of the current step along its path
+     */
+    public long rank();
+
+    /**
+     *
+     * @return the beginning of the current step along its path
+     */
+    public long beginPosition();
+
+    /**
+     *
+     * @return the end of the current step along its path
+     */
+    public long endPosition();
+
+    /**
+     * Release any resources held, may hold on to native resources and must be
+     * closed after use.
+     */
+    @Override
+    public void close();
+}
@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * The weakly connected components of a graph, ignoring orientation.
+ *
+ * The nodes are ranked by id and split in partitions, each worker follows the
+ * edges to the right of both orientations of the nodes in its partition and
+ * merges the sides in a union-find shared between all workers. The union-find
+ * uses compare and set on an int array, always linking the root with the
+ * higher rank under the one with the lower rank, so no locks are needed.
+ *
+ * Walking the graph from several threads at once requires that reading from
+ * the graph is thread safe.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class ConnectedComponents {
+
+	private static final int MIN_PARTITION = 1024;
+
+	private final NodeIndex index;
+	private final int[] components;
+	private final int[] sizes;
+
+	private ConnectedComponents(NodeIndex index, int[] components, int[] sizes) {
+		this.index = index;
+		this.components = components;
+		this.sizes = sizes;
+	}
+
+	/**
+	 * Compute the components on the common fork join pool.
+	 *
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to analyse
+	 * @return the components
+	 */
+	public static <N extends NodeHandle, E extends EdgeHandle<N>> ConnectedComponents of(HandleGraph<N, E> graph) {
+		return of(graph, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param <N>         the type of NodeHandle
+	 * @param <E>         the type of EdgeHandle
+	 * @param graph       to analyse
+	 * @param executor    to run the partitions on
+	 * @param parallelism the number of partitions to split the nodes in
+	 * @return the components
+	 */
+	public static <N extends NodeHandle, E extends EdgeHandle<N>> ConnectedComponents of(HandleGraph<N, E> graph,
+			Executor executor, int parallelism) {
+		NodeIndex index = NodeIndex.of(graph);
+		int size = index.size();
+		AtomicIntegerArray parents = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) {
+			parents.set(i, i);
+		}
+		int partitions = Math.max(1, Math.min(parallelism, size / MIN_PARTITION));
+		List<CompletableFuture<Void>> running = new ArrayList<>(partitions);
+		for (int p = 0; p < partitions; p++) {
+			int from = (int) ((long) size * p / partitions);
+			int to = (int) ((long) size * (p + 1) / partitions);
+			running.add(CompletableFuture.runAsync(() -> unionPartition(graph, index, parents, from, to), executor));
+		}
+		try {
+			CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		// Roots are the lowest rank in their component, so they are labeled
+		// before any of their members.
+		int[] components = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			int root = find(parents, i);
+			components[i] = root == i ? count++ : components[root];
+		}
+		int[] sizes = new int[count];
+		for (int i = 0; i < size; i++) {
+			sizes[components[i]]++;
+		}
+		return new ConnectedComponents(index, components, sizes);
+	}
+
+	private static <N extends NodeHandle, E extends EdgeHandle<N>> void unionPartition(HandleGraph<N, E> graph,
+			NodeIndex index, AtomicIntegerArray parents, int from, int to) {
+		for (int rank = from; rank < to; rank++) {
+			N node = graph.fromLong(index.id(rank));
+			unionRight(graph, index, parents, rank, node);
+			unionRight(graph, index, parents, rank, graph.flip(node));
+		}
+	}
+
+	private static <N extends NodeHandle, E extends EdgeHandle<N>> void unionRight(HandleGraph<N, E> graph,
+			NodeIndex index, AtomicIntegerArray parents, int rank, N node) {
+		try (AutoClosedIterator<E> edges = graph.followEdgesToWardsTheRight(node)) {
+			while (edges.hasNext()) {
+				int other = index.rank(graph, edges.next().right());
+				if (other >= 0) {
+					union(parents, rank, other);
+				}
+			}
+		}
+	}
+
+	private static int find(AtomicIntegerArray parents, int node) {
+		int parent = parents.get(node);
+		while (parent != node) {
+			int grandParent = parents.get(parent);
+			// path halving, losing this race only means a longer path next time
+			parents.compareAndSet(node, parent, grandParent);
+			node = grandParent;
+			parent = parents.get(node);
+		}
+		return node;
+	}
+
+	private static void union(AtomicIntegerArray parents, int a, int b) {
+		while (true) {
+			int rootA = find(parents, a);
+			int rootB = find(parents, b);
+			if (rootA == rootB) {
+				return;
+			}
+			int high = Math.max(rootA, rootB);
+			int low = Math.min(rootA, rootB);
+			if (parents.compareAndSet(high, high, low)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of components
+	 */
+	public int componentCount() {
+		return sizes.length;
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int nodeCount() {
+		return components.length;
+	}
+
+	/**
+	 * The components are numbered in order of their lowest node id.
+	 *
+	 * @return the component of each node by rank of its id, shared so not to be
+	 *         modified
+	 */
+	public int[] components() {
+		return components;
+	}
+
+	/**
+	 * @param rank of a node
+	 * @return the id of the forward handle of the node
+	 */
+	public long nodeIdOfRank(int rank) {
+		return index.id(rank);
+	}
+
+	/**
+	 * @param <N>   the type of NodeHandle
+	 * @param graph the graph these components are of
+	 * @param node  in any orientation
+	 * @return the component of the node, or -1 if the node is not in the graph
+	 */
+	public <N extends NodeHandle> int componentOf(HandleGraph<N, ?> graph, N node) {
+		int rank = index.rank(graph, node);
+		return rank < 0 ? -1 : components[rank];
+	}
+
+	/**
+	 * @param component a component number
+	 * @return the number of nodes in the component
+	 */
+	public int sizeOf(int component) {
+		return sizes[component];
+	}
+
+	/**
+	 * @return the size of the largest component, or 0 for an empty graph
+	 */
+	public int largestSize() {
+		int max = 0;
+		for (int size : sizes) {
+			max = Math.max(max, size);
+		}
+		return max;
+	}
+
+	/**
+	 * @return the number of components of only one node
+	 */
+	public int singletonCount() {
+		int count = 0;
+		for (int size : sizes) {
+			if (size == 1) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,434 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * Writes the top level superbubbles traversed by reference paths as VCF
+ * records, with a haploid genotype for each sample path.
+ *
+ * The reference paths are walked in parallel to find their sites, the allele
+ * of a site is the last base of the handle before it followed by the sequence
+ * of the handles inside it, in the orientation the reference walks it. A
+ * bubble on several references is a site of the first of them in the order
+ * given. Then each sample path is walked once, in parallel, through the sites
+ * of all references. A sample walking a site on the other strand has its
+ * allele reverse complemented. Only the first walk of a sample through a site
+ * gives its genotype. The alternate alleles are numbered in the order of the
+ * first sample that has them, so the output does not depend on the order the
+ * paths were walked in. The records are written reference by reference in the
+ * order given, by position, and the sites of a reference are dropped once
+ * written.
+ *
+ * Memory use is an int per site and sample plus the distinct alleles of the
+ * sites, the sequence of the paths is never held in memory.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class Deconstructor<P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> {
+
+	private final PathGraph<P, S, N, E> graph;
+	private int maxBubbleSize = 10_000;
+	private volatile long unresolvedBubbles;
+
+	/**
+	 * @param graph with the reference and sample paths
+	 */
+	public Deconstructor(PathGraph<P, S, N, E> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * @param maxBubbleSize see {@link Superbubbles#maxSize(int)}
+	 * @return this
+	 */
+	public Deconstructor<P, S, N, E> maxBubbleSize(int maxBubbleSize) {
+		this.maxBubbleSize = maxBubbleSize;
+		return this;
+	}
+
+	/**
+	 * A site in a superbubble larger than the maximum bubble size is missing from
+	 * the VCF.
+	 *
+	 * @return {@link Superbubbles#unresolved()} of the last write, 0 if no site
+	 *         can be missing
+	 */
+	public long unresolvedBubbles() {
+		return unresolvedBubbles;
+	}
+
+	/**
+	 * A part of a path between a start and an end handle.
+	 */
+	private static final class Span {
+		private final long start;
+		private final long end;
+		private final int target;
+		private final boolean reversed;
+
+		private Span(long start, long end, int target, boolean reversed) {
+			this.start = start;
+			this.end = end;
+			this.target = target;
+			this.reversed = reversed;
+		}
+	}
+
+	private static final class Site {
+		private final int bubble;
+		private final long position;
+		private final long start;
+		private final long end;
+		private final char anchor;
+		private final List<String> alleles = new ArrayList<>(2);
+		private int[] genotypes;
+
+		private Site(int bubble, long position, long start, long end, char anchor, String ref) {
+			this.bubble = bubble;
+			this.position = position;
+			this.start = start;
+			this.end = end;
+			this.anchor = anchor;
+			alleles.add(ref);
+		}
+
+		private synchronized void genotype(int sample, String allele) {
+			if (genotypes[sample] < 0) {
+				int index = alleles.indexOf(allele);
+				if (index < 0) {
+					index = alleles.size();
+					alleles.add(allele);
+				}
+				genotypes[sample] = index;
+			}
+		}
+
+		/**
+		 * Samples are walked concurrently, so the alleles were added in any order.
+		 * Number them by the first sample that has them, after the reference.
+		 */
+		private void numberAlleles() {
+			int[] numbers = new int[alleles.size()];
+			Arrays.fill(numbers, -1);
+			numbers[0] = 0;
+			List<String> numbered = new ArrayList<>(alleles.size());
+			numbered.add(alleles.get(0));
+			for (int sample = 0; sample < genotypes.length; sample++) {
+				int allele = genotypes[sample];
+				if (allele >= 0) {
+					if (numbers[allele] < 0) {
+						numbers[allele] = numbered.size();
+						numbered.add(alleles.get(allele));
+					}
+					genotypes[sample] = numbers[allele];
+				}
+			}
+			alleles.clear();
+			alleles.addAll(numbered);
+		}
+	}
+
+	/**
+	 * The sites a reference walks through and its length.
+	 */
+	private static final class ReferenceSites {
+		private final List<Site> sites;
+		private final long length;
+
+		private ReferenceSites(List<Site> sites, long length) {
+			this.sites = sites;
+			this.length = length;
+		}
+	}
+
+	private interface SpanConsumer<S> {
+		void accept(Span span, S first, String interior);
+	}
+
+	/**
+	 * On the common fork join pool.
+	 *
+	 * @param references the paths to call against, e.g. found with
+	 *                   {@link PathGraph#pathByName(String)}
+	 * @param samples    the paths to give a genotype for
+	 * @param out        to write the VCF to
+	 * @throws IOException if writing fails
+	 */
+	public void write(List<P> references, List<P> samples, Appendable out) throws IOException {
+		write(references, samples, out, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param references  the paths to call against, e.g. found with
+	 *                    {@link PathGraph#pathByName(String)}
+	 * @param samples     the paths to give a genotype for
+	 * @param out         to write the VCF to
+	 * @param executor    to walk the paths on, one task per path
+	 * @param parallelism the number of parts the bubble search is split in
+	 * @throws IOException if writing fails
+	 */
+	public void write(List<P> references, List<P> samples, Appendable out, Executor executor, int parallelism)
+			throws IOException {
+		Superbubbles<N, E> search = new Superbubbles<>(graph).maxSize(maxBubbleSize);
+		List<Superbubble> bubbles = search.find(executor, parallelism);
+		unresolvedBubbles = search.unresolved();
+		Map<Long, Span> bubbleSpans = new HashMap<>();
+		for (int i = 0; i < bubbles.size(); i++) {
+			Superbubble bubble = bubbles.get(i);
+			if (bubble.isTopLevel()) {
+				long entrance = bubble.entrance();
+				long exit = bubble.exit();
+				bubbleSpans.put(entrance, new Span(entrance, exit, i, false));
+				long flippedExit = flip(exit);
+				bubbleSpans.put(flippedExit, new Span(flippedExit, flip(entrance), i, true));
+			}
+		}
+		List<CompletableFuture<ReferenceSites>> walkingReferences = new ArrayList<>(references.size());
+		for (P reference : references) {
+			walkingReferences.add(CompletableFuture.supplyAsync(() -> sites(reference, bubbleSpans), executor));
+		}
+		List<List<Site>> sitesByReference = new ArrayList<>(references.size());
+		List<Site> allSites = new ArrayList<>();
+		long[] lengths = new long[references.size()];
+		// a bubble on several references is a site of the first only
+		boolean[] claimed = new boolean[bubbles.size()];
+		for (int r = 0; r < references.size(); r++) {
+			ReferenceSites found = join(walkingReferences.get(r));
+			lengths[r] = found.length;
+			List<Site> sites = new ArrayList<>();
+			for (Site site : found.sites) {
+				if (!claimed[site.bubble]) {
+					claimed[site.bubble] = true;
+					site.genotypes = new int[samples.size()];
+					Arrays.fill(site.genotypes, -1);
+					sites.add(site);
+				}
+			}
+			sitesByReference.add(sites);
+			allSites.addAll(sites);
+		}
+		if (!allSites.isEmpty()) {
+			genotype(allSites, samples, executor);
+		}
+		writeHeader(references, samples, lengths, out);
+		for (int r = 0; r < references.size(); r++) {
+			write(graph.nameOfPath(references.get(r)), sitesByReference.get(r), out);
+			sitesByReference.set(r, null);
+		}
+	}
+
+	private void genotype(List<Site> sites, List<P> samples, Executor executor) {
+		Map<Long, Span> siteSpans = new HashMap<>();
+		for (int i = 0; i < sites.size(); i++) {
+			Site site = sites.get(i);
+			siteSpans.put(site.start, new Span(site.start, site.end, i, false));
+			siteSpans.put(flip(site.end), new Span(flip(site.end), flip(site.start), i, true));
+		}
+		List<CompletableFuture<Void>> walkingSamples = new ArrayList<>(samples.size());
+		for (int s = 0; s < samples.size(); s++) {
+			int sample = s;
+			walkingSamples.add(CompletableFuture.runAsync(() -> walk(samples.get(sample), siteSpans, (span, first,
+					interior) -> {
+				Site site = sites.get(span.target);
+				String oriented = span.reversed ? reverseComplement(interior) : interior;
+				site.genotype(sample, site.anchor + oriented);
+			}), executor));
+		}
+		for (CompletableFuture<Void> walking : walkingSamples) {
+			join(walking);
+		}
+		for (Site site : sites) {
+			site.numberAlleles();
+		}
+	}
+
+	private ReferenceSites sites(P reference, Map<Long, Span> bubbleSpans) {
+		List<Site> sites = new ArrayList<>();
+		S last = walk(reference, bubbleSpans, (span, first, interior) -> {
+			N start = graph.nodeOfStep(first);
+			char anchor = lastBase(start);
+			sites.add(new Site(span.target, graph.endPositionOfStep(first), span.start, span.end, anchor,
+					anchor + interior));
+		});
+		return new ReferenceSites(sites, last == null ? 0 : graph.endPositionOfStep(last));
+	}
+
+	/**
+	 * @return the last step of the path, null if it has none
+	 */
+	private S walk(P path, Map<Long, Span> spans, SpanConsumer<S> consumer) {
+		Span open = null;
+		S first = null;
+		S step = null;
+		StringBuilder interior = new StringBuilder();
+		try (AutoClosedIterator<S> steps = graph.stepsOf(path)) {
+			while (steps.hasNext()) {
+				step = steps.next();
+				N node = graph.nodeOfStep(step);
+				long key = graph.asLong(node);
+				if (open != null) {
+					if (key == open.end) {
+						consumer.accept(open, first, interior.toString());
+						open = null;
+					} else {
+						appendOriented(node, interior);
+					}
+				}
+				// an exit can also be the entrance of the next site
+				if (open == null) {
+					open = spans.get(key);
+					first = step;
+					interior.setLength(0);
+				}
+			}
+		}
+		return step;
+	}
+
+	private long flip(long handle) {
+		return graph.asLong(graph.flip(graph.fromLong(handle)));
+	}
+
+	private void appendOriented(N node, StringBuilder to) {
+		Sequence sequence = graph.sequenceOf(graph.forward(node));
+		int length = sequence.length();
+		if (graph.isReverseNodeHandle(node)) {
+			for (int i = length - 1; i >= 0; i--) {
+				to.append(upper(Sequence.complement(sequence.byteAt(i))));
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				to.append(upper(sequence.byteAt(i)));
+			}
+		}
+	}
+
+	private char lastBase(N node) {
+		Sequence sequence = graph.sequenceOf(graph.forward(node));
+		if (graph.isReverseNodeHandle(node)) {
+			return upper(Sequence.complement(sequence.byteAt(0)));
+		}
+		return upper(sequence.byteAt(sequence.length() - 1));
+	}
+
+	private static char upper(byte nucleotide) {
+		return Character.toUpperCase((char) nucleotide);
+	}
+
+	private static String reverseComplement(String allele) {
+		StringBuilder reversed = new StringBuilder(allele.length());
+		for (int i = allele.length() - 1; i >= 0; i--) {
+			reversed.append(upper(Sequence.complement((byte) allele.charAt(i))));
+		}
+		return reversed.toString();
+	}
+
+	private void writeHeader(List<P> references, List<P> samples, long[] lengths, Appendable out)
+			throws IOException {
+		out.append("##fileformat=VCFv4.2\n");
+		for (int r = 0; r < references.size(); r++) {
+			out.append("##contig=<ID=")
+					.append(graph.nameOfPath(references.get(r)))
+					.append(",length=")
+					.append(Long.toString(lengths[r]))
+					.append(">\n");
+		}
+		out.append("##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">\n");
+		out.append("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT");
+		for (P sample : samples) {
+			out.append('\t').append(graph.nameOfPath(sample));
+		}
+		out.append('\n');
+	}
+
+	private void write(String reference, List<Site> sites, Appendable out) throws IOException {
+		StringBuilder records = new StringBuilder();
+		for (Site site : sites) {
+			if (site.alleles.size() < 2) {
+				continue;
+			}
+			records.setLength(0);
+			records.append(reference).append('\t').append(site.position).append('\t');
+			appendId(site.start, records);
+			appendId(site.end, records);
+			records.append('\t').append(site.alleles.get(0)).append('\t');
+			for (int a = 1; a < site.alleles.size(); a++) {
+				if (a > 1) {
+					records.append(',');
+				}
+				records.append(site.alleles.get(a));
+			}
+			records.append("\t.\tPASS\t.\tGT");
+			for (int genotype : site.genotypes) {
+				records.append('\t');
+				if (genotype < 0) {
+					records.append('.');
+				} else {
+					records.append(genotype);
+				}
+			}
+			records.append('\n');
+			out.append(records);
+		}
+	}
+
+	private void appendId(long handle, StringBuilder to) {
+		N node = graph.fromLong(handle);
+		to.append(graph.isReverseNodeHandle(node) ? '<' : '>').append(graph.asLong(graph.forward(node)));
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+/**
+ * The to be visited oriented handles of a {@link Traversal}, with their depth
+ * and distance in parallel primitive arrays.
+ *
+ * Used either as a FIFO queue, a LIFO stack or a min heap on distance.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+final class Frontier {
+
+	private long[] keys = new long[64];
+	private int[] depths = new int[64];
+	private long[] distances = new long[64];
+	private int head;
+	private int size;
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	private void ensureCapacity() {
+		if (size == keys.length) {
+			int capacity = keys.length * 2;
+			keys = unwrap(keys, capacity);
+			depths = unwrap(depths, capacity);
+			distances = unwrap(distances, capacity);
+			head = 0;
+		}
+	}
+
+	private long[] unwrap(long[] values, int capacity) {
+		long[] grown = new long[capacity];
+		int firstPart = Math.min(size, values.length - head);
+		System.arraycopy(values, head, grown, 0, firstPart);
+		System.arraycopy(values, 0, grown, firstPart, size - firstPart);
+		return grown;
+	}
+
+	private int[] unwrap(int[] values, int capacity) {
+		int[] grown = new int[capacity];
+		int firstPart = Math.min(size, values.length - head);
+		System.arraycopy(values, head, grown, 0, firstPart);
+		System.arraycopy(values, 0, grown, firstPart, size - firstPart);
+		return grown;
+	}
+
+	private int slot(int index) {
+		return (head + index) & (keys.length - 1);
+	}
+
+	/**
+	 * Add at the end of the queue/stack.
+	 */
+	void push(long key, int depth, long distance) {
+		ensureCapacity();
+		int at = slot(size++);
+		keys[at] = key;
+		depths[at] = depth;
+		distances[at] = distance;
+	}
+
+	/**
+	 * Take from the start of the queue.
+	 *
+	 * @return the slot of the taken values, valid until the next push
+	 */
+	int pollFirst() {
+		int at = head;
+		head = (head + 1) & (keys.length - 1);
+		size--;
+		return at;
+	}
+
+	/**
+	 * Take from the end of the stack.
+	 *
+	 * @return the slot of the taken values, valid until the next push
+	 */
+	int pollLast() {
+		return slot(--size);
+	}
+
+	/**
+	 * Add to the heap, the heap is never wrapped so head stays 0.
+	 */
+	void heapPush(long key, int depth, long distance) {
+		ensureCapacity();
+		int at = size++;
+		while (at > 0) {
+			int parent = (at - 1) >>> 1;
+			if (distances[parent] <= distance) {
+				break;
+			}
+			move(parent, at);
+			at = parent;
+		}
+		keys[at] = key;
+		depths[at] = depth;
+		distances[at] = distance;
+	}
+
+	/**
+	 * Take the smallest distance from the heap, it is moved to the slot just
+	 * after the heap.
+	 *
+	 * @return the slot of the taken values, valid until the next push
+	 */
+	int heapPoll() {
+		long key = keys[0];
+		int depth = depths[0];
+		long distance = distances[0];
+		int last = --size;
+		long lastKey = keys[last];
+		int lastDepth = depths[last];
+		long lastDistance = distances[last];
+		int at = 0;
+		while (true) {
+			int child = 2 * at + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && distances[child + 1] < distances[child]) {
+				child++;
+			}
+			if (distances[child] >= lastDistance) {
+				break;
+			}
+			move(child, at);
+			at = child;
+		}
+		keys[at] = lastKey;
+		depths[at] = lastDepth;
+		distances[at] = lastDistance;
+		keys[last] = key;
+		depths[last] = depth;
+		distances[last] = distance;
+		return last;
+	}
+
+	private void move(int from, int to) {
+		keys[to] = keys[from];
+		depths[to] = depths[from];
+		distances[to] = distances[from];
+	}
+
+	long key(int slot) {
+		return keys[slot];
+	}
+
+	int depth(int slot) {
+		return depths[slot];
+	}
+
+	long distance(int slot) {
+		return distances[slot];
+	}
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Translates positions on one path to the positions of the same nucleotide on
+ * the other paths.
+ *
+ * All paths are read once. For each path the oriented node and begin position
+ * of every step are kept in primitive arrays, so the step under a position is
+ * found by binary search. For each node the steps on it are kept in a
+ * compressed sparse row index, so a lift does not scan any path.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ */
+public class Liftover<P extends PathHandle> {
+
+	private final List<P> paths;
+	private final Map<P, Integer> pathIndexes;
+	/**
+	 * per path, per step the node rank * 2 + 1 if reverse
+	 */
+	private final int[][] orientedNodes;
+	/**
+	 * per path, per step the begin position and one more for the end
+	 */
+	private final long[][] begins;
+	private final int[] nodeOffsets;
+	private final int[] stepPaths;
+	private final int[] stepRanks;
+
+	/**
+	 * Receives the lifted positions of a batch.
+	 *
+	 * @param <P> the type of PathHandle
+	 */
+	public interface Receiver<P extends PathHandle> {
+		/**
+		 * @param query    the index of the position in the batch
+		 * @param path     the path the position is lifted to
+		 * @param position on that path
+		 * @param reverse  true if the path walks the nucleotide on the other strand
+		 *                 than the source path
+		 */
+		public void lifted(int query, P path, long position, boolean reverse);
+	}
+
+	/**
+	 * A lifted position.
+	 *
+	 * @param <P> the type of PathHandle
+	 */
+	public static final class Lifted<P extends PathHandle> {
+		private final P path;
+		private final long position;
+		private final boolean reverse;
+
+		private Lifted(P path, long position, boolean reverse) {
+			this.path = path;
+			this.position = position;
+			this.reverse = reverse;
+		}
+
+		/**
+		 * @return the path the position is lifted to
+		 */
+		public P path() {
+			return path;
+		}
+
+		/**
+		 * @return the position on that path
+		 */
+		public long position() {
+			return position;
+		}
+
+		/**
+		 * @return true if on the other strand than the source
+		 */
+		public boolean isReverse() {
+			return reverse;
+		}
+
+		@Override
+		public String toString() {
+			return path + ":" + position + (reverse ? "-" : "+");
+		}
+	}
+
+	private Liftover(List<P> paths, int[][] orientedNodes, long[][] begins, int nodes) {
+		this.paths = paths;
+		this.orientedNodes = orientedNodes;
+		this.begins = begins;
+		this.pathIndexes = new HashMap<>();
+		for (int p = 0; p < paths.size(); p++) {
+			pathIndexes.put(paths.get(p), p);
+		}
+		nodeOffsets = new int[nodes + 1];
+		for (int[] steps : orientedNodes) {
+			for (int oriented : steps) {
+				nodeOffsets[(oriented >>> 1) + 1]++;
+			}
+		}
+		for (int n = 0; n < nodes; n++) {
+			nodeOffsets[n + 1] = Math.addExact(nodeOffsets[n + 1], nodeOffsets[n]);
+		}
+		stepPaths = new int[nodeOffsets[nodes]];
+		stepRanks = new int[nodeOffsets[nodes]];
+		int[] fill = Arrays.copyOf(nodeOffsets, nodes);
+		for (int p = 0; p < orientedNodes.length; p++) {
+			int[] steps = orientedNodes[p];
+			for (int rank = 0; rank < steps.length; rank++) {
+				int at = fill[steps[rank] >>> 1]++;
+				stepPaths[at] = p;
+				stepRanks[at] = rank;
+			}
+		}
+	}
+
+	/**
+	 * Index all paths on the common fork join pool.
+	 *
+	 * @param <P>   the type of PathHandle
+	 * @param <S>   the type of StepHandle
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph with the paths
+	 * @return the index
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> Liftover<P> of(
+			PathGraph<P, S, N, E> graph) {
+		return of(graph, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param <P>      the type of PathHandle
+	 * @param <S>      the type of StepHandle
+	 * @param <N>      the type of NodeHandle
+	 * @param <E>      the type of EdgeHandle
+	 * @param graph    with the paths, read from several threads
+	 * @param executor to read the paths on, one task per path
+	 * @return the index
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> Liftover<P> of(
+			PathGraph<P, S, N, E> graph, Executor executor) {
+		NodeIndex index = NodeIndex.of(graph);
+		List<P> paths = new ArrayList<>();
+		try (AutoClosedIterator<P> iter = graph.paths()) {
+			iter.forEachRemaining(paths::add);
+		}
+		int[][] orientedNodes = new int[paths.size()][];
+		long[][] begins = new long[paths.size()][];
+		List<CompletableFuture<Void>> running = new ArrayList<>(paths.size());
+		for (int p = 0; p < paths.size(); p++) {
+			int path = p;
+			running.add(CompletableFuture.runAsync(() -> read(graph, index, paths.get(path), path, orientedNodes, begins),
+					executor));
+		}
+		for (CompletableFuture<Void> reading : running) {
+			join(reading);
+		}
+		return new Liftover<>(paths, orientedNodes, begins, index.size());
+	}
+
+	private static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> void read(
+			PathGraph<P, S, N, E> graph, NodeIndex index, P path, int p, int[][] orientedNodes, long[][] begins) {
+		int[] nodes = new int[16];
+		long[] positions = new long[17];
+		int size = 0;
+		long end = 0;
+		try (AutoClosedIterator<S> steps = graph.stepsOf(path)) {
+			while (steps.hasNext()) {
+				S step = steps.next();
+				N node = graph.nodeOfStep(step);
+				if (size == nodes.length) {
+					nodes = Arrays.copyOf(nodes, size * 2);
+					positions = Arrays.copyOf(positions, size * 2 + 1);
+				}
+				int rank = index.rank(graph, node);
+				if (rank < 0) {
+					throw new IllegalArgumentException("Node " + graph.asLong(node) + " is not in the graph");
+				}
+				nodes[size] = rank * 2 + (graph.isReverseNodeHandle(node) ? 1 : 0);
+				positions[size] = end;
+				end += graph.sequenceLengthOf(node);
+				size++;
+			}
+		}
+		positions[size] = end;
+		orientedNodes[p] = Arrays.copyOf(nodes, size);
+		begins[p] = Arrays.copyOf(positions, size + 1);
+	}
+
+	/**
+	 * @param path     the source path
+	 * @param position on the source path
+	 * @return the same nucleotide on the other paths
+	 */
+	public List<Lifted<P>> lift(P path, long position) {
+		List<Lifted<P>> lifted = new ArrayList<>();
+		Integer p = pathIndexes.get(path);
+		if (p != null) {
+			lift(p, 0, position, stepAt(p, position), (q, to, at, reverse) -> lifted.add(new Lifted<>(to, at, reverse)));
+		}
+		return lifted;
+	}
+
+	/**
+	 * Lift a batch of positions, sorted positions are found by walking the path
+	 * instead of by binary search.
+	 *
+	 * @param path      the source path
+	 * @param positions on the source path
+	 * @param receiver  of the lifted positions, in order of the batch
+	 */
+	public void liftAll(P path, long[] positions, Receiver<P> receiver) {
+		Integer p = pathIndexes.get(path);
+		if (p != null) {
+			liftAll(p, positions, 0, positions.length, receiver);
+		}
+	}
+
+	/**
+	 * Lift a batch of positions in parallel parts.
+	 *
+	 * @param path        the source path
+	 * @param positions   on the source path
+	 * @param receiver    of the lifted positions, called from several threads
+	 * @param executor    to run the parts on
+	 * @param parallelism the number of parts
+	 */
+	public void liftAll(P path, long[] positions, Receiver<P> receiver, Executor executor, int parallelism) {
+		Integer p = pathIndexes.get(path);
+		if (p == null) {
+			return;
+		}
+		int parts = Math.max(1, Math.min(parallelism, positions.length));
+		List<CompletableFuture<Void>> running = new ArrayList<>(parts);
+		for (int part = 0; part < parts; part++) {
+			int from = (int) ((long) positions.length * part / parts);
+			int to = (int) ((long) positions.length * (part + 1) / parts);
+			running.add(CompletableFuture.runAsync(() -> liftAll(p, positions, from, to, receiver), executor));
+		}
+		for (CompletableFuture<Void> lifting : running) {
+			join(lifting);
+		}
+	}
+
+	private void liftAll(int p, long[] positions, int from, int to, Receiver<P> receiver) {
+		long[] pathBegins = begins[p];
+		int steps = pathBegins.length - 1;
+		int rank = -1;
+		for (int query = from; query < to; query++) {
+			long position = positions[query];
+			if (rank >= 0 && position >= pathBegins[rank]) {
+				// sorted input, walk forward a little before falling back
+				int walked = 0;
+				while (rank < steps && pathBegins[rank + 1] <= position && walked++ < 8) {
+					rank++;
+				}
+				if (rank < steps && pathBegins[rank + 1] <= position) {
+					rank = stepAt(p, position);
+				}
+			} else {
+				rank = stepAt(p, position);
+			}
+			if (rank >= 0 && rank < steps) {
+				lift(p, query, position, rank, receiver);
+			} else {
+				rank = -1;
+			}
+		}
+	}
+
+	/**
+	 * @return the rank of the step covering the position or -1
+	 */
+	private int stepAt(int p, long position) {
+		long[] pathBegins = begins[p];
+		int steps = pathBegins.length - 1;
+		if (position < 0 || position >= pathBegins[steps]) {
+			return -1;
+		}
+		int found = Arrays.binarySearch(pathBegins, 0, steps, position);
+		if (found >= 0) {
+			// skip zero length steps
+			while (found + 1 < steps && pathBegins[found + 1] == position) {
+				found++;
+			}
+			return found;
+		}
+		return -found - 2;
+	}
+
+	private void lift(int p, int query, long position, int rank, Receiver<P> receiver) {
+		if (rank < 0) {
+			return;
+		}
+		int oriented = orientedNodes[p][rank];
+		long offset = position - begins[p][rank];
+		long length = begins[p][rank + 1] - begins[p][rank];
+		int node = oriented >>> 1;
+		for (int at = nodeOffsets[node]; at < nodeOffsets[node + 1]; at++) {
+			int q = stepPaths[at];
+			if (q == p) {
+				continue;
+			}
+			int targetRank = stepRanks[at];
+			boolean reverse = (orientedNodes[q][targetRank] & 1) != (oriented & 1);
+			long targetOffset = reverse ? length - 1 - offset : offset;
+			receiver.lifted(query, paths.get(q), begins[q][targetRank] + targetOffset, reverse);
+		}
+	}
+
+	private static void join(CompletableFuture<Void> future) {
+		try {
+			future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.Arrays;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Maps the node ids (asLong of the forward handle) of a graph to a dense rank
+ * from 0 to size - 1, so that per node state can be kept in primitive arrays.
+ *
+ * The ids are kept in a sorted long[]. A rank is found by interpolation
+ * search, which for the usual ids that are spread about evenly takes a few
+ * probes instead of log n. Ids without gaps need no search at all.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class NodeIndex {
+
+	private final long[] ids;
+	private final boolean contiguous;
+
+	private NodeIndex(long[] ids) {
+		this.ids = ids;
+		this.contiguous = ids.length == 0 || ids[ids.length - 1] - ids[0] == ids.length - 1;
+	}
+
+	/**
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to index the nodes of
+	 * @return the index
+	 */
+	public static <N extends NodeHandle, E extends EdgeHandle<N>> NodeIndex of(HandleGraph<N, E> graph) {
+		long[] ids = new long[16];
+		int size = 0;
+		try (AutoClosedIterator<N> nodes = graph.nodes()) {
+			while (nodes.hasNext()) {
+				if (size == ids.length) {
+					ids = Arrays.copyOf(ids, size * 2);
+				}
+				ids[size++] = graph.asLong(graph.forward(nodes.next()));
+			}
+		}
+		return of(ids, size);
+	}
+
+	/**
+	 * @param ids in any order, duplicates are ignored
+	 * @return the index
+	 */
+	public static NodeIndex of(long... ids) {
+		return of(ids.clone(), ids.length);
+	}
+
+	private static NodeIndex of(long[] ids, int size) {
+		Arrays.sort(ids, 0, size);
+		int distinct = 0;
+		for (int i = 0; i < size; i++) {
+			if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+				ids[distinct++] = ids[i];
+			}
+		}
+		return new NodeIndex(Arrays.copyOf(ids, distinct));
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * @param id of a forward handle
+	 * @return the rank or a negative number if not a node of the graph
+	 */
+	public int rank(long id) {
+		if (ids.length == 0 || id < ids[0] || id > ids[ids.length - 1]) {
+			return -1;
+		} else if (contiguous) {
+			return (int) (id - ids[0]);
+		}
+		int low = 0;
+		int high = ids.length - 1;
+		// skewed ids make interpolation slow, after log n probes fall back to a
+		// binary search of what is left
+		for (int probes = 32 - Integer.numberOfLeadingZeros(ids.length); probes > 0; probes--) {
+			if (low > high || id < ids[low] || id > ids[high]) {
+				return -1;
+			}
+			// where the id would be if the ids between low and high were evenly
+			// spread, in double as the difference of two longs may overflow
+			double fraction = ((double) id - ids[low]) / ((double) ids[high] - ids[low]);
+			int guess = low + (int) Math.min(high - low, (high - low) * fraction);
+			if (ids[guess] == id) {
+				return guess;
+			} else if (ids[guess] < id) {
+				low = guess + 1;
+			} else {
+				high = guess - 1;
+			}
+		}
+		if (low > high) {
+			return -1;
+		}
+		int rank = Arrays.binarySearch(ids, low, high + 1, id);
+		return rank < 0 ? -1 : rank;
+	}
+
+	/**
+	 * @param <N>   the type of NodeHandle
+	 * @param graph the node is from
+	 * @param node  in any orientation
+	 * @return the rank or a negative number if not a node of the graph
+	 */
+	public <N extends NodeHandle> int rank(HandleGraph<N, ?> graph, N node) {
+		return rank(graph.asLong(graph.forward(node)));
+	}
+
+	/**
+	 * @param rank from 0 to size - 1
+	 * @return the asLong value of the forward handle of the node
+	 */
+	public long id(int rank) {
+		return ids[rank];
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Orders the nodes of a graph so that nodes near each other in the graph get
+ * ids near each other, for use with
+ * {@link io.github.jervenbolleman.handlegraph4j.memory.CompactPathGraph#copyOf(PathGraph, long[])}.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class NodeOrdering {
+
+	private NodeOrdering() {
+
+	}
+
+	/**
+	 * Nodes in order of first appearance on the paths, longest path first. Nodes
+	 * on no path follow breadth first from the nodes already placed, then from
+	 * the lowest remaining id.
+	 *
+	 * @param <P>   the type of PathHandle
+	 * @param <S>   the type of StepHandle
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to order
+	 * @return the asLong values of the forward handles of all nodes in the new
+	 *         order
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> long[] pathGuided(
+			PathGraph<P, S, N, E> graph) {
+		NodeIndex index = NodeIndex.of(graph);
+		long[] order = new long[index.size()];
+		boolean[] placed = new boolean[index.size()];
+		List<P> paths = new ArrayList<>();
+		try (AutoClosedIterator<P> iter = graph.paths()) {
+			iter.forEachRemaining(paths::add);
+		}
+		long[] stepCounts = new long[paths.size()];
+		Integer[] byLength = new Integer[paths.size()];
+		for (int p = 0; p < paths.size(); p++) {
+			stepCounts[p] = graph.stepCountInPath(paths.get(p));
+			byLength[p] = p;
+		}
+		Arrays.sort(byLength, (a, b) -> Long.compare(stepCounts[b], stepCounts[a]));
+		int count = 0;
+		for (int p : byLength) {
+			try (AutoClosedIterator<S> steps = graph.stepsOf(paths.get(p))) {
+				while (steps.hasNext()) {
+					int rank = index.rank(graph, graph.nodeOfStep(steps.next()));
+					if (rank >= 0 && !placed[rank]) {
+						placed[rank] = true;
+						order[count++] = index.id(rank);
+					}
+				}
+			}
+		}
+		breadthFirst(graph, index, order, count, placed);
+		return order;
+	}
+
+	/**
+	 * Nodes in the order of {@link TopologicalSort#order()}.
+	 *
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to order
+	 * @return the asLong values of the forward handles of all nodes in the new
+	 *         order
+	 */
+	public static <N extends NodeHandle, E extends EdgeHandle<N>> long[] topological(HandleGraph<N, E> graph) {
+		long[] order = new TopologicalSort<>(graph).order();
+		for (int i = 0; i < order.length; i++) {
+			order[i] = graph.asLong(graph.forward(graph.fromLong(order[i])));
+		}
+		return order;
+	}
+
+	/**
+	 * Nodes breadth first over edges in both directions, starting from the lowest
+	 * id of each component.
+	 *
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to order
+	 * @return the asLong values of the forward handles of all nodes in the new
+	 *         order
+	 */
+	public static <N extends NodeHandle, E extends EdgeHandle<N>> long[] breadthFirst(HandleGraph<N, E> graph) {
+		NodeIndex index = NodeIndex.of(graph);
+		long[] order = new long[index.size()];
+		breadthFirst(graph, index, order, 0, new boolean[index.size()]);
+		return order;
+	}
+
+	/**
+	 * Continue the order breadth first, using the order itself as the queue.
+	 */
+	private static <N extends NodeHandle, E extends EdgeHandle<N>> void breadthFirst(HandleGraph<N, E> graph,
+			NodeIndex index, long[] order, int count, boolean[] placed) {
+		int head = 0;
+		int nextSeed = 0;
+		while (count < order.length) {
+			if (head == count) {
+				while (placed[nextSeed]) {
+					nextSeed++;
+				}
+				placed[nextSeed] = true;
+				order[count++] = index.id(nextSeed);
+			}
+			N node = graph.fromLong(order[head++]);
+			count = placeNeighbours(graph, index, graph.followEdgesToWardsTheRight(node), order, count, placed);
+			count = placeNeighbours(graph, index, graph.followEdgesToWardsTheLeft(node), order, count, placed);
+		}
+	}
+
+	private static <N extends NodeHandle, E extends EdgeHandle<N>> int placeNeighbours(HandleGraph<N, E> graph,
+			NodeIndex index, AutoClosedIterator<E> edges, long[] order, int count, boolean[] placed) {
+		try (edges) {
+			while (edges.hasNext()) {
+				E edge = edges.next();
+				for (N side : List.of(edge.left(), edge.right())) {
+					int rank = index.rank(graph, side);
+					if (rank >= 0 && !placed[rank]) {
+						placed[rank] = true;
+						order[count++] = index.id(rank);
+					}
+				}
+			}
+		}
+		return count;
+	}
+}
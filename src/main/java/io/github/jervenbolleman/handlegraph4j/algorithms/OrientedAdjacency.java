@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.Arrays;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * The edges to the right of every oriented handle of a graph, read once into
+ * primitive arrays.
+ *
+ * Each node has two oriented handles, numbered 2 * rank and 2 * rank + 1 for
+ * the reverse, so that flipping is xor 1. The handles to the right of h are
+ * targets[offsets[h]] up to targets[offsets[h + 1]]. The handles to the left
+ * of h are the flipped handles to the right of its flip. Each row is sorted,
+ * so that testing for an edge is a binary search.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+final class OrientedAdjacency<N extends NodeHandle, E extends EdgeHandle<N>> {
+
+	final HandleGraph<N, E> graph;
+	final NodeIndex index;
+	final int[] offsets;
+	final int[] targets;
+
+	OrientedAdjacency(HandleGraph<N, E> graph) {
+		this.graph = graph;
+		this.index = NodeIndex.of(graph);
+		int handles = index.size() * 2;
+		this.offsets = new int[handles + 1];
+		for (int h = 0; h < handles; h++) {
+			offsets[h + 1] = Math.addExact(offsets[h], countRight(h));
+		}
+		this.targets = new int[offsets[handles]];
+		for (int h = 0; h < handles; h++) {
+			int at = offsets[h];
+			try (AutoClosedIterator<E> edges = graph.followEdgesToWardsTheRight(handle(h))) {
+				while (edges.hasNext()) {
+					int target = orientedIndex(edges.next().right());
+					if (target >= 0) {
+						targets[at++] = target;
+					}
+				}
+			}
+			Arrays.sort(targets, offsets[h], at);
+		}
+	}
+
+	private int countRight(int h) {
+		int count = 0;
+		try (AutoClosedIterator<E> edges = graph.followEdgesToWardsTheRight(handle(h))) {
+			while (edges.hasNext()) {
+				if (orientedIndex(edges.next().right()) >= 0) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	int handleCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * @param node a handle of the graph
+	 * @return the oriented index or -1 if not a node of the graph
+	 */
+	int orientedIndex(N node) {
+		int rank = index.rank(graph, node);
+		if (rank < 0) {
+			return -1;
+		}
+		return rank * 2 + (graph.isReverseNodeHandle(node) ? 1 : 0);
+	}
+
+	N handle(int oriented) {
+		N forward = graph.fromLong(index.id(oriented >>> 1));
+		return (oriented & 1) == 0 ? forward : graph.flip(forward);
+	}
+
+	long asLong(int oriented) {
+		return graph.asLong(handle(oriented));
+	}
+
+	int[] inDegrees() {
+		int[] inDegrees = new int[handleCount()];
+		for (int target : targets) {
+			inDegrees[target]++;
+		}
+		return inDegrees;
+	}
+
+	boolean hasEdge(int from, int to) {
+		return Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to) >= 0;
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * The number of steps on each node, and how much of each path is shared with
+ * other paths.
+ *
+ * Workers take paths one by one and count the steps into their own long[] by
+ * node rank, these are summed at the end so counting needs no synchronization.
+ * Which path touched a node first is recorded with compare and set, a node
+ * touched by a second path is marked as shared.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class PathCoverage {
+
+	private static final int UNTOUCHED = -1;
+	private static final int SHARED = -2;
+
+	private final NodeIndex index;
+	private final int[] depths;
+	private final List<PathStatistics> paths;
+
+	private PathCoverage(NodeIndex index, int[] depths, List<PathStatistics> paths) {
+		this.index = index;
+		this.depths = depths;
+		this.paths = paths;
+	}
+
+	/**
+	 * The coverage of one path.
+	 */
+	public static final class PathStatistics {
+		private final String name;
+		private long steps;
+		private long bases;
+		private int distinctNodes;
+		private int uniqueNodes;
+		private long uniqueBases;
+
+		private PathStatistics(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * @return the name of the path
+		 */
+		public String name() {
+			return name;
+		}
+
+		/**
+		 * @return the number of steps
+		 */
+		public long steps() {
+			return steps;
+		}
+
+		/**
+		 * @return the length of the path in nucleotides
+		 */
+		public long bases() {
+			return bases;
+		}
+
+		/**
+		 * @return the number of different nodes the path steps on
+		 */
+		public int distinctNodes() {
+			return distinctNodes;
+		}
+
+		/**
+		 * @return the number of nodes no other path steps on
+		 */
+		public int uniqueNodes() {
+			return uniqueNodes;
+		}
+
+		/**
+		 * @return the sequence length of the nodes no other path steps on
+		 */
+		public long uniqueBases() {
+			return uniqueBases;
+		}
+	}
+
+	/**
+	 * On the common fork join pool.
+	 *
+	 * @param <P>   the type of PathHandle
+	 * @param <S>   the type of StepHandle
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to count the steps of
+	 * @return the coverage
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> PathCoverage of(
+			PathGraph<P, S, N, E> graph) {
+		return of(graph, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param <P>         the type of PathHandle
+	 * @param <S>         the type of StepHandle
+	 * @param <N>         the type of NodeHandle
+	 * @param <E>         the type of EdgeHandle
+	 * @param graph       to count the steps of, read from several threads
+	 * @param executor    to run the workers on
+	 * @param parallelism the number of workers
+	 * @return the coverage
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> PathCoverage of(
+			PathGraph<P, S, N, E> graph, Executor executor, int parallelism) {
+		NodeIndex index = NodeIndex.of(graph);
+		int nodes = index.size();
+		int[] lengths = new int[nodes];
+		for (int rank = 0; rank < nodes; rank++) {
+			lengths[rank] = graph.sequenceLengthOf(graph.fromLong(index.id(rank)));
+		}
+		List<P> pathHandles = new ArrayList<>();
+		try (AutoClosedIterator<P> iter = graph.paths()) {
+			iter.forEachRemaining(pathHandles::add);
+		}
+		List<PathStatistics> paths = new ArrayList<>(pathHandles.size());
+		for (P path : pathHandles) {
+			paths.add(new PathStatistics(graph.nameOfPath(path)));
+		}
+		AtomicIntegerArray owners = new AtomicIntegerArray(nodes);
+		for (int rank = 0; rank < nodes; rank++) {
+			owners.set(rank, UNTOUCHED);
+		}
+		AtomicInteger nextPath = new AtomicInteger();
+		int workers = Math.max(1, Math.min(parallelism, pathHandles.size()));
+		List<CompletableFuture<long[]>> running = new ArrayList<>(workers);
+		for (int w = 0; w < workers; w++) {
+			running.add(CompletableFuture.supplyAsync(() -> {
+				long[] depth = new long[nodes];
+				BitSet onPath = new BitSet(nodes);
+				int p;
+				while ((p = nextPath.getAndIncrement()) < pathHandles.size()) {
+					count(graph, index, pathHandles.get(p), p, paths.get(p), lengths, depth, onPath, owners);
+				}
+				return depth;
+			}, executor));
+		}
+		long[] total = new long[nodes];
+		for (CompletableFuture<long[]> worker : running) {
+			long[] depth = join(worker);
+			for (int rank = 0; rank < nodes; rank++) {
+				total[rank] += depth[rank];
+			}
+		}
+		int[] depths = new int[nodes];
+		for (int rank = 0; rank < nodes; rank++) {
+			depths[rank] = (int) Math.min(Integer.MAX_VALUE, total[rank]);
+			int owner = owners.get(rank);
+			if (owner >= 0) {
+				paths.get(owner).uniqueNodes++;
+				paths.get(owner).uniqueBases += lengths[rank];
+			}
+		}
+		return new PathCoverage(index, depths, paths);
+	}
+
+	private static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> void count(
+			PathGraph<P, S, N, E> graph, NodeIndex index, P path, int pathIndex, PathStatistics statistics,
+			int[] lengths, long[] depth, BitSet onPath, AtomicIntegerArray owners) {
+		onPath.clear();
+		try (AutoClosedIterator<S> steps = graph.stepsOf(path)) {
+			while (steps.hasNext()) {
+				int rank = index.rank(graph, graph.nodeOfStep(steps.next()));
+				if (rank < 0) {
+					continue;
+				}
+				depth[rank]++;
+				statistics.steps++;
+				statistics.bases += lengths[rank];
+				if (!onPath.get(rank)) {
+					onPath.set(rank);
+					claim(owners, rank, pathIndex);
+				}
+			}
+		}
+		statistics.distinctNodes = onPath.cardinality();
+	}
+
+	private static void claim(AtomicIntegerArray owners, int rank, int path) {
+		if (!owners.compareAndSet(rank, UNTOUCHED, path)) {
+			owners.set(rank, SHARED);
+		}
+	}
+
+	private static long[] join(CompletableFuture<long[]> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of steps on each node by rank of its id, shared so not
+	 *         to be modified
+	 */
+	public int[] depths() {
+		return depths;
+	}
+
+	/**
+	 * @param rank of a node
+	 * @return the id of the forward handle of the node
+	 */
+	public long nodeIdOfRank(int rank) {
+		return index.id(rank);
+	}
+
+	/**
+	 * @param <N>   the type of NodeHandle
+	 * @param graph the graph this is the coverage of
+	 * @param node  in any orientation
+	 * @return the number of steps on the node, 0 if not a node of the graph
+	 */
+	public <N extends NodeHandle> int depthOf(HandleGraph<N, ?> graph, N node) {
+		int rank = index.rank(graph, node);
+		return rank < 0 ? 0 : depths[rank];
+	}
+
+	/**
+	 * @return the number of nodes with at least one step
+	 */
+	public int coveredNodes() {
+		int covered = 0;
+		for (int depth : depths) {
+			if (depth > 0) {
+				covered++;
+			}
+		}
+		return covered;
+	}
+
+	/**
+	 * @return the statistics of each path, in the order of
+	 *         {@link PathGraph#paths()}
+	 */
+	public List<PathStatistics> paths() {
+		return paths;
+	}
+}
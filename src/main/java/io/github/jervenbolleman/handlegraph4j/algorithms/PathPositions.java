@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+
+/**
+ * Position lookups on a path using the random access by rank of
+ * {@link PathGraph#stepByRankAndPath(PathHandle, long)} instead of iterating
+ * over all steps. This is logarithmic in the number of steps of the path when
+ * the implementation has fast access by rank and a fast step count.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class PathPositions {
+
+	private PathPositions() {
+
+	}
+
+	/**
+	 * @param <P>      the type of PathHandle
+	 * @param <S>      the type of StepHandle
+	 * @param graph    the graph with the path
+	 * @param path     to look in
+	 * @param position along the path
+	 * @return the rank of the step covering position, or -1 if the position is
+	 *         not on the path, in linear time when the graph keeps the default
+	 *         {@link PathGraph#stepCountInPath(PathHandle)}
+	 */
+	public static <P extends PathHandle, S extends StepHandle> long rankAt(PathGraph<P, S, ?, ?> graph, P path,
+			long position) {
+		return rankAt(graph, path, position, graph.stepCountInPath(path));
+	}
+
+	/**
+	 * @param <P>       the type of PathHandle
+	 * @param <S>       the type of StepHandle
+	 * @param graph     the graph with the path
+	 * @param path      to look in
+	 * @param position  along the path
+	 * @param stepCount the number of steps in the path, when already known
+	 * @return the rank of the step covering position, or -1 if the position is
+	 *         not on the path
+	 */
+	public static <P extends PathHandle, S extends StepHandle> long rankAt(PathGraph<P, S, ?, ?> graph, P path,
+			long position, long stepCount) {
+		long low = 0;
+		long high = stepCount - 1;
+		while (low <= high) {
+			long mid = (low + high) >>> 1;
+			S step = graph.stepByRankAndPath(path, mid);
+			if (graph.endPositionOfStep(step) <= position) {
+				low = mid + 1;
+			} else if (graph.beginPositionOfStep(step) > position) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param <P>      the type of PathHandle
+	 * @param <S>      the type of StepHandle
+	 * @param graph    the graph with the path
+	 * @param path     to look in
+	 * @param position along the path
+	 * @return the step covering position, or null if the position is not on the
+	 *         path
+	 */
+	public static <P extends PathHandle, S extends StepHandle> S stepAt(PathGraph<P, S, ?, ?> graph, P path,
+			long position) {
+		long rank = rankAt(graph, path, position);
+		if (rank < 0) {
+			return null;
+		}
+		return graph.stepByRankAndPath(path, rank);
+	}
+}
@@ -0,0 +1,306 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.collections.LongHashSet;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * A view of a PathGraph restricted to a set of nodes. Only edges with both
+ * sides in the set, and only steps on nodes in the set are part of the view.
+ *
+ * Handles are the ones of the parent graph, and ranks and positions of steps
+ * are the ones along the full path in the parent graph. Use {@link SubGraphs}
+ * to create one.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class PathSubGraph<P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>>
+		implements PathGraph<P, S, N, E> {
+
+	private final PathGraph<P, S, N, E> parent;
+	private final LongHashSet nodeIds;
+	private final Map<P, long[]> rankRanges;
+	private final boolean onlyRangedPaths;
+
+	/**
+	 * @param parent     the graph to view
+	 * @param nodeIds    the ids (asLong of the forward handle) of the nodes in
+	 *                   the view, must not be changed afterwards
+	 * @param rankRanges for paths where only a range of steps is selected, the
+	 *                   first and last rank (inclusive)
+	 */
+	public PathSubGraph(PathGraph<P, S, N, E> parent, LongHashSet nodeIds, Map<P, long[]> rankRanges) {
+		this(parent, nodeIds, rankRanges, false);
+	}
+
+	/**
+	 * @param parent          the graph to view
+	 * @param nodeIds         the ids (asLong of the forward handle) of the nodes
+	 *                        in the view, must not be changed afterwards
+	 * @param rankRanges      for paths where only a range of steps is selected,
+	 *                        the first and last rank (inclusive)
+	 * @param onlyRangedPaths if true paths without a range have no steps in the
+	 *                        view, so they are never read
+	 */
+	public PathSubGraph(PathGraph<P, S, N, E> parent, LongHashSet nodeIds, Map<P, long[]> rankRanges,
+			boolean onlyRangedPaths) {
+		this.parent = parent;
+		this.nodeIds = nodeIds;
+		this.rankRanges = new HashMap<>(rankRanges);
+		this.onlyRangedPaths = onlyRangedPaths;
+	}
+
+	/**
+	 * @return the graph this is a view of
+	 */
+	public PathGraph<P, S, N, E> parent() {
+		return parent;
+	}
+
+	/**
+	 * @param node from the parent graph
+	 * @return true if the node is in this view, in any orientation
+	 */
+	public boolean contains(N node) {
+		return nodeIds.contains(parent.asLong(parent.forward(node)));
+	}
+
+	@Override
+	public boolean isReverseNodeHandle(N nh) {
+		return parent.isReverseNodeHandle(nh);
+	}
+
+	@Override
+	public N flip(N nh) {
+		return parent.flip(nh);
+	}
+
+	@Override
+	public long asLong(N nh) {
+		return parent.asLong(nh);
+	}
+
+	@Override
+	public N fromLong(long id) {
+		return parent.fromLong(id);
+	}
+
+	@Override
+	public E edge(long leftId, long rightId) {
+		return parent.edge(leftId, rightId);
+	}
+
+	@Override
+	public AutoClosedIterator<E> followEdgesToWardsTheRight(N left) {
+		if (!contains(left)) {
+			return AutoClosedIterator.empty();
+		}
+		return AutoClosedIterator.filter(parent.followEdgesToWardsTheRight(left), e -> contains(e.right()));
+	}
+
+	@Override
+	public AutoClosedIterator<E> followEdgesToWardsTheLeft(N right) {
+		if (!contains(right)) {
+			return AutoClosedIterator.empty();
+		}
+		return AutoClosedIterator.filter(parent.followEdgesToWardsTheLeft(right), e -> contains(e.left()));
+	}
+
+	/**
+	 * Follows the edges to the right of both orientations of each node, an edge
+	 * is found from both its sides so only the side with the lowest oriented key
+	 * returns it.
+	 */
+	@Override
+	public AutoClosedIterator<E> edges() {
+		AutoClosedIterator<N> forwards = nodes();
+		AutoClosedIterator<AutoClosedIterator<E>> perNode = AutoClosedIterator.map(forwards, n -> {
+			AutoClosedIterator<E> both = AutoClosedIterator.concat(parent.followEdgesToWardsTheRight(n),
+					parent.followEdgesToWardsTheRight(parent.flip(n)));
+			return AutoClosedIterator.filter(both, this::isCanonicalInView);
+		});
+		return AutoClosedIterator.flatMap(perNode);
+	}
+
+	private boolean isCanonicalInView(E edge) {
+		N right = edge.right();
+		return contains(right)
+				&& Traversal.key(parent, edge.left()) <= Traversal.key(parent, parent.flip(right));
+	}
+
+	@Override
+	public AutoClosedIterator<N> nodes() {
+		return AutoClosedIterator.OfLong.mapToObj(nodeIds.iterator(), parent::fromLong);
+	}
+
+	@Override
+	public long nodeCount() {
+		return nodeIds.size();
+	}
+
+	@Override
+	public Sequence sequenceOf(N handle) {
+		return parent.sequenceOf(handle);
+	}
+
+	@Override
+	public int sequenceLengthOf(N handle) {
+		return parent.sequenceLengthOf(handle);
+	}
+
+	@Override
+	public byte getBase(N handle, int offset) {
+		return parent.getBase(handle, offset);
+	}
+
+	@Override
+	public AutoClosedIterator<N> nodesWithSequence(Sequence s) {
+		return AutoClosedIterator.filter(parent.nodesWithSequence(s), this::contains);
+	}
+
+	/**
+	 * Only paths with at least one step in the view, finding these may mean
+	 * iterating over all steps of paths that are not, unless only the ranged
+	 * paths are in the view.
+	 */
+	@Override
+	public AutoClosedIterator<P> paths() {
+		if (onlyRangedPaths) {
+			return AutoClosedIterator.filter(parent.paths(), rankRanges::containsKey);
+		}
+		return AutoClosedIterator.filter(parent.paths(), p -> {
+			try (AutoClosedIterator<S> steps = stepsOf(p)) {
+				return steps.hasNext();
+			}
+		});
+	}
+
+	@Override
+	public AutoClosedIterator<S> steps() {
+		AutoClosedIterator<P> paths = onlyRangedPaths ? paths() : parent.paths();
+		return AutoClosedIterator.flatMap(AutoClosedIterator.map(paths, this::stepsOf));
+	}
+
+	@Override
+	public AutoClosedIterator<S> stepsOf(P path) {
+		Predicate<S> inView = s -> contains(parent.nodeOfStep(s));
+		long[] range = rankRanges.get(path);
+		if (range == null) {
+			if (onlyRangedPaths) {
+				return AutoClosedIterator.empty();
+			}
+			return AutoClosedIterator.filter(parent.stepsOf(path), inView);
+		}
+		AutoClosedIterator.OfLong ranks = AutoClosedIterator.OfLong.range(range[0], range[1] + 1);
+		AutoClosedIterator<S> steps = AutoClosedIterator.OfLong.mapToObj(ranks,
+				r -> parent.stepByRankAndPath(path, r));
+		return AutoClosedIterator.filter(steps, inView);
+	}
+
+	@Override
+	public P pathOfStep(S step) {
+		return parent.pathOfStep(step);
+	}
+
+	@Override
+	public N nodeOfStep(S step) {
+		return parent.nodeOfStep(step);
+	}
+
+	@Override
+	public long beginPositionOfStep(S step) {
+		return parent.beginPositionOfStep(step);
+	}
+
+	@Override
+	public long endPositionOfStep(S step) {
+		return parent.endPositionOfStep(step);
+	}
+
+	@Override
+	public long rankOfStep(S step) {
+		return parent.rankOfStep(step);
+	}
+
+	/**
+	 * @return the step with the rank in the parent graph, or null if it is not
+	 *         part of this view
+	 */
+	@Override
+	public S stepByRankAndPath(P path, long rank) {
+		long[] range = rankRanges.get(path);
+		if (range == null ? onlyRangedPaths : rank < range[0] || rank > range[1]) {
+			return null;
+		}
+		S step = parent.stepByRankAndPath(path, rank);
+		if (step == null || !contains(parent.nodeOfStep(step))) {
+			return null;
+		}
+		return step;
+	}
+
+	@Override
+	public boolean isCircular(P path) {
+		return parent.isCircular(path);
+	}
+
+	@Override
+	public String nameOfPath(P path) {
+		return parent.nameOfPath(path);
+	}
+
+	@Override
+	public P pathByName(String name) {
+		return parent.pathByName(name);
+	}
+
+	@Override
+	public LongStream positionsOf(P path) {
+		LongStream.Builder positions = LongStream.builder();
+		try (AutoClosedIterator<S> steps = stepsOf(path)) {
+			while (steps.hasNext()) {
+				S step = steps.next();
+				positions.add(parent.beginPositionOfStep(step));
+				positions.add(parent.endPositionOfStep(step));
+			}
+		}
+		return positions.build();
+	}
+}
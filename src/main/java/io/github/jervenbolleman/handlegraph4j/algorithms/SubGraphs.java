@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.collections.LongHashSet;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Extract {@link PathSubGraph} views, around a node or covering a range of a
+ * path.
+ *
+ * A view around a node finds the steps on its nodes with
+ * {@link PathGraph#stepsOfNodeHandle(NodeHandle)}, in both orientations, and
+ * keeps the first and last rank of each path. Its paths and steps are then
+ * read from those ranks only. This is as fast as the step index of the graph,
+ * e.g. the one of
+ * {@link io.github.jervenbolleman.handlegraph4j.memory.CompactPathGraph}, the
+ * default of stepsOfNodeHandle reads all steps for each node.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class SubGraphs {
+
+	private SubGraphs() {
+
+	}
+
+	/**
+	 * All nodes within a number of nucleotides of a node, following edges in both
+	 * directions.
+	 *
+	 * @param <P>         the type of PathHandle
+	 * @param <S>         the type of StepHandle
+	 * @param <N>         the type of NodeHandle
+	 * @param <E>         the type of EdgeHandle
+	 * @param graph       to extract from
+	 * @param node        the center
+	 * @param maxDistance the maximum number of nucleotides between the center and
+	 *                    a node in the context
+	 * @return a view of the context
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> PathSubGraph<P, S, N, E> withinDistance(
+			PathGraph<P, S, N, E> graph, N node, long maxDistance) {
+		LongHashSet nodes = new Traversal<>(graph).order(Traversal.Order.SEQUENCE_DISTANCE)
+				.maxDistance(maxDistance)
+				.reachable(node);
+		return new PathSubGraph<>(graph, nodes, rankRanges(graph, nodes), true);
+	}
+
+	/**
+	 * All nodes within a number of edges of a node, following edges in both
+	 * directions.
+	 *
+	 * @param <P>      the type of PathHandle
+	 * @param <S>      the type of StepHandle
+	 * @param <N>      the type of NodeHandle
+	 * @param <E>      the type of EdgeHandle
+	 * @param graph    to extract from
+	 * @param node     the center
+	 * @param maxDepth the maximum number of edges between the center and a node
+	 *                 in the context
+	 * @return a view of the context
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> PathSubGraph<P, S, N, E> withinDepth(
+			PathGraph<P, S, N, E> graph, N node, int maxDepth) {
+		LongHashSet nodes = new Traversal<>(graph).maxDepth(maxDepth).reachable(node);
+		return new PathSubGraph<>(graph, nodes, rankRanges(graph, nodes), true);
+	}
+
+	/**
+	 * @return the first and last rank of the steps on the nodes, per path
+	 */
+	private static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> Map<P, long[]> rankRanges(
+			PathGraph<P, S, N, E> graph, LongHashSet nodes) {
+		Map<P, long[]> ranges = new HashMap<>();
+		try (AutoClosedIterator.OfLong ids = nodes.iterator()) {
+			while (ids.hasNext()) {
+				N forward = graph.fromLong(ids.nextLong());
+				for (N oriented : List.of(forward, graph.flip(forward))) {
+					try (AutoClosedIterator<S> steps = graph.stepsOfNodeHandle(oriented)) {
+						while (steps.hasNext()) {
+							S step = steps.next();
+							long rank = graph.rankOfStep(step);
+							long[] range = ranges.computeIfAbsent(graph.pathOfStep(step),
+									p -> new long[] { rank, rank });
+							range[0] = Math.min(range[0], rank);
+							range[1] = Math.max(range[1], rank);
+						}
+					}
+				}
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * The nodes of the steps of a path that overlap a range of positions. The
+	 * first step is found by binary search on rank, see {@link PathPositions}.
+	 * This needs {@link PathGraph#stepCountInPath(PathHandle)}, whose default
+	 * walks the whole path. CompactPathGraph and ConcurrentPathGraph answer it in
+	 * constant time.
+	 *
+	 * @param <P>   the type of PathHandle
+	 * @param <S>   the type of StepHandle
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to extract from
+	 * @param path  the path the range is on
+	 * @param begin inclusive first position
+	 * @param end   exclusive last position
+	 * @return a view of the range, steps of the path outside of the range are not
+	 *         part of it
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> PathSubGraph<P, S, N, E> ofPathRange(
+			PathGraph<P, S, N, E> graph, P path, long begin, long end) {
+		LongHashSet nodes = new LongHashSet();
+		long stepCount = graph.stepCountInPath(path);
+		long first = PathPositions.rankAt(graph, path, begin, stepCount);
+		long last = first - 1;
+		if (first >= 0) {
+			for (long rank = first; rank < stepCount; rank++) {
+				S step = graph.stepByRankAndPath(path, rank);
+				if (graph.beginPositionOfStep(step) >= end) {
+					break;
+				}
+				nodes.add(graph.asLong(graph.forward(graph.nodeOfStep(step))));
+				last = rank;
+			}
+		}
+		return new PathSubGraph<>(graph, nodes, Map.of(path, new long[] { first, last }));
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+/**
+ * A superbubble found by {@link Superbubbles}: every walk leaving the entrance
+ * to the right reaches the exit, without cycles and without any other way in
+ * or out of the nodes in between.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class Superbubble {
+
+	private final long entrance;
+	private final long exit;
+	private final int interiorSize;
+	private final int parent;
+
+	Superbubble(long entrance, long exit, int interiorSize, int parent) {
+		this.entrance = entrance;
+		this.exit = exit;
+		this.interiorSize = interiorSize;
+		this.parent = parent;
+	}
+
+	/**
+	 * @return the asLong value of the oriented entrance handle
+	 */
+	public long entrance() {
+		return entrance;
+	}
+
+	/**
+	 * @return the asLong value of the oriented exit handle
+	 */
+	public long exit() {
+		return exit;
+	}
+
+	/**
+	 * @return the number of nodes strictly between entrance and exit
+	 */
+	public int interiorSize() {
+		return interiorSize;
+	}
+
+	/**
+	 * @return the position in the list of the innermost superbubble this one is
+	 *         nested in, or -1
+	 */
+	public int parent() {
+		return parent;
+	}
+
+	/**
+	 * @return true if this is not nested in another superbubble
+	 */
+	public boolean isTopLevel() {
+		return parent < 0;
+	}
+
+	@Override
+	public String toString() {
+		return entrance + "->" + exit + (isTopLevel() ? "" : " in " + parent);
+	}
+}
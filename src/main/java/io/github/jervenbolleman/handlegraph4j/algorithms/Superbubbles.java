@@ -0,0 +1,318 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.collections.LongHashSet;
+
+/**
+ * Finds the superbubbles of a bidirected graph, with their nesting.
+ *
+ * Every oriented handle is tried as an entrance, walking to the right in
+ * topological order until a single handle closes off everything that was
+ * reached (Onodera, Sadakane and Shibuya 2013). A walk is abandoned when it
+ * finds a tip, a cycle back to the entrance or more than
+ * {@link #maxSize(int)} nodes. A superbubble read from the other strand is the
+ * same site, only the one with the lowest entrance is kept. Walks cut off at
+ * the maximum size are counted, see {@link #unresolved()}.
+ *
+ * The connected components are searched in parallel, reading the graph only
+ * once into primitive adjacency arrays.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class Superbubbles<N extends NodeHandle, E extends EdgeHandle<N>> {
+
+	private final HandleGraph<N, E> graph;
+	private int maxSize = 10_000;
+	private volatile long unresolved;
+
+	/**
+	 * @param graph to search
+	 */
+	public Superbubbles(HandleGraph<N, E> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * @param maxSize the maximum number of nodes in a superbubble, default
+	 *                10000
+	 * @return this
+	 */
+	public Superbubbles<N, E> maxSize(int maxSize) {
+		this.maxSize = maxSize;
+		return this;
+	}
+
+	/**
+	 * A superbubble with more than {@link #maxSize(int)} nodes is not found. Its
+	 * entrance is one of the walks that were cut off, as are entrances of
+	 * regions that turn out not to be a superbubble at all.
+	 *
+	 * @return the number of entrances whose walk was cut off at the maximum size
+	 *         in the last find, 0 if no superbubble can be missing
+	 */
+	public long unresolved() {
+		return unresolved;
+	}
+
+	/**
+	 * @return the superbubbles on the common fork join pool
+	 */
+	public List<Superbubble> find() {
+		return find(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param executor    to search the components on
+	 * @param parallelism the number of parts to split the components in
+	 * @return the superbubbles, largest first so that parents come before their
+	 *         children
+	 */
+	public List<Superbubble> find(Executor executor, int parallelism) {
+		OrientedAdjacency<N, E> adjacency = new OrientedAdjacency<>(graph);
+		ConnectedComponents components = ConnectedComponents.of(graph, executor, parallelism);
+		int[] byComponent = nodesByComponent(components);
+		List<CompletableFuture<List<Found>>> running = new ArrayList<>();
+		LongAdder cutOff = new LongAdder();
+		int[] component = components.components();
+		int partSize = Math.max(1, byComponent.length / Math.max(1, parallelism));
+		int from = 0;
+		while (from < byComponent.length) {
+			int to = Math.min(byComponent.length, from + partSize);
+			// never split a component over two parts
+			while (to < byComponent.length && component[byComponent[to]] == component[byComponent[to - 1]]) {
+				to++;
+			}
+			int partFrom = from;
+			int partTo = to;
+			running.add(CompletableFuture.supplyAsync(() -> search(adjacency, byComponent, partFrom, partTo, cutOff),
+					executor));
+			from = to;
+		}
+		List<Found> found = new ArrayList<>();
+		for (CompletableFuture<List<Found>> part : running) {
+			try {
+				found.addAll(part.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		}
+		unresolved = cutOff.sum();
+		return nest(adjacency, found);
+	}
+
+	private static int[] nodesByComponent(ConnectedComponents components) {
+		int[] component = components.components();
+		int[] starts = new int[components.componentCount() + 1];
+		for (int c : component) {
+			starts[c + 1]++;
+		}
+		for (int c = 0; c < components.componentCount(); c++) {
+			starts[c + 1] += starts[c];
+		}
+		int[] nodes = new int[component.length];
+		for (int rank = 0; rank < component.length; rank++) {
+			nodes[starts[component[rank]]++] = rank;
+		}
+		return nodes;
+	}
+
+	private static final class Found {
+		private final int entrance;
+		private final int exit;
+		private final int[] interior;
+
+		private Found(int entrance, int exit, int[] interior) {
+			this.entrance = entrance;
+			this.exit = exit;
+			this.interior = interior;
+		}
+	}
+
+	private List<Found> search(OrientedAdjacency<N, E> adjacency, int[] nodes, int from, int to, LongAdder cutOff) {
+		Walk walk = new Walk(adjacency);
+		List<Found> found = new ArrayList<>();
+		for (int i = from; i < to; i++) {
+			for (int entrance = nodes[i] * 2; entrance <= nodes[i] * 2 + 1; entrance++) {
+				int exit = walk.from(entrance);
+				if (exit >= 0 && entrance <= (exit ^ 1) && walk.interior.size() > 0) {
+					found.add(new Found(entrance, exit, walk.interiorRanks()));
+				} else if (walk.cutOff) {
+					cutOff.increment();
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * The state of one walk from an entrance, reused between entrances.
+	 */
+	private final class Walk {
+		private final OrientedAdjacency<N, E> adjacency;
+		private final int[] offsets;
+		private final int[] targets;
+		private final LongHashSet visited = new LongHashSet();
+		private final LongHashSet seen = new LongHashSet();
+		private final LongHashSet pushed = new LongHashSet();
+		private final LongHashSet interior = new LongHashSet();
+		private int[] stack = new int[16];
+		private boolean cutOff;
+
+		private Walk(OrientedAdjacency<N, E> adjacency) {
+			this.adjacency = adjacency;
+			this.offsets = adjacency.offsets;
+			this.targets = adjacency.targets;
+		}
+
+		/**
+		 * @return the exit or -1 if the entrance does not open a superbubble
+		 */
+		private int from(int entrance) {
+			visited.clear();
+			seen.clear();
+			pushed.clear();
+			interior.clear();
+			cutOff = false;
+			int stackSize = 0;
+			stack[stackSize++] = entrance;
+			seen.add(entrance);
+			pushed.add(entrance);
+			while (stackSize > 0) {
+				int v = stack[--stackSize];
+				visited.add(v);
+				seen.remove(v);
+				if (v != entrance) {
+					interior.add(v >>> 1);
+				}
+				if (offsets[v] == offsets[v + 1]) {
+					return -1;
+				} else if (visited.size() > maxSize) {
+					cutOff = true;
+					return -1;
+				}
+				for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+					int u = targets[e];
+					if (u == entrance || visited.contains(u)) {
+						return -1;
+					}
+					seen.add(u);
+					if (!pushed.contains(u) && parentsVisited(u)) {
+						pushed.add(u);
+						if (stackSize == stack.length) {
+							stack = Arrays.copyOf(stack, stackSize * 2);
+						}
+						stack[stackSize++] = u;
+					}
+				}
+				if (stackSize == 1 && seen.size() == 1) {
+					int exit = stack[0];
+					if (seen.contains(exit) && !adjacency.hasEdge(exit, entrance)) {
+						return exit;
+					}
+				}
+			}
+			return -1;
+		}
+
+		private boolean parentsVisited(int u) {
+			int flipped = u ^ 1;
+			for (int e = offsets[flipped]; e < offsets[flipped + 1]; e++) {
+				if (!visited.contains(targets[e] ^ 1)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private int[] interiorRanks() {
+			long[] ranks = interior.toArray();
+			int[] result = new int[ranks.length];
+			for (int i = 0; i < ranks.length; i++) {
+				result[i] = (int) ranks[i];
+			}
+			return result;
+		}
+	}
+
+	private static List<Superbubble> nest(OrientedAdjacency<?, ?> adjacency, List<Found> found) {
+		found.sort(Comparator.comparingInt((Found f) -> -f.interior.length).thenComparingInt(f -> f.entrance));
+		int[] entrances = new int[found.size()];
+		int[][] interiors = new int[found.size()][];
+		for (int i = 0; i < found.size(); i++) {
+			entrances[i] = found.get(i).entrance >>> 1;
+			interiors[i] = found.get(i).interior;
+		}
+		int[] parents = parents(adjacency.index.size(), entrances, interiors);
+		List<Superbubble> bubbles = new ArrayList<>(found.size());
+		for (int i = 0; i < found.size(); i++) {
+			Found f = found.get(i);
+			bubbles.add(new Superbubble(adjacency.asLong(f.entrance), adjacency.asLong(f.exit), f.interior.length,
+					parents[i]));
+		}
+		return bubbles;
+	}
+
+	/**
+	 * A superbubble is nested in the smallest larger one that has its entrance
+	 * node in the interior. Owners are assigned largest first and the parent is
+	 * read before a superbubble claims its own interior, so an entrance node that
+	 * is also inside in its other orientation still finds the enclosing one.
+	 *
+	 * @param nodes     the number of node ranks
+	 * @param entrances the entrance node rank of each superbubble, largest first
+	 * @param interiors the interior node ranks of each superbubble
+	 * @return the index of the parent of each superbubble, or -1
+	 */
+	static int[] parents(int nodes, int[] entrances, int[][] interiors) {
+		int[] owner = new int[nodes];
+		Arrays.fill(owner, -1);
+		int[] parents = new int[entrances.length];
+		for (int i = 0; i < entrances.length; i++) {
+			parents[i] = owner[entrances[i]];
+			for (int rank : interiors[i]) {
+				owner[rank] = i;
+			}
+		}
+		return parents;
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+
+/**
+ * Topological ordering of the oriented handles of a bidirected graph.
+ *
+ * The edges to the right of every oriented handle are read once into primitive
+ * arrays, so that the sort, the acyclicity check and the search for strongly
+ * connected regions do not go back to the graph.
+ *
+ * The order is Kahn's algorithm where placing a handle removes its node, with
+ * the edges of both orientations. It starts from the forward handles without
+ * incoming edges. When none are left the unplaced node with the lowest id is
+ * placed in the orientation with the fewest remaining incoming edges, giving an
+ * approximate order in cyclic regions.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class TopologicalSort<N extends NodeHandle, E extends EdgeHandle<N>> {
+
+	private static final int MIN_PARALLEL_FRONTIER = 4096;
+
+	private final OrientedAdjacency<N, E> adjacency;
+	private final NodeIndex index;
+	private final int[] offsets;
+	private final int[] targets;
+
+	/**
+	 * @param graph to sort, read once
+	 */
+	public TopologicalSort(HandleGraph<N, E> graph) {
+		this.adjacency = new OrientedAdjacency<>(graph);
+		this.index = adjacency.index;
+		this.offsets = adjacency.offsets;
+		this.targets = adjacency.targets;
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int nodeCount() {
+		return index.size();
+	}
+
+	/**
+	 * @return true if there is no directed cycle through the oriented handles
+	 */
+	public boolean isAcyclic() {
+		int[] inDegrees = adjacency.inDegrees();
+		int[] queue = new int[inDegrees.length];
+		int tail = 0;
+		for (int h = 0; h < inDegrees.length; h++) {
+			if (inDegrees[h] == 0) {
+				queue[tail++] = h;
+			}
+		}
+		for (int head = 0; head < tail; head++) {
+			int h = queue[head];
+			for (int e = offsets[h]; e < offsets[h + 1]; e++) {
+				if (--inDegrees[targets[e]] == 0) {
+					queue[tail++] = targets[e];
+				}
+			}
+		}
+		return tail == inDegrees.length;
+	}
+
+	/**
+	 * @return one oriented handle per node, as asLong values of the graph
+	 */
+	public long[] order() {
+		return order(null, 1);
+	}
+
+	/**
+	 * Kahn's algorithm level by level, where the in-degrees of the successors of
+	 * a large level are lowered by several workers at once. The order is the same
+	 * as without an executor.
+	 *
+	 * @param executor    to run parts of a level on, or null to stay on the
+	 *                    calling thread
+	 * @param parallelism the number of parts a large level is split in
+	 * @return one oriented handle per node, as asLong values of the graph
+	 */
+	public long[] order(Executor executor, int parallelism) {
+		int nodes = index.size();
+		AtomicIntegerArray inDegrees = new AtomicIntegerArray(adjacency.inDegrees());
+		boolean[] placed = new boolean[nodes];
+		long[] order = new long[nodes];
+		int count = 0;
+		int nextSeed = 0;
+		int[] frontier = new int[nodes * 2];
+		int frontierSize = 0;
+		// Only forward heads, the reverse of the tails are sources as well but
+		// starting from both ends would place the middle in both orientations.
+		for (int h = 0; h < frontier.length; h += 2) {
+			if (inDegrees.get(h) == 0) {
+				frontier[frontierSize++] = h;
+			}
+		}
+		while (count < nodes) {
+			int levelSize = 0;
+			for (int i = 0; i < frontierSize; i++) {
+				int h = frontier[i];
+				if (!placed[h >>> 1]) {
+					placed[h >>> 1] = true;
+					order[count++] = adjacency.asLong(h);
+					frontier[levelSize++] = h;
+				}
+			}
+			if (levelSize == 0) {
+				while (placed[nextSeed]) {
+					nextSeed++;
+				}
+				int forward = nextSeed * 2;
+				int seed = inDegrees.get(forward + 1) < inDegrees.get(forward) ? forward + 1 : forward;
+				placed[nextSeed] = true;
+				order[count++] = adjacency.asLong(seed);
+				frontier = new int[] { seed };
+				levelSize = 1;
+			}
+			frontier = release(frontier, levelSize, inDegrees, placed, executor, parallelism);
+			frontierSize = frontier.length;
+		}
+		return order;
+	}
+
+	/**
+	 * Remove the edges of both orientations of the placed handles.
+	 *
+	 * @return the sorted handles that have no incoming edges left
+	 */
+	private int[] release(int[] level, int levelSize, AtomicIntegerArray inDegrees, boolean[] placed,
+			Executor executor, int parallelism) {
+		int parts = executor == null ? 1 : Math.min(parallelism, levelSize / MIN_PARALLEL_FRONTIER);
+		int[] next;
+		if (parts <= 1) {
+			next = release(level, 0, levelSize, inDegrees, placed);
+		} else {
+			List<CompletableFuture<int[]>> running = new ArrayList<>(parts);
+			for (int p = 0; p < parts; p++) {
+				int from = (int) ((long) levelSize * p / parts);
+				int to = (int) ((long) levelSize * (p + 1) / parts);
+				running.add(CompletableFuture.supplyAsync(() -> release(level, from, to, inDegrees, placed), executor));
+			}
+			int[][] results = new int[parts][];
+			int total = 0;
+			for (int p = 0; p < parts; p++) {
+				results[p] = join(running.get(p));
+				total += results[p].length;
+			}
+			next = new int[total];
+			int at = 0;
+			for (int[] result : results) {
+				System.arraycopy(result, 0, next, at, result.length);
+				at += result.length;
+			}
+		}
+		Arrays.sort(next);
+		return next;
+	}
+
+	private int[] release(int[] level, int from, int to, AtomicIntegerArray inDegrees, boolean[] placed) {
+		int[] next = new int[16];
+		int size = 0;
+		for (int i = from; i < to; i++) {
+			int h = level[i];
+			for (int side = h & ~1; side <= (h | 1); side++) {
+				for (int e = offsets[side]; e < offsets[side + 1]; e++) {
+					int target = targets[e];
+					if (inDegrees.decrementAndGet(target) == 0 && !placed[target >>> 1]) {
+						if (size == next.length) {
+							next = Arrays.copyOf(next, size * 2);
+						}
+						next[size++] = target;
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(next, size);
+	}
+
+	private static int[] join(CompletableFuture<int[]> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * The strongly connected components of the oriented handles that contain a
+	 * cycle. Each has a mirror image on the opposite orientations, only one of
+	 * the two is returned.
+	 *
+	 * @return the sorted node ids of each cyclic region
+	 */
+	public List<long[]> stronglyConnectedRegions() {
+		int handles = offsets.length - 1;
+		int[] order = new int[handles];
+		int[] lowLinks = new int[handles];
+		Arrays.fill(order, -1);
+		boolean[] onStack = new boolean[handles];
+		int[] stack = new int[handles];
+		int stackSize = 0;
+		int[] calls = new int[handles];
+		int[] edgeAt = new int[handles];
+		int callDepth = 0;
+		int counter = 0;
+		List<long[]> regions = new ArrayList<>();
+		for (int root = 0; root < handles; root++) {
+			if (order[root] >= 0) {
+				continue;
+			}
+			calls[callDepth++] = root;
+			order[root] = lowLinks[root] = counter++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			edgeAt[root] = offsets[root];
+			while (callDepth > 0) {
+				int h = calls[callDepth - 1];
+				if (edgeAt[h] < offsets[h + 1]) {
+					int target = targets[edgeAt[h]++];
+					if (order[target] < 0) {
+						order[target] = lowLinks[target] = counter++;
+						stack[stackSize++] = target;
+						onStack[target] = true;
+						edgeAt[target] = offsets[target];
+						calls[callDepth++] = target;
+					} else if (onStack[target]) {
+						lowLinks[h] = Math.min(lowLinks[h], order[target]);
+					}
+					continue;
+				}
+				callDepth--;
+				if (callDepth > 0) {
+					int caller = calls[callDepth - 1];
+					lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[h]);
+				}
+				if (lowLinks[h] == order[h]) {
+					int start = stackSize;
+					do {
+						onStack[stack[--start]] = false;
+					} while (stack[start] != h);
+					addRegion(regions, stack, start, stackSize);
+					stackSize = start;
+				}
+			}
+		}
+		return regions;
+	}
+
+	private void addRegion(List<long[]> regions, int[] stack, int from, int to) {
+		int min = Integer.MAX_VALUE;
+		for (int i = from; i < to; i++) {
+			min = Math.min(min, stack[i]);
+		}
+		if ((min & 1) == 1 || (to - from == 1 && !hasSelfLoop(min))) {
+			return;
+		}
+		int[] ranks = new int[to - from];
+		for (int i = from; i < to; i++) {
+			ranks[i - from] = stack[i] >>> 1;
+		}
+		Arrays.sort(ranks);
+		long[] ids = new long[ranks.length];
+		int size = 0;
+		for (int rank : ranks) {
+			if (size == 0 || ids[size - 1] != index.id(rank)) {
+				ids[size++] = index.id(rank);
+			}
+		}
+		regions.add(Arrays.copyOf(ids, size));
+	}
+
+	private boolean hasSelfLoop(int h) {
+		return adjacency.hasEdge(h, h);
+	}
+}
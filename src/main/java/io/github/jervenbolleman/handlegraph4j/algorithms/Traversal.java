@@ -0,0 +1,294 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.collections.LongHashSet;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Walks a bidirected graph from a start handle, breadth first, depth first or
+ * in order of sequence distance.
+ *
+ * Oriented handles are kept as a long, the id of the forward handle shifted
+ * left by one with the lowest bit set for the reverse orientation. The visited
+ * set and frontier are primitive and reused between walks, so a Traversal
+ * instance allocates nothing per visited handle once warmed up, except what the
+ * graph itself allocates. A Traversal is not thread safe, use one per thread.
+ *
+ * Distance is the number of nucleotides between the end of the start handle
+ * and the start of a visited handle, so the start and its neighbours have
+ * distance 0.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class Traversal<N extends NodeHandle, E extends EdgeHandle<N>> {
+
+	/**
+	 * The order in which handles are visited.
+	 */
+	public enum Order {
+		/**
+		 * Visit by increasing number of edges from the start
+		 */
+		BREADTH_FIRST,
+		/**
+		 * Follow edges as deep as allowed before backtracking
+		 */
+		DEPTH_FIRST,
+		/**
+		 * Visit by increasing sequence distance from the start, required for exact
+		 * distance bounds
+		 */
+		SEQUENCE_DISTANCE
+	}
+
+	/**
+	 * Which edges to follow from a handle.
+	 */
+	public enum Direction {
+		/**
+		 * Only {@link HandleGraph#followEdgesToWardsTheRight(NodeHandle)}
+		 */
+		RIGHT,
+		/**
+		 * Only {@link HandleGraph#followEdgesToWardsTheLeft(NodeHandle)}
+		 */
+		LEFT,
+		/**
+		 * Both, nodes are then visited once regardless of orientation
+		 */
+		BOTH
+	}
+
+	/**
+	 * Called for each handle reached.
+	 *
+	 * @param <N> the type of NodeHandle
+	 */
+	@FunctionalInterface
+	public interface Visitor<N> {
+		/**
+		 * @param node     the reached handle
+		 * @param depth    the number of edges followed from the start
+		 * @param distance the nucleotides between the start and this handle
+		 * @return true to continue the walk from this handle
+		 */
+		public boolean visit(N node, int depth, long distance);
+	}
+
+	private final HandleGraph<N, E> graph;
+	private final LongHashSet visited = new LongHashSet(1024);
+	private final Frontier frontier = new Frontier();
+	private Order order = Order.BREADTH_FIRST;
+	private Direction direction = Direction.BOTH;
+	private int maxDepth = Integer.MAX_VALUE;
+	private long maxDistance = Long.MAX_VALUE;
+
+	/**
+	 * @param graph to walk
+	 */
+	public Traversal(HandleGraph<N, E> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * @param order of visiting, default breadth first
+	 * @return this
+	 */
+	public Traversal<N, E> order(Order order) {
+		this.order = order;
+		return this;
+	}
+
+	/**
+	 * @param direction of edges to follow, default both
+	 * @return this
+	 */
+	public Traversal<N, E> direction(Direction direction) {
+		this.direction = direction;
+		return this;
+	}
+
+	/**
+	 * @param maxDepth the maximum number of edges to follow from the start
+	 * @return this
+	 */
+	public Traversal<N, E> maxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * Only exact for {@link Order#SEQUENCE_DISTANCE}, the other orders may reach a
+	 * handle first by a longer route and not visit handles beyond it.
+	 *
+	 * @param maxDistance the maximum distance in nucleotides of a visited handle
+	 * @return this
+	 */
+	public Traversal<N, E> maxDistance(long maxDistance) {
+		this.maxDistance = maxDistance;
+		return this;
+	}
+
+	/**
+	 * @param graph  the graph the handle belongs to
+	 * @param <N>    the type of NodeHandle
+	 * @param handle to encode
+	 * @return the oriented key of the handle
+	 */
+	public static <N extends NodeHandle> long key(HandleGraph<N, ?> graph, N handle) {
+		if (graph.isReverseNodeHandle(handle)) {
+			return (graph.asLong(graph.flip(handle)) << 1) | 1;
+		} else {
+			return graph.asLong(handle) << 1;
+		}
+	}
+
+	/**
+	 * @param graph the graph the handle belongs to
+	 * @param <N>   the type of NodeHandle
+	 * @param key   an oriented key
+	 * @return the handle
+	 */
+	public static <N extends NodeHandle> N handle(HandleGraph<N, ?> graph, long key) {
+		N forward = graph.fromLong(key >> 1);
+		if ((key & 1) == 1) {
+			return graph.flip(forward);
+		}
+		return forward;
+	}
+
+	/**
+	 * Walk from start, the start is visited first with depth and distance 0.
+	 *
+	 * @param start   where to start
+	 * @param visitor called for each reached handle
+	 * @return the number of visited handles
+	 */
+	public long traverse(N start, Visitor<? super N> visitor) {
+		visited.clear();
+		frontier.clear();
+		long count = 0;
+		long startKey = key(graph, start);
+		add(startKey, 0, 0);
+		if (order == Order.BREADTH_FIRST) {
+			markVisited(startKey);
+		}
+		while (!frontier.isEmpty()) {
+			int slot = take();
+			long key = frontier.key(slot);
+			int depth = frontier.depth(slot);
+			long distance = frontier.distance(slot);
+			if (order != Order.BREADTH_FIRST && !markVisited(key)) {
+				continue;
+			}
+			N node = handle(graph, key);
+			count++;
+			if (!visitor.visit(node, depth, distance) || depth >= maxDepth) {
+				continue;
+			}
+			long next = depth == 0 ? distance : distance + graph.sequenceLengthOf(node);
+			if (next > maxDistance) {
+				continue;
+			}
+			if (direction != Direction.LEFT) {
+				try (AutoClosedIterator<E> edges = graph.followEdgesToWardsTheRight(node)) {
+					while (edges.hasNext()) {
+						reach(edges.next().right(), depth + 1, next);
+					}
+				}
+			}
+			if (direction != Direction.RIGHT) {
+				try (AutoClosedIterator<E> edges = graph.followEdgesToWardsTheLeft(node)) {
+					while (edges.hasNext()) {
+						reach(edges.next().left(), depth + 1, next);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The ids of the forward handles of all nodes reached from start.
+	 *
+	 * @param start where to start
+	 * @return a new set of node ids (as in asLong of the forward handle)
+	 */
+	public LongHashSet reachable(N start) {
+		LongHashSet ids = new LongHashSet();
+		traverse(start, (n, depth, distance) -> {
+			ids.add(graph.asLong(graph.forward(n)));
+			return true;
+		});
+		return ids;
+	}
+
+	private void reach(N node, int depth, long distance) {
+		long key = key(graph, node);
+		if (order == Order.BREADTH_FIRST) {
+			if (markVisited(key)) {
+				add(key, depth, distance);
+			}
+		} else if (!isVisited(key)) {
+			add(key, depth, distance);
+		}
+	}
+
+	private void add(long key, int depth, long distance) {
+		if (order == Order.SEQUENCE_DISTANCE) {
+			frontier.heapPush(key, depth, distance);
+		} else {
+			frontier.push(key, depth, distance);
+		}
+	}
+
+	private int take() {
+		switch (order) {
+		case DEPTH_FIRST:
+			return frontier.pollLast();
+		case SEQUENCE_DISTANCE:
+			return frontier.heapPoll();
+		default:
+			return frontier.pollFirst();
+		}
+	}
+
+	private long visitedKey(long key) {
+		return direction == Direction.BOTH ? key & ~1L : key;
+	}
+
+	private boolean markVisited(long key) {
+		return visited.add(visitedKey(key));
+	}
+
+	private boolean isVisited(long key) {
+		return visited.contains(visitedKey(key));
+	}
+}
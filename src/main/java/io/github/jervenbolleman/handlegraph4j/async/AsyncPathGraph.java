@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * The queries of a {@link PathGraph} that may block, for callers that must
+ * not. Iterations become publishers that produce only what is requested, and
+ * cancelling a subscription closes the iterator behind it.
+ *
+ * A graph that can answer without blocking may implement this itself, any
+ * other can be adapted with {@link #of(PathGraph, Executor)}.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public interface AsyncPathGraph<P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> {
+
+	/**
+	 * Run the queries of a graph on an executor.
+	 *
+	 * @param <P>      the type of PathHandle
+	 * @param <S>      the type of StepHandle
+	 * @param <N>      the type of NodeHandle
+	 * @param <E>      the type of EdgeHandle
+	 * @param graph    to query
+	 * @param executor to run the queries on
+	 * @return the adapted graph
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> AsyncPathGraph<P, S, N, E> of(
+			PathGraph<P, S, N, E> graph, Executor executor) {
+		return new ExecutorAsyncPathGraph<>(graph, executor);
+	}
+
+	/**
+	 *
+	 * @return the graph whose handles are published
+	 */
+	public PathGraph<P, S, N, E> graph();
+
+	/**
+	 * @return all nodes, as {@link PathGraph#nodes()}
+	 */
+	public Flow.Publisher<N> nodes();
+
+	/**
+	 * @return all steps, as {@link PathGraph#steps()}
+	 */
+	public Flow.Publisher<S> steps();
+
+	/**
+	 * @param path to get all steps of
+	 * @return the steps, as {@link PathGraph#stepsOf(PathHandle)}
+	 */
+	public Flow.Publisher<S> stepsOf(P path);
+
+	/**
+	 * @param left the node to start from
+	 * @return the edges, as
+	 *         {@link PathGraph#followEdgesToWardsTheRight(NodeHandle)}
+	 */
+	public Flow.Publisher<E> followEdgesToWardsTheRight(N left);
+
+	/**
+	 * @param right the node to start from
+	 * @return the edges, as
+	 *         {@link PathGraph#followEdgesToWardsTheLeft(NodeHandle)}
+	 */
+	public Flow.Publisher<E> followEdgesToWardsTheLeft(N right);
+
+	/**
+	 * @param handle to fetch the sequence of
+	 * @return the sequence, as {@link PathGraph#sequenceOf(NodeHandle)}
+	 */
+	public CompletableFuture<Sequence> sequenceOf(N handle);
+}
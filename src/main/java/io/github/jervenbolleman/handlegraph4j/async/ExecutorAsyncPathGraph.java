@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * Runs the blocking calls of a PathGraph on an executor, the iterators are
+ * read by {@link IteratorPublisher}.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class ExecutorAsyncPathGraph<P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>>
+		implements AsyncPathGraph<P, S, N, E> {
+
+	private final PathGraph<P, S, N, E> graph;
+	private final Executor executor;
+
+	/**
+	 * @param graph    to query
+	 * @param executor to run the queries on
+	 */
+	public ExecutorAsyncPathGraph(PathGraph<P, S, N, E> graph, Executor executor) {
+		this.graph = graph;
+		this.executor = executor;
+	}
+
+	@Override
+	public PathGraph<P, S, N, E> graph() {
+		return graph;
+	}
+
+	@Override
+	public Flow.Publisher<N> nodes() {
+		return new IteratorPublisher<>(graph::nodes, executor);
+	}
+
+	@Override
+	public Flow.Publisher<S> steps() {
+		return new IteratorPublisher<>(graph::steps, executor);
+	}
+
+	@Override
+	public Flow.Publisher<S> stepsOf(P path) {
+		return new IteratorPublisher<>(() -> graph.stepsOf(path), executor);
+	}
+
+	@Override
+	public Flow.Publisher<E> followEdgesToWardsTheRight(N left) {
+		return new IteratorPublisher<>(() -> graph.followEdgesToWardsTheRight(left), executor);
+	}
+
+	@Override
+	public Flow.Publisher<E> followEdgesToWardsTheLeft(N right) {
+		return new IteratorPublisher<>(() -> graph.followEdgesToWardsTheLeft(right), executor);
+	}
+
+	@Override
+	public CompletableFuture<Sequence> sequenceOf(N handle) {
+		return CompletableFuture.supplyAsync(() -> graph.sequenceOf(handle), executor);
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Publishes the elements of an AutoClosedIterator, only as many as requested.
+ *
+ * Each subscriber gets its own iterator, opened on the executor when the first
+ * demand arrives. The iterator is only touched by one task at a time on the
+ * executor, so a blocking disk backed iterator never blocks the thread calling
+ * {@link Flow.Subscription#request(long)}. The iterator is closed once it is
+ * exhausted, fails or the subscription is cancelled.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <T> the type of elements
+ */
+public class IteratorPublisher<T> implements Flow.Publisher<T> {
+
+	private final Supplier<? extends AutoClosedIterator<T>> source;
+	private final Executor executor;
+
+	/**
+	 * @param source   called once per subscriber to open an iterator
+	 * @param executor to read the iterators on
+	 */
+	public IteratorPublisher(Supplier<? extends AutoClosedIterator<T>> source, Executor executor) {
+		this.source = source;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber);
+		subscriber.onSubscribe(new IteratorSubscription<>(subscriber, source, executor));
+	}
+
+	private static final class IteratorSubscription<T> implements Flow.Subscription, Runnable {
+		private final Flow.Subscriber<? super T> subscriber;
+		private final Supplier<? extends AutoClosedIterator<T>> source;
+		private final Executor executor;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger signals = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile IllegalArgumentException badRequest;
+		// only touched while running, which signals makes one at a time
+		private AutoClosedIterator<T> iterator;
+		private boolean done;
+
+		private IteratorSubscription(Flow.Subscriber<? super T> subscriber,
+				Supplier<? extends AutoClosedIterator<T>> source, Executor executor) {
+			this.subscriber = subscriber;
+			this.source = source;
+			this.executor = executor;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				badRequest = new IllegalArgumentException("Must request a positive number of elements not " + n);
+			} else {
+				requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (signals.getAndIncrement() == 0) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					// nothing is running, and signals stays above zero so nothing will
+					if (!done) {
+						finish();
+						if (!cancelled) {
+							subscriber.onError(e);
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				if (!done) {
+					drain();
+				}
+				missed = signals.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			if (cancelled) {
+				finish();
+				return;
+			}
+			if (badRequest != null) {
+				finish();
+				subscriber.onError(badRequest);
+				return;
+			}
+			try {
+				if (iterator == null) {
+					iterator = source.get();
+				}
+				long demand = requested.get();
+				long emitted = 0;
+				while (true) {
+					if (cancelled) {
+						finish();
+						return;
+					}
+					if (emitted == demand) {
+						demand = requested.addAndGet(-emitted);
+						emitted = 0;
+						if (demand == 0) {
+							if (!iterator.hasNext()) {
+								complete();
+							}
+							return;
+						}
+					}
+					if (!iterator.hasNext()) {
+						complete();
+						return;
+					}
+					subscriber.onNext(iterator.next());
+					if (demand != Long.MAX_VALUE) {
+						emitted++;
+					}
+				}
+			} catch (RuntimeException | Error e) {
+				RuntimeException closing = finish();
+				if (closing != null) {
+					e.addSuppressed(closing);
+				}
+				subscriber.onError(e);
+			}
+		}
+
+		private void complete() {
+			RuntimeException closing = finish();
+			if (closing == null) {
+				subscriber.onComplete();
+			} else {
+				subscriber.onError(closing);
+			}
+		}
+
+		private RuntimeException finish() {
+			done = true;
+			AutoClosedIterator<T> open = iterator;
+			iterator = null;
+			if (open != null) {
+				try {
+					open.close();
+				} catch (RuntimeException e) {
+					return e;
+				}
+			}
+			return null;
+		}
+	}
+}
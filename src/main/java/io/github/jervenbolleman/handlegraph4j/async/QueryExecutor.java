@@ -0,0 +1,341 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * Runs many small graph queries with at most a fixed number running at once.
+ *
+ * Queries are forked in a {@link Scope}, which waits for all of them and
+ * cancels the ones that did not run yet when one fails or the scope is closed.
+ * Queries that read an iterator stop between batches once cancelled, and close
+ * it. Nothing forked in a scope is still running when its close returns.
+ *
+ * Waiting queries are kept here, not in the executor, so the executor is never
+ * given more than the parallelism.
+ *
+ * A query may open a scope of its own. When it joins that scope, the queries
+ * of it that did not start yet run on the joining thread, so a query waiting
+ * for its children never waits for a free slot.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class QueryExecutor {
+
+	private static final int BATCH = 256;
+	private static final ThreadLocal<QueryExecutor> RUNNING_ON = new ThreadLocal<>();
+
+	private final Executor executor;
+	private final int parallelism;
+	private final ConcurrentLinkedQueue<Task<?>> waiting = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger running = new AtomicInteger();
+
+	/**
+	 * @param executor    to run the queries on
+	 * @param parallelism the maximum number of queries running at once
+	 */
+	public QueryExecutor(Executor executor, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1 not " + parallelism);
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return a new scope to fork queries in, must be closed after use
+	 */
+	public Scope scope() {
+		return new Scope();
+	}
+
+	private void dispatch() {
+		while (!waiting.isEmpty()) {
+			int now = running.get();
+			if (now >= parallelism) {
+				return;
+			}
+			if (!running.compareAndSet(now, now + 1)) {
+				continue;
+			}
+			Task<?> task = waiting.poll();
+			if (task == null || !task.claim()) {
+				// cancelled or helped along by a join
+				running.decrementAndGet();
+				continue;
+			}
+			try {
+				executor.execute(() -> {
+					RUNNING_ON.set(this);
+					try {
+						task.run();
+					} finally {
+						RUNNING_ON.remove();
+						running.decrementAndGet();
+						dispatch();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				running.decrementAndGet();
+				task.reject(e);
+			}
+		}
+	}
+
+	/**
+	 * A group of queries that end together.
+	 */
+	public final class Scope implements AutoCloseable {
+		private final List<Task<?>> tasks = new ArrayList<>();
+		private volatile boolean cancelled;
+		private Throwable failure;
+
+		private Scope() {
+		}
+
+		/**
+		 * @param <T>   the type of result
+		 * @param query to run
+		 * @return the result of the query
+		 */
+		public <T> CompletableFuture<T> fork(Callable<T> query) {
+			return submit(new Task<>(this, query));
+		}
+
+		/**
+		 * Read all elements of an iterator into a primitive buffer.
+		 *
+		 * @param <T>    the type of elements
+		 * @param query  opens the iterator, it is closed by the query
+		 * @param toLong converts each element into its long form, e.g.
+		 *               graph::asLong
+		 * @return the long form of all elements, in order
+		 */
+		public <T> CompletableFuture<long[]> collect(Supplier<? extends AutoClosedIterator<T>> query,
+				ToLongFunction<? super T> toLong) {
+			return fork(() -> {
+				try (AutoClosedIterator<T> iter = query.get()) {
+					long[] batch = new long[BATCH];
+					return collect(() -> iter.nextBatch(batch, toLong), batch);
+				}
+			});
+		}
+
+		/**
+		 * Read all values of a primitive iterator into a buffer.
+		 *
+		 * @param query opens the iterator, it is closed by the query
+		 * @return all values, in order
+		 */
+		public CompletableFuture<long[]> collectLongs(Supplier<? extends AutoClosedIterator.OfLong> query) {
+			return fork(() -> {
+				try (AutoClosedIterator.OfLong iter = query.get()) {
+					long[] batch = new long[BATCH];
+					return collect(() -> iter.nextBatch(batch), batch);
+				}
+			});
+		}
+
+		private long[] collect(IntSupplier nextBatch, long[] batch) {
+			long[] values = new long[BATCH];
+			int size = 0;
+			int read;
+			while ((read = nextBatch.getAsInt()) > 0) {
+				if (cancelled) {
+					throw new CancellationException();
+				}
+				if (size + read > values.length) {
+					values = Arrays.copyOf(values, Math.max(values.length * 2, size + read));
+				}
+				System.arraycopy(batch, 0, values, size, read);
+				size += read;
+			}
+			return Arrays.copyOf(values, size);
+		}
+
+		private <T> CompletableFuture<T> submit(Task<T> task) {
+			synchronized (tasks) {
+				if (cancelled) {
+					task.result.cancel(false);
+					task.finished.complete(null);
+					return task.result;
+				}
+				tasks.add(task);
+			}
+			waiting.add(task);
+			dispatch();
+			return task.result;
+		}
+
+		/**
+		 * Cancel the queries that did not start yet, and stop the queries reading
+		 * iterators at their next batch. The cancelled queries are taken out of
+		 * the queue at once, so they do not wait for the queries of other scopes.
+		 */
+		public void cancel() {
+			List<Task<?>> forked;
+			synchronized (tasks) {
+				cancelled = true;
+				forked = new ArrayList<>(tasks);
+			}
+			for (Task<?> task : forked) {
+				if (task.claim()) {
+					waiting.remove(task);
+					task.finished.complete(null);
+				}
+				task.result.cancel(false);
+			}
+		}
+
+		private void fail(Throwable e) {
+			synchronized (tasks) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+			cancel();
+		}
+
+		/**
+		 * @return if this scope was cancelled, directly or by a failing query
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Wait until none of the forked queries is running. Called from a query
+		 * of the same executor, the queries that did not start yet are run on the
+		 * calling thread.
+		 *
+		 * @throws RuntimeException the first failure of a query, or a
+		 *                          CancellationException if the scope was
+		 *                          cancelled and some queries did not finish
+		 */
+		public void join() {
+			List<Task<?>> forked = snapshot();
+			if (RUNNING_ON.get() == QueryExecutor.this) {
+				for (Task<?> task : forked) {
+					if (task.claim()) {
+						waiting.remove(task);
+						task.run();
+					}
+				}
+			}
+			for (Task<?> task : forked) {
+				task.finished.join();
+			}
+			Throwable failed;
+			synchronized (tasks) {
+				failed = failure;
+			}
+			if (failed instanceof RuntimeException) {
+				throw (RuntimeException) failed;
+			} else if (failed != null) {
+				throw new CompletionException(failed);
+			}
+			for (Task<?> task : forked) {
+				if (task.result.isCancelled()) {
+					throw new CancellationException("Scope was cancelled");
+				}
+			}
+		}
+
+		/**
+		 * Cancel what is left and wait until none of the queries is running.
+		 */
+		@Override
+		public void close() {
+			cancel();
+			for (Task<?> task : snapshot()) {
+				task.finished.join();
+			}
+		}
+
+		private List<Task<?>> snapshot() {
+			synchronized (tasks) {
+				return new ArrayList<>(tasks);
+			}
+		}
+	}
+
+	private static final class Task<T> {
+		private final Scope scope;
+		private final Callable<T> query;
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+		private final CompletableFuture<Void> finished = new CompletableFuture<>();
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private Task(Scope scope, Callable<T> query) {
+			this.scope = scope;
+			this.query = query;
+		}
+
+		/**
+		 * @return true for only one of the dispatcher, a cancel or a join
+		 */
+		private boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		private void run() {
+			try {
+				if (!scope.cancelled && !result.isDone()) {
+					result.complete(query.call());
+				}
+			} catch (CancellationException e) {
+				// stopped by the scope
+			} catch (Exception | Error e) {
+				result.completeExceptionally(e);
+				scope.fail(e);
+			} finally {
+				result.cancel(false);
+				finished.complete(null);
+			}
+		}
+
+		private void reject(RejectedExecutionException e) {
+			result.completeExceptionally(e);
+			finished.complete(null);
+			scope.fail(e);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Non blocking access to graphs whose queries may block, such as disk backed
+ * ones.
+ *
+ * The queries run on a caller supplied {@link java.util.concurrent.Executor},
+ * as does the producer of a
+ * {@link io.github.jervenbolleman.handlegraph4j.iterators.PrefetchingIterator}.
+ * The library is built for java 17, so it does not create virtual threads
+ * itself. On java 21 and later a virtual thread per task executor lets a query
+ * that waits on I/O hold no platform thread, then the parallelism of a
+ * {@link io.github.jervenbolleman.handlegraph4j.async.QueryExecutor} only needs
+ * to bound the load on the graph.
+ */
+package io.github.jervenbolleman.handlegraph4j.async;
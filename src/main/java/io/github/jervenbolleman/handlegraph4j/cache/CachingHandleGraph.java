@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeCursor;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * A HandleGraph that keeps the sequences of the nodes asked for most in a
+ * {@link SequenceCache}, for backends where fetching a sequence is expensive.
+ * Everything else is passed on to the backend.
+ *
+ * Sequences are cached by the asLong value of the handle as given, so the two
+ * orientations of a node are cached apart.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class CachingHandleGraph<N extends NodeHandle, E extends EdgeHandle<N>> implements HandleGraph<N, E> {
+
+	private final HandleGraph<N, E> graph;
+	private final SequenceCache cache;
+
+	/**
+	 * @param graph the backend
+	 * @param cache to keep the sequences in
+	 */
+	public CachingHandleGraph(HandleGraph<N, E> graph, SequenceCache cache) {
+		this.graph = graph;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return the cache, for its metrics
+	 */
+	public SequenceCache cache() {
+		return cache;
+	}
+
+	@Override
+	public Sequence sequenceOf(N handle) {
+		return cache.get(graph.asLong(handle), id -> graph.sequenceOf(handle));
+	}
+
+	@Override
+	public E edgeHandle(N left, N right) {
+		return graph.edgeHandle(left, right);
+	}
+
+	@Override
+	public N traverseEdgeHandle(E edge, N left) {
+		return graph.traverseEdgeHandle(edge, left);
+	}
+
+	@Override
+	public boolean hasEdge(N left, N right) {
+		return graph.hasEdge(left, right);
+	}
+
+	@Override
+	public boolean hasEdge(E edge) {
+		return graph.hasEdge(edge);
+	}
+
+	@Override
+	public boolean[] hasEdges(long[] lefts, long[] rights) {
+		return graph.hasEdges(lefts, rights);
+	}
+
+	@Override
+	public long edgeCount() {
+		return graph.edgeCount();
+	}
+
+	@Override
+	public long nodeCount() {
+		return graph.nodeCount();
+	}
+
+	@Override
+	public boolean isReverseNodeHandle(N nh) {
+		return graph.isReverseNodeHandle(nh);
+	}
+
+	@Override
+	public N flip(N nh) {
+		return graph.flip(nh);
+	}
+
+	@Override
+	public long asLong(N nh) {
+		return graph.asLong(nh);
+	}
+
+	@Override
+	public N fromLong(long id) {
+		return graph.fromLong(id);
+	}
+
+	@Override
+	public E edge(long leftId, long rightId) {
+		return graph.edge(leftId, rightId);
+	}
+
+	@Override
+	public E edge(N left, N right) {
+		return graph.edge(left, right);
+	}
+
+	@Override
+	public AutoClosedIterator<E> followEdgesToWardsTheRight(N left) {
+		return graph.followEdgesToWardsTheRight(left);
+	}
+
+	@Override
+	public AutoClosedIterator<E> followEdgesToWardsTheLeft(N right) {
+		return graph.followEdgesToWardsTheLeft(right);
+	}
+
+	@Override
+	public AutoClosedIterator<E> edges() {
+		return graph.edges();
+	}
+
+	@Override
+	public AutoClosedIterator<N> nodes() {
+		return graph.nodes();
+	}
+
+	@Override
+	public NodeCursor nodeCursor() {
+		return graph.nodeCursor();
+	}
+
+	@Override
+	public N forward(N nh) {
+		return graph.forward(nh);
+	}
+
+	@Override
+	public boolean equalNodes(N l, N r) {
+		return graph.equalNodes(l, r);
+	}
+
+	@Override
+	public AutoClosedIterator<N> nodesWithSequence(Sequence s) {
+		return graph.nodesWithSequence(s);
+	}
+}
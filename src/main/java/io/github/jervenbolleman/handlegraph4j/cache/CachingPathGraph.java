@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import java.util.stream.LongStream;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepCursor;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * A {@link CachingHandleGraph} for a PathGraph backend, the paths are passed
+ * on to the backend.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <P> the type of PathHandle
+ * @param <S> the type of StepHandle
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class CachingPathGraph<P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>>
+		extends CachingHandleGraph<N, E> implements PathGraph<P, S, N, E> {
+
+	private final PathGraph<P, S, N, E> graph;
+
+	/**
+	 * @param graph the backend
+	 * @param cache to keep the sequences in
+	 */
+	public CachingPathGraph(PathGraph<P, S, N, E> graph, SequenceCache cache) {
+		super(graph, cache);
+		this.graph = graph;
+	}
+
+	@Override
+	public AutoClosedIterator<S> stepsOfNodeHandle(N nodeHandle) {
+		return graph.stepsOfNodeHandle(nodeHandle);
+	}
+
+	@Override
+	public AutoClosedIterator<P> paths() {
+		return graph.paths();
+	}
+
+	@Override
+	public AutoClosedIterator<S> steps() {
+		return graph.steps();
+	}
+
+	@Override
+	public AutoClosedIterator<S> stepsOf(P path) {
+		return graph.stepsOf(path);
+	}
+
+	@Override
+	public StepCursor stepCursor() {
+		return graph.stepCursor();
+	}
+
+	@Override
+	public StepCursor stepCursor(P path) {
+		return graph.stepCursor(path);
+	}
+
+	@Override
+	public P pathOfStep(S step) {
+		return graph.pathOfStep(step);
+	}
+
+	@Override
+	public N nodeOfStep(S step) {
+		return graph.nodeOfStep(step);
+	}
+
+	@Override
+	public long beginPositionOfStep(S step) {
+		return graph.beginPositionOfStep(step);
+	}
+
+	@Override
+	public long endPositionOfStep(S step) {
+		return graph.endPositionOfStep(step);
+	}
+
+	@Override
+	public long rankOfStep(S step) {
+		return graph.rankOfStep(step);
+	}
+
+	@Override
+	public S stepByRankAndPath(P path, long rank) {
+		return graph.stepByRankAndPath(path, rank);
+	}
+
+	@Override
+	public boolean isCircular(P path) {
+		return graph.isCircular(path);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return graph.isEmpty();
+	}
+
+	@Override
+	public String nameOfPath(P path) {
+		return graph.nameOfPath(path);
+	}
+
+	@Override
+	public P pathByName(String name) {
+		return graph.pathByName(name);
+	}
+
+	@Override
+	public LongStream positionsOf(P path) {
+		return graph.positionsOf(path);
+	}
+
+	@Override
+	public long stepCountInPath(P path) {
+		return graph.stepCountInPath(path);
+	}
+
+	@Override
+	public long stepCount() {
+		return graph.stepCount();
+	}
+
+	@Override
+	public S stepOfPathByBeginPosition(P path, long position) {
+		return graph.stepOfPathByBeginPosition(path, position);
+	}
+
+	@Override
+	public S stepOfPathByEndPosition(P path, long position) {
+		return graph.stepOfPathByEndPosition(path, position);
+	}
+
+	@Override
+	public int pathCount() {
+		return graph.pathCount();
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+/**
+ * Decides which entry of a {@link SequenceCache} to evict and whether a new
+ * entry is worth evicting for.
+ *
+ * A cache is split in segments, each with its own {@link Tracker}. Entries are
+ * numbered by slot within their segment, a slot is reused after its entry is
+ * removed. Trackers are only called while their segment is locked.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public interface EvictionPolicy {
+
+	/**
+	 * Evicts the least recently used entry.
+	 *
+	 * @return the policy
+	 */
+	public static EvictionPolicy lru() {
+		return expectedEntries -> new LruTracker();
+	}
+
+	/**
+	 * Evicts the least recently used entry, but only for a new entry that was
+	 * asked for at least as often recently, in the spirit of W-TinyLFU. The
+	 * counts are kept in a small frequency sketch that halves them periodically,
+	 * so that one off scans do not push out the hot nodes.
+	 *
+	 * @return the policy
+	 */
+	public static EvictionPolicy tinyLfu() {
+		return TinyLfuTracker::new;
+	}
+
+	/**
+	 * @param expectedEntries about how many entries one segment holds
+	 * @return the state for one segment
+	 */
+	public Tracker newTracker(int expectedEntries);
+
+	/**
+	 * The eviction state of one segment.
+	 */
+	public interface Tracker {
+
+		/**
+		 * @param slot of the entry that was found
+		 * @param id   of the entry
+		 */
+		public void hit(int slot, long id);
+
+		/**
+		 * @param id that was not found
+		 */
+		public void miss(long id);
+
+		/**
+		 * @param slot of the new entry
+		 * @param id   of the new entry
+		 */
+		public void added(int slot, long id);
+
+		/**
+		 * @param slot of the entry that was removed
+		 */
+		public void removed(int slot);
+
+		/**
+		 * @return the slot of the entry to evict next, or -1 if there are none
+		 */
+		public int victim();
+
+		/**
+		 * @param candidate id of the entry that needs room
+		 * @param victim    id of the entry that would be evicted
+		 * @return true to evict the victim, false to not cache the candidate
+		 */
+		public boolean admit(long candidate, long victim);
+	}
+}
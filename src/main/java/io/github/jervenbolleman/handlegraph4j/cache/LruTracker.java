@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import java.util.Arrays;
+
+/**
+ * Orders the slots of a segment from most to least recently used, in a doubly
+ * linked list of slot numbers.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+class LruTracker implements EvictionPolicy.Tracker {
+
+	private static final int NONE = -1;
+
+	private int[] previous = new int[16];
+	private int[] next = new int[16];
+	private int head = NONE;
+	private int tail = NONE;
+
+	@Override
+	public void hit(int slot, long id) {
+		if (slot != head) {
+			unlink(slot);
+			linkFirst(slot);
+		}
+	}
+
+	@Override
+	public void miss(long id) {
+
+	}
+
+	@Override
+	public void added(int slot, long id) {
+		if (slot >= next.length) {
+			int length = Math.max(slot + 1, next.length * 2);
+			previous = Arrays.copyOf(previous, length);
+			next = Arrays.copyOf(next, length);
+		}
+		linkFirst(slot);
+	}
+
+	@Override
+	public void removed(int slot) {
+		unlink(slot);
+	}
+
+	@Override
+	public int victim() {
+		return tail;
+	}
+
+	@Override
+	public boolean admit(long candidate, long victim) {
+		return true;
+	}
+
+	private void linkFirst(int slot) {
+		previous[slot] = NONE;
+		next[slot] = head;
+		if (head != NONE) {
+			previous[head] = slot;
+		} else {
+			tail = slot;
+		}
+		head = slot;
+	}
+
+	private void unlink(int slot) {
+		int p = previous[slot];
+		int n = next[slot];
+		if (p == NONE) {
+			head = n;
+		} else {
+			next[p] = n;
+		}
+		if (n == NONE) {
+			tail = p;
+		} else {
+			previous[n] = p;
+		}
+	}
+}
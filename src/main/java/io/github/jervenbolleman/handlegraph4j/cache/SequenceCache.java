@@ -0,0 +1,428 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+import io.github.jervenbolleman.handlegraph4j.sequences.ShortAmbiguousSequence;
+import io.github.jervenbolleman.handlegraph4j.sequences.ShortKnownSequence;
+
+/**
+ * A cache of sequences by node id, bounded by the bytes the sequences take.
+ *
+ * The cache is split in segments by id, each locked on its own so that threads
+ * rarely contend. A segment keeps its entries in primitive arrays by slot,
+ * found through an open addressing table. Short sequences are kept in their
+ * packed long form, so they take no object of their own. Loading a missing
+ * sequence happens outside any lock, two threads that miss the same id at once
+ * may both load it.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class SequenceCache {
+
+	/**
+	 * The bytes counted for an entry besides its sequence: the id and the slot
+	 * in the table.
+	 */
+	static final int ENTRY_BYTES = 16;
+
+	private final Segment[] segments;
+	private final int segmentShift;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * The frequency sketch of {@link EvictionPolicy#tinyLfu()} is not counted in
+	 * maxBytes. It takes 2 to 4 bytes per entry that fits in a segment, at most
+	 * 32 MB per segment.
+	 *
+	 * @param maxBytes the most bytes of sequence and bookkeeping to keep
+	 * @param policy   to evict with
+	 */
+	public SequenceCache(long maxBytes, EvictionPolicy policy) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("A cache needs room");
+		}
+		// enough segments for the threads, but each large enough for a few long
+		// sequences
+		int wanted = (int) Math.min(Runtime.getRuntime().availableProcessors() * 4L, Math.max(1, maxBytes >>> 16));
+		int count = Integer.highestOneBit(wanted);
+		this.segments = new Segment[count];
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+		for (int i = 0; i < count; i++) {
+			long segmentBytes = maxBytes / count;
+			segments[i] = new Segment(segmentBytes,
+					policy.newTracker((int) Math.min(1 << 24, segmentBytes / ENTRY_BYTES + 1)));
+		}
+	}
+
+	/**
+	 * @param sequence to weigh
+	 * @return about the bytes it takes in the cache, including bookkeeping
+	 */
+	static long weigh(Sequence sequence) {
+		switch (sequence.getType()) {
+		case SHORT_KNOWN:
+		case SHORT_AMBIGUOUS:
+			return ENTRY_BYTES + Long.BYTES;
+		case LONG_VIA_ID:
+			// object, array header and 4 bits per nucleotide
+			return ENTRY_BYTES + 32 + ((sequence.length() + 15L) / 16) * Long.BYTES;
+		default:
+			return ENTRY_BYTES + 32 + sequence.length();
+		}
+	}
+
+	private static int hash(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private Segment segment(int hash) {
+		return segmentShift == 32 ? segments[0] : segments[hash >>> segmentShift];
+	}
+
+	/**
+	 * @param id     of the node
+	 * @param loader to call if the sequence is not cached
+	 * @return the cached or loaded sequence
+	 */
+	public Sequence get(long id, LongFunction<Sequence> loader) {
+		int hash = hash(id);
+		Segment segment = segment(hash);
+		Sequence cached = segment.get(id, hash);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		Sequence loaded = loader.apply(id);
+		if (loaded != null) {
+			segment.put(id, hash, loaded);
+		}
+		return loaded;
+	}
+
+	/**
+	 * @param id of the node
+	 * @return the cached sequence or null, without loading
+	 */
+	public Sequence getIfPresent(long id) {
+		int hash = hash(id);
+		Sequence cached = segment(hash).get(id, hash);
+		if (cached != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return cached;
+	}
+
+	/**
+	 * @param id       of the node
+	 * @param sequence to cache, if the policy admits it
+	 */
+	public void put(long id, Sequence sequence) {
+		int hash = hash(id);
+		segment(hash).put(id, hash, sequence);
+	}
+
+	/**
+	 * @param id of the node to forget
+	 */
+	public void invalidate(long id) {
+		int hash = hash(id);
+		segment(hash).invalidate(id, hash);
+	}
+
+	/**
+	 * Forget all sequences, keeps the metrics.
+	 */
+	public void invalidateAll() {
+		for (Segment segment : segments) {
+			segment.invalidateAll();
+		}
+	}
+
+	/**
+	 * @return the number of lookups that found a sequence
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a sequence
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the fraction of lookups that found a sequence, 0 if none yet
+	 */
+	public double hitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	/**
+	 * @return the number of sequences evicted to make room
+	 */
+	public long evictions() {
+		long evictions = 0;
+		for (Segment segment : segments) {
+			evictions += segment.evictions();
+		}
+		return evictions;
+	}
+
+	/**
+	 * @return the number of sequences not cached because the policy preferred
+	 *         what was already cached, or because they did not fit at all
+	 */
+	public long rejections() {
+		long rejections = 0;
+		for (Segment segment : segments) {
+			rejections += segment.rejections();
+		}
+		return rejections;
+	}
+
+	/**
+	 * @return the number of cached sequences
+	 */
+	public long size() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the bytes counted for the cached sequences
+	 */
+	public long weight() {
+		long weight = 0;
+		for (Segment segment : segments) {
+			weight += segment.weight();
+		}
+		return weight;
+	}
+
+	/**
+	 * The entries of one segment. A slot holds the id, the packed form or the
+	 * sequence object, and its weight. The table holds slot + 1, 0 is empty.
+	 */
+	private static final class Segment {
+		private static final int EMPTY = 0;
+
+		private final long maxWeight;
+		private final EvictionPolicy.Tracker tracker;
+		private long weight;
+		private int size;
+		private long evictions;
+		private long rejections;
+
+		private long[] ids = new long[16];
+		private long[] packed = new long[16];
+		private Sequence[] objects = new Sequence[16];
+		private long[] weights = new long[16];
+		private int[] freeSlots = new int[16];
+		private int free;
+		private int used;
+
+		private int[] table = new int[32];
+		private int mask = 31;
+
+		private Segment(long maxWeight, EvictionPolicy.Tracker tracker) {
+			this.maxWeight = maxWeight;
+			this.tracker = tracker;
+		}
+
+		private int find(long id, int hash) {
+			int at = hash & mask;
+			int slot;
+			while ((slot = table[at]) != EMPTY) {
+				if (ids[slot - 1] == id) {
+					return at;
+				}
+				at = (at + 1) & mask;
+			}
+			return ~at;
+		}
+
+		synchronized Sequence get(long id, int hash) {
+			int at = find(id, hash);
+			if (at < 0) {
+				tracker.miss(id);
+				return null;
+			}
+			int slot = table[at] - 1;
+			tracker.hit(slot, id);
+			Sequence object = objects[slot];
+			if (object != null) {
+				return object;
+			}
+			long value = packed[slot];
+			return SequenceType.fromLong(value) == SequenceType.SHORT_KNOWN ? new ShortKnownSequence(value)
+					: new ShortAmbiguousSequence(value);
+		}
+
+		synchronized void put(long id, int hash, Sequence sequence) {
+			if (find(id, hash) >= 0) {
+				return;
+			}
+			long w = weigh(sequence);
+			if (w > maxWeight) {
+				rejections++;
+				return;
+			}
+			while (weight + w > maxWeight) {
+				int victim = tracker.victim();
+				if (!tracker.admit(id, ids[victim])) {
+					rejections++;
+					return;
+				}
+				remove(find(ids[victim], hash(ids[victim])));
+				evictions++;
+			}
+			int slot = allocate();
+			ids[slot] = id;
+			if (sequence instanceof ShortKnownSequence) {
+				packed[slot] = ((ShortKnownSequence) sequence).asLong();
+			} else if (sequence instanceof ShortAmbiguousSequence) {
+				packed[slot] = ((ShortAmbiguousSequence) sequence).asLong();
+			} else {
+				objects[slot] = sequence;
+			}
+			weights[slot] = w;
+			weight += w;
+			size++;
+			// find again, removing victims may have shifted the table
+			table[~find(id, hash)] = slot + 1;
+			if (size * 2 > table.length) {
+				growTable();
+			}
+			tracker.added(slot, id);
+		}
+
+		synchronized void invalidate(long id, int hash) {
+			int at = find(id, hash);
+			if (at >= 0) {
+				remove(at);
+			}
+		}
+
+		synchronized void invalidateAll() {
+			while (size > 0) {
+				int victim = tracker.victim();
+				remove(find(ids[victim], hash(ids[victim])));
+			}
+		}
+
+		private int allocate() {
+			if (free > 0) {
+				return freeSlots[--free];
+			}
+			if (used == ids.length) {
+				int length = used * 2;
+				ids = Arrays.copyOf(ids, length);
+				packed = Arrays.copyOf(packed, length);
+				objects = Arrays.copyOf(objects, length);
+				weights = Arrays.copyOf(weights, length);
+			}
+			return used++;
+		}
+
+		/**
+		 * Remove the entry in the table at, and shift back the entries after it
+		 * so that no tombstones are needed.
+		 */
+		private void remove(int at) {
+			int slot = table[at] - 1;
+			tracker.removed(slot);
+			weight -= weights[slot];
+			objects[slot] = null;
+			size--;
+			if (free == freeSlots.length) {
+				freeSlots = Arrays.copyOf(freeSlots, free * 2);
+			}
+			freeSlots[free++] = slot;
+			int gap = at;
+			int next = at;
+			while (true) {
+				next = (next + 1) & mask;
+				int present = table[next];
+				if (present == EMPTY) {
+					break;
+				}
+				int home = hash(ids[present - 1]) & mask;
+				if (((next - home) & mask) >= ((next - gap) & mask)) {
+					table[gap] = present;
+					gap = next;
+				}
+			}
+			table[gap] = EMPTY;
+		}
+
+		private void growTable() {
+			int[] old = table;
+			table = new int[old.length * 2];
+			mask = table.length - 1;
+			for (int present : old) {
+				if (present != EMPTY) {
+					int at = hash(ids[present - 1]) & mask;
+					while (table[at] != EMPTY) {
+						at = (at + 1) & mask;
+					}
+					table[at] = present;
+				}
+			}
+		}
+
+		synchronized long evictions() {
+			return evictions;
+		}
+
+		synchronized long rejections() {
+			return rejections;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized long weight() {
+			return weight;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+/**
+ * An {@link LruTracker} that only admits a new entry if it was asked for at
+ * least as often as the victim.
+ *
+ * The frequencies are estimated with a count-min sketch of 4 bit counters, 4
+ * per id, packed two to a byte. After ten times as many accesses as there are
+ * counters all counts are halved, so that the sketch follows changes in what
+ * is hot.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+final class TinyLfuTracker extends LruTracker {
+
+	private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+			0xD6E8FEB86659FD93L };
+	private static final int MAX_COUNT = 15;
+	/**
+	 * Keeps the low 3 bits of both counters in a byte after it is shifted right
+	 * by one.
+	 */
+	private static final int HALVE_MASK = 0x77;
+
+	private final byte[] counts;
+	private final int mask;
+	private final int sampleSize;
+	private int samples;
+
+	TinyLfuTracker(int expectedEntries) {
+		int length = Integer.highestOneBit(Math.max(1024, Math.min(1 << 28, expectedEntries * 4)) - 1) << 1;
+		this.counts = new byte[length / 2];
+		this.mask = length - 1;
+		this.sampleSize = length * 10;
+	}
+
+	private int index(long id, int hash) {
+		long h = (id + hash) * SEEDS[hash];
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void increment(long id) {
+		for (int hash = 0; hash < SEEDS.length; hash++) {
+			int at = index(id, hash);
+			if (count(at) < MAX_COUNT) {
+				counts[at >>> 1] += 1 << shift(at);
+			}
+		}
+		if (++samples == sampleSize) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = (byte) ((counts[i] >>> 1) & HALVE_MASK);
+			}
+			samples /= 2;
+		}
+	}
+
+	private static int shift(int at) {
+		return (at & 1) << 2;
+	}
+
+	private int count(int at) {
+		return (counts[at >>> 1] >>> shift(at)) & MAX_COUNT;
+	}
+
+	int frequency(long id) {
+		int frequency = MAX_COUNT;
+		for (int hash = 0; hash < SEEDS.length; hash++) {
+			frequency = Math.min(frequency, count(index(id, hash)));
+		}
+		return frequency;
+	}
+
+	@Override
+	public void hit(int slot, long id) {
+		increment(id);
+		super.hit(slot, id);
+	}
+
+	@Override
+	public void miss(long id) {
+		increment(id);
+	}
+
+	@Override
+	public boolean admit(long candidate, long victim) {
+		return frequency(candidate) >= frequency(victim);
+	}
+}
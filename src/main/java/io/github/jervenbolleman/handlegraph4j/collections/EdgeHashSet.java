@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing (linear probing) set of bidirected edges, keyed by the
+ * canonical handle codes of {@link EdgeKeys}. An edge and its flipped form are
+ * the same member. Does not allocate except when growing.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class EdgeHashSet {
+
+	private static final long EMPTY = -1;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] lefts;
+	private long[] rights;
+	private int mask;
+	private int size;
+
+	/**
+	 * A set with a small initial capacity
+	 */
+	public EdgeHashSet() {
+		this(16);
+	}
+
+	/**
+	 * @param expected number of edges, to avoid growing
+	 */
+	public EdgeHashSet(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) Math.min(1 << 30, expected / LOAD_FACTOR)) - 1) << 1;
+		lefts = new long[capacity];
+		rights = new long[capacity];
+		Arrays.fill(lefts, EMPTY);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @return true if the edge was not yet present
+	 */
+	public boolean add(long left, long right) {
+		long l = EdgeKeys.canonicalLeft(left, right);
+		long r = EdgeKeys.canonicalRight(left, right);
+		int at = EdgeKeys.hash(l, r) & mask;
+		while (lefts[at] != EMPTY) {
+			if (lefts[at] == l && rights[at] == r) {
+				return false;
+			}
+			at = (at + 1) & mask;
+		}
+		lefts[at] = l;
+		rights[at] = r;
+		if (++size > lefts.length * LOAD_FACTOR) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @return true if the edge, in either orientation, is present
+	 */
+	public boolean contains(long left, long right) {
+		long l = EdgeKeys.canonicalLeft(left, right);
+		long r = EdgeKeys.canonicalRight(left, right);
+		int at = EdgeKeys.hash(l, r) & mask;
+		while (lefts[at] != EMPTY) {
+			if (lefts[at] == l && rights[at] == r) {
+				return true;
+			}
+			at = (at + 1) & mask;
+		}
+		return false;
+	}
+
+	private void grow() {
+		long[] oldLefts = lefts;
+		long[] oldRights = rights;
+		lefts = new long[oldLefts.length * 2];
+		rights = new long[oldLefts.length * 2];
+		Arrays.fill(lefts, EMPTY);
+		mask = lefts.length - 1;
+		for (int i = 0; i < oldLefts.length; i++) {
+			if (oldLefts[i] != EMPTY) {
+				int at = EdgeKeys.hash(oldLefts[i], oldRights[i]) & mask;
+				while (lefts[at] != EMPTY) {
+					at = (at + 1) & mask;
+				}
+				lefts[at] = oldLefts[i];
+				rights[at] = oldRights[i];
+			}
+		}
+	}
+
+	/**
+	 * @return the number of edges in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if there are no edges in the set
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all edges, keeps the current capacity.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(lefts, EMPTY);
+			size = 0;
+		}
+	}
+
+	/**
+	 * @param action called with the canonical form of each edge, in no
+	 *               particular order
+	 */
+	public void forEach(EdgeKeys.EdgeConsumer action) {
+		for (int i = 0; i < lefts.length; i++) {
+			if (lefts[i] != EMPTY) {
+				action.accept(lefts[i], rights[i]);
+			}
+		}
+	}
+}
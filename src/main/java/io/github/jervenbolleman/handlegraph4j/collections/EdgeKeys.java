@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+/**
+ * Canonical keys for bidirected edges, computed from node ids and orientation
+ * bits only, so that no handles are flipped or allocated.
+ *
+ * An oriented node is encoded as the handle code {@code id << 1 | reverse},
+ * for a forward id from 0 up to 2^62. Flipping is {@code code ^ 1}. The edge
+ * left to right is the same edge as flip(right) to flip(left), the canonical
+ * form is the one with the smaller left code. Both codes together identify an
+ * edge exactly, and when the ids are below 2^31 they pack into one long.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class EdgeKeys {
+
+	/**
+	 * The largest forward id that fits in a handle code.
+	 */
+	public static final long MAX_ID = (1L << 62) - 1;
+
+	/**
+	 * The largest forward id for which edges can be packed in one long.
+	 */
+	public static final long MAX_PACKED_ID = Integer.MAX_VALUE;
+
+	private EdgeKeys() {
+
+	}
+
+	/**
+	 * @param id      of the forward orientation, from 0 to {@link #MAX_ID}
+	 * @param reverse orientation
+	 * @return the handle code
+	 */
+	public static long handle(long id, boolean reverse) {
+		if (id < 0 || id > MAX_ID) {
+			throw new IllegalArgumentException("Node id " + id + " does not fit in a handle code");
+		}
+		return id << 1 | (reverse ? 1 : 0);
+	}
+
+	/**
+	 * For graphs where a negative id is the reverse orientation.
+	 *
+	 * @param signedId of an oriented node
+	 * @return the handle code
+	 */
+	public static long signed(long signedId) {
+		return signedId < 0 ? handle(-signedId, true) : handle(signedId, false);
+	}
+
+	/**
+	 * @param code a handle code
+	 * @return the forward id
+	 */
+	public static long id(long code) {
+		return code >>> 1;
+	}
+
+	/**
+	 * @param code a handle code
+	 * @return true if the orientation is reverse
+	 */
+	public static boolean isReverse(long code) {
+		return (code & 1) == 1;
+	}
+
+	/**
+	 * @param code a handle code
+	 * @return the code of the other orientation
+	 */
+	public static long flip(long code) {
+		return code ^ 1;
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @return true if the edge left to right is already in canonical form
+	 */
+	public static boolean isCanonical(long left, long right) {
+		return left <= (right ^ 1);
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @return the left handle code of the canonical form of the edge
+	 */
+	public static long canonicalLeft(long left, long right) {
+		return isCanonical(left, right) ? left : right ^ 1;
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @return the right handle code of the canonical form of the edge
+	 */
+	public static long canonicalRight(long left, long right) {
+		return isCanonical(left, right) ? right : left ^ 1;
+	}
+
+	/**
+	 * @param left  handle code, of a node id up to {@link #MAX_PACKED_ID}
+	 * @param right handle code, of a node id up to {@link #MAX_PACKED_ID}
+	 * @return the canonical edge, the left code in the high and the right code
+	 *         in the low 32 bits
+	 */
+	public static long pack(long left, long right) {
+		if (id(left) > MAX_PACKED_ID || id(right) > MAX_PACKED_ID) {
+			throw new IllegalArgumentException("Edge " + left + "->" + right + " does not fit in a packed long");
+		}
+		return canonicalLeft(left, right) << 32 | canonicalRight(left, right);
+	}
+
+	/**
+	 * @param packed edge
+	 * @return the left handle code
+	 */
+	public static long packedLeft(long packed) {
+		return packed >>> 32;
+	}
+
+	/**
+	 * @param packed edge
+	 * @return the right handle code
+	 */
+	public static long packedRight(long packed) {
+		return packed & 0xFFFF_FFFFL;
+	}
+
+	/**
+	 * @param left  canonical left handle code
+	 * @param right canonical right handle code
+	 * @return a well distributed hash of both
+	 */
+	static int hash(long left, long right) {
+		return LongHashSet.mix(left * 31 + LongHashSet.mix(right));
+	}
+
+	/**
+	 * Receives edges as canonical handle codes.
+	 */
+	@FunctionalInterface
+	public interface EdgeConsumer {
+		/**
+		 * @param left  handle code
+		 * @param right handle code
+		 */
+		void accept(long left, long right);
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing (linear probing) map from bidirected edges to primitive
+ * longs, keyed by the canonical handle codes of {@link EdgeKeys}. An edge and
+ * its flipped form are the same key. Does not box, and does not allocate
+ * except when growing.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class EdgeLongHashMap {
+
+	private static final long EMPTY = -1;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] lefts;
+	private long[] rights;
+	private long[] values;
+	private int mask;
+	private int size;
+
+	/**
+	 * Receives edges as canonical handle codes with their value.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer {
+		/**
+		 * @param left  handle code
+		 * @param right handle code
+		 * @param value of the edge
+		 */
+		void accept(long left, long right, long value);
+	}
+
+	/**
+	 * A map with a small initial capacity
+	 */
+	public EdgeLongHashMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expected number of edges, to avoid growing
+	 */
+	public EdgeLongHashMap(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) Math.min(1 << 30, expected / LOAD_FACTOR)) - 1) << 1;
+		lefts = new long[capacity];
+		rights = new long[capacity];
+		values = new long[capacity];
+		Arrays.fill(lefts, EMPTY);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * The slot of the edge, or of the empty slot where it would go.
+	 */
+	private int slot(long l, long r) {
+		int at = EdgeKeys.hash(l, r) & mask;
+		while (lefts[at] != EMPTY && (lefts[at] != l || rights[at] != r)) {
+			at = (at + 1) & mask;
+		}
+		return at;
+	}
+
+	/**
+	 * @param left         handle code
+	 * @param right        handle code
+	 * @param value        to associate with the edge
+	 * @param defaultValue returned if absent
+	 * @return the previous value, or defaultValue if the edge was not present
+	 */
+	public long put(long left, long right, long value, long defaultValue) {
+		long l = EdgeKeys.canonicalLeft(left, right);
+		long r = EdgeKeys.canonicalRight(left, right);
+		int at = slot(l, r);
+		if (lefts[at] != EMPTY) {
+			long previous = values[at];
+			values[at] = value;
+			return previous;
+		}
+		insert(at, l, r, value);
+		return defaultValue;
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @param delta added to the value of the edge, which starts at 0
+	 * @return the new value
+	 */
+	public long addTo(long left, long right, long delta) {
+		long l = EdgeKeys.canonicalLeft(left, right);
+		long r = EdgeKeys.canonicalRight(left, right);
+		int at = slot(l, r);
+		if (lefts[at] != EMPTY) {
+			return values[at] += delta;
+		}
+		insert(at, l, r, delta);
+		return delta;
+	}
+
+	private void insert(int at, long l, long r, long value) {
+		lefts[at] = l;
+		rights[at] = r;
+		values[at] = value;
+		if (++size > lefts.length * LOAD_FACTOR) {
+			grow();
+		}
+	}
+
+	/**
+	 * @param left         handle code
+	 * @param right        handle code
+	 * @param defaultValue returned if absent
+	 * @return the value of the edge, in either orientation, or defaultValue
+	 */
+	public long get(long left, long right, long defaultValue) {
+		long l = EdgeKeys.canonicalLeft(left, right);
+		long r = EdgeKeys.canonicalRight(left, right);
+		int at = slot(l, r);
+		return lefts[at] == EMPTY ? defaultValue : values[at];
+	}
+
+	/**
+	 * @param left  handle code
+	 * @param right handle code
+	 * @return true if the edge, in either orientation, is present
+	 */
+	public boolean containsKey(long left, long right) {
+		return lefts[slot(EdgeKeys.canonicalLeft(left, right), EdgeKeys.canonicalRight(left, right))] != EMPTY;
+	}
+
+	private void grow() {
+		long[] oldLefts = lefts;
+		long[] oldRights = rights;
+		long[] oldValues = values;
+		lefts = new long[oldLefts.length * 2];
+		rights = new long[oldLefts.length * 2];
+		values = new long[oldLefts.length * 2];
+		Arrays.fill(lefts, EMPTY);
+		mask = lefts.length - 1;
+		for (int i = 0; i < oldLefts.length; i++) {
+			if (oldLefts[i] != EMPTY) {
+				int at = slot(oldLefts[i], oldRights[i]);
+				lefts[at] = oldLefts[i];
+				rights[at] = oldRights[i];
+				values[at] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * @return the number of edges in the map
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if there are no edges in the map
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all edges, keeps the current capacity.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(lefts, EMPTY);
+			size = 0;
+		}
+	}
+
+	/**
+	 * @param action called with the canonical form of each edge and its value,
+	 *               in no particular order
+	 */
+	public void forEach(EntryConsumer action) {
+		for (int i = 0; i < lefts.length; i++) {
+			if (lefts[i] != EMPTY) {
+				action.accept(lefts[i], rights[i], values[i]);
+			}
+		}
+	}
+}
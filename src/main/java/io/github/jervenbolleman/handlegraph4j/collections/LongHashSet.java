@@ -0,0 +1,280 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * An open addressing (linear probing) set of primitive longs. Does not box, and
+ * does not allocate except when growing.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class LongHashSet {
+
+	private static final long EMPTY = 0;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private int mask;
+	private int size;
+	private boolean containsEmpty;
+
+	/**
+	 * A set with a small initial capacity
+	 */
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * @param expected number of values, to avoid growing
+	 */
+	public LongHashSet(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) Math.min(1 << 30, expected / LOAD_FACTOR)) - 1) << 1;
+		keys = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Spread the bits of a long so that sequential ids do not cluster.
+	 *
+	 * @param value to mix
+	 * @return a well distributed hash
+	 */
+	static int mix(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * @param value to add
+	 * @return true if the value was not yet present
+	 */
+	public boolean add(long value) {
+		if (value == EMPTY) {
+			if (containsEmpty) {
+				return false;
+			}
+			containsEmpty = true;
+			size++;
+			return true;
+		}
+		int at = mix(value) & mask;
+		long present;
+		while ((present = keys[at]) != EMPTY) {
+			if (present == value) {
+				return false;
+			}
+			at = (at + 1) & mask;
+		}
+		keys[at] = value;
+		if (++size > keys.length * LOAD_FACTOR) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * @param value to test
+	 * @return true if the value is present
+	 */
+	public boolean contains(long value) {
+		if (value == EMPTY) {
+			return containsEmpty;
+		}
+		int at = mix(value) & mask;
+		long present;
+		while ((present = keys[at]) != EMPTY) {
+			if (present == value) {
+				return true;
+			}
+			at = (at + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @param value to remove
+	 * @return true if the value was present
+	 */
+	public boolean remove(long value) {
+		if (value == EMPTY) {
+			if (containsEmpty) {
+				containsEmpty = false;
+				size--;
+				return true;
+			}
+			return false;
+		}
+		int at = mix(value) & mask;
+		long present;
+		while ((present = keys[at]) != EMPTY) {
+			if (present == value) {
+				shiftBack(at);
+				size--;
+				return true;
+			}
+			at = (at + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Backward shift deletion, so that no tombstones are needed.
+	 */
+	private void shiftBack(int gap) {
+		int at = gap;
+		while (true) {
+			at = (at + 1) & mask;
+			long present = keys[at];
+			if (present == EMPTY) {
+				break;
+			}
+			int home = mix(present) & mask;
+			// Move the value into the gap if its home is not between the gap and
+			// its current slot.
+			if (((at - home) & mask) >= ((at - gap) & mask)) {
+				keys[gap] = present;
+				gap = at;
+			}
+		}
+		keys[gap] = EMPTY;
+	}
+
+	private void grow() {
+		long[] old = keys;
+		keys = new long[old.length * 2];
+		mask = keys.length - 1;
+		for (long value : old) {
+			if (value != EMPTY) {
+				int at = mix(value) & mask;
+				while (keys[at] != EMPTY) {
+					at = (at + 1) & mask;
+				}
+				keys[at] = value;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of values in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if there are no values in the set
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all values, keeps the current capacity.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(keys, EMPTY);
+			containsEmpty = false;
+			size = 0;
+		}
+	}
+
+	/**
+	 * @param action called for each value, in no particular order
+	 */
+	public void forEach(LongConsumer action) {
+		if (containsEmpty) {
+			action.accept(EMPTY);
+		}
+		for (long value : keys) {
+			if (value != EMPTY) {
+				action.accept(value);
+			}
+		}
+	}
+
+	/**
+	 * @return a new array with all values, in no particular order
+	 */
+	public long[] toArray() {
+		long[] values = new long[size];
+		int i = 0;
+		if (containsEmpty) {
+			values[i++] = EMPTY;
+		}
+		for (long value : keys) {
+			if (value != EMPTY) {
+				values[i++] = value;
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * The set must not be changed while iterating.
+	 *
+	 * @return the values in no particular order
+	 */
+	public AutoClosedIterator.OfLong iterator() {
+		return new AutoClosedIterator.OfLong() {
+			boolean emptyReturned = !containsEmpty;
+			int at = 0;
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public boolean hasNext() {
+				if (!emptyReturned) {
+					return true;
+				}
+				while (at < keys.length && keys[at] == EMPTY) {
+					at++;
+				}
+				return at < keys.length;
+			}
+
+			@Override
+			public long nextLong() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				} else if (!emptyReturned) {
+					emptyReturned = true;
+					return EMPTY;
+				}
+				return keys[at++];
+			}
+		};
+	}
+}
@@ -0,0 +1,751 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.gbwt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntUnaryOperator;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+/**
+ * A run length encoded index of many paths over the same nodes, in the style of
+ * the GBWT (Sirén et al. 2020).
+ *
+ * Paths are sequences of positive int symbols, 0 is reserved as the end
+ * marker. For each symbol there is a record of the visits of all paths to it,
+ * ordered by the visit before it. For each visit only the next symbol is kept,
+ * as a run length encoded sequence, so paths that follow the same route share
+ * runs and memory grows with the number of different routes instead of with the
+ * number of paths. The end marker record has one visit per path, holding its
+ * first symbol.
+ *
+ * A visit to the next symbol is found with the LF mapping: the number of visits
+ * to it from records with a lower symbol, plus the number of visits in this
+ * record before this one that go to the same symbol. Each record keeps, per
+ * next symbol, its runs and the visits before each of them, so this takes two
+ * binary searches.
+ *
+ * Visits are sampled as in the r-index (Gagie et al. 2020): the first visit of
+ * each run and the last visit of each path, with the path and rank of the
+ * visit before it in the same record. The visits of a run go to the same next
+ * symbol and stay next to each other there, so the visit before any visit is
+ * found from the next sample of its path. The paths of a range of visits are
+ * located this way from its last visit, which is tracked while finding the
+ * range. A path is read from its sample before the rank asked for, or if that
+ * is more than the sample interval away, from the visit before it, which walks
+ * the same route.
+ *
+ * So there are at most as many samples as runs plus paths, whatever the length
+ * of the paths. Each sample takes 44 bytes and each run 12 more for its last
+ * visit. A sample also keeps the sum of the weights of the symbols before it,
+ * see {@link Builder#build(int, IntUnaryOperator)}, so the offset of a visit
+ * is found the same way.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class HaplotypeIndex {
+
+	/**
+	 * The symbol that ends each path
+	 */
+	public static final int END = 0;
+
+	private final Record[] records;
+	private final long[] lengths;
+	private final int sampleInterval;
+	private final int[] weights;
+	/**
+	 * the samples of path p are from sampleStarts[p] to sampleStarts[p + 1], in
+	 * rank order, with their record, visit and offset, and the path, rank and
+	 * offset of the visit before them
+	 */
+	private final int[] sampleStarts;
+	private long[] sampleRanks;
+	private int[] sampleSymbols;
+	private int[] sampleVisits;
+	private long[] sampleOffsets;
+	private int[] previousPaths;
+	private long[] previousRanks;
+	private long[] previousOffsets;
+
+	private static final class Record {
+		private static final Record EMPTY = new Record(new int[0], new int[0], new int[0], new int[0]);
+
+		private final int[] outgoing;
+		private final int[] offsets;
+		private final int[] runValues;
+		private final int[] runEnds;
+		/**
+		 * per edge the runs going to it, and the visits to it before each run
+		 */
+		private final int[] edgeRunStarts;
+		private final int[] edgeRuns;
+		private final int[] edgeRanks;
+		/**
+		 * per run the path and rank of its last visit
+		 */
+		private final int[] lastPaths;
+		private final long[] lastRanks;
+
+		private Record(int[] outgoing, int[] offsets, int[] runValues, int[] runEnds) {
+			this.outgoing = outgoing;
+			this.offsets = offsets;
+			this.runValues = runValues;
+			this.runEnds = runEnds;
+			this.edgeRunStarts = new int[outgoing.length + 1];
+			for (int run = 0; run < runValues.length; run++) {
+				edgeRunStarts[runValues[run] + 1]++;
+			}
+			for (int edge = 0; edge < outgoing.length; edge++) {
+				edgeRunStarts[edge + 1] += edgeRunStarts[edge];
+			}
+			this.edgeRuns = new int[runValues.length];
+			this.edgeRanks = new int[runValues.length];
+			int[] fill = Arrays.copyOf(edgeRunStarts, outgoing.length);
+			int[] visits = new int[outgoing.length];
+			for (int run = 0; run < runValues.length; run++) {
+				int edge = runValues[run];
+				edgeRuns[fill[edge]] = run;
+				edgeRanks[fill[edge]++] = visits[edge];
+				visits[edge] += runEnds[run] - runStart(run);
+			}
+			this.lastPaths = new int[runValues.length];
+			this.lastRanks = new long[runValues.length];
+		}
+
+		private int runStart(int run) {
+			return run == 0 ? 0 : runEnds[run - 1];
+		}
+
+		private int size() {
+			return runEnds.length == 0 ? 0 : runEnds[runEnds.length - 1];
+		}
+
+		private int runOf(int visit) {
+			int run = Arrays.binarySearch(runEnds, visit + 1);
+			return run < 0 ? -run - 1 : run;
+		}
+
+		private int successor(int visit) {
+			return outgoing[runValues[runOf(visit)]];
+		}
+
+		/**
+		 * @return the last run before run that goes to symbol
+		 */
+		private int lastRunBefore(int symbol, int run) {
+			int edge = Arrays.binarySearch(outgoing, symbol);
+			int at = Arrays.binarySearch(edgeRuns, edgeRunStarts[edge], edgeRunStarts[edge + 1], run);
+			return edgeRuns[(at < 0 ? -at - 1 : at) - 1];
+		}
+
+		/**
+		 * @return the visit in the record of symbol reached from this visit, or
+		 *         -1 if no visit of this record goes to symbol
+		 */
+		private int lf(int visit, int symbol) {
+			int edge = Arrays.binarySearch(outgoing, symbol);
+			if (edge < 0) {
+				return -1;
+			}
+			// the run holding visit, all runs before it end at or before visit
+			int run = Arrays.binarySearch(runEnds, visit);
+			run = run < 0 ? -run - 1 : run + 1;
+			int from = edgeRunStarts[edge];
+			int at = Arrays.binarySearch(edgeRuns, from, edgeRunStarts[edge + 1], run);
+			int rank;
+			if (at >= 0) {
+				rank = edgeRanks[at] + visit - runStart(run);
+			} else if (-at - 1 == from) {
+				rank = 0;
+			} else {
+				int before = -at - 2;
+				int last = edgeRuns[before];
+				rank = edgeRanks[before] + runEnds[last] - runStart(last);
+			}
+			return offsets[edge] + rank;
+		}
+	}
+
+	private HaplotypeIndex(Record[] records, long[] lengths, int sampleInterval, int[] weights) {
+		this.records = records;
+		this.lengths = lengths;
+		this.sampleInterval = sampleInterval;
+		this.weights = weights;
+		this.sampleStarts = new int[lengths.length + 1];
+		sample();
+	}
+
+	/**
+	 * Walk every path once to sample the first visit of each run, the last visit
+	 * of each path and the last visit of each run. Then find the visit before
+	 * each sample.
+	 */
+	private void sample() {
+		long[][] lastOffsets = new long[records.length][];
+		for (int s = 0; s < records.length; s++) {
+			lastOffsets[s] = new long[records[s].runEnds.length];
+		}
+		// the path ending at each record and visit that does not start a run
+		Map<Long, Integer> ends = new HashMap<>();
+		sampleRanks = new long[16];
+		sampleSymbols = new int[16];
+		sampleVisits = new int[16];
+		sampleOffsets = new long[16];
+		int count = 0;
+		for (int path = 0; path < lengths.length; path++) {
+			int symbol = END;
+			int visit = path;
+			long offset = 0;
+			for (long rank = 0; rank < lengths[path]; rank++) {
+				int next = records[symbol].successor(visit);
+				visit = records[symbol].lf(visit, next);
+				offset += weights[symbol];
+				symbol = next;
+				Record record = records[symbol];
+				int run = record.runOf(visit);
+				boolean last = rank == lengths[path] - 1;
+				if (visit == record.runEnds[run] - 1) {
+					record.lastPaths[run] = path;
+					record.lastRanks[run] = rank;
+					lastOffsets[symbol][run] = offset;
+				}
+				boolean first = visit == record.runStart(run);
+				if (first || last) {
+					if (count == sampleRanks.length) {
+						if (count > Integer.MAX_VALUE / 2) {
+							throw new IllegalStateException("Too many samples: " + count);
+						}
+						sampleRanks = Arrays.copyOf(sampleRanks, count * 2);
+						sampleSymbols = Arrays.copyOf(sampleSymbols, count * 2);
+						sampleVisits = Arrays.copyOf(sampleVisits, count * 2);
+						sampleOffsets = Arrays.copyOf(sampleOffsets, count * 2);
+					}
+					sampleRanks[count] = rank;
+					sampleSymbols[count] = symbol;
+					sampleVisits[count] = visit;
+					sampleOffsets[count++] = offset;
+				}
+				if (last) {
+					ends.put((long) symbol << 32 | visit, path);
+				}
+			}
+			sampleStarts[path + 1] = count;
+		}
+		sampleRanks = Arrays.copyOf(sampleRanks, count);
+		sampleSymbols = Arrays.copyOf(sampleSymbols, count);
+		sampleVisits = Arrays.copyOf(sampleVisits, count);
+		sampleOffsets = Arrays.copyOf(sampleOffsets, count);
+		previousPaths = new int[count];
+		previousRanks = new long[count];
+		previousOffsets = new long[count];
+		for (int i = 0; i < count; i++) {
+			int symbol = sampleSymbols[i];
+			Record record = records[symbol];
+			int visit = sampleVisits[i];
+			int run = record.runOf(visit);
+			if (visit == 0) {
+				previousPaths[i] = -1;
+				previousRanks[i] = -1;
+			} else if (visit == record.runStart(run)) {
+				previousPaths[i] = record.lastPaths[run - 1];
+				previousRanks[i] = record.lastRanks[run - 1];
+				previousOffsets[i] = lastOffsets[symbol][run - 1];
+			} else {
+				// the last visit of a path, in the same run as the last visit of another
+				int before = ends.get((long) symbol << 32 | (visit - 1));
+				previousPaths[i] = before;
+				previousRanks[i] = lengths[before] - 1;
+				previousOffsets[i] = sampleOffsets[sampleStarts[before + 1] - 1];
+			}
+		}
+	}
+
+	private int sampleAtOrBefore(int path, long rank) {
+		int at = Arrays.binarySearch(sampleRanks, sampleStarts[path], sampleStarts[path + 1], rank);
+		return at < 0 ? -at - 2 : at;
+	}
+
+	private int sampleAtOrAfter(int path, long rank) {
+		int at = Arrays.binarySearch(sampleRanks, sampleStarts[path], sampleStarts[path + 1], rank);
+		return at < 0 ? -at - 1 : at;
+	}
+
+	/**
+	 * Walks from the sample before rank, after moving to the visit before this
+	 * one as long as that sample is too far away. The visits before are in the
+	 * same record and walked the same route, with the same symbols.
+	 *
+	 * @return the symbol, visit and offset of the path at rank
+	 */
+	private long[] visitAt(int path, long rank) {
+		int hops = 0;
+		long shift = 0;
+		int before = sampleAtOrBefore(path, rank);
+		long from = before < sampleStarts[path] ? -1 : sampleRanks[before];
+		while (rank - from > sampleInterval) {
+			// rank does not start a run, so the visit before it walks along up to the next sample
+			int after = before + 1;
+			shift += sampleOffsets[after] - previousOffsets[after];
+			rank = previousRanks[after] - (sampleRanks[after] - rank);
+			path = previousPaths[after];
+			hops++;
+			before = sampleAtOrBefore(path, rank);
+			from = before < sampleStarts[path] ? -1 : sampleRanks[before];
+		}
+		int symbol = from < 0 ? END : sampleSymbols[before];
+		int visit = from < 0 ? path : sampleVisits[before];
+		long offset = from < 0 ? 0 : sampleOffsets[before];
+		for (long at = from; at < rank; at++) {
+			offset += weights[symbol];
+			int next = records[symbol].successor(visit);
+			visit = records[symbol].lf(visit, next);
+			symbol = next;
+		}
+		return new long[] { symbol, visit + hops, offset + shift };
+	}
+
+	/**
+	 * @return the number of paths
+	 */
+	public int pathCount() {
+		return lengths.length;
+	}
+
+	/**
+	 * @param path the number of the path, in order of insertion
+	 * @return the number of symbols in the path
+	 */
+	public long length(int path) {
+		return lengths[path];
+	}
+
+	/**
+	 * @return the number of runs over all records, a measure of the memory used
+	 */
+	public long runCount() {
+		long runs = 0;
+		for (Record record : records) {
+			runs += record.runEnds.length;
+		}
+		return runs;
+	}
+
+	/**
+	 * @return the number of sampled visits, at most the number of runs plus the
+	 *         number of paths
+	 */
+	public long sampleCount() {
+		return sampleRanks.length;
+	}
+
+	/**
+	 * @param path the number of the path
+	 * @param rank of a symbol in the path
+	 * @return the sum of the weights of the symbols before it
+	 */
+	public long offset(int path, long rank) {
+		if (rank < 0 || rank >= lengths[path]) {
+			throw new IllegalArgumentException("Rank " + rank + " is not in path " + path);
+		}
+		return visitAt(path, rank)[2];
+	}
+
+	/**
+	 * @param path the number of the path
+	 * @param rank of the symbol in the path
+	 * @return the symbol
+	 */
+	public int symbolAt(int path, long rank) {
+		try (AutoClosedIterator.OfInt symbols = symbols(path, rank)) {
+			return symbols.nextInt();
+		}
+	}
+
+	/**
+	 * @param path the number of the path
+	 * @return the symbols of the path
+	 */
+	public AutoClosedIterator.OfInt symbols(int path) {
+		return symbols(path, 0);
+	}
+
+	/**
+	 * Starts from the sample before rank, or the visit before, so skipping ahead
+	 * is cheap.
+	 *
+	 * @param path the number of the path
+	 * @param from the rank of the first symbol
+	 * @return the symbols of the path from rank on
+	 */
+	public AutoClosedIterator.OfInt symbols(int path, long from) {
+		if (from < 0 || from >= lengths[path]) {
+			return AutoClosedIterator.OfInt.empty();
+		}
+		long[] at = visitAt(path, from);
+		int startSymbol = (int) at[0];
+		int startVisit = (int) at[1];
+		return new AutoClosedIterator.OfInt() {
+			private int symbol = startSymbol;
+			private int visit = startVisit;
+			private boolean first = true;
+
+			@Override
+			public boolean hasNext() {
+				return first || records[symbol].successor(visit) != END;
+			}
+
+			@Override
+			public int nextInt() {
+				if (first) {
+					first = false;
+					return symbol;
+				}
+				int next = records[symbol].successor(visit);
+				if (next == END) {
+					throw new NoSuchElementException();
+				}
+				visit = records[symbol].lf(visit, next);
+				symbol = next;
+				return symbol;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * @param subpath a sequence of symbols
+	 * @return the number of times paths walk the subpath
+	 */
+	public long count(int... subpath) {
+		long[] range = find(subpath);
+		return range == null ? 0 : range[2] - range[1];
+	}
+
+	/**
+	 * @param subpath a sequence of symbols
+	 * @return the sorted distinct numbers of the paths that walk the subpath
+	 */
+	public int[] haplotypes(int... subpath) {
+		long[] range = find(subpath);
+		if (range == null) {
+			return new int[0];
+		}
+		int from = (int) range[1];
+		int to = (int) range[2];
+		int[] paths = new int[to - from];
+		int path = (int) range[3];
+		long rank = range[4];
+		for (int visit = to - 1; visit >= from; visit--) {
+			paths[visit - from] = path;
+			if (visit > from) {
+				// the visit before walks the same route up to the next sample
+				int after = sampleAtOrAfter(path, rank);
+				rank = previousRanks[after] - (sampleRanks[after] - rank);
+				path = previousPaths[after];
+			}
+		}
+		Arrays.sort(paths);
+		int distinct = 0;
+		for (int i = 0; i < paths.length; i++) {
+			if (distinct == 0 || paths[distinct - 1] != paths[i]) {
+				paths[distinct++] = paths[i];
+			}
+		}
+		return Arrays.copyOf(paths, distinct);
+	}
+
+	/**
+	 * @return the record and the range of visits in it that end the subpath, with
+	 *         the path and rank of the last visit in the range, or null if no
+	 *         path walks it
+	 */
+	private long[] find(int... subpath) {
+		if (subpath.length == 0 || subpath[0] <= END || subpath[0] >= records.length) {
+			return null;
+		}
+		int symbol = subpath[0];
+		Record record = records[symbol];
+		int from = 0;
+		int to = record.size();
+		if (to == 0) {
+			return null;
+		}
+		int path = record.lastPaths[record.runEnds.length - 1];
+		long rank = record.lastRanks[record.runEnds.length - 1];
+		for (int i = 1; i < subpath.length; i++) {
+			int next = subpath[i];
+			if (next <= END || next >= records.length) {
+				return null;
+			}
+			int nextFrom = record.lf(from, next);
+			if (nextFrom < 0) {
+				return null;
+			}
+			int nextTo = record.lf(to, next);
+			if (nextFrom >= nextTo) {
+				return null;
+			}
+			int run = record.runOf(to - 1);
+			if (record.outgoing[record.runValues[run]] != next) {
+				// the last visit in the range that goes to next ends a run
+				run = record.lastRunBefore(next, run);
+				path = record.lastPaths[run];
+				rank = record.lastRanks[run];
+			}
+			rank++;
+			from = nextFrom;
+			to = nextTo;
+			symbol = next;
+			record = records[symbol];
+		}
+		return new long[] { symbol, from, to, path, rank };
+	}
+
+	/**
+	 * Inserts paths one by one into run length encoded records, then freezes them
+	 * into the index.
+	 *
+	 * Inserting a step walks the runs of the records it touches, so building
+	 * costs in the order of the steps times the runs per record. This is linear in
+	 * the number of different routes, not in the number of paths, but it is not
+	 * logarithmic like the queries of the frozen index.
+	 */
+	public static final class Builder {
+		private final List<DynamicRecord> records = new ArrayList<>();
+		private final List<Long> lengths = new ArrayList<>();
+
+		/**
+		 * The successors of the visits as runs, so a record grows with the number
+		 * of different routes through it. Finding and counting still walks the
+		 * runs, so inserting a step costs in the order of the runs in the records
+		 * it touches.
+		 */
+		private static final class DynamicRecord {
+			private int[] runValues = new int[2];
+			private int[] runLengths = new int[2];
+			private int runs;
+			private int size;
+			private int[] predecessors = new int[2];
+			private int[] incoming = new int[2];
+			private int predecessorCount;
+
+			private int countBefore(int symbol, int visit) {
+				int count = 0;
+				int start = 0;
+				for (int run = 0; run < runs && start < visit; run++) {
+					if (runValues[run] == symbol) {
+						count += Math.min(runLengths[run], visit - start);
+					}
+					start += runLengths[run];
+				}
+				return count;
+			}
+
+			private int incomingBefore(int predecessor) {
+				int count = 0;
+				for (int i = 0; i < predecessorCount && predecessors[i] < predecessor; i++) {
+					count += incoming[i];
+				}
+				return count;
+			}
+
+			private void addIncoming(int predecessor) {
+				int at = Arrays.binarySearch(predecessors, 0, predecessorCount, predecessor);
+				if (at >= 0) {
+					incoming[at]++;
+					return;
+				}
+				at = -at - 1;
+				if (predecessorCount == predecessors.length) {
+					predecessors = Arrays.copyOf(predecessors, predecessorCount * 2);
+					incoming = Arrays.copyOf(incoming, predecessorCount * 2);
+				}
+				System.arraycopy(predecessors, at, predecessors, at + 1, predecessorCount - at);
+				System.arraycopy(incoming, at, incoming, at + 1, predecessorCount - at);
+				predecessors[at] = predecessor;
+				incoming[at] = 1;
+				predecessorCount++;
+			}
+
+			private void insert(int visit, int successor) {
+				size++;
+				int run = 0;
+				int start = 0;
+				while (run < runs && start + runLengths[run] < visit) {
+					start += runLengths[run++];
+				}
+				// visit is inside run, or just after its end
+				if (run < runs && runValues[run] == successor) {
+					runLengths[run]++;
+					return;
+				}
+				if (run < runs && start + runLengths[run] == visit) {
+					if (run + 1 < runs && runValues[run + 1] == successor) {
+						runLengths[run + 1]++;
+						return;
+					}
+					insertRun(run + 1, successor, 1);
+					return;
+				}
+				if (run == runs || start == visit) {
+					insertRun(run, successor, 1);
+					return;
+				}
+				// split the run around the new visit
+				int tail = start + runLengths[run] - visit;
+				runLengths[run] -= tail;
+				insertRun(run + 1, runValues[run], tail);
+				insertRun(run + 1, successor, 1);
+			}
+
+			private void insertRun(int at, int value, int length) {
+				if (runs == runValues.length) {
+					runValues = Arrays.copyOf(runValues, runs * 2);
+					runLengths = Arrays.copyOf(runLengths, runs * 2);
+				}
+				System.arraycopy(runValues, at, runValues, at + 1, runs - at);
+				System.arraycopy(runLengths, at, runLengths, at + 1, runs - at);
+				runValues[at] = value;
+				runLengths[at] = length;
+				runs++;
+			}
+		}
+
+		/**
+		 * An empty index
+		 */
+		public Builder() {
+			records.add(new DynamicRecord());
+		}
+
+		private DynamicRecord record(int symbol) {
+			while (records.size() <= symbol) {
+				records.add(new DynamicRecord());
+			}
+			return records.get(symbol);
+		}
+
+		/**
+		 * @param path the symbols, all larger than 0
+		 * @return the number of the path
+		 */
+		public int insert(int... path) {
+			for (int symbol : path) {
+				if (symbol <= END) {
+					throw new IllegalArgumentException("Symbols must be larger than " + END + " not " + symbol);
+				}
+			}
+			int number = lengths.size();
+			int previous = END;
+			int visit = number;
+			record(END).insert(visit, path.length == 0 ? END : path[0]);
+			for (int i = 0; i < path.length; i++) {
+				int symbol = path[i];
+				DynamicRecord record = record(symbol);
+				int next = record.incomingBefore(previous) + record(previous).countBefore(symbol, visit);
+				record.addIncoming(previous);
+				record.insert(next, i + 1 < path.length ? path[i + 1] : END);
+				previous = symbol;
+				visit = next;
+			}
+			lengths.add((long) path.length);
+			return number;
+		}
+
+		/**
+		 * @param sampleInterval how far random access walks along a path before it
+		 *                       moves to the visit before instead
+		 * @return the frozen index, where each symbol weighs 1, this builder can
+		 *         not be used afterwards
+		 */
+		public HaplotypeIndex build(int sampleInterval) {
+			return build(sampleInterval, symbol -> 1);
+		}
+
+		/**
+		 * @param sampleInterval how far random access walks along a path before it
+		 *                       moves to the visit before instead
+		 * @param weight         of each symbol, summed by
+		 *                       {@link HaplotypeIndex#offset(int, long)}
+		 * @return the frozen index, this builder can not be used afterwards
+		 */
+		public HaplotypeIndex build(int sampleInterval, IntUnaryOperator weight) {
+			Record[] frozen = new Record[records.size()];
+			int[] weights = new int[records.size()];
+			// offsets[w] from v is the number of visits to w from symbols below v
+			int[][] outgoing = new int[records.size()][];
+			for (int v = 0; v < records.size(); v++) {
+				DynamicRecord record = records.get(v);
+				int[] successors = Arrays.copyOf(record.runValues, record.runs);
+				Arrays.sort(successors);
+				int distinct = 0;
+				for (int i = 0; i < successors.length; i++) {
+					if (distinct == 0 || successors[distinct - 1] != successors[i]) {
+						successors[distinct++] = successors[i];
+					}
+				}
+				outgoing[v] = Arrays.copyOf(successors, distinct);
+			}
+			for (int v = 0; v < records.size(); v++) {
+				DynamicRecord record = records.get(v);
+				if (record.size == 0) {
+					frozen[v] = Record.EMPTY;
+					continue;
+				}
+				int[] out = outgoing[v];
+				int[] offsets = new int[out.length];
+				for (int e = 0; e < out.length; e++) {
+					offsets[e] = out[e] == END ? 0 : records.get(out[e]).incomingBefore(v);
+				}
+				int[] runValues = new int[record.runs];
+				int[] runEnds = new int[record.runs];
+				int end = 0;
+				for (int run = 0; run < record.runs; run++) {
+					runValues[run] = Arrays.binarySearch(out, record.runValues[run]);
+					end += record.runLengths[run];
+					runEnds[run] = end;
+				}
+				frozen[v] = new Record(out, offsets, runValues, runEnds);
+				if (v != END) {
+					weights[v] = weight.applyAsInt(v);
+				}
+			}
+			long[] pathLengths = new long[lengths.size()];
+			for (int p = 0; p < pathLengths.length; p++) {
+				pathLengths[p] = lengths.get(p);
+			}
+			records.clear();
+			return new HaplotypeIndex(frozen, pathLengths, sampleInterval, weights);
+		}
+	}
+}
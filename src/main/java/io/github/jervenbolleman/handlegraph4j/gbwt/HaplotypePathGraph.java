@@ -0,0 +1,403 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.gbwt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.HandleGraph;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * A PathGraph with the nodes and edges of another graph and its paths stored
+ * in a {@link HaplotypeIndex}. Steps are not stored but recreated from the
+ * index when asked for. The begin position of a step is its offset in the
+ * index, where each symbol weighs the sequence length of its node.
+ *
+ * The symbol of a handle is 2 * the rank of its node id + 1 for forward and + 2
+ * for reverse.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <N> the type of NodeHandle
+ * @param <E> the type of EdgeHandle
+ */
+public class HaplotypePathGraph<N extends NodeHandle, E extends EdgeHandle<N>>
+		implements PathGraph<HaplotypePathGraph.Path, HaplotypePathGraph.Step, N, E> {
+
+	private final HandleGraph<N, E> graph;
+	private final HaplotypeIndex index;
+	private final long[] nodeIds;
+	private final String[] names;
+	private final boolean[] circular;
+	private final Map<String, Path> byName = new HashMap<>();
+
+	/**
+	 * A path in the index.
+	 */
+	public static final class Path implements PathHandle {
+		private final int id;
+
+		private Path(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * @return the number of the path in the index
+		 */
+		public int id() {
+			return id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Path && ((Path) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+	}
+
+	/**
+	 * A step recreated from the index.
+	 */
+	public static final class Step implements StepHandle {
+		private final int path;
+		private final long rank;
+		private final int symbol;
+
+		private Step(int path, long rank, int symbol) {
+			this.path = path;
+			this.rank = rank;
+			this.symbol = symbol;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Step && ((Step) o).path == path && ((Step) o).rank == rank;
+		}
+
+		@Override
+		public int hashCode() {
+			return path * 31 + Long.hashCode(rank);
+		}
+	}
+
+	private HaplotypePathGraph(HandleGraph<N, E> graph, HaplotypeIndex index, long[] nodeIds, String[] names,
+			boolean[] circular) {
+		this.graph = graph;
+		this.index = index;
+		this.nodeIds = nodeIds;
+		this.names = names;
+		this.circular = circular;
+		for (int p = 0; p < names.length; p++) {
+			byName.put(names[p], new Path(p));
+		}
+	}
+
+	/**
+	 * Copy the paths of a graph into a haplotype index.
+	 *
+	 * @param <P>    the type of PathHandle
+	 * @param <S>    the type of StepHandle
+	 * @param <N>    the type of NodeHandle
+	 * @param <E>    the type of EdgeHandle
+	 * @param source         with the nodes, edges and paths
+	 * @param sampleInterval of the index, see
+	 *                       {@link HaplotypeIndex.Builder#build(int, java.util.function.IntUnaryOperator)}
+	 * @return a graph with the nodes and edges of the source and the paths in a
+	 *         haplotype index
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> HaplotypePathGraph<N, E> of(
+			PathGraph<P, S, N, E> source, int sampleInterval) {
+		long[] found = new long[16];
+		int nodeCount = 0;
+		try (AutoClosedIterator<N> nodes = source.nodes()) {
+			while (nodes.hasNext()) {
+				if (nodeCount == found.length) {
+					found = Arrays.copyOf(found, nodeCount * 2);
+				}
+				found[nodeCount++] = source.asLong(source.forward(nodes.next()));
+			}
+		}
+		long[] nodeIds = Arrays.copyOf(found, nodeCount);
+		Arrays.sort(nodeIds);
+		HaplotypeIndex.Builder builder = new HaplotypeIndex.Builder();
+		List<String> names = new ArrayList<>();
+		boolean[] circular = new boolean[16];
+		try (AutoClosedIterator<P> paths = source.paths()) {
+			while (paths.hasNext()) {
+				P path = paths.next();
+				int[] symbols = new int[16];
+				int length = 0;
+				try (AutoClosedIterator<S> steps = source.stepsOf(path)) {
+					while (steps.hasNext()) {
+						N node = source.nodeOfStep(steps.next());
+						if (length == symbols.length) {
+							symbols = Arrays.copyOf(symbols, length * 2);
+						}
+						symbols[length++] = symbol(source, nodeIds, node);
+					}
+				}
+				int number = builder.insert(Arrays.copyOf(symbols, length));
+				if (number == circular.length) {
+					circular = Arrays.copyOf(circular, number * 2);
+				}
+				circular[number] = source.isCircular(path);
+				names.add(source.nameOfPath(path));
+			}
+		}
+		HaplotypeIndex index = builder.build(sampleInterval,
+				symbol -> source.sequenceLengthOf(source.fromLong(nodeIds[(symbol - 1) >>> 1])));
+		return new HaplotypePathGraph<>(source, index, nodeIds,
+				names.toArray(String[]::new), Arrays.copyOf(circular, names.size()));
+	}
+
+	private static <N extends NodeHandle> int symbol(HandleGraph<N, ?> graph, long[] nodeIds, N node) {
+		int rank = Arrays.binarySearch(nodeIds, graph.asLong(graph.forward(node)));
+		if (rank < 0) {
+			throw new IllegalArgumentException("Step on a node that is not in the graph " + node.id());
+		}
+		return rank * 2 + (graph.isReverseNodeHandle(node) ? 2 : 1);
+	}
+
+	private N handle(int symbol) {
+		N forward = graph.fromLong(nodeIds[(symbol - 1) >>> 1]);
+		return ((symbol - 1) & 1) == 0 ? forward : graph.flip(forward);
+	}
+
+	/**
+	 * @return the index of the paths
+	 */
+	public HaplotypeIndex index() {
+		return index;
+	}
+
+	/**
+	 * @param subpath handles in the order walked
+	 * @return the paths that walk the subpath
+	 */
+	public List<Path> haplotypesThrough(List<N> subpath) {
+		int[] symbols = new int[subpath.size()];
+		for (int i = 0; i < symbols.length; i++) {
+			N node = subpath.get(i);
+			int rank = Arrays.binarySearch(nodeIds, graph.asLong(graph.forward(node)));
+			if (rank < 0) {
+				return List.of();
+			}
+			symbols[i] = rank * 2 + (graph.isReverseNodeHandle(node) ? 2 : 1);
+		}
+		List<Path> paths = new ArrayList<>();
+		for (int path : index.haplotypes(symbols)) {
+			paths.add(new Path(path));
+		}
+		return paths;
+	}
+
+	@Override
+	public boolean isReverseNodeHandle(N nh) {
+		return graph.isReverseNodeHandle(nh);
+	}
+
+	@Override
+	public N flip(N nh) {
+		return graph.flip(nh);
+	}
+
+	@Override
+	public long asLong(N nh) {
+		return graph.asLong(nh);
+	}
+
+	@Override
+	public N fromLong(long id) {
+		return graph.fromLong(id);
+	}
+
+	@Override
+	public E edge(long leftId, long rightId) {
+		return graph.edge(leftId, rightId);
+	}
+
+	@Override
+	public AutoClosedIterator<E> followEdgesToWardsTheRight(N left) {
+		return graph.followEdgesToWardsTheRight(left);
+	}
+
+	@Override
+	public AutoClosedIterator<E> followEdgesToWardsTheLeft(N right) {
+		return graph.followEdgesToWardsTheLeft(right);
+	}
+
+	@Override
+	public AutoClosedIterator<E> edges() {
+		return graph.edges();
+	}
+
+	@Override
+	public AutoClosedIterator<N> nodes() {
+		return graph.nodes();
+	}
+
+	@Override
+	public long nodeCount() {
+		return nodeIds.length;
+	}
+
+	@Override
+	public Sequence sequenceOf(N handle) {
+		return graph.sequenceOf(handle);
+	}
+
+	@Override
+	public int sequenceLengthOf(N handle) {
+		return graph.sequenceLengthOf(handle);
+	}
+
+	@Override
+	public byte getBase(N handle, int offset) {
+		return graph.getBase(handle, offset);
+	}
+
+	@Override
+	public AutoClosedIterator<N> nodesWithSequence(Sequence s) {
+		return graph.nodesWithSequence(s);
+	}
+
+	@Override
+	public AutoClosedIterator<Path> paths() {
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt.range(0, names.length), Path::new);
+	}
+
+	@Override
+	public AutoClosedIterator<Step> steps() {
+		return AutoClosedIterator.flatMap(AutoClosedIterator.map(paths(), this::stepsOf));
+	}
+
+	@Override
+	public AutoClosedIterator<Step> stepsOf(Path path) {
+		AutoClosedIterator.OfInt symbols = index.symbols(path.id);
+		return new AutoClosedIterator<Step>() {
+			private long rank = 0;
+
+			@Override
+			public boolean hasNext() {
+				return symbols.hasNext();
+			}
+
+			@Override
+			public Step next() {
+				return new Step(path.id, rank++, symbols.nextInt());
+			}
+
+			@Override
+			public void close() {
+				symbols.close();
+			}
+		};
+	}
+
+	@Override
+	public long stepCountInPath(Path path) {
+		return index.length(path.id);
+	}
+
+	@Override
+	public int pathCount() {
+		return names.length;
+	}
+
+	@Override
+	public Path pathOfStep(Step step) {
+		return new Path(step.path);
+	}
+
+	@Override
+	public N nodeOfStep(Step step) {
+		return handle(step.symbol);
+	}
+
+	@Override
+	public long beginPositionOfStep(Step step) {
+		return index.offset(step.path, step.rank);
+	}
+
+	@Override
+	public long endPositionOfStep(Step step) {
+		return beginPositionOfStep(step) + graph.sequenceLengthOf(handle(step.symbol));
+	}
+
+	@Override
+	public long rankOfStep(Step step) {
+		return step.rank;
+	}
+
+	@Override
+	public Step stepByRankAndPath(Path path, long rank) {
+		if (rank < 0 || rank >= index.length(path.id)) {
+			return null;
+		}
+		return new Step(path.id, rank, index.symbolAt(path.id, rank));
+	}
+
+	@Override
+	public boolean isCircular(Path path) {
+		return circular[path.id];
+	}
+
+	@Override
+	public String nameOfPath(Path path) {
+		return names[path.id];
+	}
+
+	@Override
+	public Path pathByName(String name) {
+		return byName.get(name);
+	}
+
+	@Override
+	public LongStream positionsOf(Path path) {
+		LongStream.Builder positions = LongStream.builder();
+		long position = 0;
+		try (AutoClosedIterator.OfInt symbols = index.symbols(path.id)) {
+			while (symbols.hasNext()) {
+				positions.add(position);
+				position += graph.sequenceLengthOf(handle(symbols.nextInt()));
+				positions.add(position);
+			}
+		}
+		return positions.build();
+	}
+}
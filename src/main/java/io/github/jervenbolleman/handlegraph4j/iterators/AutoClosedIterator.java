@@ -25,10 +25,20 @@ package io.github.jervenbolleman.handlegraph4j.iterators;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.PrimitiveIterator.OfLong;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -50,6 +60,43 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 	 */
 	public void close();
 
+	/**
+	 * Fill the buffer with the next elements of this iterator. This allows
+	 * consumers to pay for the interface calls once per batch instead of once per
+	 * element. The default implementation falls back to element wise iteration.
+	 *
+	 * Due to erasure the runtime component type of the buffer may be Object,
+	 * implementations that override this method must not depend on it.
+	 *
+	 * @param buffer to fill from index 0
+	 * @return the number of elements placed in the buffer, only 0 when this
+	 *         iterator is exhausted (or the buffer has a zero length)
+	 */
+	public default int nextBatch(T[] buffer) {
+		int filled = 0;
+		while (filled < buffer.length && hasNext()) {
+			buffer[filled++] = next();
+		}
+		return filled;
+	}
+
+	/**
+	 * Fill the buffer with the primitive representation of the next elements of
+	 * this iterator. e.g. <code>nodes.nextBatch(ids, graph::asLong)</code>
+	 *
+	 * @param buffer to fill from index 0
+	 * @param toLong converts each element into its long form
+	 * @return the number of elements placed in the buffer, only 0 when this
+	 *         iterator is exhausted (or the buffer has a zero length)
+	 */
+	public default int nextBatch(long[] buffer, ToLongFunction<? super T> toLong) {
+		int filled = 0;
+		while (filled < buffer.length && hasNext()) {
+			buffer[filled++] = toLong.applyAsLong(next());
+		}
+		return filled;
+	}
+
 	/**
 	 * @param <T>  type
 	 * @param stat single T to iterate over
@@ -144,6 +191,14 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 				}
 				return t[consumed++];
 			}
+
+			@Override
+			public int nextBatch(T[] buffer) {
+				int filled = Math.min(buffer.length, t.length - consumed);
+				System.arraycopy(t, consumed, buffer, 0, filled);
+				consumed += filled;
+				return filled;
+			}
 		};
 	}
 
@@ -182,6 +237,30 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 				return second.next();
 			}
 
+			@Override
+			public int nextBatch(T[] buffer) {
+				if (useFirst && buffer.length > 0) {
+					int filled = first.nextBatch(buffer);
+					if (filled > 0) {
+						return filled;
+					}
+					useFirst = false;
+				}
+				return second.nextBatch(buffer);
+			}
+
+			@Override
+			public int nextBatch(long[] buffer, ToLongFunction<? super T> toLong) {
+				if (useFirst && buffer.length > 0) {
+					int filled = first.nextBatch(buffer, toLong);
+					if (filled > 0) {
+						return filled;
+					}
+					useFirst = false;
+				}
+				return second.nextBatch(buffer, toLong);
+			}
+
 			@Override
 			public void close() {
 				first.close();
@@ -225,6 +304,7 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 	public static <T> AutoClosedIterator<T> filter(AutoClosedIterator<T> i, Predicate<T> test) {
 		return new AutoClosedIterator<>() {
 			T next;
+			boolean hasNext;
 
 			@Override
 			public void close() {
@@ -233,25 +313,53 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 
 			@Override
 			public boolean hasNext() {
-				if (next != null)
-					return true;
-				while (next == null && i.hasNext()) {
+				while (!hasNext && i.hasNext()) {
 					var pn = i.next();
 					if (test.test(pn)) {
 						next = pn;
-						return true;
+						hasNext = true;
 					}
 				}
-				return false;
+				return hasNext;
 			}
 
 			@Override
 			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
 				T temp = next;
 				next = null;
+				hasNext = false;
 				return temp;
 			}
 
+			@Override
+			public int nextBatch(T[] buffer) {
+				if (buffer.length == 0) {
+					return 0;
+				} else if (hasNext) {
+					buffer[0] = next;
+					next = null;
+					hasNext = false;
+					return 1;
+				}
+				int read;
+				while ((read = i.nextBatch(buffer)) > 0) {
+					int kept = 0;
+					for (int j = 0; j < read; j++) {
+						T pn = buffer[j];
+						buffer[j] = null;
+						if (test.test(pn)) {
+							buffer[kept++] = pn;
+						}
+					}
+					if (kept > 0) {
+						return kept;
+					}
+				}
+				return 0;
+			}
 		};
 	}
 
@@ -316,7 +424,7 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 	 * @param map to turn the longs into O
 	 * @return iteratorion over Os from i
 	 */
-	public static <O> AutoClosedIterator<O> map(OfLong i, Function<Long, O> map) {
+	public static <O> AutoClosedIterator<O> map(PrimitiveIterator.OfLong i, Function<Long, O> map) {
 		return new AutoClosedIterator<>() {
 			@Override
 			public void close() {
@@ -341,7 +449,7 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 	 * @param map to turn the longs into O
 	 * @return iteratorion over Os from i
 	 */
-	public static <O> AutoClosedIterator<O> map(OfLong i, LongFunction<O> map) {
+	public static <O> AutoClosedIterator<O> map(PrimitiveIterator.OfLong i, LongFunction<O> map) {
 		return new AutoClosedIterator<>() {
 			@Override
 			public void close() {
@@ -409,6 +517,37 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 				return map.apply(next);
 			}
 
+			private Object[] scratch;
+
+			@SuppressWarnings("unchecked")
+			private I[] scratch(int length) {
+				if (scratch == null || scratch.length != length) {
+					scratch = new Object[length];
+				}
+				return (I[]) scratch;
+			}
+
+			@Override
+			public int nextBatch(O[] buffer) {
+				I[] in = scratch(buffer.length);
+				int read = i.nextBatch(in);
+				for (int j = 0; j < read; j++) {
+					buffer[j] = map.apply(in[j]);
+					in[j] = null;
+				}
+				return read;
+			}
+
+			@Override
+			public int nextBatch(long[] buffer, ToLongFunction<? super O> toLong) {
+				I[] in = scratch(buffer.length);
+				int read = i.nextBatch(in);
+				for (int j = 0; j < read; j++) {
+					buffer[j] = toLong.applyAsLong(map.apply(in[j]));
+					in[j] = null;
+				}
+				return read;
+			}
 		};
 	}
 
@@ -423,6 +562,21 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 		return new ConcatenatingIterator<>(iter);
 	}
 
+	/**
+	 * Read ahead from an iterator on an other thread, so that I/O bound iterators
+	 * can produce while the consumer is busy.
+	 *
+	 * @param <T>      type safety
+	 * @param iter     to read ahead from, closing the result closes this
+	 * @param executor to run the producer on
+	 * @param depth    the maximum number of elements read ahead
+	 * @return an iterator over the same elements as iter
+	 * @see PrefetchingIterator
+	 */
+	public static <T> AutoClosedIterator<T> prefetch(AutoClosedIterator<T> iter, Executor executor, int depth) {
+		return new PrefetchingIterator<>(iter, executor, depth);
+	}
+
 	/**
 	 * @param <T> type safety
 	 * @return an iterator without contents
@@ -485,4 +639,1019 @@ public interface AutoClosedIterator<T> extends AutoCloseable, Iterator<T> {
 			}
 		};
 	}
+
+	/**
+	 * A closable iterator over primitive longs, that never boxes while using its
+	 * own combinators.
+	 *
+	 * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+	 */
+	public interface OfLong extends AutoClosedIterator<Long>, PrimitiveIterator.OfLong {
+
+		/**
+		 * Fill the buffer with the next values of this iterator. The default
+		 * implementation falls back to value wise iteration.
+		 *
+		 * @param buffer to fill from index 0
+		 * @return the number of values placed in the buffer, only 0 when this
+		 *         iterator is exhausted (or the buffer has a zero length)
+		 */
+		public default int nextBatch(long[] buffer) {
+			int filled = 0;
+			while (filled < buffer.length && hasNext()) {
+				buffer[filled++] = nextLong();
+			}
+			return filled;
+		}
+
+		/**
+		 * @return an iterator without contents
+		 */
+		public static AutoClosedIterator.OfLong empty() {
+			return new AutoClosedIterator.OfLong() {
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return false;
+				}
+
+				@Override
+				public long nextLong() {
+					throw new NoSuchElementException();
+				}
+			};
+		}
+
+		/**
+		 * @param values to iterate over
+		 * @return a new iterator of the values in the array.
+		 */
+		public static AutoClosedIterator.OfLong of(long... values) {
+			return new AutoClosedIterator.OfLong() {
+				int consumed = 0;
+
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return consumed < values.length;
+				}
+
+				@Override
+				public long nextLong() {
+					if (consumed >= values.length) {
+						throw new NoSuchElementException();
+					}
+					return values[consumed++];
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					int filled = Math.min(buffer.length, values.length - consumed);
+					System.arraycopy(values, consumed, buffer, 0, filled);
+					consumed += filled;
+					return filled;
+				}
+			};
+		}
+
+		/**
+		 * @param from inclusive start
+		 * @param to   exclusive end
+		 * @return an iterator over all values from up to to.
+		 */
+		public static AutoClosedIterator.OfLong range(long from, long to) {
+			return new AutoClosedIterator.OfLong() {
+				long at = from;
+
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return at < to;
+				}
+
+				@Override
+				public long nextLong() {
+					if (at >= to) {
+						throw new NoSuchElementException();
+					}
+					return at++;
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					int filled = 0;
+					while (filled < buffer.length && at < to) {
+						buffer[filled++] = at++;
+					}
+					return filled;
+				}
+			};
+		}
+
+		/**
+		 * @param iter to transform
+		 * @return now closable iter
+		 */
+		public static AutoClosedIterator.OfLong from(PrimitiveIterator.OfLong iter) {
+			return new AutoClosedIterator.OfLong() {
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return iter.hasNext();
+				}
+
+				@Override
+				public long nextLong() {
+					return iter.nextLong();
+				}
+			};
+		}
+
+		/**
+		 * Warning this might consume a lot of memory
+		 *
+		 * @param s stream to convert
+		 * @return a wrapped stream iterator, closing it closes the stream.
+		 */
+		public static AutoClosedIterator.OfLong from(LongStream s) {
+			PrimitiveIterator.OfLong i = s.iterator();
+			return new AutoClosedIterator.OfLong() {
+				@Override
+				public void close() {
+					s.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public long nextLong() {
+					return i.nextLong();
+				}
+			};
+		}
+
+		/**
+		 * @param <T>  type of the input
+		 * @param i    input iterator
+		 * @param map  the function to change T into a long
+		 * @return a new iterator that lazily maps the internal iterator
+		 */
+		public static <T> AutoClosedIterator.OfLong mapToLong(AutoClosedIterator<T> i, ToLongFunction<? super T> map) {
+			return new AutoClosedIterator.OfLong() {
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public long nextLong() {
+					return map.applyAsLong(i.next());
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					return i.nextBatch(buffer, map);
+				}
+			};
+		}
+
+		/**
+		 * @param i    input
+		 * @param test the filtering predicate
+		 * @return an iterator with only the values that test true
+		 */
+		public static AutoClosedIterator.OfLong filter(AutoClosedIterator.OfLong i, LongPredicate test) {
+			return new AutoClosedIterator.OfLong() {
+				long next;
+				boolean hasNext;
+
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					while (!hasNext && i.hasNext()) {
+						long pn = i.nextLong();
+						if (test.test(pn)) {
+							next = pn;
+							hasNext = true;
+						}
+					}
+					return hasNext;
+				}
+
+				@Override
+				public long nextLong() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					hasNext = false;
+					return next;
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					if (buffer.length == 0) {
+						return 0;
+					} else if (hasNext) {
+						buffer[0] = next;
+						hasNext = false;
+						return 1;
+					}
+					int read;
+					while ((read = i.nextBatch(buffer)) > 0) {
+						int kept = 0;
+						for (int j = 0; j < read; j++) {
+							if (test.test(buffer[j])) {
+								buffer[kept++] = buffer[j];
+							}
+						}
+						if (kept > 0) {
+							return kept;
+						}
+					}
+					return 0;
+				}
+			};
+		}
+
+		/**
+		 * @param i   input
+		 * @param map the function to apply to each value
+		 * @return a new iterator that lazily maps the internal iterator
+		 */
+		public static AutoClosedIterator.OfLong map(AutoClosedIterator.OfLong i, LongUnaryOperator map) {
+			return new AutoClosedIterator.OfLong() {
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public long nextLong() {
+					return map.applyAsLong(i.nextLong());
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					int read = i.nextBatch(buffer);
+					for (int j = 0; j < read; j++) {
+						buffer[j] = map.applyAsLong(buffer[j]);
+					}
+					return read;
+				}
+			};
+		}
+
+		/**
+		 * @param <O> output type
+		 * @param i   input
+		 * @param map to turn the longs into O
+		 * @return iteration over Os from i, closing it closes i
+		 */
+		public static <O> AutoClosedIterator<O> mapToObj(AutoClosedIterator.OfLong i, LongFunction<? extends O> map) {
+			return new AutoClosedIterator<>() {
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public O next() {
+					return map.apply(i.nextLong());
+				}
+			};
+		}
+
+		/**
+		 * @param first  iterator to concat
+		 * @param second iterator to concat
+		 * @return iterator of first+second in order
+		 */
+		public static AutoClosedIterator.OfLong concat(AutoClosedIterator.OfLong first, AutoClosedIterator.OfLong second) {
+			return new AutoClosedIterator.OfLong() {
+				private boolean useFirst = true;
+
+				@Override
+				public boolean hasNext() {
+					if (useFirst) {
+						if (first.hasNext()) {
+							return true;
+						}
+						useFirst = false;
+					}
+					return second.hasNext();
+				}
+
+				@Override
+				public long nextLong() {
+					if (useFirst && first.hasNext()) {
+						return first.nextLong();
+					}
+					useFirst = false;
+					return second.nextLong();
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					if (useFirst && buffer.length > 0) {
+						int filled = first.nextBatch(buffer);
+						if (filled > 0) {
+							return filled;
+						}
+						useFirst = false;
+					}
+					return second.nextBatch(buffer);
+				}
+
+				@Override
+				public void close() {
+					first.close();
+					second.close();
+				}
+			};
+		}
+
+		/**
+		 * Turn multiple iterators into a single one, each one is closed once it is
+		 * exhausted.
+		 *
+		 * @param iter of iterators
+		 * @return an iterator of all other iterators contents
+		 */
+		public static AutoClosedIterator.OfLong flatMap(AutoClosedIterator<? extends AutoClosedIterator.OfLong> iter) {
+			return new AutoClosedIterator.OfLong() {
+				private AutoClosedIterator.OfLong current;
+
+				@Override
+				public boolean hasNext() {
+					if (current != null) {
+						if (current.hasNext()) {
+							return true;
+						}
+						current.close();
+						current = null;
+					}
+					while (iter.hasNext()) {
+						current = iter.next();
+						if (current.hasNext()) {
+							return true;
+						}
+						current.close();
+						current = null;
+					}
+					return false;
+				}
+
+				@Override
+				public long nextLong() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return current.nextLong();
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					if (buffer.length > 0 && hasNext()) {
+						return current.nextBatch(buffer);
+					}
+					return 0;
+				}
+
+				@Override
+				public void close() {
+					try {
+						if (current != null) {
+							current.close();
+						}
+					} finally {
+						iter.close();
+					}
+				}
+			};
+		}
+
+		/**
+		 * @param wrapped the iterator to limit
+		 * @param max     the maximum number of values to return
+		 * @return an iterator that returns at most max values of wrapped
+		 */
+		public static AutoClosedIterator.OfLong limit(AutoClosedIterator.OfLong wrapped, long max) {
+			return new AutoClosedIterator.OfLong() {
+				long returned = 0;
+
+				@Override
+				public void close() {
+					wrapped.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return returned < max && wrapped.hasNext();
+				}
+
+				@Override
+				public long nextLong() {
+					if (returned >= max) {
+						throw new NoSuchElementException();
+					}
+					returned++;
+					return wrapped.nextLong();
+				}
+
+				@Override
+				public int nextBatch(long[] buffer) {
+					if (max - returned >= buffer.length) {
+						int read = wrapped.nextBatch(buffer);
+						returned += read;
+						return read;
+					}
+					return AutoClosedIterator.OfLong.super.nextBatch(buffer);
+				}
+			};
+		}
+
+		/**
+		 * Early terminate the resulting iterator upon the first value that tests
+		 * false for the given predicate.
+		 *
+		 * @param wrapped the iterator to terminate early
+		 * @param test    a predicate
+		 * @return An iterator that takes values from wrapped as long as the
+		 *         predicate returns true for them.
+		 */
+		public static AutoClosedIterator.OfLong terminate(AutoClosedIterator.OfLong wrapped, LongPredicate test) {
+			return new AutoClosedIterator.OfLong() {
+				long next;
+				boolean hasNext;
+				boolean terminated;
+
+				@Override
+				public void close() {
+					wrapped.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					if (!hasNext && !terminated && wrapped.hasNext()) {
+						long pn = wrapped.nextLong();
+						if (test.test(pn)) {
+							next = pn;
+							hasNext = true;
+						} else {
+							terminated = true;
+						}
+					}
+					return hasNext;
+				}
+
+				@Override
+				public long nextLong() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					hasNext = false;
+					return next;
+				}
+			};
+		}
+	}
+
+	/**
+	 * A closable iterator over primitive ints, that never boxes while using its
+	 * own combinators.
+	 *
+	 * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+	 */
+	public interface OfInt extends AutoClosedIterator<Integer>, PrimitiveIterator.OfInt {
+
+		/**
+		 * Fill the buffer with the next values of this iterator. The default
+		 * implementation falls back to value wise iteration.
+		 *
+		 * @param buffer to fill from index 0
+		 * @return the number of values placed in the buffer, only 0 when this
+		 *         iterator is exhausted (or the buffer has a zero length)
+		 */
+		public default int nextBatch(int[] buffer) {
+			int filled = 0;
+			while (filled < buffer.length && hasNext()) {
+				buffer[filled++] = nextInt();
+			}
+			return filled;
+		}
+
+		/**
+		 * @return an iterator without contents
+		 */
+		public static AutoClosedIterator.OfInt empty() {
+			return new AutoClosedIterator.OfInt() {
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return false;
+				}
+
+				@Override
+				public int nextInt() {
+					throw new NoSuchElementException();
+				}
+			};
+		}
+
+		/**
+		 * @param values to iterate over
+		 * @return a new iterator of the values in the array.
+		 */
+		public static AutoClosedIterator.OfInt of(int... values) {
+			return new AutoClosedIterator.OfInt() {
+				int consumed = 0;
+
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return consumed < values.length;
+				}
+
+				@Override
+				public int nextInt() {
+					if (consumed >= values.length) {
+						throw new NoSuchElementException();
+					}
+					return values[consumed++];
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					int filled = Math.min(buffer.length, values.length - consumed);
+					System.arraycopy(values, consumed, buffer, 0, filled);
+					consumed += filled;
+					return filled;
+				}
+			};
+		}
+
+		/**
+		 * @param from inclusive start
+		 * @param to   exclusive end
+		 * @return an iterator over all values from up to to.
+		 */
+		public static AutoClosedIterator.OfInt range(int from, int to) {
+			return new AutoClosedIterator.OfInt() {
+				int at = from;
+
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return at < to;
+				}
+
+				@Override
+				public int nextInt() {
+					if (at >= to) {
+						throw new NoSuchElementException();
+					}
+					return at++;
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					int filled = 0;
+					while (filled < buffer.length && at < to) {
+						buffer[filled++] = at++;
+					}
+					return filled;
+				}
+			};
+		}
+
+		/**
+		 * @param iter to transform
+		 * @return now closable iter
+		 */
+		public static AutoClosedIterator.OfInt from(PrimitiveIterator.OfInt iter) {
+			return new AutoClosedIterator.OfInt() {
+				@Override
+				public void close() {
+				}
+
+				@Override
+				public boolean hasNext() {
+					return iter.hasNext();
+				}
+
+				@Override
+				public int nextInt() {
+					return iter.nextInt();
+				}
+			};
+		}
+
+		/**
+		 * Warning this might consume a lot of memory
+		 *
+		 * @param s stream to convert
+		 * @return a wrapped stream iterator, closing it closes the stream.
+		 */
+		public static AutoClosedIterator.OfInt from(IntStream s) {
+			PrimitiveIterator.OfInt i = s.iterator();
+			return new AutoClosedIterator.OfInt() {
+				@Override
+				public void close() {
+					s.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public int nextInt() {
+					return i.nextInt();
+				}
+			};
+		}
+
+		/**
+		 * @param <T>  type of the input
+		 * @param i    input iterator
+		 * @param map  the function to change T into a int
+		 * @return a new iterator that lazily maps the internal iterator
+		 */
+		public static <T> AutoClosedIterator.OfInt mapToInt(AutoClosedIterator<T> i, ToIntFunction<? super T> map) {
+			return new AutoClosedIterator.OfInt() {
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public int nextInt() {
+					return map.applyAsInt(i.next());
+				}
+			};
+		}
+
+		/**
+		 * @param i    input
+		 * @param test the filtering predicate
+		 * @return an iterator with only the values that test true
+		 */
+		public static AutoClosedIterator.OfInt filter(AutoClosedIterator.OfInt i, IntPredicate test) {
+			return new AutoClosedIterator.OfInt() {
+				int next;
+				boolean hasNext;
+
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					while (!hasNext && i.hasNext()) {
+						int pn = i.nextInt();
+						if (test.test(pn)) {
+							next = pn;
+							hasNext = true;
+						}
+					}
+					return hasNext;
+				}
+
+				@Override
+				public int nextInt() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					hasNext = false;
+					return next;
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					if (buffer.length == 0) {
+						return 0;
+					} else if (hasNext) {
+						buffer[0] = next;
+						hasNext = false;
+						return 1;
+					}
+					int read;
+					while ((read = i.nextBatch(buffer)) > 0) {
+						int kept = 0;
+						for (int j = 0; j < read; j++) {
+							if (test.test(buffer[j])) {
+								buffer[kept++] = buffer[j];
+							}
+						}
+						if (kept > 0) {
+							return kept;
+						}
+					}
+					return 0;
+				}
+			};
+		}
+
+		/**
+		 * @param i   input
+		 * @param map the function to apply to each value
+		 * @return a new iterator that lazily maps the internal iterator
+		 */
+		public static AutoClosedIterator.OfInt map(AutoClosedIterator.OfInt i, IntUnaryOperator map) {
+			return new AutoClosedIterator.OfInt() {
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public int nextInt() {
+					return map.applyAsInt(i.nextInt());
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					int read = i.nextBatch(buffer);
+					for (int j = 0; j < read; j++) {
+						buffer[j] = map.applyAsInt(buffer[j]);
+					}
+					return read;
+				}
+			};
+		}
+
+		/**
+		 * @param <O> output type
+		 * @param i   input
+		 * @param map to turn the ints into O
+		 * @return iteration over Os from i, closing it closes i
+		 */
+		public static <O> AutoClosedIterator<O> mapToObj(AutoClosedIterator.OfInt i, IntFunction<? extends O> map) {
+			return new AutoClosedIterator<>() {
+				@Override
+				public void close() {
+					i.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				@Override
+				public O next() {
+					return map.apply(i.nextInt());
+				}
+			};
+		}
+
+		/**
+		 * @param first  iterator to concat
+		 * @param second iterator to concat
+		 * @return iterator of first+second in order
+		 */
+		public static AutoClosedIterator.OfInt concat(AutoClosedIterator.OfInt first, AutoClosedIterator.OfInt second) {
+			return new AutoClosedIterator.OfInt() {
+				private boolean useFirst = true;
+
+				@Override
+				public boolean hasNext() {
+					if (useFirst) {
+						if (first.hasNext()) {
+							return true;
+						}
+						useFirst = false;
+					}
+					return second.hasNext();
+				}
+
+				@Override
+				public int nextInt() {
+					if (useFirst && first.hasNext()) {
+						return first.nextInt();
+					}
+					useFirst = false;
+					return second.nextInt();
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					if (useFirst && buffer.length > 0) {
+						int filled = first.nextBatch(buffer);
+						if (filled > 0) {
+							return filled;
+						}
+						useFirst = false;
+					}
+					return second.nextBatch(buffer);
+				}
+
+				@Override
+				public void close() {
+					first.close();
+					second.close();
+				}
+			};
+		}
+
+		/**
+		 * Turn multiple iterators into a single one, each one is closed once it is
+		 * exhausted.
+		 *
+		 * @param iter of iterators
+		 * @return an iterator of all other iterators contents
+		 */
+		public static AutoClosedIterator.OfInt flatMap(AutoClosedIterator<? extends AutoClosedIterator.OfInt> iter) {
+			return new AutoClosedIterator.OfInt() {
+				private AutoClosedIterator.OfInt current;
+
+				@Override
+				public boolean hasNext() {
+					if (current != null) {
+						if (current.hasNext()) {
+							return true;
+						}
+						current.close();
+						current = null;
+					}
+					while (iter.hasNext()) {
+						current = iter.next();
+						if (current.hasNext()) {
+							return true;
+						}
+						current.close();
+						current = null;
+					}
+					return false;
+				}
+
+				@Override
+				public int nextInt() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return current.nextInt();
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					if (buffer.length > 0 && hasNext()) {
+						return current.nextBatch(buffer);
+					}
+					return 0;
+				}
+
+				@Override
+				public void close() {
+					try {
+						if (current != null) {
+							current.close();
+						}
+					} finally {
+						iter.close();
+					}
+				}
+			};
+		}
+
+		/**
+		 * @param wrapped the iterator to limit
+		 * @param max     the maximum number of values to return
+		 * @return an iterator that returns at most max values of wrapped
+		 */
+		public static AutoClosedIterator.OfInt limit(AutoClosedIterator.OfInt wrapped, long max) {
+			return new AutoClosedIterator.OfInt() {
+				long returned = 0;
+
+				@Override
+				public void close() {
+					wrapped.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					return returned < max && wrapped.hasNext();
+				}
+
+				@Override
+				public int nextInt() {
+					if (returned >= max) {
+						throw new NoSuchElementException();
+					}
+					returned++;
+					return wrapped.nextInt();
+				}
+
+				@Override
+				public int nextBatch(int[] buffer) {
+					if (max - returned >= buffer.length) {
+						int read = wrapped.nextBatch(buffer);
+						returned += read;
+						return read;
+					}
+					return AutoClosedIterator.OfInt.super.nextBatch(buffer);
+				}
+			};
+		}
+
+		/**
+		 * Early terminate the resulting iterator upon the first value that tests
+		 * false for the given predicate.
+		 *
+		 * @param wrapped the iterator to terminate early
+		 * @param test    a predicate
+		 * @return An iterator that takes values from wrapped as long as the
+		 *         predicate returns true for them.
+		 */
+		public static AutoClosedIterator.OfInt terminate(AutoClosedIterator.OfInt wrapped, IntPredicate test) {
+			return new AutoClosedIterator.OfInt() {
+				int next;
+				boolean hasNext;
+				boolean terminated;
+
+				@Override
+				public void close() {
+					wrapped.close();
+				}
+
+				@Override
+				public boolean hasNext() {
+					if (!hasNext && !terminated && wrapped.hasNext()) {
+						int pn = wrapped.nextInt();
+						if (test.test(pn)) {
+							next = pn;
+							hasNext = true;
+						} else {
+							terminated = true;
+						}
+					}
+					return hasNext;
+				}
+
+				@Override
+				public int nextInt() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					hasNext = false;
+					return next;
+				}
+			};
+		}
+	}
 }
@@ -23,6 +23,8 @@
  */
 package io.github.jervenbolleman.handlegraph4j.iterators;
 
+import java.util.function.ToLongFunction;
+
 /**
  *
  * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
@@ -57,6 +59,22 @@ class ConcatenatingIterator<T> implements AutoClosedIterator<T> {
 		return false;
 	}
 
+	@Override
+	public int nextBatch(T[] buffer) {
+		if (buffer.length > 0 && hasNext()) {
+			return current.nextBatch(buffer);
+		}
+		return 0;
+	}
+
+	@Override
+	public int nextBatch(long[] buffer, ToLongFunction<? super T> toLong) {
+		if (buffer.length > 0 && hasNext()) {
+			return current.nextBatch(buffer, toLong);
+		}
+		return 0;
+	}
+
 	@Override
 	public void close() {
 		if (current != null) {
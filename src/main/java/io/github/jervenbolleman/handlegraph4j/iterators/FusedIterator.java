@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import static io.github.jervenbolleman.handlegraph4j.iterators.Pipeline.FILTER;
+import static io.github.jervenbolleman.handlegraph4j.iterators.Pipeline.FLAT_MAP;
+import static io.github.jervenbolleman.handlegraph4j.iterators.Pipeline.LIMIT;
+import static io.github.jervenbolleman.handlegraph4j.iterators.Pipeline.MAP;
+import static io.github.jervenbolleman.handlegraph4j.iterators.Pipeline.PEEK;
+import static io.github.jervenbolleman.handlegraph4j.iterators.Pipeline.TAKE_WHILE;
+
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Runs all stages of a {@link Pipeline} in one loop.
+ *
+ * Elements are pulled from the deepest flatMap stage that still has elements
+ * open, or from the source when there is none. Once a limit or takeWhile stage
+ * ends, nothing is pulled anymore from stages before it.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+final class FusedIterator<T> implements AutoClosedIterator<T> {
+
+	private final AutoClosedIterator<?> source;
+	private final int[] kinds;
+	private final Object[] functions;
+	private final long[] limits;
+	private final long[] counts;
+	private final int[] flatMapStages;
+	private final AutoClosedIterator<?>[] open;
+	/**
+	 * The last stage that will not let any element pass anymore
+	 */
+	private int dead = -1;
+	private Object next;
+	private boolean hasNext;
+	private boolean done;
+
+	FusedIterator(AutoClosedIterator<?> source, int[] kinds, Object[] functions, long[] limits) {
+		this.source = source;
+		this.kinds = kinds;
+		this.functions = functions;
+		this.limits = limits;
+		this.counts = new long[kinds.length];
+		this.open = new AutoClosedIterator<?>[kinds.length];
+		int flatMaps = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			if (kinds[i] == FLAT_MAP) {
+				flatMaps++;
+			} else if (kinds[i] == LIMIT && limits[i] == 0) {
+				dead = i;
+			}
+		}
+		this.flatMapStages = new int[flatMaps];
+		for (int i = 0, f = 0; i < kinds.length; i++) {
+			if (kinds[i] == FLAT_MAP) {
+				flatMapStages[f++] = i;
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!hasNext && !done) {
+			advance();
+		}
+		return hasNext;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		T t = (T) next;
+		next = null;
+		hasNext = false;
+		return t;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void advance() {
+		pull: while (true) {
+			Object value = null;
+			int stage = -1;
+			for (int f = flatMapStages.length - 1; f >= 0 && stage < 0; f--) {
+				int at = flatMapStages[f];
+				if (at < dead) {
+					break;
+				}
+				AutoClosedIterator<?> current = open[at];
+				if (current != null) {
+					if (current.hasNext()) {
+						value = current.next();
+						stage = at + 1;
+					} else {
+						open[at] = null;
+						current.close();
+					}
+				}
+			}
+			if (stage < 0) {
+				if (dead >= 0 || !source.hasNext()) {
+					close();
+					return;
+				}
+				value = source.next();
+				stage = 0;
+			}
+			for (int i = stage; i < kinds.length; i++) {
+				switch (kinds[i]) {
+				case FILTER:
+					if (!((Predicate<Object>) functions[i]).test(value)) {
+						continue pull;
+					}
+					break;
+				case MAP:
+					value = ((Function<Object, Object>) functions[i]).apply(value);
+					break;
+				case FLAT_MAP:
+					open[i] = ((Function<Object, AutoClosedIterator<?>>) functions[i]).apply(value);
+					continue pull;
+				case LIMIT:
+					if (++counts[i] >= limits[i]) {
+						dead = Math.max(dead, i);
+					}
+					break;
+				case TAKE_WHILE:
+					if (!((Predicate<Object>) functions[i]).test(value)) {
+						dead = Math.max(dead, i);
+						continue pull;
+					}
+					break;
+				case PEEK:
+					((Consumer<Object>) functions[i]).accept(value);
+					break;
+				default:
+					throw new IllegalStateException("Unknown stage kind " + kinds[i]);
+				}
+			}
+			next = value;
+			hasNext = true;
+			return;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (done) {
+			return;
+		}
+		done = true;
+		try {
+			for (int i = open.length - 1; i >= 0; i--) {
+				if (open[i] != null) {
+					open[i].close();
+					open[i] = null;
+				}
+			}
+		} finally {
+			source.close();
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A fluent builder for lazy pipelines over an {@link AutoClosedIterator}.
+ *
+ * Instead of wrapping an iterator per stage, as nesting
+ * {@link AutoClosedIterator#map(AutoClosedIterator, Function)} and
+ * {@link AutoClosedIterator#filter(AutoClosedIterator, Predicate)} does, all
+ * stages are executed in a single loop by one iterator. That iterator closes
+ * the source and any open flatMapped iterators once, when it is exhausted or
+ * closed. Elements may be null.
+ *
+ * A pipeline is a single use builder, each stage returns the same instance.
+ *
+ * <pre>
+ * try (AutoClosedIterator&lt;Sequence&gt; seqs = Pipeline.of(graph.paths())
+ * 		.flatMap(graph::stepsOf)
+ * 		.map(graph::nodeOfStep)
+ * 		.filter(n -&gt; !graph.isReverseNodeHandle(n))
+ * 		.map(graph::sequenceOf)
+ * 		.iterator()) {
+ * 	...
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <T> the type of elements at the current end of the pipeline
+ */
+public final class Pipeline<T> {
+
+	static final int FILTER = 0;
+	static final int MAP = 1;
+	static final int FLAT_MAP = 2;
+	static final int LIMIT = 3;
+	static final int TAKE_WHILE = 4;
+	static final int PEEK = 5;
+
+	private final AutoClosedIterator<?> source;
+	private int[] kinds = new int[4];
+	private Object[] functions = new Object[4];
+	private long[] limits = new long[4];
+	private int stages;
+	private boolean consumed;
+
+	private Pipeline(AutoClosedIterator<?> source) {
+		this.source = source;
+	}
+
+	/**
+	 * @param <T>    type
+	 * @param source the iterator to start from, closed by the terminal operation
+	 * @return a pipeline without any stages
+	 */
+	public static <T> Pipeline<T> of(AutoClosedIterator<T> source) {
+		return new Pipeline<>(source);
+	}
+
+	/**
+	 * @param test the filtering predicate
+	 * @return this pipeline with only the elements that test true
+	 */
+	public Pipeline<T> filter(Predicate<? super T> test) {
+		return add(FILTER, test, 0);
+	}
+
+	/**
+	 * @param <R> output type
+	 * @param map the function to change T into R
+	 * @return this pipeline continuing with Rs
+	 */
+	public <R> Pipeline<R> map(Function<? super T, ? extends R> map) {
+		return add(MAP, map, 0);
+	}
+
+	/**
+	 * @param <R> output type
+	 * @param map the function to change T into an iterator of Rs, each of those
+	 *            is closed once exhausted
+	 * @return this pipeline continuing with all Rs
+	 */
+	public <R> Pipeline<R> flatMap(Function<? super T, ? extends AutoClosedIterator<? extends R>> map) {
+		return add(FLAT_MAP, map, 0);
+	}
+
+	/**
+	 * @param max the maximum number of elements to pass this stage
+	 * @return this pipeline limited to max elements at this point
+	 */
+	public Pipeline<T> limit(long max) {
+		if (max < 0) {
+			throw new IllegalArgumentException("Limit must not be negative " + max);
+		}
+		return add(LIMIT, null, max);
+	}
+
+	/**
+	 * Stop pulling elements from the source upon the first one that tests false.
+	 *
+	 * @param test a predicate
+	 * @return this pipeline that takes elements as long as the predicate holds
+	 */
+	public Pipeline<T> takeWhile(Predicate<? super T> test) {
+		return add(TAKE_WHILE, test, 0);
+	}
+
+	/**
+	 * @param action to call for each element passing this stage
+	 * @return this pipeline
+	 */
+	public Pipeline<T> peek(Consumer<? super T> action) {
+		return add(PEEK, action, 0);
+	}
+
+	/**
+	 * Terminal operation.
+	 *
+	 * @return an iterator running all stages that must be closed after use
+	 */
+	public AutoClosedIterator<T> iterator() {
+		if (consumed) {
+			throw new IllegalStateException("Pipeline was already consumed");
+		}
+		consumed = true;
+		return new FusedIterator<>(source, Arrays.copyOf(kinds, stages), Arrays.copyOf(functions, stages),
+				Arrays.copyOf(limits, stages));
+	}
+
+	/**
+	 * Terminal operation, closes the source when done.
+	 *
+	 * @param action to call for each element at the end of the pipeline
+	 */
+	public void forEach(Consumer<? super T> action) {
+		try (AutoClosedIterator<T> iter = iterator()) {
+			while (iter.hasNext()) {
+				action.accept(iter.next());
+			}
+		}
+	}
+
+	/**
+	 * Terminal operation, closes the source when done.
+	 *
+	 * @return the number of elements at the end of the pipeline
+	 */
+	public long count() {
+		long count = 0;
+		try (AutoClosedIterator<T> iter = iterator()) {
+			while (iter.hasNext()) {
+				iter.next();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Terminal operation, closes the source when done. Stops at the first match.
+	 *
+	 * @param test the predicate
+	 * @return true if any element at the end of the pipeline tests true
+	 */
+	public boolean anyMatch(Predicate<? super T> test) {
+		try (AutoClosedIterator<T> iter = iterator()) {
+			while (iter.hasNext()) {
+				if (test.test(iter.next())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R> Pipeline<R> add(int kind, Object function, long limit) {
+		if (consumed) {
+			throw new IllegalStateException("Pipeline was already consumed");
+		}
+		if (stages == kinds.length) {
+			kinds = Arrays.copyOf(kinds, stages * 2);
+			functions = Arrays.copyOf(functions, stages * 2);
+			limits = Arrays.copyOf(limits, stages * 2);
+		}
+		kinds[stages] = kind;
+		functions[stages] = function;
+		limits[stages] = limit;
+		stages++;
+		return (Pipeline<R>) this;
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads ahead from a wrapped iterator on an other thread, into a bounded
+ * buffer. So that consuming elements overlaps with the I/O needed to produce
+ * them.
+ *
+ * The wrapped iterator is only touched by the producing task, and is closed by
+ * it once it is exhausted, failed or this iterator is closed. Closing this
+ * iterator early stops the producer after the element it is reading and waits
+ * for the wrapped iterator to be closed. The producer is never interrupted.
+ *
+ * Exceptions thrown by the wrapped iterator are rethrown to the consumer, after
+ * the elements produced before them.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <T> the type of elements
+ */
+public class PrefetchingIterator<T> implements AutoClosedIterator<T> {
+
+	private static final Object END = new Object();
+	private static final Object NULL = new Object();
+
+	private final AutoClosedIterator<T> wrapped;
+	private final ArrayBlockingQueue<Object> queue;
+	private final FutureTask<Void> producer;
+	private final AtomicBoolean started = new AtomicBoolean();
+	private final CountDownLatch producerDone = new CountDownLatch(1);
+	private volatile boolean cancelled;
+	private volatile RuntimeException closeFailure;
+	private Object head;
+	private boolean finished;
+	private boolean closed;
+
+	/**
+	 * Starts producing immediately.
+	 *
+	 * @param wrapped  the iterator to read ahead from, this is now owned by the
+	 *                 new PrefetchingIterator
+	 * @param executor to run the producer on
+	 * @param depth    the maximum number of elements read ahead
+	 * @throws RejectedExecutionException if the executor does not accept the
+	 *                                    producer, wrapped is closed in that
+	 *                                    case
+	 */
+	public PrefetchingIterator(AutoClosedIterator<T> wrapped, Executor executor, int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("Prefetch depth must be at least 1 not " + depth);
+		}
+		this.wrapped = wrapped;
+		this.queue = new ArrayBlockingQueue<>(depth);
+		this.producer = new FutureTask<>(this::produce, null);
+		try {
+			executor.execute(producer);
+		} catch (RejectedExecutionException e) {
+			wrapped.close();
+			throw e;
+		}
+	}
+
+	private void produce() {
+		if (!started.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			while (!cancelled && wrapped.hasNext()) {
+				T next = wrapped.next();
+				queue.put(next == null ? NULL : next);
+			}
+			if (!cancelled) {
+				queue.put(END);
+			}
+		} catch (InterruptedException e) {
+			// Only happens when the executor is shut down now.
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException | Error e) {
+			if (!cancelled) {
+				try {
+					queue.put(new Failure(e));
+				} catch (InterruptedException e1) {
+					// Only happens when the executor is shut down now.
+					Thread.currentThread().interrupt();
+				}
+			}
+		} finally {
+			try {
+				wrapped.close();
+			} catch (RuntimeException e) {
+				closeFailure = e;
+			} finally {
+				producerDone.countDown();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (head == null && !finished) {
+			head = take();
+		}
+		if (head == END) {
+			head = null;
+			finished = true;
+		} else if (head instanceof Failure) {
+			Failure failure = (Failure) head;
+			head = null;
+			finished = true;
+			failure.rethrow();
+		}
+		return head != null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Object next = head;
+		head = null;
+		return next == NULL ? null : (T) next;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int nextBatch(T[] buffer) {
+		if (buffer.length == 0 || !hasNext()) {
+			return 0;
+		}
+		int filled = 0;
+		Object next = head;
+		head = null;
+		do {
+			if (next == END || next instanceof Failure) {
+				head = next;
+				break;
+			}
+			buffer[filled++] = next == NULL ? null : (T) next;
+		} while (filled < buffer.length && (next = queue.poll()) != null);
+		return filled;
+	}
+
+	private Object take() {
+		if (closed) {
+			throw new IllegalStateException("Iterator is already closed");
+		}
+		try {
+			return queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for prefetched elements", e);
+		}
+	}
+
+	/**
+	 * Cancels the producer if it is still running and waits until it closed the
+	 * wrapped iterator.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		head = null;
+		cancelled = true;
+		if (started.compareAndSet(false, true)) {
+			// The producer never ran and now never will.
+			producer.cancel(false);
+			wrapped.close();
+			return;
+		}
+		// not interrupted, that would close any interruptible channel the wrapped
+		// iterator reads from. The cleared queue frees a producer blocked on it.
+		producer.cancel(false);
+		queue.clear();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				producerDone.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (closeFailure != null) {
+			throw closeFailure;
+		}
+	}
+
+	private static final class Failure {
+
+		private final Throwable cause;
+
+		private Failure(Throwable cause) {
+			this.cause = cause;
+		}
+
+		private void rethrow() {
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else {
+				throw (Error) cause;
+			}
+		}
+	}
+}
@@ -0,0 +1,868 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Streaming operators over iterators that are already sorted. All of these
+ * keep at most one element per input in memory, except for the joins which
+ * also buffer the run of right elements that share one key.
+ *
+ * Each operator exists with a {@link Comparator}, with a long key extractor
+ * and for {@link AutoClosedIterator.OfLong}. The primitive join is
+ * {@link #joinLongs}, as join would be ambiguous for lambdas. Closing the
+ * result closes all inputs. The results are undefined if the inputs are not
+ * sorted.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class SortedIterators {
+
+	private SortedIterators() {
+
+	}
+
+	/**
+	 * K-way merge of sorted iterators, equal elements are returned in the order
+	 * of the iterators in the list.
+	 *
+	 * @param <T>     type
+	 * @param sources each sorted by order
+	 * @param order   the order of the sources
+	 * @return a sorted iterator over all elements of all sources
+	 */
+	public static <T> AutoClosedIterator<T> merge(List<? extends AutoClosedIterator<T>> sources,
+			Comparator<? super T> order) {
+		return new ComparatorMerge<>(sources, order);
+	}
+
+	/**
+	 * K-way merge of iterators sorted by a long key, equal elements are returned
+	 * in the order of the iterators in the list.
+	 *
+	 * @param <T>     type
+	 * @param sources each sorted by ascending key
+	 * @param key     the key of an element
+	 * @return a sorted iterator over all elements of all sources
+	 */
+	public static <T> AutoClosedIterator<T> merge(List<? extends AutoClosedIterator<T>> sources,
+			ToLongFunction<? super T> key) {
+		return new LongKeyMerge<>(sources, key);
+	}
+
+	/**
+	 * K-way merge of ascending primitive iterators.
+	 *
+	 * @param sources each in ascending order
+	 * @return an ascending iterator over all values of all sources
+	 */
+	public static AutoClosedIterator.OfLong merge(List<? extends AutoClosedIterator.OfLong> sources) {
+		return new LongMerge(sources);
+	}
+
+	/**
+	 * The sorted intersection, or semi join, of two sorted iterators.
+	 *
+	 * @param <T>   type
+	 * @param left  sorted by order
+	 * @param right sorted by order
+	 * @param order the order of both
+	 * @return the elements of left for which an equal element exists in right
+	 */
+	public static <T> AutoClosedIterator<T> intersect(AutoClosedIterator<T> left, AutoClosedIterator<? extends T> right,
+			Comparator<? super T> order) {
+		return new Intersection<>(left, right, order::compare);
+	}
+
+	/**
+	 * The sorted intersection, or semi join, of two iterators sorted by a long
+	 * key.
+	 *
+	 * @param <T>   type
+	 * @param left  sorted by ascending key
+	 * @param right sorted by ascending key
+	 * @param key   the key of an element
+	 * @return the elements of left for which an element with the same key exists
+	 *         in right
+	 */
+	public static <T> AutoClosedIterator<T> intersect(AutoClosedIterator<T> left, AutoClosedIterator<? extends T> right,
+			ToLongFunction<? super T> key) {
+		return new Intersection<>(left, right, (l, r) -> Long.compare(key.applyAsLong(l), key.applyAsLong(r)));
+	}
+
+	/**
+	 * The sorted intersection of two ascending primitive iterators.
+	 *
+	 * @param left  ascending
+	 * @param right ascending
+	 * @return the values of left that are also present in right
+	 */
+	public static AutoClosedIterator.OfLong intersect(AutoClosedIterator.OfLong left, AutoClosedIterator.OfLong right) {
+		return new LongIntersection(left, right);
+	}
+
+	/**
+	 * Merge join of two sorted iterators, all combinations of a left and right
+	 * element with the same key are returned.
+	 *
+	 * @param <L>      type of left
+	 * @param <R>      type of right
+	 * @param <K>      type of the key
+	 * @param <O>      type of the output
+	 * @param left     sorted by key
+	 * @param right    sorted by key
+	 * @param leftKey  the key of a left element
+	 * @param rightKey the key of a right element
+	 * @param order    the order of the keys
+	 * @param combine  turns a matching left and right into an output
+	 * @return the combined matches, in the order of left
+	 */
+	public static <L, R, K, O> AutoClosedIterator<O> join(AutoClosedIterator<L> left, AutoClosedIterator<R> right,
+			Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+			Comparator<? super K> order, BiFunction<? super L, ? super R, ? extends O> combine) {
+		return new MergeJoin<>(left, right, (l, r) -> order.compare(leftKey.apply(l), rightKey.apply(r)),
+				(a, b) -> order.compare(rightKey.apply(a), rightKey.apply(b)), combine);
+	}
+
+	/**
+	 * Merge join of two iterators sorted by a long key, all combinations of a
+	 * left and right element with the same key are returned.
+	 *
+	 * @param <L>      type of left
+	 * @param <R>      type of right
+	 * @param <O>      type of the output
+	 * @param left     sorted by ascending key
+	 * @param right    sorted by ascending key
+	 * @param leftKey  the key of a left element
+	 * @param rightKey the key of a right element
+	 * @param combine  turns a matching left and right into an output
+	 * @return the combined matches, in the order of left
+	 */
+	public static <L, R, O> AutoClosedIterator<O> join(AutoClosedIterator<L> left, AutoClosedIterator<R> right,
+			ToLongFunction<? super L> leftKey, ToLongFunction<? super R> rightKey,
+			BiFunction<? super L, ? super R, ? extends O> combine) {
+		return new MergeJoin<>(left, right,
+				(l, r) -> Long.compare(leftKey.applyAsLong(l), rightKey.applyAsLong(r)),
+				(a, b) -> Long.compare(rightKey.applyAsLong(a), rightKey.applyAsLong(b)), combine);
+	}
+
+	/**
+	 * Merge join of two primitive iterators sorted by a key taken from each
+	 * value, e.g. the high bits of a packed node and rank. All combinations of a
+	 * left and right value with the same key are returned.
+	 *
+	 * @param left     sorted by ascending key
+	 * @param right    sorted by ascending key
+	 * @param leftKey  the key of a left value
+	 * @param rightKey the key of a right value
+	 * @param combine  turns a matching left and right into an output
+	 * @return the combined matches, in the order of left
+	 */
+	public static AutoClosedIterator.OfLong joinLongs(AutoClosedIterator.OfLong left, AutoClosedIterator.OfLong right,
+			LongUnaryOperator leftKey, LongUnaryOperator rightKey, LongBinaryOperator combine) {
+		return new LongMergeJoin(left, right, leftKey, rightKey, combine);
+	}
+
+	/**
+	 * @param <T>   type
+	 * @param iter  sorted by order
+	 * @param order the order of iter
+	 * @return the first of each run of equal elements
+	 */
+	public static <T> AutoClosedIterator<T> distinct(AutoClosedIterator<T> iter, Comparator<? super T> order) {
+		return new Distinct<>(iter, order::compare);
+	}
+
+	/**
+	 * @param <T>  type
+	 * @param iter sorted by ascending key
+	 * @param key  the key of an element
+	 * @return the first of each run of elements with the same key
+	 */
+	public static <T> AutoClosedIterator<T> distinct(AutoClosedIterator<T> iter, ToLongFunction<? super T> key) {
+		return new Distinct<>(iter, (a, b) -> Long.compare(key.applyAsLong(a), key.applyAsLong(b)));
+	}
+
+	/**
+	 * @param iter ascending
+	 * @return each value of iter once
+	 */
+	public static AutoClosedIterator.OfLong distinct(AutoClosedIterator.OfLong iter) {
+		return new AutoClosedIterator.OfLong() {
+			long last;
+			boolean first = true;
+			long next;
+			boolean hasNext;
+
+			@Override
+			public void close() {
+				iter.close();
+			}
+
+			@Override
+			public boolean hasNext() {
+				while (!hasNext && iter.hasNext()) {
+					long value = iter.nextLong();
+					if (first || value != last) {
+						first = false;
+						last = value;
+						next = value;
+						hasNext = true;
+					}
+				}
+				return hasNext;
+			}
+
+			@Override
+			public long nextLong() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				hasNext = false;
+				return next;
+			}
+		};
+	}
+
+	@FunctionalInterface
+	private interface Compare<A, B> {
+		int compare(A a, B b);
+	}
+
+	private static void closeAll(List<? extends AutoClosedIterator<?>> sources) {
+		RuntimeException failure = null;
+		for (AutoClosedIterator<?> source : sources) {
+			try {
+				source.close();
+			} catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * A binary min heap of source indexes, ties are broken by the lowest index.
+	 */
+	private abstract static class IndexHeap {
+
+		final int[] heap;
+		int size;
+
+		IndexHeap(int sources) {
+			heap = new int[sources];
+		}
+
+		abstract int compareHeads(int a, int b);
+
+		private boolean less(int a, int b) {
+			int c = compareHeads(a, b);
+			return c < 0 || (c == 0 && a < b);
+		}
+
+		void add(int source) {
+			int at = size++;
+			heap[at] = source;
+			while (at > 0) {
+				int parent = (at - 1) >>> 1;
+				if (!less(heap[at], heap[parent])) {
+					break;
+				}
+				swap(at, parent);
+				at = parent;
+			}
+		}
+
+		/**
+		 * Restore the heap after the head of the top source changed or, if it is
+		 * exhausted, remove it.
+		 */
+		void fixTop(boolean exhausted) {
+			if (exhausted) {
+				heap[0] = heap[--size];
+			}
+			int at = 0;
+			while (true) {
+				int left = 2 * at + 1;
+				if (left >= size) {
+					break;
+				}
+				int smallest = left;
+				int right = left + 1;
+				if (right < size && less(heap[right], heap[left])) {
+					smallest = right;
+				}
+				if (!less(heap[smallest], heap[at])) {
+					break;
+				}
+				swap(at, smallest);
+				at = smallest;
+			}
+		}
+
+		private void swap(int a, int b) {
+			int t = heap[a];
+			heap[a] = heap[b];
+			heap[b] = t;
+		}
+	}
+
+	private static final class ComparatorMerge<T> extends IndexHeap implements AutoClosedIterator<T> {
+
+		private final List<? extends AutoClosedIterator<T>> sources;
+		private final Comparator<? super T> order;
+		private final Object[] heads;
+
+		ComparatorMerge(List<? extends AutoClosedIterator<T>> sources, Comparator<? super T> order) {
+			super(sources.size());
+			this.sources = sources;
+			this.order = order;
+			this.heads = new Object[sources.size()];
+			for (int i = 0; i < heads.length; i++) {
+				AutoClosedIterator<T> source = sources.get(i);
+				if (source.hasNext()) {
+					heads[i] = source.next();
+					add(i);
+				}
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		int compareHeads(int a, int b) {
+			return order.compare((T) heads[a], (T) heads[b]);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return size > 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (size == 0) {
+				throw new NoSuchElementException();
+			}
+			int top = heap[0];
+			T next = (T) heads[top];
+			AutoClosedIterator<T> source = sources.get(top);
+			boolean exhausted = !source.hasNext();
+			heads[top] = exhausted ? null : source.next();
+			fixTop(exhausted);
+			return next;
+		}
+
+		@Override
+		public void close() {
+			closeAll(sources);
+		}
+	}
+
+	private static final class LongKeyMerge<T> extends IndexHeap implements AutoClosedIterator<T> {
+
+		private final List<? extends AutoClosedIterator<T>> sources;
+		private final ToLongFunction<? super T> key;
+		private final Object[] heads;
+		private final long[] keys;
+
+		LongKeyMerge(List<? extends AutoClosedIterator<T>> sources, ToLongFunction<? super T> key) {
+			super(sources.size());
+			this.sources = sources;
+			this.key = key;
+			this.heads = new Object[sources.size()];
+			this.keys = new long[sources.size()];
+			for (int i = 0; i < heads.length; i++) {
+				AutoClosedIterator<T> source = sources.get(i);
+				if (source.hasNext()) {
+					T head = source.next();
+					heads[i] = head;
+					keys[i] = key.applyAsLong(head);
+					add(i);
+				}
+			}
+		}
+
+		@Override
+		int compareHeads(int a, int b) {
+			return Long.compare(keys[a], keys[b]);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return size > 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (size == 0) {
+				throw new NoSuchElementException();
+			}
+			int top = heap[0];
+			T next = (T) heads[top];
+			AutoClosedIterator<T> source = sources.get(top);
+			boolean exhausted = !source.hasNext();
+			if (exhausted) {
+				heads[top] = null;
+			} else {
+				T head = source.next();
+				heads[top] = head;
+				keys[top] = key.applyAsLong(head);
+			}
+			fixTop(exhausted);
+			return next;
+		}
+
+		@Override
+		public void close() {
+			closeAll(sources);
+		}
+	}
+
+	private static final class LongMerge extends IndexHeap implements AutoClosedIterator.OfLong {
+
+		private final List<? extends AutoClosedIterator.OfLong> sources;
+		private final long[] heads;
+
+		LongMerge(List<? extends AutoClosedIterator.OfLong> sources) {
+			super(sources.size());
+			this.sources = sources;
+			this.heads = new long[sources.size()];
+			for (int i = 0; i < heads.length; i++) {
+				AutoClosedIterator.OfLong source = sources.get(i);
+				if (source.hasNext()) {
+					heads[i] = source.nextLong();
+					add(i);
+				}
+			}
+		}
+
+		@Override
+		int compareHeads(int a, int b) {
+			return Long.compare(heads[a], heads[b]);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return size > 0;
+		}
+
+		@Override
+		public long nextLong() {
+			if (size == 0) {
+				throw new NoSuchElementException();
+			}
+			int top = heap[0];
+			long next = heads[top];
+			AutoClosedIterator.OfLong source = sources.get(top);
+			boolean exhausted = !source.hasNext();
+			if (!exhausted) {
+				heads[top] = source.nextLong();
+			}
+			fixTop(exhausted);
+			return next;
+		}
+
+		@Override
+		public void close() {
+			closeAll(sources);
+		}
+	}
+
+	private static final class Intersection<T> implements AutoClosedIterator<T> {
+
+		private final AutoClosedIterator<T> left;
+		private final AutoClosedIterator<? extends T> right;
+		private final Compare<? super T, ? super T> compare;
+		private T rightHead;
+		private boolean hasRightHead;
+		private T next;
+		private boolean hasNext;
+		private boolean done;
+
+		Intersection(AutoClosedIterator<T> left, AutoClosedIterator<? extends T> right,
+				Compare<? super T, ? super T> compare) {
+			this.left = left;
+			this.right = right;
+			this.compare = compare;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext && !done && left.hasNext()) {
+				T candidate = left.next();
+				int c = 1;
+				while (true) {
+					if (!hasRightHead) {
+						if (!right.hasNext()) {
+							done = true;
+							break;
+						}
+						rightHead = right.next();
+						hasRightHead = true;
+					}
+					c = compare.compare(candidate, rightHead);
+					if (c > 0) {
+						hasRightHead = false;
+					} else {
+						break;
+					}
+				}
+				if (c == 0) {
+					next = candidate;
+					hasNext = true;
+				}
+			}
+			return hasNext;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			T t = next;
+			next = null;
+			hasNext = false;
+			return t;
+		}
+
+		@Override
+		public void close() {
+			closeAll(List.of(left, right));
+		}
+	}
+
+	private static final class LongIntersection implements AutoClosedIterator.OfLong {
+
+		private final AutoClosedIterator.OfLong left;
+		private final AutoClosedIterator.OfLong right;
+		private long rightHead;
+		private boolean hasRightHead;
+		private long next;
+		private boolean hasNext;
+		private boolean done;
+
+		LongIntersection(AutoClosedIterator.OfLong left, AutoClosedIterator.OfLong right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext && !done && left.hasNext()) {
+				long candidate = left.nextLong();
+				while (true) {
+					if (!hasRightHead) {
+						if (!right.hasNext()) {
+							done = true;
+							break;
+						}
+						rightHead = right.nextLong();
+						hasRightHead = true;
+					}
+					if (candidate > rightHead) {
+						hasRightHead = false;
+					} else {
+						break;
+					}
+				}
+				if (hasRightHead && candidate == rightHead) {
+					next = candidate;
+					hasNext = true;
+				}
+			}
+			return hasNext;
+		}
+
+		@Override
+		public long nextLong() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasNext = false;
+			return next;
+		}
+
+		@Override
+		public void close() {
+			closeAll(List.of(left, right));
+		}
+	}
+
+	private static final class MergeJoin<L, R, O> implements AutoClosedIterator<O> {
+
+		private final AutoClosedIterator<L> left;
+		private final AutoClosedIterator<R> right;
+		private final Compare<? super L, ? super R> compare;
+		private final Compare<? super R, ? super R> rightCompare;
+		private final BiFunction<? super L, ? super R, ? extends O> combine;
+		private final List<R> run = new ArrayList<>();
+		private int runIndex;
+		private L currentLeft;
+		private R rightHead;
+		private boolean hasRightHead;
+		private O next;
+		private boolean hasNext;
+		private boolean done;
+
+		MergeJoin(AutoClosedIterator<L> left, AutoClosedIterator<R> right, Compare<? super L, ? super R> compare,
+				Compare<? super R, ? super R> rightCompare, BiFunction<? super L, ? super R, ? extends O> combine) {
+			this.left = left;
+			this.right = right;
+			this.compare = compare;
+			this.rightCompare = rightCompare;
+			this.combine = combine;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext && !done) {
+				if (runIndex < run.size()) {
+					next = combine.apply(currentLeft, run.get(runIndex++));
+					hasNext = true;
+				} else if (!left.hasNext()) {
+					done = true;
+				} else {
+					L candidate = left.next();
+					if (run.isEmpty() || compare.compare(candidate, run.get(0)) != 0) {
+						fillRun(candidate);
+					}
+					currentLeft = candidate;
+					runIndex = 0;
+				}
+			}
+			return hasNext;
+		}
+
+		/**
+		 * Skip the right elements before the candidate and buffer the ones with
+		 * the same key as the candidate.
+		 */
+		private void fillRun(L candidate) {
+			run.clear();
+			while (true) {
+				if (!hasRightHead) {
+					if (!right.hasNext()) {
+						if (run.isEmpty()) {
+							done = true;
+						}
+						return;
+					}
+					rightHead = right.next();
+					hasRightHead = true;
+				}
+				if (!run.isEmpty()) {
+					if (rightCompare.compare(run.get(0), rightHead) != 0) {
+						return;
+					}
+				} else {
+					int c = compare.compare(candidate, rightHead);
+					if (c < 0) {
+						return;
+					} else if (c > 0) {
+						hasRightHead = false;
+						continue;
+					}
+				}
+				run.add(rightHead);
+				rightHead = null;
+				hasRightHead = false;
+			}
+		}
+
+		@Override
+		public O next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			O o = next;
+			next = null;
+			hasNext = false;
+			return o;
+		}
+
+		@Override
+		public void close() {
+			closeAll(List.of(left, right));
+		}
+	}
+
+	private static final class LongMergeJoin implements AutoClosedIterator.OfLong {
+
+		private final AutoClosedIterator.OfLong left;
+		private final AutoClosedIterator.OfLong right;
+		private final LongUnaryOperator leftKey;
+		private final LongUnaryOperator rightKey;
+		private final LongBinaryOperator combine;
+		private long[] run = new long[16];
+		private int runSize;
+		private long runKey;
+		private int runIndex;
+		private long currentLeft;
+		private long rightHead;
+		private boolean hasRightHead;
+		private long next;
+		private boolean hasNext;
+		private boolean done;
+
+		LongMergeJoin(AutoClosedIterator.OfLong left, AutoClosedIterator.OfLong right, LongUnaryOperator leftKey,
+				LongUnaryOperator rightKey, LongBinaryOperator combine) {
+			this.left = left;
+			this.right = right;
+			this.leftKey = leftKey;
+			this.rightKey = rightKey;
+			this.combine = combine;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext && !done) {
+				if (runIndex < runSize) {
+					next = combine.applyAsLong(currentLeft, run[runIndex++]);
+					hasNext = true;
+				} else if (!left.hasNext()) {
+					done = true;
+				} else {
+					long candidate = left.nextLong();
+					long key = leftKey.applyAsLong(candidate);
+					if (runSize == 0 || key != runKey) {
+						fillRun(key);
+					}
+					currentLeft = candidate;
+					runIndex = 0;
+				}
+			}
+			return hasNext;
+		}
+
+		/**
+		 * Skip the right values before the key and buffer the ones with the key.
+		 */
+		private void fillRun(long key) {
+			runSize = 0;
+			while (true) {
+				if (!hasRightHead) {
+					if (!right.hasNext()) {
+						if (runSize == 0) {
+							done = true;
+						}
+						return;
+					}
+					rightHead = right.nextLong();
+					hasRightHead = true;
+				}
+				long headKey = rightKey.applyAsLong(rightHead);
+				if (runSize > 0) {
+					if (headKey != runKey) {
+						return;
+					}
+				} else if (key < headKey) {
+					return;
+				} else if (key > headKey) {
+					hasRightHead = false;
+					continue;
+				}
+				if (runSize == run.length) {
+					run = Arrays.copyOf(run, runSize * 2);
+				}
+				run[runSize++] = rightHead;
+				runKey = headKey;
+				hasRightHead = false;
+			}
+		}
+
+		@Override
+		public long nextLong() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasNext = false;
+			return next;
+		}
+
+		@Override
+		public void close() {
+			closeAll(List.of(left, right));
+		}
+	}
+
+	private static final class Distinct<T> implements AutoClosedIterator<T> {
+
+		private final AutoClosedIterator<T> iter;
+		private final Compare<? super T, ? super T> compare;
+		private T last;
+		private boolean first = true;
+		private boolean hasNext;
+
+		Distinct(AutoClosedIterator<T> iter, Compare<? super T, ? super T> compare) {
+			this.iter = iter;
+			this.compare = compare;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext && iter.hasNext()) {
+				T value = iter.next();
+				if (first || compare.compare(last, value) != 0) {
+					first = false;
+					last = value;
+					hasNext = true;
+				}
+			}
+			return hasNext;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasNext = false;
+			return last;
+		}
+
+		@Override
+		public void close() {
+			iter.close();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An array of references that grows in fixed size chunks, so that it never
+ * needs to be copied or locked. A chunk is created on the first write into it,
+ * racing writers agree on one chunk by compare and set. Reads and writes have
+ * volatile semantics.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <T> the type of the elements
+ */
+final class ChunkedArray<T> {
+
+	private static final int CHUNK_BITS = 14;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int CHUNKS = 1 << 16;
+
+	/**
+	 * The number of elements that fit.
+	 */
+	static final long CAPACITY = (long) CHUNK_SIZE * CHUNKS;
+
+	private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<>(CHUNKS);
+
+	/**
+	 * @param index of the element
+	 * @return the element or null if never set
+	 */
+	T get(long index) {
+		if (index < 0 || index >= CAPACITY) {
+			return null;
+		}
+		AtomicReferenceArray<T> chunk = chunks.get((int) (index >>> CHUNK_BITS));
+		return chunk == null ? null : chunk.get((int) index & CHUNK_MASK);
+	}
+
+	void set(long index, T value) {
+		chunk(index).set((int) index & CHUNK_MASK, value);
+	}
+
+	boolean compareAndSet(long index, T expected, T value) {
+		return chunk(index).compareAndSet((int) index & CHUNK_MASK, expected, value);
+	}
+
+	private AtomicReferenceArray<T> chunk(long index) {
+		if (index < 0 || index >= CAPACITY) {
+			throw new IllegalStateException("No room for more than " + CAPACITY + " elements");
+		}
+		int c = (int) (index >>> CHUNK_BITS);
+		AtomicReferenceArray<T> chunk = chunks.get(c);
+		if (chunk == null) {
+			chunks.compareAndSet(c, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+			chunk = chunks.get(c);
+		}
+		return chunk;
+	}
+}
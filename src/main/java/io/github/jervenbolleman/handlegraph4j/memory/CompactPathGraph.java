@@ -0,0 +1,706 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import io.github.jervenbolleman.handlegraph4j.EdgeHandle;
+import io.github.jervenbolleman.handlegraph4j.NodeCursor;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.PathHandle;
+import io.github.jervenbolleman.handlegraph4j.StepCursor;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceArena;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+import io.github.jervenbolleman.handlegraph4j.sequences.ShortAmbiguousSequence;
+import io.github.jervenbolleman.handlegraph4j.sequences.ShortKnownSequence;
+
+/**
+ * An immutable PathGraph kept in primitive arrays.
+ *
+ * Node ids are 1 up to and including the node count, a negative id is the
+ * reverse orientation. The edges to the right of each oriented handle are
+ * stored sorted in compressed sparse row form, handle -id is at index
+ * 2 * (id - 1) + 1. The steps of a path are an array of signed ids with an
+ * array of begin positions. The steps on each oriented handle are indexed in
+ * the same compressed sparse row form, a long per step, when
+ * {@link #stepsOfNodeHandle(CompactNode)} is first called.
+ *
+ * Each node sequence is a single long. Short sequences are their own packed
+ * encoding, longer ones are the address in a {@link SequenceArena} tagged with
+ * {@link SequenceType#LONG_VIA_ID}, so the graph holds no object per node.
+ *
+ * A graph copied with {@link #copyOf(PathGraph, long[])} remembers the id each
+ * node had in the graph it was copied from.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class CompactPathGraph implements PathGraph<CompactPath, CompactStep, CompactNode, CompactEdge> {
+
+	private final long[] sequences;
+	private final SequenceArena arena;
+	private final int[] rightOffsets;
+	private final long[] rightTargets;
+	private final String[] pathNames;
+	private final long[][] pathSteps;
+	private final long[][] pathBegins;
+	private final boolean[] circular;
+	private final Map<String, CompactPath> pathsByName;
+	private final long[] originalIds;
+	private volatile StepIndex stepIndex;
+
+	private CompactPathGraph(long[] sequences, SequenceArena arena, int[] rightOffsets, long[] rightTargets, String[] pathNames,
+			long[][] pathSteps, boolean[] circular, long[] originalIds) {
+		this.sequences = sequences;
+		this.arena = arena;
+		this.rightOffsets = rightOffsets;
+		this.rightTargets = rightTargets;
+		this.pathNames = pathNames;
+		this.pathSteps = pathSteps;
+		this.circular = circular;
+		this.originalIds = originalIds;
+		this.pathBegins = new long[pathSteps.length][];
+		this.pathsByName = new HashMap<>();
+		for (int p = 0; p < pathSteps.length; p++) {
+			long[] steps = pathSteps[p];
+			long[] begins = new long[steps.length + 1];
+			for (int r = 0; r < steps.length; r++) {
+				begins[r + 1] = begins[r] + lengthOf(steps[r]);
+			}
+			pathBegins[p] = begins;
+			pathsByName.put(pathNames[p], new CompactPath(p));
+		}
+	}
+
+	/**
+	 * Collects nodes, edges and paths.
+	 */
+	public static final class Builder {
+		private final SequenceArena arena;
+		private long[] sequences = new long[32];
+		private int nodes;
+		private long[] edges = new long[32];
+		private int edgeEnds;
+		private final List<String> pathNames = new ArrayList<>();
+		private final List<long[]> pathSteps = new ArrayList<>();
+		private boolean[] circular = new boolean[8];
+		private long[] originalIds;
+
+		/**
+		 * Keeps the long sequences in a new off heap arena.
+		 */
+		public Builder() {
+			this(new SequenceArena());
+		}
+
+		/**
+		 * @param arena to keep the long sequences in, may be shared between graphs
+		 */
+		public Builder(SequenceArena arena) {
+			this.arena = arena;
+		}
+
+		/**
+		 * @param sequence of the forward orientation
+		 * @return the id of the new node, one more than the previous
+		 */
+		public long addNode(Sequence sequence) {
+			if (nodes == sequences.length) {
+				sequences = Arrays.copyOf(sequences, nodes * 2);
+			}
+			sequences[nodes++] = encode(sequence);
+			return nodes;
+		}
+
+		private long encode(Sequence sequence) {
+			switch (sequence.getType()) {
+			case SHORT_KNOWN:
+				return ((ShortKnownSequence) sequence).asLong();
+			case SHORT_AMBIGUOUS:
+				return ((ShortAmbiguousSequence) sequence).asLong();
+			default:
+				return arena.add(sequence) | SequenceType.LONG_VIA_ID.code();
+			}
+		}
+
+		/**
+		 * @param left  signed id
+		 * @param right signed id
+		 * @return this
+		 */
+		public Builder addEdge(long left, long right) {
+			if (edgeEnds + 2 > edges.length) {
+				edges = Arrays.copyOf(edges, edges.length * 2);
+			}
+			edges[edgeEnds++] = left;
+			edges[edgeEnds++] = right;
+			return this;
+		}
+
+		/**
+		 * @param name  of the path
+		 * @param steps signed ids
+		 * @return this
+		 */
+		public Builder addPath(String name, long... steps) {
+			return addPath(name, false, steps);
+		}
+
+		/**
+		 * @param name     of the path
+		 * @param circular if the last step is followed by the first
+		 * @param steps    signed ids
+		 * @return this
+		 */
+		public Builder addPath(String name, boolean circular, long... steps) {
+			int path = pathNames.size();
+			if (path == this.circular.length) {
+				this.circular = Arrays.copyOf(this.circular, path * 2);
+			}
+			this.circular[path] = circular;
+			pathNames.add(name);
+			pathSteps.add(steps);
+			return this;
+		}
+
+		/**
+		 * @return the graph
+		 */
+		public CompactPathGraph build() {
+			for (int i = 0; i < edgeEnds; i++) {
+				checkId(edges[i], nodes);
+			}
+			for (long[] steps : pathSteps) {
+				for (long step : steps) {
+					checkId(step, nodes);
+				}
+			}
+			// every edge is to the right of its left side, and to the right of
+			// its flipped right side
+			int[] offsets = new int[nodes * 2 + 1];
+			for (int i = 0; i < edgeEnds; i += 2) {
+				offsets[index(edges[i]) + 1]++;
+				offsets[index(-edges[i + 1]) + 1]++;
+			}
+			for (int h = 0; h < nodes * 2; h++) {
+				offsets[h + 1] += offsets[h];
+			}
+			long[] targets = new long[offsets[nodes * 2]];
+			int[] fill = Arrays.copyOf(offsets, nodes * 2);
+			for (int i = 0; i < edgeEnds; i += 2) {
+				targets[fill[index(edges[i])]++] = edges[i + 1];
+				targets[fill[index(-edges[i + 1])]++] = -edges[i];
+			}
+			// sort each row and drop the duplicates, of edges added twice or that
+			// are their own mirror image
+			int[] distinctOffsets = new int[offsets.length];
+			int distinct = 0;
+			for (int h = 0; h < nodes * 2; h++) {
+				Arrays.sort(targets, offsets[h], offsets[h + 1]);
+				for (int e = offsets[h]; e < offsets[h + 1]; e++) {
+					if (distinct == distinctOffsets[h] || targets[distinct - 1] != targets[e]) {
+						targets[distinct++] = targets[e];
+					}
+				}
+				distinctOffsets[h + 1] = distinct;
+			}
+			return new CompactPathGraph(Arrays.copyOf(sequences, nodes), arena, distinctOffsets,
+					Arrays.copyOf(targets, distinct), pathNames.toArray(String[]::new),
+					pathSteps.toArray(long[][]::new), Arrays.copyOf(circular, pathNames.size()), originalIds);
+		}
+
+		private static void checkId(long id, int nodes) {
+			if (id == 0 || Math.abs(id) > nodes) {
+				throw new IllegalArgumentException("No node with id " + id);
+			}
+		}
+	}
+
+	/**
+	 * Copy a graph, renumbering the nodes.
+	 *
+	 * @param <P>   the type of PathHandle
+	 * @param <S>   the type of StepHandle
+	 * @param <N>   the type of NodeHandle
+	 * @param <E>   the type of EdgeHandle
+	 * @param graph to copy
+	 * @param order the asLong values of the forward handles of all nodes, the
+	 *              first becomes node 1
+	 * @return the copy
+	 */
+	public static <P extends PathHandle, S extends StepHandle, N extends NodeHandle, E extends EdgeHandle<N>> CompactPathGraph copyOf(
+			PathGraph<P, S, N, E> graph, long[] order) {
+		long[] sorted = order.clone();
+		Arrays.sort(sorted);
+		long[] newIds = new long[sorted.length];
+		for (int i = 0; i < order.length; i++) {
+			newIds[Arrays.binarySearch(sorted, order[i])] = i + 1;
+		}
+		Builder builder = new Builder();
+		for (long id : order) {
+			builder.addNode(graph.sequenceOf(graph.fromLong(id)));
+		}
+		try (AutoClosedIterator<E> edges = graph.edges()) {
+			while (edges.hasNext()) {
+				E edge = edges.next();
+				builder.addEdge(newId(graph, sorted, newIds, edge.left()), newId(graph, sorted, newIds, edge.right()));
+			}
+		}
+		try (AutoClosedIterator<P> paths = graph.paths()) {
+			while (paths.hasNext()) {
+				P path = paths.next();
+				long[] steps = new long[16];
+				int size = 0;
+				try (AutoClosedIterator<S> iter = graph.stepsOf(path)) {
+					while (iter.hasNext()) {
+						if (size == steps.length) {
+							steps = Arrays.copyOf(steps, size * 2);
+						}
+						steps[size++] = newId(graph, sorted, newIds, graph.nodeOfStep(iter.next()));
+					}
+				}
+				builder.addPath(graph.nameOfPath(path), graph.isCircular(path), Arrays.copyOf(steps, size));
+			}
+		}
+		builder.originalIds = order.clone();
+		return builder.build();
+	}
+
+	private static <N extends NodeHandle> long newId(PathGraph<?, ?, N, ?> graph, long[] sorted, long[] newIds,
+			N node) {
+		int at = Arrays.binarySearch(sorted, graph.asLong(graph.forward(node)));
+		if (at < 0) {
+			throw new IllegalArgumentException("Node " + node.id() + " is not in the order");
+		}
+		return graph.isReverseNodeHandle(node) ? -newIds[at] : newIds[at];
+	}
+
+	private static int index(long id) {
+		return id > 0 ? (int) (id - 1) * 2 : (int) (-id - 1) * 2 + 1;
+	}
+
+	/**
+	 * @param id of a node in this graph, in any orientation
+	 * @return the asLong value of the forward handle in the graph this was copied
+	 *         from, or the id itself if not copied
+	 */
+	public long originalId(long id) {
+		long forward = Math.abs(id);
+		return originalIds == null ? forward : originalIds[(int) forward - 1];
+	}
+
+	@Override
+	public boolean isReverseNodeHandle(CompactNode nh) {
+		return nh.id() < 0;
+	}
+
+	@Override
+	public CompactNode flip(CompactNode nh) {
+		return new CompactNode(-nh.id());
+	}
+
+	@Override
+	public long asLong(CompactNode nh) {
+		return nh.id();
+	}
+
+	@Override
+	public CompactNode fromLong(long id) {
+		return new CompactNode(id);
+	}
+
+	@Override
+	public CompactEdge edge(long leftId, long rightId) {
+		return new CompactEdge(new CompactNode(leftId), new CompactNode(rightId));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactEdge> followEdgesToWardsTheRight(CompactNode left) {
+		int h = index(left.id());
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt.range(rightOffsets[h], rightOffsets[h + 1]),
+				e -> new CompactEdge(left, new CompactNode(rightTargets[e])));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactEdge> followEdgesToWardsTheLeft(CompactNode right) {
+		int h = index(-right.id());
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt.range(rightOffsets[h], rightOffsets[h + 1]),
+				e -> new CompactEdge(new CompactNode(-rightTargets[e]), right));
+	}
+
+	/**
+	 * A binary search over the sorted edges to the right of left.
+	 */
+	@Override
+	public boolean hasEdge(CompactNode left, CompactNode right) {
+		return hasEdge(left.id(), right.id());
+	}
+
+	@Override
+	public boolean[] hasEdges(long[] lefts, long[] rights) {
+		if (lefts.length != rights.length) {
+			throw new IllegalArgumentException("Not as many lefts as rights");
+		}
+		boolean[] present = new boolean[lefts.length];
+		for (int i = 0; i < lefts.length; i++) {
+			present[i] = hasEdge(lefts[i], rights[i]);
+		}
+		return present;
+	}
+
+	private boolean hasEdge(long left, long right) {
+		if (left == 0 || Math.abs(left) > sequences.length) {
+			return false;
+		}
+		int h = index(left);
+		return Arrays.binarySearch(rightTargets, rightOffsets[h], rightOffsets[h + 1], right) >= 0;
+	}
+
+	/**
+	 * Each edge once, from the side with the lower index.
+	 */
+	@Override
+	public AutoClosedIterator<CompactEdge> edges() {
+		AutoClosedIterator<AutoClosedIterator<CompactEdge>> perHandle = AutoClosedIterator.OfInt
+				.mapToObj(AutoClosedIterator.OfInt.range(0, sequences.length * 2), h -> {
+					long id = h % 2 == 0 ? h / 2 + 1 : -(h / 2 + 1);
+					return AutoClosedIterator.filter(followEdgesToWardsTheRight(new CompactNode(id)),
+							e -> h <= index(-e.right().id()));
+				});
+		return AutoClosedIterator.flatMap(perHandle);
+	}
+
+	@Override
+	public long edgeCount() {
+		long count = 0;
+		for (int h = 0; h < sequences.length * 2; h++) {
+			for (int e = rightOffsets[h]; e < rightOffsets[h + 1]; e++) {
+				if (h <= index(-rightTargets[e])) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public AutoClosedIterator<CompactNode> nodes() {
+		return AutoClosedIterator.OfLong.mapToObj(AutoClosedIterator.OfLong.range(1, sequences.length + 1),
+				CompactNode::new);
+	}
+
+	/**
+	 * Counts up the ids, without making a node per id.
+	 */
+	@Override
+	public NodeCursor nodeCursor() {
+		return new NodeCursor() {
+			private long id;
+
+			@Override
+			public boolean advance() {
+				if (id < sequences.length) {
+					id++;
+					return true;
+				}
+				return false;
+			}
+
+			@Override
+			public long id() {
+				return id;
+			}
+
+			@Override
+			public boolean isReverse() {
+				return false;
+			}
+
+			@Override
+			public long asLong() {
+				return id;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	@Override
+	public long nodeCount() {
+		return sequences.length;
+	}
+
+	/**
+	 * @return the sequence of the forward orientation, for both orientations
+	 */
+	@Override
+	public Sequence sequenceOf(CompactNode handle) {
+		long sequence = sequences[(int) Math.abs(handle.id()) - 1];
+		switch (SequenceType.fromLong(sequence)) {
+		case SHORT_KNOWN:
+			return new ShortKnownSequence(sequence);
+		case SHORT_AMBIGUOUS:
+			return new ShortAmbiguousSequence(sequence);
+		default:
+			return arena.get(sequence & ~SequenceType.LONG_VIA_ID.code());
+		}
+	}
+
+	private long lengthOf(long id) {
+		long sequence = sequences[(int) Math.abs(id) - 1];
+		switch (SequenceType.fromLong(sequence)) {
+		case SHORT_KNOWN:
+			return new ShortKnownSequence(sequence).length();
+		case SHORT_AMBIGUOUS:
+			return new ShortAmbiguousSequence(sequence).length();
+		default:
+			return arena.length(sequence & ~SequenceType.LONG_VIA_ID.code());
+		}
+	}
+
+	@Override
+	public AutoClosedIterator<CompactNode> nodesWithSequence(Sequence s) {
+		return AutoClosedIterator.filter(nodes(), n -> sequenceOf(n).equals(s));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactPath> paths() {
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt.range(0, pathNames.length),
+				CompactPath::new);
+	}
+
+	@Override
+	public int pathCount() {
+		return pathNames.length;
+	}
+
+	@Override
+	public AutoClosedIterator<CompactStep> steps() {
+		return AutoClosedIterator.flatMap(AutoClosedIterator.map(paths(), this::stepsOf));
+	}
+
+	/**
+	 * The path and rank of the steps on each oriented handle, packed as path
+	 * &lt;&lt; 32 | rank, in path and rank order.
+	 */
+	private static final class StepIndex {
+		private final int[] offsets;
+		private final long[] steps;
+
+		private StepIndex(int[] offsets, long[] steps) {
+			this.offsets = offsets;
+			this.steps = steps;
+		}
+	}
+
+	private StepIndex stepIndex() {
+		StepIndex index = stepIndex;
+		if (index == null) {
+			// built at most a few times when threads race, all the same
+			int[] offsets = new int[sequences.length * 2 + 1];
+			long total = 0;
+			for (long[] steps : pathSteps) {
+				for (long id : steps) {
+					offsets[index(id) + 1]++;
+				}
+				total += steps.length;
+			}
+			if (total > Integer.MAX_VALUE - 8) {
+				throw new IllegalStateException("Too many steps to index: " + total);
+			}
+			for (int i = 1; i < offsets.length; i++) {
+				offsets[i] += offsets[i - 1];
+			}
+			int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+			long[] packed = new long[(int) total];
+			for (int p = 0; p < pathSteps.length; p++) {
+				long[] steps = pathSteps[p];
+				for (int rank = 0; rank < steps.length; rank++) {
+					packed[next[index(steps[rank])]++] = (long) p << 32 | rank;
+				}
+			}
+			index = new StepIndex(offsets, packed);
+			stepIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * The steps on the handle in this orientation, from an index that is built
+	 * on the first call.
+	 */
+	@Override
+	public AutoClosedIterator<CompactStep> stepsOfNodeHandle(CompactNode nodeHandle) {
+		StepIndex index = stepIndex();
+		int at = index(nodeHandle.id());
+		return AutoClosedIterator.OfInt.mapToObj(
+				AutoClosedIterator.OfInt.range(index.offsets[at], index.offsets[at + 1]), i -> {
+					long step = index.steps[i];
+					return new CompactStep((int) (step >>> 32), (int) step);
+				});
+	}
+
+	@Override
+	public AutoClosedIterator<CompactStep> stepsOf(CompactPath path) {
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt.range(0, pathSteps[path.id()].length),
+				r -> new CompactStep(path.id(), r));
+	}
+
+	/**
+	 * Reads the step arrays in place, without making a step per step.
+	 */
+	@Override
+	public StepCursor stepCursor() {
+		return new Steps(0, pathSteps.length);
+	}
+
+	@Override
+	public StepCursor stepCursor(CompactPath path) {
+		return new Steps(path.id(), path.id() + 1);
+	}
+
+	private final class Steps implements StepCursor {
+		private final int lastPath;
+		private int path;
+		private int rank = -1;
+
+		private Steps(int firstPath, int lastPath) {
+			this.path = firstPath;
+			this.lastPath = lastPath;
+		}
+
+		@Override
+		public boolean advance() {
+			rank++;
+			while (path < lastPath && rank >= pathSteps[path].length) {
+				path++;
+				rank = 0;
+			}
+			return path < lastPath;
+		}
+
+		@Override
+		public long nodeId() {
+			return pathSteps[path][rank];
+		}
+
+		@Override
+		public boolean isReverse() {
+			return pathSteps[path][rank] < 0;
+		}
+
+		@Override
+		public long nodeAsLong() {
+			return pathSteps[path][rank];
+		}
+
+		@Override
+		public long rank() {
+			return rank;
+		}
+
+		@Override
+		public long beginPosition() {
+			return pathBegins[path][rank];
+		}
+
+		@Override
+		public long endPosition() {
+			return pathBegins[path][rank + 1];
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	@Override
+	public long stepCountInPath(CompactPath path) {
+		return pathSteps[path.id()].length;
+	}
+
+	@Override
+	public CompactPath pathOfStep(CompactStep step) {
+		return new CompactPath(step.path());
+	}
+
+	@Override
+	public CompactNode nodeOfStep(CompactStep step) {
+		return new CompactNode(pathSteps[step.path()][step.rank()]);
+	}
+
+	@Override
+	public long beginPositionOfStep(CompactStep step) {
+		return pathBegins[step.path()][step.rank()];
+	}
+
+	@Override
+	public long endPositionOfStep(CompactStep step) {
+		return pathBegins[step.path()][step.rank() + 1];
+	}
+
+	@Override
+	public long rankOfStep(CompactStep step) {
+		return step.rank();
+	}
+
+	@Override
+	public CompactStep stepByRankAndPath(CompactPath path, long rank) {
+		if (rank < 0 || rank >= pathSteps[path.id()].length) {
+			return null;
+		}
+		return new CompactStep(path.id(), (int) rank);
+	}
+
+	@Override
+	public boolean isCircular(CompactPath path) {
+		return circular[path.id()];
+	}
+
+	@Override
+	public String nameOfPath(CompactPath path) {
+		return pathNames[path.id()];
+	}
+
+	@Override
+	public CompactPath pathByName(String name) {
+		return pathsByName.get(name);
+	}
+
+	@Override
+	public LongStream positionsOf(CompactPath path) {
+		long[] begins = pathBegins[path.id()];
+		return LongStream.range(0, begins.length - 1).flatMap(r -> LongStream.of(begins[(int) r], begins[(int) r + 1]));
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+
+/**
+ * A step of a {@link CompactPathGraph}.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class CompactStep implements StepHandle {
+
+	private final int path;
+	private final int rank;
+
+	/**
+	 * @param path the number of the path in the graph
+	 * @param rank of the step in the path
+	 */
+	public CompactStep(int path, int rank) {
+		this.path = path;
+		this.rank = rank;
+	}
+
+	/**
+	 * @return the number of the path in the graph
+	 */
+	public int path() {
+		return path;
+	}
+
+	/**
+	 * @return the rank of the step in the path
+	 */
+	public int rank() {
+		return rank;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof CompactStep && ((CompactStep) o).path == path && ((CompactStep) o).rank == rank;
+	}
+
+	@Override
+	public int hashCode() {
+		return path * 31 + rank;
+	}
+
+	@Override
+	public String toString() {
+		return path + ":" + rank;
+	}
+}
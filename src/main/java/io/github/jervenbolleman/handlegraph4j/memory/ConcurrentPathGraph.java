@@ -0,0 +1,289 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.jervenbolleman.handlegraph4j.MutablePathGraph;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * A PathGraph in memory that many threads can add nodes, edges, paths and
+ * steps to while others read it.
+ *
+ * Node and path ids are handed out by atomic increment, ids are never reused.
+ * Changes to a sequence or a row of edges are a new head for its chain of
+ * {@link Versioned} values, set by compare and set. An edge is added to the
+ * rows of both its sides one after the other, reads of the graph itself may see
+ * it from its left side first.
+ *
+ * Steps are only ever appended. Appends to different paths do not contend,
+ * appends to the same path are serialized on that path as each begin position
+ * depends on the one before. Readers see a path up to its published length and
+ * never lock.
+ *
+ * A node that has a step can not be destroyed. The first step on a node and
+ * its destruction race on one mark per node, whichever sets it first wins.
+ *
+ * A {@link #snapshot()} is an immutable view of the graph as it was when taken,
+ * in which each change is either complete or absent. Long reads of a snapshot
+ * do not hold up writers, and older versions are only kept while a snapshot
+ * that can see them is open.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class ConcurrentPathGraph extends VersionedPathGraph
+		implements MutablePathGraph<CompactPath, CompactStep, CompactNode, CompactEdge> {
+
+	private final AtomicLong liveNodes = new AtomicLong();
+	private final Epochs epochs = new Epochs();
+	/**
+	 * Per node id, null until decided, TRUE once the node has a step and FALSE
+	 * once it is destroyed.
+	 */
+	private final ChunkedArray<Boolean> onPath = new ChunkedArray<>();
+
+	/**
+	 * The graph as of one version. Must be closed so that the versions only it
+	 * sees can be dropped.
+	 */
+	public static final class Snapshot extends VersionedPathGraph implements AutoCloseable {
+		private final Epochs epochs;
+		private final long version;
+		private boolean closed;
+
+		private Snapshot(ConcurrentPathGraph graph, long version) {
+			super(graph);
+			this.epochs = graph.epochs;
+			this.version = version;
+		}
+
+		@Override
+		long version() {
+			return version;
+		}
+
+		@Override
+		public synchronized void close() {
+			if (!closed) {
+				closed = true;
+				epochs.release(version);
+			}
+		}
+	}
+
+	@Override
+	long version() {
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Waits for the changes that are being written, not for those that start
+	 * later.
+	 *
+	 * @return the graph as of now
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this, epochs.snapshot());
+	}
+
+	private void checkLive(CompactNode node) {
+		if (!isLive(node.id())) {
+			throw new IllegalArgumentException("No node with id " + node.id());
+		}
+	}
+
+	private <T> void write(long index, ChunkedArray<Versioned<T>> array, T value, long version) {
+		while (true) {
+			Versioned<T> current = array.get(index);
+			if (array.compareAndSet(index, current,
+					Versioned.next(current, value, version, epochs.oldestSnapshot()))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Replace the row of a handle with a copy that has the target, unless it is
+	 * already there.
+	 */
+	private boolean insert(long id, long target, long version) {
+		long h = index(id);
+		while (true) {
+			Versioned<long[]> current = rightEdges.get(h);
+			long[] targets = current == null || current.value == null ? NO_EDGES : current.value;
+			int at = Arrays.binarySearch(targets, target);
+			if (at >= 0) {
+				return false;
+			}
+			at = -at - 1;
+			long[] updated = new long[targets.length + 1];
+			System.arraycopy(targets, 0, updated, 0, at);
+			updated[at] = target;
+			System.arraycopy(targets, at, updated, at + 1, targets.length - at);
+			if (rightEdges.compareAndSet(h, current,
+					Versioned.next(current, updated, version, epochs.oldestSnapshot()))) {
+				return true;
+			}
+		}
+	}
+
+	private void remove(long id, long target, long version) {
+		long h = index(id);
+		while (true) {
+			Versioned<long[]> current = rightEdges.get(h);
+			int at = current == null || current.value == null ? -1 : Arrays.binarySearch(current.value, target);
+			if (at < 0) {
+				return;
+			}
+			long[] updated = new long[current.value.length - 1];
+			System.arraycopy(current.value, 0, updated, 0, at);
+			System.arraycopy(current.value, at + 1, updated, at, updated.length - at);
+			if (rightEdges.compareAndSet(h, current,
+					Versioned.next(current, updated, version, epochs.oldestSnapshot()))) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public CompactNode createHandle(Sequence sequence) {
+		long id = nextNodeId.getAndIncrement();
+		if (id * 2 > ChunkedArray.CAPACITY) {
+			throw new IllegalStateException("No room for more than " + ChunkedArray.CAPACITY / 2 + " nodes");
+		}
+		long version = epochs.enter();
+		try {
+			write(id, sequences, sequence, version);
+		} finally {
+			epochs.exit(version);
+		}
+		liveNodes.incrementAndGet();
+		return new CompactNode(id);
+	}
+
+	@Override
+	public CompactEdge createEdge(CompactNode left, CompactNode right) {
+		checkLive(left);
+		checkLive(right);
+		long version = epochs.enter();
+		try {
+			insert(left.id(), right.id(), version);
+			insert(-right.id(), -left.id(), version);
+		} finally {
+			epochs.exit(version);
+		}
+		return new CompactEdge(left, right);
+	}
+
+	/**
+	 * Remove a node and all its edges.
+	 *
+	 * @param node in any orientation
+	 * @return true if the node was in the graph
+	 * @throws IllegalArgumentException if the node is on a path
+	 */
+	@Override
+	public boolean destroyHandle(CompactNode node) {
+		long id = Math.abs(node.id());
+		Versioned<Sequence> current = sequences.get(id);
+		if (current == null || current.value == null) {
+			return false;
+		}
+		onPath.compareAndSet(id, null, Boolean.FALSE);
+		if (onPath.get(id) == Boolean.TRUE) {
+			throw new IllegalArgumentException("Node " + id + " is on a path");
+		}
+		long version = epochs.enter();
+		try {
+			if (!sequences.compareAndSet(id, current,
+					Versioned.next(current, null, version, epochs.oldestSnapshot()))) {
+				return false;
+			}
+			liveNodes.decrementAndGet();
+			// edges to the dead node are already invisible to readers, this frees
+			// them
+			for (long side : new long[] { id, -id }) {
+				long[] targets = rightOf(side);
+				write(index(side), rightEdges, NO_EDGES, version);
+				for (long target : targets) {
+					remove(-target, -side, version);
+				}
+			}
+			return true;
+		} finally {
+			epochs.exit(version);
+		}
+	}
+
+	@Override
+	public CompactPath createPath(String name) {
+		int id = nextPathId.getAndIncrement();
+		if (id < 0) {
+			throw new IllegalStateException("No room for more paths");
+		}
+		long version = epochs.enter();
+		try {
+			PathSteps steps = new PathSteps(id, name, version);
+			paths.set(id, steps);
+			if (pathsByName.putIfAbsent(name, steps) != null) {
+				paths.set(id, null);
+				throw new IllegalArgumentException("There already is a path " + name);
+			}
+		} finally {
+			epochs.exit(version);
+		}
+		return new CompactPath(id);
+	}
+
+	@Override
+	public CompactStep appendStep(CompactPath path, CompactNode node) {
+		Sequence sequence = sequenceOf(node);
+		if (node.id() == 0 || sequence == null) {
+			throw new IllegalArgumentException("No node with id " + node.id());
+		}
+		PathSteps steps = paths.get(path.id());
+		if (steps == null) {
+			throw new IllegalArgumentException("No path with id " + path.id());
+		}
+		long id = Math.abs(node.id());
+		onPath.compareAndSet(id, null, Boolean.TRUE);
+		if (onPath.get(id) != Boolean.TRUE) {
+			// destroyed since its sequence was read
+			throw new IllegalArgumentException("No node with id " + node.id());
+		}
+		return new CompactStep(path.id(), steps.append(node.id(), sequence.length(), epochs));
+	}
+
+	@Override
+	public long nodeCount() {
+		return liveNodes.get();
+	}
+
+	@Override
+	public int pathCount() {
+		return pathsByName.size();
+	}
+}
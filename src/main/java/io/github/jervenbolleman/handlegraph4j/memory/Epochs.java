@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versions for writers and snapshots of a {@link ConcurrentPathGraph}.
+ *
+ * Each change is written in the current epoch. Taking a snapshot registers
+ * the current epoch, starts the next one and waits for the changes still being
+ * written in the registered epoch. The snapshot then sees exactly the changes
+ * of its epoch and before. Writers never wait, one that starts while the
+ * epoch moves on retries in the new epoch. Only the changes of the epoch
+ * before and after the current one can be in flight, so they are counted by
+ * parity.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+final class Epochs {
+
+	private final AtomicLong epoch = new AtomicLong(1);
+	private final AtomicLongArray writing = new AtomicLongArray(2);
+	private final ConcurrentSkipListMap<Long, Integer> open = new ConcurrentSkipListMap<>();
+
+	/**
+	 * @return the version to write a change in, to be passed to exit when done
+	 */
+	long enter() {
+		while (true) {
+			long version = epoch.get();
+			writing.incrementAndGet((int) version & 1);
+			if (epoch.get() == version) {
+				return version;
+			}
+			writing.decrementAndGet((int) version & 1);
+		}
+	}
+
+	void exit(long version) {
+		writing.decrementAndGet((int) version & 1);
+	}
+
+	/**
+	 * @return the version of the oldest open snapshot, or Long.MAX_VALUE if none
+	 */
+	long oldestSnapshot() {
+		Map.Entry<Long, Integer> oldest = open.firstEntry();
+		return oldest == null ? Long.MAX_VALUE : oldest.getKey();
+	}
+
+	/**
+	 * Snapshots are taken one at a time, so that the epoch only moves on once
+	 * the changes in it are complete.
+	 *
+	 * @return the version of a new open snapshot
+	 */
+	synchronized long snapshot() {
+		long version = epoch.get();
+		// registered before the epoch moves on, so that writers of the next
+		// epoch keep the versions it sees
+		open.merge(version, 1, Integer::sum);
+		epoch.set(version + 1);
+		while (writing.get((int) version & 1) != 0) {
+			Thread.onSpinWait();
+		}
+		return version;
+	}
+
+	void release(long version) {
+		open.computeIfPresent(version, (v, count) -> count == 1 ? null : count - 1);
+	}
+}
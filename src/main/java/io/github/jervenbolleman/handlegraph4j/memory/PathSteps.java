@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import java.util.Arrays;
+
+/**
+ * The steps of one path of a {@link ConcurrentPathGraph}, in chunks of signed
+ * node ids and end positions. Steps are only ever appended, one at a time.
+ *
+ * The chunk directory is replaced when it grows, a reader that reads the
+ * length first sees a directory that covers it. The length as of each epoch
+ * that appended to the path is kept for snapshots.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+final class PathSteps {
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	final int id;
+	final String name;
+	final long created;
+	private volatile long[][] nodes = new long[1][CHUNK_SIZE];
+	private volatile long[][] ends = new long[1][CHUNK_SIZE];
+	private volatile int length;
+	private volatile LengthMark lengths;
+
+	/**
+	 * The length at the end of an epoch. Only the mark of the current epoch is
+	 * changed, and no snapshot reads it before the epoch is over.
+	 */
+	private static final class LengthMark {
+		private final long version;
+		private volatile int length;
+		private volatile LengthMark previous;
+
+		private LengthMark(long version, int length, LengthMark previous) {
+			this.version = version;
+			this.length = length;
+			this.previous = previous;
+		}
+	}
+
+	PathSteps(int id, String name, long created) {
+		this.id = id;
+		this.name = name;
+		this.created = created;
+	}
+
+	/**
+	 * Appends are serialized, as each begin position depends on the one before,
+	 * and enter their epoch in order so that later steps never have an earlier
+	 * version.
+	 */
+	synchronized int append(long node, int sequenceLength, Epochs epochs) {
+		long version = epochs.enter();
+		try {
+			int rank = length;
+			if (rank == Integer.MAX_VALUE) {
+				throw new IllegalStateException("Path " + name + " is full");
+			}
+			int chunk = rank >>> CHUNK_BITS;
+			long[][] n = nodes;
+			long[][] e = ends;
+			if (chunk == n.length) {
+				n = Arrays.copyOf(n, chunk * 2);
+				e = Arrays.copyOf(e, chunk * 2);
+			}
+			if (n[chunk] == null) {
+				n[chunk] = new long[CHUNK_SIZE];
+				e[chunk] = new long[CHUNK_SIZE];
+			}
+			n[chunk][rank & CHUNK_MASK] = node;
+			e[chunk][rank & CHUNK_MASK] = (rank == 0 ? 0 : end(rank - 1)) + sequenceLength;
+			nodes = n;
+			ends = e;
+			// publishes the step, the volatile write orders the writes above before it
+			length = rank + 1;
+			LengthMark mark = lengths;
+			if (mark != null && mark.version == version) {
+				mark.length = rank + 1;
+			} else {
+				mark = new LengthMark(version, rank + 1, mark);
+				long oldest = epochs.oldestSnapshot();
+				LengthMark m = mark;
+				while (m.version > oldest && m.previous != null) {
+					m = m.previous;
+				}
+				m.previous = null;
+				lengths = mark;
+			}
+			return rank;
+		} finally {
+			epochs.exit(version);
+		}
+	}
+
+	/**
+	 * @param version of a snapshot, or Long.MAX_VALUE for the newest
+	 * @return the number of steps
+	 */
+	int length(long version) {
+		if (version == Long.MAX_VALUE) {
+			return length;
+		}
+		for (LengthMark m = lengths; m != null; m = m.previous) {
+			if (m.version <= version) {
+				return m.length;
+			}
+		}
+		return 0;
+	}
+
+	long node(int rank) {
+		return nodes[rank >>> CHUNK_BITS][rank & CHUNK_MASK];
+	}
+
+	long begin(int rank) {
+		return rank == 0 ? 0 : end(rank - 1);
+	}
+
+	long end(int rank) {
+		return ends[rank >>> CHUNK_BITS][rank & CHUNK_MASK];
+	}
+}
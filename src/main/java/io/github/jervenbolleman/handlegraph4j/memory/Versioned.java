@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+/**
+ * One version of a value, linked to the version before it, for readers of
+ * older snapshots. The newest version is the head of the chain.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ * @param <T> the type of the value
+ */
+final class Versioned<T> {
+
+	final T value;
+	final long version;
+	volatile Versioned<T> previous;
+
+	private Versioned(T value, long version, Versioned<T> previous) {
+		this.value = value;
+		this.version = version;
+		this.previous = previous;
+	}
+
+	/**
+	 * @param <T>     the type of the value
+	 * @param head    of the chain, may be null
+	 * @param version of a snapshot, or Long.MAX_VALUE for the newest
+	 * @return the newest value written at or before the version, or null
+	 */
+	static <T> T at(Versioned<T> head, long version) {
+		for (Versioned<T> v = head; v != null; v = v.previous) {
+			if (v.version <= version) {
+				return v.value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A new head for the chain. A head of the same version is replaced, as no
+	 * snapshot can see the version that is being written. Versions that no open
+	 * snapshot can see any more are dropped.
+	 *
+	 * @param <T>            the type of the value
+	 * @param head           the current head, may be null
+	 * @param value          the new value
+	 * @param version        being written
+	 * @param oldestSnapshot the version of the oldest open snapshot
+	 * @return the new head, to compare and set in place of head
+	 */
+	static <T> Versioned<T> next(Versioned<T> head, T value, long version, long oldestSnapshot) {
+		Versioned<T> next = new Versioned<>(value, version,
+				head != null && head.version == version ? head.previous : head);
+		Versioned<T> v = next;
+		while (v.version > oldestSnapshot && v.previous != null) {
+			v = v.previous;
+		}
+		v.previous = null;
+		return next;
+	}
+}
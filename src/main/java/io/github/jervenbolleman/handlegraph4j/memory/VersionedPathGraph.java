@@ -0,0 +1,278 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+
+/**
+ * Reads the storage of a {@link ConcurrentPathGraph} as of one version: the
+ * newest for the graph itself, or that of a
+ * {@link ConcurrentPathGraph.Snapshot}.
+ *
+ * Ids and handles are signed as in {@link CompactPathGraph}. Sequences and the
+ * edges to the right of each oriented handle are chains of {@link Versioned}
+ * values in {@link ChunkedArray}s. The edges of a handle are a sorted long[]
+ * that is replaced, never changed, so a reader iterates a consistent row
+ * without locking and hasEdge is a binary search.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public abstract class VersionedPathGraph implements PathGraph<CompactPath, CompactStep, CompactNode, CompactEdge> {
+
+	static final long[] NO_EDGES = new long[0];
+
+	final AtomicLong nextNodeId;
+	final ChunkedArray<Versioned<Sequence>> sequences;
+	final ChunkedArray<Versioned<long[]>> rightEdges;
+	final AtomicInteger nextPathId;
+	final ChunkedArray<PathSteps> paths;
+	final ConcurrentHashMap<String, PathSteps> pathsByName;
+
+	VersionedPathGraph() {
+		this.nextNodeId = new AtomicLong(1);
+		this.sequences = new ChunkedArray<>();
+		this.rightEdges = new ChunkedArray<>();
+		this.nextPathId = new AtomicInteger();
+		this.paths = new ChunkedArray<>();
+		this.pathsByName = new ConcurrentHashMap<>();
+	}
+
+	VersionedPathGraph(VersionedPathGraph shared) {
+		this.nextNodeId = shared.nextNodeId;
+		this.sequences = shared.sequences;
+		this.rightEdges = shared.rightEdges;
+		this.nextPathId = shared.nextPathId;
+		this.paths = shared.paths;
+		this.pathsByName = shared.pathsByName;
+	}
+
+	/**
+	 * @return the version this reads, Long.MAX_VALUE for the newest
+	 */
+	abstract long version();
+
+	static long index(long id) {
+		return id > 0 ? (id - 1) * 2 : (-id - 1) * 2 + 1;
+	}
+
+	boolean isLive(long id) {
+		return id != 0 && Versioned.at(sequences.get(Math.abs(id)), version()) != null;
+	}
+
+	long[] rightOf(long id) {
+		long[] targets = Versioned.at(rightEdges.get(index(id)), version());
+		return targets == null ? NO_EDGES : targets;
+	}
+
+	/**
+	 * @return true if the path is created, its name not taken by an other, and
+	 *         visible in this version
+	 */
+	private boolean isPublished(PathSteps steps) {
+		return steps != null && steps.created <= version() && pathsByName.get(steps.name) == steps;
+	}
+
+	private int length(CompactPath path) {
+		return paths.get(path.id()).length(version());
+	}
+
+	@Override
+	public boolean isReverseNodeHandle(CompactNode nh) {
+		return nh.id() < 0;
+	}
+
+	@Override
+	public CompactNode flip(CompactNode nh) {
+		return new CompactNode(-nh.id());
+	}
+
+	@Override
+	public long asLong(CompactNode nh) {
+		return nh.id();
+	}
+
+	@Override
+	public CompactNode fromLong(long id) {
+		return new CompactNode(id);
+	}
+
+	@Override
+	public CompactEdge edge(long leftId, long rightId) {
+		return new CompactEdge(new CompactNode(leftId), new CompactNode(rightId));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactEdge> followEdgesToWardsTheRight(CompactNode left) {
+		if (!isLive(left.id())) {
+			return AutoClosedIterator.empty();
+		}
+		long[] targets = rightOf(left.id());
+		return AutoClosedIterator.OfInt.mapToObj(
+				AutoClosedIterator.OfInt.filter(AutoClosedIterator.OfInt.range(0, targets.length),
+						e -> isLive(targets[e])),
+				e -> new CompactEdge(left, new CompactNode(targets[e])));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactEdge> followEdgesToWardsTheLeft(CompactNode right) {
+		if (!isLive(right.id())) {
+			return AutoClosedIterator.empty();
+		}
+		long[] targets = rightOf(-right.id());
+		return AutoClosedIterator.OfInt.mapToObj(
+				AutoClosedIterator.OfInt.filter(AutoClosedIterator.OfInt.range(0, targets.length),
+						e -> isLive(targets[e])),
+				e -> new CompactEdge(new CompactNode(-targets[e]), right));
+	}
+
+	/**
+	 * A binary search over the sorted edges to the right of left.
+	 */
+	@Override
+	public boolean hasEdge(CompactNode left, CompactNode right) {
+		return isLive(left.id()) && isLive(right.id()) && Arrays.binarySearch(rightOf(left.id()), right.id()) >= 0;
+	}
+
+	/**
+	 * Each edge once, from the side with the lower index.
+	 */
+	@Override
+	public AutoClosedIterator<CompactEdge> edges() {
+		AutoClosedIterator<AutoClosedIterator<CompactEdge>> perHandle = AutoClosedIterator
+				.map(nodes(), n -> AutoClosedIterator.concat(lowerSide(n), lowerSide(flip(n))));
+		return AutoClosedIterator.flatMap(perHandle);
+	}
+
+	private AutoClosedIterator<CompactEdge> lowerSide(CompactNode left) {
+		long h = index(left.id());
+		return AutoClosedIterator.filter(followEdgesToWardsTheRight(left), e -> h <= index(-e.right().id()));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactNode> nodes() {
+		return AutoClosedIterator.OfLong.mapToObj(
+				AutoClosedIterator.OfLong.filter(AutoClosedIterator.OfLong.range(1, nextNodeId.get()), this::isLive),
+				CompactNode::new);
+	}
+
+	/**
+	 * @return the sequence of the forward orientation, for both orientations
+	 */
+	@Override
+	public Sequence sequenceOf(CompactNode handle) {
+		return Versioned.at(sequences.get(Math.abs(handle.id())), version());
+	}
+
+	@Override
+	public AutoClosedIterator<CompactNode> nodesWithSequence(Sequence s) {
+		return AutoClosedIterator.filter(nodes(), n -> s.equals(sequenceOf(n)));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactPath> paths() {
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt
+				.filter(AutoClosedIterator.OfInt.range(0, nextPathId.get()), p -> isPublished(paths.get(p))),
+				CompactPath::new);
+	}
+
+	@Override
+	public AutoClosedIterator<CompactStep> steps() {
+		return AutoClosedIterator.flatMap(AutoClosedIterator.map(paths(), this::stepsOf));
+	}
+
+	@Override
+	public AutoClosedIterator<CompactStep> stepsOf(CompactPath path) {
+		return AutoClosedIterator.OfInt.mapToObj(AutoClosedIterator.OfInt.range(0, length(path)),
+				r -> new CompactStep(path.id(), r));
+	}
+
+	@Override
+	public long stepCountInPath(CompactPath path) {
+		return length(path);
+	}
+
+	@Override
+	public CompactPath pathOfStep(CompactStep step) {
+		return new CompactPath(step.path());
+	}
+
+	@Override
+	public CompactNode nodeOfStep(CompactStep step) {
+		return new CompactNode(paths.get(step.path()).node(step.rank()));
+	}
+
+	@Override
+	public long beginPositionOfStep(CompactStep step) {
+		return paths.get(step.path()).begin(step.rank());
+	}
+
+	@Override
+	public long endPositionOfStep(CompactStep step) {
+		return paths.get(step.path()).end(step.rank());
+	}
+
+	@Override
+	public long rankOfStep(CompactStep step) {
+		return step.rank();
+	}
+
+	@Override
+	public CompactStep stepByRankAndPath(CompactPath path, long rank) {
+		if (rank < 0 || rank >= length(path)) {
+			return null;
+		}
+		return new CompactStep(path.id(), (int) rank);
+	}
+
+	@Override
+	public boolean isCircular(CompactPath path) {
+		return false;
+	}
+
+	@Override
+	public String nameOfPath(CompactPath path) {
+		return paths.get(path.id()).name;
+	}
+
+	@Override
+	public CompactPath pathByName(String name) {
+		PathSteps steps = pathsByName.get(name);
+		return isPublished(steps) ? new CompactPath(steps.id) : null;
+	}
+
+	@Override
+	public LongStream positionsOf(CompactPath path) {
+		PathSteps steps = paths.get(path.id());
+		return LongStream.range(0, length(path))
+				.flatMap(r -> LongStream.of(steps.begin((int) r), steps.end((int) r)));
+	}
+}
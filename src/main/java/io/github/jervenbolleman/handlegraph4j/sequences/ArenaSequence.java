@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.sequences;
+
+import static io.github.jervenbolleman.handlegraph4j.sequences.SequenceArena.NUCLEOTIDES_PER_LONG;
+import static io.github.jervenbolleman.handlegraph4j.sequences.ShortAmbiguousSequence.BITS_PER_NUCLEOTIDE;
+
+import java.nio.LongBuffer;
+
+/**
+ * A view on a sequence stored in a {@link SequenceArena}. It holds no
+ * nucleotides of its own, only where they are in the buffer of the arena.
+ *
+ * The reverse complement is a view on the same nucleotides read back to front.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class ArenaSequence implements Sequence {
+
+    private static final long MASK = 0b1111l;
+    private final LongBuffer buffer;
+    private final int start;
+    private final int length;
+    private final boolean reverseComplement;
+
+    ArenaSequence(LongBuffer buffer, int start, int length, boolean reverseComplement) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = length;
+        this.reverseComplement = reverseComplement;
+    }
+
+    @Override
+    public byte byteAt(int offset) {
+        if (reverseComplement) {
+            return Sequence.complement(forwardByteAt(length - 1 - offset));
+        }
+        return forwardByteAt(offset);
+    }
+
+    private byte forwardByteAt(int offset) {
+        final long code = buffer.get(start + offset / NUCLEOTIDES_PER_LONG);
+        final int shift = (offset % NUCLEOTIDES_PER_LONG) * BITS_PER_NUCLEOTIDE;
+        return ShortAmbiguousSequence.fromInt((int) ((code >>> shift) & MASK));
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public SequenceType getType() {
+        return SequenceType.OTHER;
+    }
+
+    @Override
+    public ArenaSequence reverseComplement() {
+        return new ArenaSequence(buffer, start, length, !reverseComplement);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof Sequence) {
+            return Sequence.equalByBytes(this, (Sequence) obj);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Sequence.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
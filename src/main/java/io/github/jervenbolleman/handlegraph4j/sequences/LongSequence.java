@@ -36,14 +36,7 @@ import java.util.Arrays;
  */
 public class LongSequence implements Sequence {
 
-    private static final int MAX_LENGTH = 32;
-    private static final long ONLY_A = 0b00010001_00010001_00010001_00010001_00010001_00010001_00010001_00010001l;
-    private static final long ONLY_T = 0b00100010_00100010_00100010_00100010_00100010_00100010_00100010_00100010l;
-    private static final long ONLY_C = 0b01000100_01000100_01000100_01000100_01000100_01000100_01000100_01000100l;
-    private static final long ONLY_G = 0b10001000_10001000_10001000_10001000_10001000_10001000_10001000_10001000l;
-    private static final long T_OR_G = ONLY_T | ONLY_G;
-    private static final long A_OR_C = ONLY_A | ONLY_C;
-    private static final long GC_COUNT_MASK = ONLY_G | ONLY_C;
+    private static final int MAX_LENGTH = Long.SIZE / BITS_PER_NUCLEOTIDE;
 
     private final long[] sequence;
     private final int length;
@@ -125,14 +118,7 @@ public class LongSequence implements Sequence {
      */
     @Override
     public int hashCode() {
-        if (length == 0) {
-            return 0;
-        }
-        return length() * GCcount(sequence[0]);
-    }
-
-    private static int GCcount(long value) {
-        return Long.bitCount(value & GC_COUNT_MASK);
+        return Sequence.hashCode(this);
     }
 
     @Override
@@ -148,19 +134,11 @@ public class LongSequence implements Sequence {
 
     @Override
     public Sequence reverseComplement() {
-        long[] ns = new long[length];
-        for (int i = 0; i < sequence.length; i++) {
-            ns[i] = binaryReverseComplement(sequence[i]);
+        byte[] reversed = new byte[length];
+        for (int i = 0; i < length; i++) {
+            reversed[length - 1 - i] = Sequence.complement(byteAt(i));
         }
-        return new LongSequence(ns, length);
-    }
-
-    private static long binaryReverseComplement(long value) {
-        long leftShiftBy1 = value << 1;
-        long leftShifted = (leftShiftBy1 & T_OR_G);
-        long rightShiftByOne = value >>> 1;
-        long righShifted = rightShiftByOne & A_OR_C;
-        return (leftShifted | righShifted);
+        return new LongSequence(reversed);
     }
 
     @Override
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.sequences;
+
+import static io.github.jervenbolleman.handlegraph4j.sequences.ShortAmbiguousSequence.BITS_PER_NUCLEOTIDE;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Packs many sequences one after the other into a few large buffers, by
+ * default allocated outside of the java heap.
+ *
+ * Each added sequence is a length followed by its nucleotides, 16 to a long
+ * using the 4 bit IUPAC codes of {@link ShortAmbiguousSequence}. The address
+ * returned by {@link #add(Sequence)} fits in the bits left free by
+ * {@link SequenceType#code()}, so a graph can keep a node sequence as a single
+ * long. {@link #get(long)} returns a small view that reads the buffer directly
+ * instead of copying the nucleotides back onto the heap.
+ *
+ * Adding is synchronized, reading is not and is safe for any address that was
+ * returned by add before it was shared with the reading thread.
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public final class SequenceArena {
+
+    static final int NUCLEOTIDES_PER_LONG = Long.SIZE / BITS_PER_NUCLEOTIDE;
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1l << OFFSET_BITS) - 1;
+    private static final int MAX_CHUNKS = 1 << (62 - OFFSET_BITS);
+    private static final int FIRST_CHUNK_LONGS = 1 << 12;
+    private static final int MAX_CHUNK_LONGS = 1 << 24;
+
+    private final boolean offHeap;
+    private volatile LongBuffer[] chunks = new LongBuffer[0];
+    private int used;
+    private long reserved;
+
+    /**
+     * An arena that keeps its buffers off heap.
+     */
+    public SequenceArena() {
+        this(true);
+    }
+
+    /**
+     * @param offHeap if the buffers should be direct, if false they are backed by
+     *                long arrays on the heap
+     */
+    public SequenceArena(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Copy the nucleotides of a sequence into the arena.
+     *
+     * @param sequence to copy
+     * @return the address to {@link #get(long)} it back, always less than
+     *         2<sup>62</sup>
+     */
+    public synchronized long add(Sequence sequence) {
+        final int length = sequence.length();
+        final int needed = 1 + (length + NUCLEOTIDES_PER_LONG - 1) / NUCLEOTIDES_PER_LONG;
+        LongBuffer[] current = chunks;
+        if (current.length == 0 || current[current.length - 1].capacity() - used < needed) {
+            current = grow(current, needed);
+        }
+        final int chunk = current.length - 1;
+        final LongBuffer buffer = current[chunk];
+        final int start = used;
+        buffer.put(start, length);
+        long code = 0;
+        int at = start + 1;
+        for (int i = 0; i < length; i++) {
+            final int shift = (i % NUCLEOTIDES_PER_LONG) * BITS_PER_NUCLEOTIDE;
+            code |= ShortAmbiguousSequence.fromNucleotide(sequence.byteAt(i)) << shift;
+            if (shift == Long.SIZE - BITS_PER_NUCLEOTIDE) {
+                buffer.put(at++, code);
+                code = 0;
+            }
+        }
+        if (length % NUCLEOTIDES_PER_LONG != 0) {
+            buffer.put(at, code);
+        }
+        used = start + needed;
+        return ((long) chunk << OFFSET_BITS) | start;
+    }
+
+    private LongBuffer[] grow(LongBuffer[] current, int needed) {
+        if (current.length == MAX_CHUNKS) {
+            throw new IllegalStateException("Sequence arena is full");
+        }
+        int size = current.length == 0 ? FIRST_CHUNK_LONGS
+                : Math.min(MAX_CHUNK_LONGS, current[current.length - 1].capacity() * 2);
+        size = Math.max(size, needed);
+        final LongBuffer buffer;
+        if (offHeap) {
+            buffer = ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        } else {
+            buffer = LongBuffer.allocate(size);
+        }
+        LongBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = buffer;
+        reserved += (long) size * Long.BYTES;
+        used = 0;
+        chunks = grown;
+        return grown;
+    }
+
+    /**
+     * @param address as returned by {@link #add(Sequence)}
+     * @return a view on the sequence at that address
+     */
+    public ArenaSequence get(long address) {
+        final LongBuffer buffer = chunks[(int) (address >>> OFFSET_BITS)];
+        final int start = (int) (address & OFFSET_MASK);
+        return new ArenaSequence(buffer, start + 1, (int) buffer.get(start), false);
+    }
+
+    /**
+     * @param address as returned by {@link #add(Sequence)}
+     * @return the length of the sequence at that address, without making a view
+     */
+    public int length(long address) {
+        return (int) chunks[(int) (address >>> OFFSET_BITS)].get((int) (address & OFFSET_MASK));
+    }
+
+    /**
+     * @return the number of bytes allocated for buffers, used or not
+     */
+    public synchronized long reservedBytes() {
+        return reserved;
+    }
+
+    /**
+     * @return if the buffers are allocated outside of the java heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+}
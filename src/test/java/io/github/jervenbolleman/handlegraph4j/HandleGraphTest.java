@@ -0,0 +1,38 @@
+package io.github.jervenbolleman.handlegraph4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph.Edge;
+import io.github.jervenbolleman.handlegraph4j.TestGraph.Node;
+
+public class HandleGraphTest {
+
+	private final TestGraph graph = new TestGraph()
+			.addNode(1, "A")
+			.addNode(2, "C")
+			.addNode(3, "G")
+			.addEdge(1, -2);
+
+	@Test
+	public void traverseForward() {
+		Edge edge = graph.edge(1, -2);
+		assertEquals(new Node(-2), graph.traverseEdgeHandle(edge, new Node(1)));
+	}
+
+	@Test
+	public void traverseMirrored() {
+		// 1 -> -2 read from the other strand is 2 -> -1
+		Edge edge = graph.edge(1, -2);
+		assertEquals(new Node(-1), graph.traverseEdgeHandle(edge, new Node(2)));
+	}
+
+	@Test
+	public void traverseFromNonParticipant() {
+		Edge edge = graph.edge(1, -2);
+		assertThrows(IllegalArgumentException.class, () -> graph.traverseEdgeHandle(edge, new Node(3)));
+		assertThrows(IllegalArgumentException.class, () -> graph.traverseEdgeHandle(edge, new Node(-1)));
+	}
+}
@@ -0,0 +1,321 @@
+package io.github.jervenbolleman.handlegraph4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+
+/**
+ * A small, slow, but obviously correct PathGraph for testing algorithms on.
+ *
+ * Node ids are positive, a negative id is the reverse orientation of a node.
+ */
+public class TestGraph implements PathGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> {
+
+	public static final class Node implements NodeHandle {
+		private final long id;
+
+		public Node(long id) {
+			this.id = id;
+		}
+
+		@Override
+		public long id() {
+			return id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Node && ((Node) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(id);
+		}
+
+		@Override
+		public String toString() {
+			return Long.toString(id);
+		}
+	}
+
+	public static final class Edge implements EdgeHandle<Node> {
+		private final Node left;
+		private final Node right;
+
+		public Edge(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Node right() {
+			return right;
+		}
+
+		@Override
+		public Node left() {
+			return left;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Edge && ((Edge) o).left.equals(left) && ((Edge) o).right.equals(right);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(left, right);
+		}
+
+		@Override
+		public String toString() {
+			return left + "->" + right;
+		}
+	}
+
+	public static final class Path implements PathHandle {
+		private final int index;
+
+		public Path(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Path && ((Path) o).index == index;
+		}
+
+		@Override
+		public int hashCode() {
+			return index;
+		}
+	}
+
+	public static final class Step implements StepHandle {
+		private final int path;
+		private final int rank;
+
+		public Step(int path, int rank) {
+			this.path = path;
+			this.rank = rank;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Step && ((Step) o).path == path && ((Step) o).rank == rank;
+		}
+
+		@Override
+		public int hashCode() {
+			return path * 31 + rank;
+		}
+	}
+
+	private final Map<Long, Sequence> sequences = new TreeMap<>();
+	private final List<Edge> edges = new ArrayList<>();
+	private final Map<String, long[]> paths = new LinkedHashMap<>();
+	private final List<String> pathNames = new ArrayList<>();
+	private final Set<String> circularPaths = new HashSet<>();
+
+	public TestGraph addNode(long id, String sequence) {
+		sequences.put(id, SequenceType.fromString(sequence));
+		return this;
+	}
+
+	/**
+	 * @param left  signed id
+	 * @param right signed id
+	 * @return this
+	 */
+	public TestGraph addEdge(long left, long right) {
+		edges.add(new Edge(new Node(left), new Node(right)));
+		return this;
+	}
+
+	/**
+	 * @param name  of the path
+	 * @param steps signed ids
+	 * @return this
+	 */
+	public TestGraph addPath(String name, long... steps) {
+		paths.put(name, steps);
+		pathNames.add(name);
+		return this;
+	}
+
+	/**
+	 * @param name  of the path
+	 * @param steps signed ids, the last is followed by the first
+	 * @return this
+	 */
+	public TestGraph addCircularPath(String name, long... steps) {
+		circularPaths.add(name);
+		return addPath(name, steps);
+	}
+
+	@Override
+	public boolean isReverseNodeHandle(Node nh) {
+		return nh.id < 0;
+	}
+
+	@Override
+	public Node flip(Node nh) {
+		return new Node(-nh.id);
+	}
+
+	@Override
+	public long asLong(Node nh) {
+		return nh.id;
+	}
+
+	@Override
+	public Node fromLong(long id) {
+		return new Node(id);
+	}
+
+	@Override
+	public Edge edge(long leftId, long rightId) {
+		return new Edge(new Node(leftId), new Node(rightId));
+	}
+
+	@Override
+	public AutoClosedIterator<Edge> followEdgesToWardsTheRight(Node left) {
+		List<Edge> found = new ArrayList<>();
+		for (Edge e : edges) {
+			if (e.left.id == left.id) {
+				found.add(e);
+			} else if (-e.right.id == left.id) {
+				found.add(new Edge(left, new Node(-e.left.id)));
+			}
+		}
+		return AutoClosedIterator.from(found);
+	}
+
+	@Override
+	public AutoClosedIterator<Edge> followEdgesToWardsTheLeft(Node right) {
+		List<Edge> found = new ArrayList<>();
+		for (Edge e : edges) {
+			if (e.right.id == right.id) {
+				found.add(e);
+			} else if (-e.left.id == right.id) {
+				found.add(new Edge(new Node(-e.right.id), right));
+			}
+		}
+		return AutoClosedIterator.from(found);
+	}
+
+	@Override
+	public AutoClosedIterator<Edge> edges() {
+		return AutoClosedIterator.from(new ArrayList<>(edges));
+	}
+
+	@Override
+	public AutoClosedIterator<Node> nodes() {
+		return AutoClosedIterator.from(sequences.keySet().stream().map(Node::new));
+	}
+
+	@Override
+	public Sequence sequenceOf(Node handle) {
+		return sequences.get(Math.abs(handle.id));
+	}
+
+	@Override
+	public AutoClosedIterator<Node> nodesWithSequence(Sequence s) {
+		return AutoClosedIterator.from(
+				sequences.entrySet().stream().filter(e -> e.getValue().equals(s)).map(e -> new Node(e.getKey())));
+	}
+
+	@Override
+	public AutoClosedIterator<Path> paths() {
+		return AutoClosedIterator.from(LongStream.range(0, pathNames.size()).mapToObj(i -> new Path((int) i)));
+	}
+
+	@Override
+	public AutoClosedIterator<Step> steps() {
+		return AutoClosedIterator.flatMap(AutoClosedIterator.map(paths(), this::stepsOf));
+	}
+
+	@Override
+	public AutoClosedIterator<Step> stepsOf(Path path) {
+		int length = paths.get(pathNames.get(path.index)).length;
+		return AutoClosedIterator.from(LongStream.range(0, length).mapToObj(r -> new Step(path.index, (int) r)));
+	}
+
+	@Override
+	public Path pathOfStep(Step step) {
+		return new Path(step.path);
+	}
+
+	@Override
+	public Node nodeOfStep(Step step) {
+		return new Node(paths.get(pathNames.get(step.path))[step.rank]);
+	}
+
+	@Override
+	public long beginPositionOfStep(Step step) {
+		long[] ids = paths.get(pathNames.get(step.path));
+		long position = 0;
+		for (int i = 0; i < step.rank; i++) {
+			position += sequences.get(Math.abs(ids[i])).length();
+		}
+		return position;
+	}
+
+	@Override
+	public long endPositionOfStep(Step step) {
+		return beginPositionOfStep(step) + sequenceLengthOf(nodeOfStep(step));
+	}
+
+	@Override
+	public long rankOfStep(Step step) {
+		return step.rank;
+	}
+
+	@Override
+	public Step stepByRankAndPath(Path path, long rank) {
+		if (rank < 0 || rank >= paths.get(pathNames.get(path.index)).length) {
+			return null;
+		}
+		return new Step(path.index, (int) rank);
+	}
+
+	@Override
+	public boolean isCircular(Path path) {
+		return circularPaths.contains(pathNames.get(path.index));
+	}
+
+	@Override
+	public String nameOfPath(Path path) {
+		return pathNames.get(path.index);
+	}
+
+	@Override
+	public Path pathByName(String name) {
+		int index = pathNames.indexOf(name);
+		return index < 0 ? null : new Path(index);
+	}
+
+	@Override
+	public LongStream positionsOf(Path path) {
+		List<Long> positions = new ArrayList<>();
+		try (AutoClosedIterator<Step> steps = stepsOf(path)) {
+			while (steps.hasNext()) {
+				Step step = steps.next();
+				positions.add(beginPositionOfStep(step));
+				positions.add(endPositionOfStep(step));
+			}
+		}
+		return positions.stream().mapToLong(Long::longValue);
+	}
+}
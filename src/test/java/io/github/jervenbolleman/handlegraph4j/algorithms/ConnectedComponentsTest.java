@@ -0,0 +1,51 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+
+public class ConnectedComponentsTest {
+
+	@Test
+	public void bubbleAndIslands() {
+		TestGraph graph = TraversalTest.bubble().addNode(6, "A").addNode(7, "C").addNode(8, "G").addEdge(7, -6);
+		ConnectedComponents components = ConnectedComponents.of(graph);
+		assertEquals(8, components.nodeCount());
+		assertEquals(3, components.componentCount());
+		assertEquals(5, components.largestSize());
+		assertEquals(1, components.singletonCount());
+		assertEquals(0, components.componentOf(graph, graph.fromLong(-5)));
+		assertEquals(1, components.componentOf(graph, graph.fromLong(7)));
+		assertEquals(2, components.componentOf(graph, graph.fromLong(8)));
+		assertEquals(2, components.sizeOf(1));
+		assertEquals(-1, components.componentOf(graph, graph.fromLong(9)));
+	}
+
+	@Test
+	public void longChainInParallel() {
+		TestGraph graph = new TestGraph();
+		int length = 10_000;
+		for (int i = 1; i <= length; i++) {
+			graph.addNode(i, "A");
+		}
+		for (int i = 1; i < length; i++) {
+			if (i % 1000 != 0) {
+				graph.addEdge(i % 2 == 0 ? i : -i, i + 1);
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ConnectedComponents components = ConnectedComponents.of(graph, executor, 8);
+			assertEquals(10, components.componentCount());
+			assertEquals(1000, components.largestSize());
+			assertEquals(9, components.components()[9000]);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
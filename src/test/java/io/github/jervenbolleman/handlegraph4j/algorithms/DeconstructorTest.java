@@ -0,0 +1,177 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.TestGraph.Path;
+import io.github.jervenbolleman.handlegraph4j.TestGraph.Step;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class DeconstructorTest {
+
+	private static String[] records(String vcf) {
+		return vcf.lines().filter(l -> !l.startsWith("#")).toArray(String[]::new);
+	}
+
+	@Test
+	public void snpAndInsertion() throws IOException {
+		TestGraph graph = TraversalTest.bubble()
+				.addPath("ref", 1, 2, 4, 5)
+				.addPath("alt", 1, 3, 4, 5)
+				.addPath("alt-reverse", -5, -4, -3, -1)
+				.addPath("same", 1, 2, 4);
+		StringBuilder vcf = new StringBuilder();
+		new Deconstructor<>(graph).write(List.of(graph.pathByName("ref")),
+				List.of(graph.pathByName("alt"), graph.pathByName("alt-reverse"), graph.pathByName("same")), vcf);
+		assertEquals("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\talt\talt-reverse\tsame",
+				vcf.toString().lines().filter(l -> l.startsWith("#CHROM")).findFirst().get());
+		String[] records = records(vcf.toString());
+		assertEquals(1, records.length);
+		assertEquals("ref\t4\t>1>4\tTA\tTCCCCCCCCCC\t.\tPASS\t.\tGT\t1\t1\t0", records[0]);
+	}
+
+	@Test
+	public void referenceOnReverseStrand() throws IOException {
+		TestGraph graph = TraversalTest.bubble().addPath("ref", -5, -4, -2, -1).addPath("alt", 1, 3, 4, 5);
+		StringBuilder vcf = new StringBuilder();
+		new Deconstructor<>(graph).write(List.of(graph.pathByName("ref")), List.of(graph.pathByName("alt")), vcf);
+		String[] records = records(vcf.toString());
+		assertEquals(1, records.length);
+		assertEquals("ref\t5\t<4<1\tCT\tCGGGGGGGGGG\t.\tPASS\t.\tGT\t1", records[0]);
+	}
+
+	@Test
+	public void sampleMissingTheSite() throws IOException {
+		TestGraph graph = TraversalTest.bubble()
+				.addNode(6, "A")
+				.addPath("ref", 1, 2, 4, 5)
+				.addPath("alt", 1, 3, 4, 5)
+				.addPath("other", 6);
+		StringBuilder vcf = new StringBuilder();
+		new Deconstructor<>(graph).write(List.of(graph.pathByName("ref")),
+				List.of(graph.pathByName("alt"), graph.pathByName("other")), vcf);
+		assertEquals("ref\t4\t>1>4\tTA\tTCCCCCCCCCC\t.\tPASS\t.\tGT\t1\t.", records(vcf.toString())[0]);
+		assertEquals(1, vcf.toString().lines().filter(l -> l.equals("##contig=<ID=ref,length=10>")).count());
+	}
+
+	@Test
+	public void bubbleTooLarge() throws IOException {
+		TestGraph graph = TraversalTest.bubble().addPath("ref", 1, 2, 4, 5).addPath("alt", 1, 3, 4, 5);
+		Deconstructor<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> deconstructor = new Deconstructor<>(
+				graph);
+		StringBuilder vcf = new StringBuilder();
+		deconstructor.maxBubbleSize(1).write(List.of(graph.pathByName("ref")), List.of(graph.pathByName("alt")), vcf);
+		assertEquals(0, records(vcf.toString()).length);
+		assertTrue(deconstructor.unresolvedBubbles() > 0);
+	}
+
+	@Test
+	public void sameOutputWhenParallel() throws IOException {
+		TestGraph graph = TraversalTest.bubble()
+				.addNode(6, "G")
+				.addEdge(1, 6)
+				.addEdge(6, 4)
+				.addPath("ref", 1, 2, 4, 5);
+		// the first sample reaches the site long after the others
+		long[] slow = new long[200_000];
+		Arrays.fill(slow, 5);
+		slow[slow.length - 3] = 1;
+		slow[slow.length - 2] = 6;
+		slow[slow.length - 1] = 4;
+		graph.addPath("slow", slow).addPath("insertion", 1, 3, 4, 5).addPath("same", 1, 2, 4, 5);
+		List<Path> samples = List.of(graph.pathByName("slow"), graph.pathByName("insertion"),
+				graph.pathByName("same"));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int run = 0; run < 5; run++) {
+				StringBuilder vcf = new StringBuilder();
+				new Deconstructor<>(graph).write(List.of(graph.pathByName("ref")), samples, vcf, executor, 4);
+				assertEquals("ref\t4\t>1>4\tTA\tTG,TCCCCCCCCCC\t.\tPASS\t.\tGT\t1\t2\t0",
+						records(vcf.toString())[0]);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void referencesInOrder() throws IOException {
+		TestGraph graph = TraversalTest.bubble()
+				.addNode(11, "ACGT")
+				.addNode(12, "A")
+				.addNode(13, "C")
+				.addNode(14, "GG")
+				.addEdge(11, 12)
+				.addEdge(11, 13)
+				.addEdge(12, 14)
+				.addEdge(13, 14)
+				.addPath("chr2", 11, 12, 14)
+				.addPath("chr1", 1, 2, 4, 5)
+				.addPath("sample", 1, 3, 4, 5, 11, 13, 14);
+		StringBuilder vcf = new StringBuilder();
+		new Deconstructor<>(graph).write(List.of(graph.pathByName("chr2"), graph.pathByName("chr1")),
+				List.of(graph.pathByName("sample")), vcf);
+		String[] records = records(vcf.toString());
+		assertEquals(2, records.length);
+		assertEquals("chr2\t4\t>11>14\tTA\tTC\t.\tPASS\t.\tGT\t1", records[0]);
+		assertEquals("chr1\t4\t>1>4\tTA\tTCCCCCCCCCC\t.\tPASS\t.\tGT\t1", records[1]);
+	}
+
+	@Test
+	public void samplesWalkedOnce() throws IOException {
+		Map<String, AtomicInteger> walks = new ConcurrentHashMap<>();
+		TestGraph graph = new TestGraph() {
+			@Override
+			public AutoClosedIterator<Step> stepsOf(Path path) {
+				walks.computeIfAbsent(nameOfPath(path), n -> new AtomicInteger()).incrementAndGet();
+				return super.stepsOf(path);
+			}
+		};
+		graph.addNode(1, "ACGT")
+				.addNode(2, "A")
+				.addNode(3, "C")
+				.addNode(4, "GG")
+				.addNode(11, "ACGT")
+				.addNode(12, "A")
+				.addNode(13, "C")
+				.addNode(14, "GG")
+				.addEdge(1, 2)
+				.addEdge(1, 3)
+				.addEdge(2, 4)
+				.addEdge(3, 4)
+				.addEdge(11, 12)
+				.addEdge(11, 13)
+				.addEdge(12, 14)
+				.addEdge(13, 14)
+				.addPath("chr1", 1, 2, 4)
+				.addPath("chr2", 11, 12, 14)
+				.addPath("a", 1, 3, 4, 11, 12, 14)
+				.addPath("b", 1, 2, 4, 11, 13, 14);
+		StringBuilder vcf = new StringBuilder();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			new Deconstructor<>(graph).write(List.of(graph.pathByName("chr1"), graph.pathByName("chr2")),
+					List.of(graph.pathByName("a"), graph.pathByName("b")), vcf, executor, 2);
+		} finally {
+			executor.shutdown();
+		}
+		String[] records = records(vcf.toString());
+		assertEquals(2, records.length);
+		assertEquals("chr1\t4\t>1>4\tTA\tTC\t.\tPASS\t.\tGT\t1\t0", records[0]);
+		assertEquals("chr2\t4\t>11>14\tTA\tTC\t.\tPASS\t.\tGT\t0\t1", records[1]);
+		assertEquals(1, walks.get("a").get());
+		assertEquals(1, walks.get("b").get());
+	}
+}
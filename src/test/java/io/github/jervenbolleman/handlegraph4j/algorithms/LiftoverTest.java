@@ -0,0 +1,77 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+
+public class LiftoverTest {
+
+	private static TestGraph graph() {
+		return TraversalTest.bubble()
+				.addPath("a", 1, 2, 4, 5)
+				.addPath("b", 1, 3, 4, 5)
+				.addPath("c", -5, -4, -2, -1);
+	}
+
+	private static List<String> lifted(TestGraph graph, List<Liftover.Lifted<TestGraph.Path>> lifted) {
+		List<String> strings = new ArrayList<>();
+		for (Liftover.Lifted<TestGraph.Path> l : lifted) {
+			strings.add(graph.nameOfPath(l.path()) + ":" + l.position() + (l.isReverse() ? "-" : "+"));
+		}
+		Collections.sort(strings);
+		return strings;
+	}
+
+	@Test
+	public void lift() {
+		TestGraph graph = graph();
+		Liftover<TestGraph.Path> liftover = Liftover.of(graph);
+		TestGraph.Path a = graph.pathByName("a");
+		assertEquals(List.of("b:14+", "c:4-"), lifted(graph, liftover.lift(a, 5)));
+		assertEquals(List.of("b:15+", "c:3-"), lifted(graph, liftover.lift(a, 6)));
+		assertEquals(List.of("c:5-"), lifted(graph, liftover.lift(a, 4)));
+		assertEquals(List.of("b:1+", "c:8-"), lifted(graph, liftover.lift(a, 1)));
+		assertTrue(liftover.lift(a, 10).isEmpty());
+		assertTrue(liftover.lift(a, -1).isEmpty());
+		assertEquals(List.of("a:8-", "b:17-"), lifted(graph, liftover.lift(graph.pathByName("c"), 1)));
+	}
+
+	@Test
+	public void liftAll() {
+		TestGraph graph = graph();
+		Liftover<TestGraph.Path> liftover = Liftover.of(graph);
+		TestGraph.Path a = graph.pathByName("a");
+		long[] positions = { 0, 4, 5, 6, 9, 12, 2 };
+		List<String> sequential = new ArrayList<>();
+		liftover.liftAll(a, positions, (query, path, position, reverse) -> sequential
+				.add(query + " " + graph.nameOfPath(path) + ":" + position + (reverse ? "-" : "+")));
+		assertEquals(List.of("0 b:0+", "0 c:9-", "1 c:5-", "2 b:14+", "2 c:4-", "3 b:15+", "3 c:3-", "4 b:18+",
+				"4 c:0-", "6 b:2+", "6 c:7-"), sequential);
+		List<String> parallel = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			liftover.liftAll(a, positions, (query, path, position, reverse) -> parallel
+					.add(query + " " + graph.nameOfPath(path) + ":" + position + (reverse ? "-" : "+")), executor, 3);
+		} finally {
+			executor.shutdown();
+		}
+		Collections.sort(parallel);
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void stepOnMissingNode() {
+		TestGraph graph = graph().addPath("d", 1, 9, 5);
+		assertThrows(IllegalArgumentException.class, () -> Liftover.of(graph));
+	}
+}
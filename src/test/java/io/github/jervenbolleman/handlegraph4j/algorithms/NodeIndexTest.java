@@ -0,0 +1,48 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class NodeIndexTest {
+
+	@Test
+	public void sparse() {
+		NodeIndex index = NodeIndex.of(NodeOrderingTest.sparse());
+		assertEquals(6, index.size());
+		assertEquals(0, index.rank(3));
+		assertEquals(5, index.rank(100));
+		assertEquals(50, index.id(3));
+		assertEquals(-1, index.rank(4));
+		assertEquals(-1, index.rank(101));
+		assertEquals(-1, index.rank(-3));
+	}
+
+	@Test
+	public void contiguous() {
+		NodeIndex index = NodeIndex.of(5, 3, 4, 4, 6);
+		assertEquals(4, index.size());
+		assertEquals(2, index.rank(5));
+		assertEquals(-1, index.rank(7));
+		assertEquals(0, NodeIndex.of().size());
+		assertEquals(-1, NodeIndex.of().rank(1));
+	}
+
+	@Test
+	public void skewed() {
+		long[] ids = new long[1000];
+		for (int i = 0; i < 999; i++) {
+			ids[i] = i * 2;
+		}
+		ids[999] = Long.MAX_VALUE;
+		NodeIndex index = NodeIndex.of(ids);
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(i, index.rank(ids[i]));
+			assertEquals(ids[i], index.id(i));
+		}
+		assertEquals(-1, index.rank(1));
+		assertEquals(-1, index.rank(Long.MAX_VALUE - 1));
+		assertEquals(0, NodeIndex.of(Long.MIN_VALUE, 0, Long.MAX_VALUE).rank(Long.MIN_VALUE));
+		assertEquals(2, NodeIndex.of(Long.MIN_VALUE, 0, Long.MAX_VALUE).rank(Long.MAX_VALUE));
+	}
+}
@@ -0,0 +1,40 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+
+public class NodeOrderingTest {
+
+	static TestGraph sparse() {
+		return new TestGraph().addNode(100, "A")
+				.addNode(7, "CC")
+				.addNode(50, "GGG")
+				.addNode(3, "TTTT")
+				.addNode(9, "A")
+				.addNode(60, "C")
+				.addEdge(100, 7)
+				.addEdge(7, -50)
+				.addEdge(-50, 3)
+				.addEdge(3, 9)
+				.addPath("short", 7, -50)
+				.addPath("long", 100, 7, -50, 3);
+	}
+
+	@Test
+	public void pathGuided() {
+		assertArrayEquals(new long[] { 100, 7, 50, 3, 9, 60 }, NodeOrdering.pathGuided(sparse()));
+	}
+
+	@Test
+	public void topological() {
+		assertArrayEquals(new long[] { 60, 100, 7, 50, 3, 9 }, NodeOrdering.topological(sparse()));
+	}
+
+	@Test
+	public void breadthFirst() {
+		assertArrayEquals(new long[] { 3, 9, 50, 7, 100, 60 }, NodeOrdering.breadthFirst(sparse()));
+	}
+}
@@ -0,0 +1,47 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+
+public class PathCoverageTest {
+
+	@Test
+	public void depthsAndUniqueness() {
+		TestGraph graph = TraversalTest.bubble()
+				.addPath("a", 1, 2, 4, 5)
+				.addPath("b", 1, 3, 4, -4, 5)
+				.addPath("c", 5);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			PathCoverage coverage = PathCoverage.of(graph, executor, 3);
+			assertArrayEquals(new int[] { 2, 1, 1, 3, 3 }, coverage.depths());
+			assertEquals(3, coverage.depthOf(graph, graph.fromLong(-4)));
+			assertEquals(5, coverage.coveredNodes());
+			PathCoverage.PathStatistics b = coverage.paths()
+					.stream()
+					.filter(p -> p.name().equals("b"))
+					.findFirst()
+					.get();
+			assertEquals(5, b.steps());
+			assertEquals(4 + 10 + 2 + 2 + 3, b.bases());
+			assertEquals(4, b.distinctNodes());
+			assertEquals(1, b.uniqueNodes());
+			assertEquals(10, b.uniqueBases());
+			PathCoverage.PathStatistics c = coverage.paths()
+					.stream()
+					.filter(p -> p.name().equals("c"))
+					.findFirst()
+					.get();
+			assertEquals(0, c.uniqueNodes());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
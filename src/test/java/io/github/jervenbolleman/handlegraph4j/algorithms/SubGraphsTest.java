@@ -0,0 +1,119 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class SubGraphsTest {
+
+	private static TestGraph withPaths() {
+		return TraversalTest.bubble().addPath("a", 1, 2, 4, 5).addPath("b", 1, 3, 4, 5);
+	}
+
+	private static <T> List<T> toList(AutoClosedIterator<T> iter) {
+		List<T> list = new ArrayList<>();
+		try (iter) {
+			iter.forEachRemaining(list::add);
+		}
+		return list;
+	}
+
+	@Test
+	public void rankAt() {
+		TestGraph graph = withPaths();
+		TestGraph.Path a = graph.pathByName("a");
+		assertEquals(0, PathPositions.rankAt(graph, a, 0));
+		assertEquals(0, PathPositions.rankAt(graph, a, 3));
+		assertEquals(1, PathPositions.rankAt(graph, a, 4));
+		assertEquals(2, PathPositions.rankAt(graph, a, 6));
+		assertEquals(3, PathPositions.rankAt(graph, a, 9));
+		assertEquals(-1, PathPositions.rankAt(graph, a, 10));
+		assertNull(PathPositions.stepAt(graph, a, 10));
+		assertEquals(4, graph.nodeOfStep(PathPositions.stepAt(graph, a, 6)).id());
+	}
+
+	@Test
+	public void ofPathRange() {
+		TestGraph graph = withPaths();
+		TestGraph.Path a = graph.pathByName("a");
+		PathSubGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> sub = SubGraphs
+				.ofPathRange(graph, a, 4, 7);
+		assertEquals(2, sub.nodeCount());
+		assertTrue(sub.contains(graph.fromLong(2)));
+		assertTrue(sub.contains(graph.fromLong(-4)));
+		assertFalse(sub.contains(graph.fromLong(1)));
+		assertEquals(1, toList(sub.edges()).size());
+		assertEquals(2, sub.stepCountInPath(a));
+		assertEquals(1, sub.stepCountInPath(graph.pathByName("b")));
+		assertNull(sub.stepByRankAndPath(a, 0));
+		assertEquals(4, sub.beginPositionOfStep(sub.stepByRankAndPath(a, 1)));
+		assertEquals(2, toList(sub.paths()).size());
+		assertEquals(0, toList(sub.followEdgesToWardsTheRight(graph.fromLong(4))).size());
+	}
+
+	@Test
+	public void withinDepth() {
+		TestGraph graph = withPaths();
+		PathSubGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> sub = SubGraphs
+				.withinDepth(graph, graph.fromLong(1), 1);
+		assertEquals(3, sub.nodeCount());
+		assertEquals(2, toList(sub.edges()).size());
+		assertEquals(2, sub.stepCountInPath(graph.pathByName("b")));
+	}
+
+	@Test
+	public void withinDistance() {
+		TestGraph graph = withPaths();
+		PathSubGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> sub = SubGraphs
+				.withinDistance(graph, graph.fromLong(5), 1);
+		assertEquals(2, sub.nodeCount());
+		assertTrue(sub.contains(graph.fromLong(4)));
+		assertEquals(1, toList(sub.edges()).size());
+	}
+
+	@Test
+	public void contextReadsOnlyItsRanks() {
+		AtomicInteger walks = new AtomicInteger();
+		TestGraph graph = new TestGraph() {
+			@Override
+			public AutoClosedIterator<Step> stepsOf(Path path) {
+				walks.incrementAndGet();
+				return super.stepsOf(path);
+			}
+		};
+		graph.addNode(1, "ACGT")
+				.addNode(2, "A")
+				.addNode(3, "C")
+				.addNode(4, "GG")
+				.addNode(5, "T")
+				.addEdge(1, 2)
+				.addEdge(1, 3)
+				.addEdge(2, 4)
+				.addEdge(3, 4)
+				.addEdge(4, 5)
+				.addPath("a", 1, 2, 4, 5)
+				.addPath("b", 1, 3, 4, 5)
+				.addPath("c", 1, 2)
+				.addPath("d", -5, -4);
+		PathSubGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> sub = SubGraphs
+				.withinDepth(graph, graph.fromLong(5), 1);
+		walks.set(0);
+		assertEquals(List.of("a", "b", "d"),
+				toList(AutoClosedIterator.map(sub.paths(), sub::nameOfPath)));
+		assertEquals(6, toList(sub.steps()).size());
+		assertEquals(0, toList(sub.stepsOf(graph.pathByName("c"))).size());
+		assertEquals(2, sub.stepCountInPath(graph.pathByName("d")));
+		assertNull(sub.stepByRankAndPath(graph.pathByName("c"), 0));
+		assertEquals(0, walks.get());
+	}
+}
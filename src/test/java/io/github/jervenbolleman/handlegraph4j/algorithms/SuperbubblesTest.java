@@ -0,0 +1,115 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+
+public class SuperbubblesTest {
+
+	@Test
+	public void simpleBubble() {
+		List<Superbubble> bubbles = new Superbubbles<>(TraversalTest.bubble()).find();
+		assertEquals(1, bubbles.size());
+		Superbubble bubble = bubbles.get(0);
+		assertEquals(1, bubble.entrance());
+		assertEquals(4, bubble.exit());
+		assertEquals(2, bubble.interiorSize());
+		assertTrue(bubble.isTopLevel());
+	}
+
+	@Test
+	public void deletion() {
+		TestGraph graph = new TestGraph().addNode(1, "A")
+				.addNode(2, "C")
+				.addNode(3, "G")
+				.addEdge(1, 2)
+				.addEdge(2, 3)
+				.addEdge(1, 3);
+		List<Superbubble> bubbles = new Superbubbles<>(graph).find();
+		assertEquals(1, bubbles.size());
+		assertEquals(1, bubbles.get(0).entrance());
+		assertEquals(3, bubbles.get(0).exit());
+	}
+
+	@Test
+	public void nested() {
+		// 1 -> (2 -> (3 | 4) -> 5 | 6) -> 7
+		TestGraph graph = new TestGraph();
+		for (int i = 1; i <= 7; i++) {
+			graph.addNode(i, "A");
+		}
+		graph.addEdge(1, 2)
+				.addEdge(2, 3)
+				.addEdge(2, 4)
+				.addEdge(3, 5)
+				.addEdge(4, 5)
+				.addEdge(5, 7)
+				.addEdge(1, 6)
+				.addEdge(6, 7);
+		List<Superbubble> bubbles = new Superbubbles<>(graph).find();
+		assertEquals(2, bubbles.size());
+		Superbubble outer = bubbles.get(0);
+		Superbubble inner = bubbles.get(1);
+		assertEquals(1, outer.entrance());
+		assertEquals(7, outer.exit());
+		assertEquals(5, outer.interiorSize());
+		assertTrue(outer.isTopLevel());
+		assertEquals(2, inner.entrance());
+		assertEquals(5, inner.exit());
+		assertEquals(0, inner.parent());
+	}
+
+	@Test
+	public void entranceInsideItself() {
+		// 0 encloses 1 and 2, 1 has its own entrance node 3 in its interior
+		int[] parents = Superbubbles.parents(8, new int[] { 0, 3, 5 },
+				new int[][] { { 1, 2, 3, 4, 5, 6 }, { 3, 4 }, { 6 } });
+		assertArrayEquals(new int[] { -1, 0, 0 }, parents);
+	}
+
+	@Test
+	public void tooLargeIsUnresolved() {
+		Superbubbles<TestGraph.Node, TestGraph.Edge> search = new Superbubbles<>(TraversalTest.bubble());
+		assertEquals(1, search.find().size());
+		assertEquals(0, search.unresolved());
+		assertTrue(search.maxSize(1).find().isEmpty());
+		assertTrue(search.unresolved() > 0);
+	}
+
+	@Test
+	public void cycleIsNotABubble() {
+		TestGraph graph = TraversalTest.bubble().addEdge(4, 1);
+		assertTrue(new Superbubbles<>(graph).find().isEmpty());
+	}
+
+	@Test
+	public void reverseStrandAndComponents() {
+		TestGraph graph = TraversalTest.bubble();
+		// the same shape again but stored on the other strand
+		graph.addNode(11, "A")
+				.addNode(12, "C")
+				.addNode(13, "G")
+				.addNode(14, "T")
+				.addEdge(-14, -12)
+				.addEdge(-14, -13)
+				.addEdge(-12, -11)
+				.addEdge(-13, -11);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Superbubble> bubbles = new Superbubbles<>(graph).find(executor, 2);
+			assertEquals(2, bubbles.size());
+			assertEquals(11, bubbles.get(1).entrance());
+			assertEquals(14, bubbles.get(1).exit());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
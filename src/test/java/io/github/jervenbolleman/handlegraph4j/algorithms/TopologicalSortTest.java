@@ -0,0 +1,78 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+
+public class TopologicalSortTest {
+
+	@Test
+	public void bubble() {
+		TopologicalSort<TestGraph.Node, TestGraph.Edge> sort = new TopologicalSort<>(TraversalTest.bubble());
+		assertTrue(sort.isAcyclic());
+		assertArrayEquals(new long[] { 1, 2, 3, 4, 5 }, sort.order());
+		assertTrue(sort.stronglyConnectedRegions().isEmpty());
+	}
+
+	@Test
+	public void inversion() {
+		TestGraph graph = new TestGraph().addNode(1, "A")
+				.addNode(2, "C")
+				.addNode(3, "G")
+				.addEdge(1, -2)
+				.addEdge(-2, 3);
+		TopologicalSort<TestGraph.Node, TestGraph.Edge> sort = new TopologicalSort<>(graph);
+		assertTrue(sort.isAcyclic());
+		assertArrayEquals(new long[] { 1, -2, 3 }, sort.order());
+	}
+
+	@Test
+	public void cycle() {
+		TestGraph graph = TraversalTest.bubble().addNode(6, "A").addEdge(4, 6).addEdge(6, 2);
+		TopologicalSort<TestGraph.Node, TestGraph.Edge> sort = new TopologicalSort<>(graph);
+		assertFalse(sort.isAcyclic());
+		long[] order = sort.order();
+		assertEquals(6, order.length);
+		assertEquals(1, order[0]);
+		List<long[]> regions = sort.stronglyConnectedRegions();
+		assertEquals(1, regions.size());
+		assertArrayEquals(new long[] { 2, 4, 6 }, regions.get(0));
+	}
+
+	@Test
+	public void selfLoop() {
+		TestGraph graph = new TestGraph().addNode(1, "A").addNode(2, "C").addEdge(1, 2).addEdge(2, 2);
+		TopologicalSort<TestGraph.Node, TestGraph.Edge> sort = new TopologicalSort<>(graph);
+		assertFalse(sort.isAcyclic());
+		assertArrayEquals(new long[] { 1, 2 }, sort.order());
+		assertEquals(1, sort.stronglyConnectedRegions().size());
+	}
+
+	@Test
+	public void parallelSameOrder() {
+		TestGraph graph = new TestGraph();
+		int width = 5000;
+		graph.addNode(1, "A").addNode(2, "C");
+		for (int i = 0; i < width; i++) {
+			graph.addNode(10 + i, "G").addEdge(1, 10 + i).addEdge(10 + i, 2);
+		}
+		TopologicalSort<TestGraph.Node, TestGraph.Edge> sort = new TopologicalSort<>(graph);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			long[] parallel = sort.order(executor, 4);
+			assertArrayEquals(sort.order(), parallel);
+			assertEquals(2, parallel[parallel.length - 1]);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package io.github.jervenbolleman.handlegraph4j.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.collections.LongHashSet;
+
+public class TraversalTest {
+
+	/**
+	 * 1 -> 2 -> 4 -> 5 and 1 -> 3 -> 4, with 3 long.
+	 */
+	static TestGraph bubble() {
+		return new TestGraph().addNode(1, "ACGT")
+				.addNode(2, "A")
+				.addNode(3, "CCCCCCCCCC")
+				.addNode(4, "GG")
+				.addNode(5, "TTT")
+				.addEdge(1, 2)
+				.addEdge(1, 3)
+				.addEdge(2, 4)
+				.addEdge(3, 4)
+				.addEdge(4, 5);
+	}
+
+	@Test
+	public void breadthFirstToTheRight() {
+		TestGraph graph = bubble();
+		List<Long> order = new ArrayList<>();
+		List<Integer> depths = new ArrayList<>();
+		long visited = new Traversal<>(graph).direction(Traversal.Direction.RIGHT)
+				.traverse(graph.fromLong(1), (n, depth, distance) -> {
+					order.add(n.id());
+					depths.add(depth);
+					return true;
+				});
+		assertEquals(5, visited);
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), order);
+		assertEquals(List.of(0, 1, 1, 2, 3), depths);
+	}
+
+	@Test
+	public void reverseWalksToTheLeft() {
+		TestGraph graph = bubble();
+		List<Long> order = new ArrayList<>();
+		new Traversal<>(graph).direction(Traversal.Direction.RIGHT)
+				.traverse(graph.fromLong(-4), (n, depth, distance) -> order.add(n.id()));
+		assertEquals(List.of(-4L, -2L, -3L, -1L), order);
+	}
+
+	@Test
+	public void depthBound() {
+		TestGraph graph = bubble();
+		LongHashSet context = new Traversal<>(graph).maxDepth(1).reachable(graph.fromLong(4));
+		assertEquals(4, context.size());
+		assertFalse(context.contains(1));
+	}
+
+	@Test
+	public void sequenceDistanceBound() {
+		TestGraph graph = bubble();
+		Traversal<TestGraph.Node, TestGraph.Edge> traversal = new Traversal<>(graph)
+				.order(Traversal.Order.SEQUENCE_DISTANCE).direction(Traversal.Direction.RIGHT).maxDistance(2);
+		List<Long> distances = new ArrayList<>();
+		traversal.traverse(graph.fromLong(1), (n, depth, distance) -> {
+			if (n.id() == 4) {
+				distances.add(distance);
+			}
+			return true;
+		});
+		// The short route over node 2
+		assertEquals(List.of(1L), distances);
+		LongHashSet reached = traversal.reachable(graph.fromLong(1));
+		assertTrue(reached.contains(4));
+		assertFalse(reached.contains(5));
+	}
+
+	@Test
+	public void depthFirstVisitsEachOnce() {
+		TestGraph graph = bubble().addEdge(5, 1);
+		LongHashSet seen = new LongHashSet();
+		long visited = new Traversal<>(graph).order(Traversal.Order.DEPTH_FIRST)
+				.traverse(graph.fromLong(3), (n, depth, distance) -> {
+					assertTrue(seen.add(n.id()));
+					return true;
+				});
+		assertEquals(5, visited);
+	}
+}
@@ -0,0 +1,66 @@
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+
+public class AsyncPathGraphTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void publishesTheGraph() throws Exception {
+		TestGraph graph = new TestGraph().addNode(1, "A")
+				.addNode(2, "CC")
+				.addNode(3, "GGG")
+				.addEdge(1, 2)
+				.addEdge(1, 3)
+				.addPath("p", 1, 2);
+		AsyncPathGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> async = AsyncPathGraph
+				.of(graph, executor);
+		IteratorPublisherTest.Recorder<TestGraph.Node> nodes = new IteratorPublisherTest.Recorder<>();
+		async.nodes().subscribe(nodes);
+		nodes.subscription.request(Long.MAX_VALUE);
+		nodes.await();
+		assertTrue(nodes.completed);
+		assertEquals(List.of(1L, 2L, 3L), nodes.received.stream().map(TestGraph.Node::id).sorted()
+				.collect(Collectors.toList()));
+
+		IteratorPublisherTest.Recorder<TestGraph.Step> steps = new IteratorPublisherTest.Recorder<>();
+		async.stepsOf(graph.pathByName("p")).subscribe(steps);
+		steps.subscription.request(1);
+		steps.subscription.request(1);
+		steps.subscription.request(1);
+		steps.await();
+		assertEquals(2, steps.received.size());
+
+		IteratorPublisherTest.Recorder<TestGraph.Edge> edges = new IteratorPublisherTest.Recorder<>();
+		async.followEdgesToWardsTheRight(graph.fromLong(1)).subscribe(edges);
+		edges.subscription.request(5);
+		edges.await();
+		assertEquals(2, edges.received.size());
+
+		assertEquals(SequenceType.fromString("CC"), async.sequenceOf(graph.fromLong(2)).get());
+	}
+}
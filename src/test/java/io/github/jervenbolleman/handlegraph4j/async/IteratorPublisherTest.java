@@ -0,0 +1,148 @@
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class IteratorPublisherTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	static final class Recorder<T> implements Flow.Subscriber<T> {
+		final List<T> received = new CopyOnWriteArrayList<>();
+		final CountDownLatch done = new CountDownLatch(1);
+		volatile Throwable error;
+		volatile boolean completed;
+		volatile Flow.Subscription subscription;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(T item) {
+			received.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+			done.countDown();
+		}
+
+		void await() throws InterruptedException {
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	private static AutoClosedIterator<Long> range(long to, AtomicBoolean closed) {
+		AutoClosedIterator.OfLong range = AutoClosedIterator.OfLong.range(0, to);
+		return new AutoClosedIterator<>() {
+			@Override
+			public boolean hasNext() {
+				return range.hasNext();
+			}
+
+			@Override
+			public Long next() {
+				return range.next();
+			}
+
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+	}
+
+	@Test
+	public void onlyWhatIsRequested() throws InterruptedException {
+		AtomicBoolean closed = new AtomicBoolean();
+		Recorder<Long> recorder = new Recorder<>();
+		new IteratorPublisher<>(() -> range(10, closed), executor).subscribe(recorder);
+		recorder.subscription.request(3);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (recorder.received.size() < 3 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		Thread.sleep(20);
+		assertEquals(List.of(0L, 1L, 2L), recorder.received);
+		recorder.subscription.request(Long.MAX_VALUE);
+		recorder.await();
+		assertTrue(recorder.completed);
+		assertEquals(10, recorder.received.size());
+		assertTrue(closed.get());
+	}
+
+	@Test
+	public void cancelCloses() throws InterruptedException {
+		AtomicBoolean closed = new AtomicBoolean();
+		Recorder<Long> recorder = new Recorder<>();
+		new IteratorPublisher<>(() -> range(10, closed), executor).subscribe(recorder);
+		recorder.subscription.request(2);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (recorder.received.size() < 2 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertTrue(!closed.get());
+		recorder.subscription.cancel();
+		while (!closed.get() && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertTrue(closed.get());
+		assertEquals(2, recorder.received.size());
+		assertTrue(!recorder.completed);
+	}
+
+	@Test
+	public void badRequest() throws InterruptedException {
+		AtomicBoolean closed = new AtomicBoolean();
+		Recorder<Long> recorder = new Recorder<>();
+		new IteratorPublisher<>(() -> range(10, closed), executor).subscribe(recorder);
+		recorder.subscription.request(0);
+		recorder.await();
+		assertTrue(recorder.error instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void failure() throws InterruptedException {
+		Recorder<Long> recorder = new Recorder<>();
+		new IteratorPublisher<Long>(() -> {
+			throw new IllegalStateException("no disk");
+		}, executor).subscribe(recorder);
+		recorder.subscription.request(1);
+		recorder.await();
+		assertTrue(recorder.error instanceof IllegalStateException);
+	}
+}
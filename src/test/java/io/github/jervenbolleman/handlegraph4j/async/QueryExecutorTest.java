@@ -0,0 +1,193 @@
+package io.github.jervenbolleman.handlegraph4j.async;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class QueryExecutorTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private static AutoClosedIterator.OfLong endless(CountDownLatch started, AtomicBoolean closed) {
+		return new AutoClosedIterator.OfLong() {
+			private long next;
+
+			@Override
+			public boolean hasNext() {
+				started.countDown();
+				return true;
+			}
+
+			@Override
+			public long nextLong() {
+				return next++;
+			}
+
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+	}
+
+	@Test
+	public void boundedParallelism() {
+		QueryExecutor queries = new QueryExecutor(executor, 3);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger most = new AtomicInteger();
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+		try (QueryExecutor.Scope scope = queries.scope()) {
+			for (int i = 0; i < 50; i++) {
+				int query = i;
+				results.add(scope.fork(() -> {
+					most.accumulateAndGet(running.incrementAndGet(), Math::max);
+					Thread.sleep(2);
+					running.decrementAndGet();
+					return query;
+				}));
+			}
+			scope.join();
+		}
+		assertTrue(most.get() <= 3);
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i, results.get(i).join());
+		}
+	}
+
+	@Test
+	public void collect() {
+		TestGraph graph = new TestGraph().addNode(1, "A").addNode(2, "CC").addNode(3, "GGG");
+		QueryExecutor queries = new QueryExecutor(executor, 2);
+		try (QueryExecutor.Scope scope = queries.scope()) {
+			CompletableFuture<long[]> nodes = scope.collect(graph::nodes, graph::asLong);
+			CompletableFuture<long[]> range = scope.collectLongs(() -> AutoClosedIterator.OfLong.range(0, 1000));
+			scope.join();
+			long[] ids = nodes.join();
+			Arrays.sort(ids);
+			assertArrayEquals(new long[] { graph.asLong(graph.fromLong(1)), graph.asLong(graph.fromLong(2)),
+					graph.asLong(graph.fromLong(3)) }, ids);
+			assertEquals(1000, range.join().length);
+			assertEquals(999, range.join()[999]);
+		}
+	}
+
+	@Test
+	public void failureCancelsTheRest() throws InterruptedException {
+		QueryExecutor queries = new QueryExecutor(executor, 2);
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean closed = new AtomicBoolean();
+		try (QueryExecutor.Scope scope = queries.scope()) {
+			CompletableFuture<long[]> reading = scope.collectLongs(() -> endless(started, closed));
+			started.await();
+			scope.fork(() -> {
+				throw new IllegalStateException("lost the index");
+			});
+			CompletableFuture<Integer> later = scope.fork(() -> 1);
+			assertThrows(IllegalStateException.class, scope::join);
+			assertTrue(scope.isCancelled());
+			assertTrue(reading.isCancelled());
+			assertTrue(closed.get());
+			assertTrue(later.isDone());
+		}
+	}
+
+	@Test
+	public void closeStopsReading() throws InterruptedException {
+		QueryExecutor queries = new QueryExecutor(executor, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean closed = new AtomicBoolean();
+		CompletableFuture<long[]> reading;
+		try (QueryExecutor.Scope scope = queries.scope()) {
+			reading = scope.collectLongs(() -> endless(started, closed));
+			started.await();
+		}
+		assertTrue(closed.get());
+		assertTrue(reading.isCancelled());
+	}
+
+	@Test
+	public void cancelDoesNotWaitForOtherScopes() throws Exception {
+		QueryExecutor queries = new QueryExecutor(executor, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		try (QueryExecutor.Scope busy = queries.scope()) {
+			try {
+				busy.fork(() -> {
+					release.await();
+					return 0;
+				});
+				for (int i = 0; i < 100; i++) {
+					busy.fork(() -> 1);
+				}
+				QueryExecutor.Scope other = queries.scope();
+				CompletableFuture<Integer> never = other.fork(() -> 2);
+				CompletableFuture<Void> closing = CompletableFuture.runAsync(other::close, executor);
+				closing.get(10, TimeUnit.SECONDS);
+				assertTrue(never.isCancelled());
+			} finally {
+				release.countDown();
+			}
+			busy.join();
+		}
+	}
+
+	@Test
+	public void nestedJoin() throws Exception {
+		QueryExecutor queries = new QueryExecutor(executor, 2);
+		List<CompletableFuture<Integer>> outer = new ArrayList<>();
+		CompletableFuture<Void> all = CompletableFuture.runAsync(() -> {
+			try (QueryExecutor.Scope scope = queries.scope()) {
+				for (int i = 0; i < 4; i++) {
+					outer.add(scope.fork(() -> {
+						List<CompletableFuture<Integer>> inner = new ArrayList<>();
+						try (QueryExecutor.Scope children = queries.scope()) {
+							for (int c = 0; c < 5; c++) {
+								int child = c;
+								inner.add(children.fork(() -> child));
+							}
+							children.join();
+						}
+						int sum = 0;
+						for (CompletableFuture<Integer> child : inner) {
+							sum += child.join();
+						}
+						return sum;
+					}));
+				}
+				scope.join();
+			}
+		}, executor);
+		all.get(10, TimeUnit.SECONDS);
+		for (CompletableFuture<Integer> sum : outer) {
+			assertEquals(10, sum.join());
+		}
+	}
+}
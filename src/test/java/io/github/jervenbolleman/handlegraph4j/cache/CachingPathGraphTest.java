@@ -0,0 +1,25 @@
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+
+public class CachingPathGraphTest {
+
+	@Test
+	public void sequencesFromTheCache() {
+		TestGraph backend = new TestGraph().addNode(1, "ACGT").addNode(2, "GG").addEdge(1, 2).addPath("p", 1, 2);
+		CachingPathGraph<TestGraph.Path, TestGraph.Step, TestGraph.Node, TestGraph.Edge> graph = new CachingPathGraph<>(
+				backend, new SequenceCache(1 << 10, EvictionPolicy.lru()));
+		assertEquals(SequenceType.fromString("ACGT"), graph.sequenceOf(graph.fromLong(1)));
+		assertEquals('g', graph.getBase(graph.fromLong(2), 1));
+		assertEquals('c', graph.getBase(graph.fromLong(1), 1));
+		assertEquals(6, graph.totalNodeSequenceLength());
+		assertEquals(2, graph.stepCountInPath(graph.pathByName("p")));
+		assertEquals(2, graph.cache().misses());
+		assertEquals(3, graph.cache().hits());
+	}
+}
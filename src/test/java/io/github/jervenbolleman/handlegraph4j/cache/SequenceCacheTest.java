@@ -0,0 +1,110 @@
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.sequences.Sequence;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+
+public class SequenceCacheTest {
+
+	private static final long PACKED = SequenceCache.ENTRY_BYTES + Long.BYTES;
+
+	@Test
+	public void packedAndObjects() {
+		SequenceCache cache = new SequenceCache(1 << 12, EvictionPolicy.lru());
+		Sequence known = SequenceType.fromString("ACGT");
+		Sequence ambiguous = SequenceType.fromString("ACNT");
+		Sequence long_ = SequenceType.fromString("ACGT".repeat(40));
+		cache.put(1, known);
+		cache.put(2, ambiguous);
+		cache.put(3, long_);
+		assertEquals(known, cache.getIfPresent(1));
+		assertEquals(ambiguous, cache.getIfPresent(2));
+		assertEquals(long_, cache.getIfPresent(3));
+		assertNull(cache.getIfPresent(4));
+		assertEquals(3, cache.hits());
+		assertEquals(1, cache.misses());
+		assertEquals(PACKED * 2 + SequenceCache.weigh(long_), cache.weight());
+		cache.invalidate(2);
+		assertNull(cache.getIfPresent(2));
+		assertEquals(2, cache.size());
+		cache.invalidateAll();
+		assertEquals(0, cache.weight());
+	}
+
+	@Test
+	public void lru() {
+		SequenceCache cache = new SequenceCache(PACKED * 3, EvictionPolicy.lru());
+		Sequence a = SequenceType.fromString("A");
+		cache.put(1, a);
+		cache.put(2, a);
+		cache.put(3, a);
+		cache.getIfPresent(1);
+		cache.put(4, a);
+		assertNull(cache.getIfPresent(2));
+		assertEquals(a, cache.getIfPresent(1));
+		assertEquals(a, cache.getIfPresent(3));
+		assertEquals(a, cache.getIfPresent(4));
+		assertEquals(1, cache.evictions());
+		assertTrue(cache.weight() <= PACKED * 3);
+	}
+
+	@Test
+	public void tinyLfuKeepsHotEntries() {
+		SequenceCache cache = new SequenceCache(PACKED * 4, EvictionPolicy.tinyLfu());
+		Sequence a = SequenceType.fromString("A");
+		int[] loads = new int[1];
+		for (int round = 0; round < 10; round++) {
+			for (long hot = 1; hot <= 4; hot++) {
+				cache.get(hot, id -> {
+					loads[0]++;
+					return a;
+				});
+			}
+		}
+		// a scan of ids asked for only once does not push out the hot ones
+		for (long cold = 100; cold < 200; cold++) {
+			cache.get(cold, id -> a);
+		}
+		for (long hot = 1; hot <= 4; hot++) {
+			assertEquals(a, cache.getIfPresent(hot));
+		}
+		assertEquals(4, loads[0]);
+		assertEquals(100, cache.rejections());
+	}
+
+	@Test
+	public void concurrent() throws Exception {
+		SequenceCache cache = new SequenceCache(1 << 20, EvictionPolicy.tinyLfu());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> done = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				done.add(executor.submit(() -> {
+					for (long id = 0; id < 100_000; id++) {
+						long key = id % 5000;
+						Sequence found = cache.get(key, k -> SequenceType.fromString(k % 2 == 0 ? "ACGT" : "ACGTN"));
+						assertEquals(key % 2 == 0 ? 4 : 5, found.length());
+					}
+				}));
+			}
+			for (Future<?> f : done) {
+				f.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(400_000, cache.hits() + cache.misses());
+		assertTrue(cache.weight() <= 1 << 20);
+	}
+}
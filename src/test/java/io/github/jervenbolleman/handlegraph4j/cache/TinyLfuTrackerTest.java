@@ -0,0 +1,31 @@
+package io.github.jervenbolleman.handlegraph4j.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TinyLfuTrackerTest {
+
+	@Test
+	public void countsSaturateAndHalve() {
+		TinyLfuTracker tracker = new TinyLfuTracker(256);
+		for (int i = 0; i < 20; i++) {
+			tracker.miss(1);
+		}
+		for (int i = 0; i < 3; i++) {
+			tracker.miss(2);
+		}
+		assertEquals(15, tracker.frequency(1));
+		assertEquals(3, tracker.frequency(2));
+		assertEquals(0, tracker.frequency(3));
+		assertTrue(tracker.admit(2, 3));
+		assertFalse(tracker.admit(3, 2));
+		// 1024 counters, halved after 10240 accesses
+		for (long id = 1000; id < 1000 + 10240 - 23; id++) {
+			tracker.miss(id * 1_000_003);
+		}
+		assertEquals(7, tracker.frequency(1));
+	}
+}
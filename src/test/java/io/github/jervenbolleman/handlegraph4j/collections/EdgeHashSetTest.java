@@ -0,0 +1,53 @@
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class EdgeHashSetTest {
+
+	@Test
+	public void sameAsHashSet() {
+		Random random = new Random(42);
+		EdgeHashSet set = new EdgeHashSet(4);
+		EdgeLongHashMap counts = new EdgeLongHashMap(4);
+		Set<String> expected = new HashSet<>();
+		for (int i = 0; i < 50_000; i++) {
+			long left = EdgeKeys.handle(random.nextInt(300), random.nextBoolean());
+			long right = EdgeKeys.handle(random.nextInt(300) + (1L << 40), random.nextBoolean());
+			String key = EdgeKeys.canonicalLeft(left, right) + ">" + EdgeKeys.canonicalRight(left, right);
+			assertEquals(expected.add(key), set.add(left, right));
+			assertTrue(set.contains(EdgeKeys.flip(right), EdgeKeys.flip(left)));
+			counts.addTo(EdgeKeys.flip(right), EdgeKeys.flip(left), 1);
+		}
+		assertEquals(expected.size(), set.size());
+		assertEquals(expected.size(), counts.size());
+		Set<String> iterated = new HashSet<>();
+		set.forEach((l, r) -> iterated.add(l + ">" + r));
+		assertEquals(expected, iterated);
+		long[] total = new long[1];
+		counts.forEach((l, r, v) -> total[0] += v);
+		assertEquals(50_000, total[0]);
+	}
+
+	@Test
+	public void map() {
+		EdgeLongHashMap map = new EdgeLongHashMap();
+		long a = EdgeKeys.signed(1);
+		long b = EdgeKeys.signed(-2);
+		assertEquals(-1, map.put(a, b, 7, -1));
+		assertEquals(7, map.put(EdgeKeys.flip(b), EdgeKeys.flip(a), 8, -1));
+		assertEquals(8, map.get(a, b, -1));
+		assertEquals(-1, map.get(b, a, -1));
+		assertFalse(map.containsKey(b, a));
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(new EdgeHashSet().contains(a, b));
+	}
+}
@@ -0,0 +1,39 @@
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class EdgeKeysTest {
+
+	@Test
+	public void handles() {
+		long code = EdgeKeys.handle(5, true);
+		assertEquals(11, code);
+		assertEquals(code, EdgeKeys.signed(-5));
+		assertEquals(5, EdgeKeys.id(code));
+		assertTrue(EdgeKeys.isReverse(code));
+		assertFalse(EdgeKeys.isReverse(EdgeKeys.flip(code)));
+		assertThrows(IllegalArgumentException.class, () -> EdgeKeys.handle(-1, false));
+	}
+
+	@Test
+	public void canonical() {
+		long a = EdgeKeys.signed(3);
+		long b = EdgeKeys.signed(-1);
+		// 3 -> -1 is the same edge as 1 -> -3
+		assertEquals(EdgeKeys.pack(a, b), EdgeKeys.pack(EdgeKeys.signed(1), EdgeKeys.signed(-3)));
+		assertEquals(EdgeKeys.signed(1), EdgeKeys.canonicalLeft(a, b));
+		assertEquals(EdgeKeys.signed(-3), EdgeKeys.canonicalRight(a, b));
+		long packed = EdgeKeys.pack(a, b);
+		assertEquals(EdgeKeys.signed(1), EdgeKeys.packedLeft(packed));
+		assertEquals(EdgeKeys.signed(-3), EdgeKeys.packedRight(packed));
+		// a reversing self loop is its own mirror image
+		long self = EdgeKeys.signed(2);
+		assertTrue(EdgeKeys.isCanonical(self, EdgeKeys.flip(self)));
+		assertThrows(IllegalArgumentException.class, () -> EdgeKeys.pack(EdgeKeys.handle(1L << 40, false), a));
+	}
+}
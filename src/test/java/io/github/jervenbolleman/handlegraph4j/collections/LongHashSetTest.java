@@ -0,0 +1,52 @@
+package io.github.jervenbolleman.handlegraph4j.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class LongHashSetTest {
+
+	@Test
+	public void sameAsHashSet() {
+		Random random = new Random(42);
+		LongHashSet set = new LongHashSet(4);
+		Set<Long> expected = new HashSet<>();
+		for (int i = 0; i < 100_000; i++) {
+			long value = random.nextInt(5000) - 100;
+			if (random.nextBoolean()) {
+				assertEquals(expected.add(value), set.add(value));
+			} else {
+				assertEquals(expected.remove(value), set.remove(value));
+			}
+		}
+		assertEquals(expected.size(), set.size());
+		for (long value = -100; value < 4900; value++) {
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+		Set<Long> iterated = new HashSet<>();
+		try (AutoClosedIterator.OfLong iter = set.iterator()) {
+			while (iter.hasNext()) {
+				iterated.add(iter.nextLong());
+			}
+		}
+		assertEquals(expected, iterated);
+	}
+
+	@Test
+	public void zeroIsAValue() {
+		LongHashSet set = new LongHashSet();
+		assertFalse(set.contains(0));
+		assertTrue(set.add(0));
+		assertEquals(1, set.toArray().length);
+		set.clear();
+		assertTrue(set.isEmpty());
+	}
+}
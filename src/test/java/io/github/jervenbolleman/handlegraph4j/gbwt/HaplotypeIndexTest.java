@@ -0,0 +1,163 @@
+package io.github.jervenbolleman.handlegraph4j.gbwt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class HaplotypeIndexTest {
+
+	private static int[] extract(HaplotypeIndex index, int path) {
+		List<Integer> symbols = new ArrayList<>();
+		try (AutoClosedIterator.OfInt iter = index.symbols(path)) {
+			iter.forEachRemaining((int s) -> symbols.add(s));
+		}
+		return symbols.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static boolean contains(int[] path, int[] subpath) {
+		for (int i = 0; i + subpath.length <= path.length; i++) {
+			if (Arrays.equals(path, i, i + subpath.length, subpath, 0, subpath.length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long occurrences(int[] path, int[] subpath) {
+		long count = 0;
+		for (int i = 0; i + subpath.length <= path.length; i++) {
+			if (Arrays.equals(path, i, i + subpath.length, subpath, 0, subpath.length)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void small() {
+		HaplotypeIndex.Builder builder = new HaplotypeIndex.Builder();
+		builder.insert(1, 3, 7, 9);
+		builder.insert(1, 5, 7, 9);
+		builder.insert(1, 3, 7, 9);
+		builder.insert();
+		HaplotypeIndex index = builder.build(2);
+		assertEquals(4, index.pathCount());
+		assertArrayEquals(new int[] { 1, 5, 7, 9 }, extract(index, 1));
+		assertArrayEquals(new int[0], extract(index, 3));
+		assertEquals(7, index.symbolAt(2, 2));
+		assertEquals(2, index.count(3, 7));
+		assertArrayEquals(new int[] { 0, 2 }, index.haplotypes(1, 3));
+		assertArrayEquals(new int[] { 0, 1, 2 }, index.haplotypes(7, 9));
+		assertArrayEquals(new int[0], index.haplotypes(3, 5));
+		assertArrayEquals(new int[0], index.haplotypes(11));
+	}
+
+	@Test
+	public void randomHaplotypes() {
+		Random random = new Random(42);
+		int[][] paths = new int[200][];
+		HaplotypeIndex.Builder builder = new HaplotypeIndex.Builder();
+		for (int p = 0; p < paths.length; p++) {
+			// a chain of 50 biallelic sites, with an occasional loop back
+			int[] path = new int[100 + random.nextInt(3)];
+			for (int i = 0; i < 100; i++) {
+				path[i] = i * 2 + 1 + random.nextInt(2);
+			}
+			for (int i = 100; i < path.length; i++) {
+				path[i] = 1 + random.nextInt(4);
+			}
+			paths[p] = path;
+			assertEquals(p, builder.insert(path));
+		}
+		HaplotypeIndex index = builder.build(16, symbol -> symbol);
+		for (int p = 0; p < paths.length; p++) {
+			assertArrayEquals(paths[p], extract(index, p));
+			assertEquals(paths[p][57], index.symbolAt(p, 57));
+			assertEquals(Arrays.stream(paths[p], 0, 57).sum(), index.offset(p, 57));
+		}
+		for (int q = 0; q < 100; q++) {
+			int start = random.nextInt(95);
+			int[] subpath = Arrays.copyOfRange(paths[random.nextInt(paths.length)], start, start + 1 + random.nextInt(5));
+			long count = 0;
+			List<Integer> expected = new ArrayList<>();
+			for (int p = 0; p < paths.length; p++) {
+				count += occurrences(paths[p], subpath);
+				if (contains(paths[p], subpath)) {
+					expected.add(p);
+				}
+			}
+			assertEquals(count, index.count(subpath));
+			assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), index.haplotypes(subpath));
+		}
+		assertTrue(index.runCount() < 200 * 100);
+		assertTrue(index.sampleCount() <= index.runCount() + index.pathCount());
+	}
+
+	@Test
+	public void manyRevisits() {
+		Random random = new Random(7);
+		int[][] paths = new int[50][];
+		HaplotypeIndex.Builder builder = new HaplotypeIndex.Builder();
+		for (int p = 0; p < paths.length; p++) {
+			int[] path = new int[1 + random.nextInt(300)];
+			for (int i = 0; i < path.length; i++) {
+				path[i] = 1 + random.nextInt(3);
+			}
+			paths[p] = path;
+			builder.insert(path);
+		}
+		HaplotypeIndex index = builder.build(8);
+		for (int p = 0; p < paths.length; p++) {
+			assertArrayEquals(paths[p], extract(index, p));
+			int rank = random.nextInt(paths[p].length);
+			assertEquals(paths[p][rank], index.symbolAt(p, rank));
+			assertEquals(rank, index.offset(p, rank));
+		}
+		for (int q = 0; q < 50; q++) {
+			int[] path = paths[random.nextInt(paths.length)];
+			int start = random.nextInt(path.length);
+			int[] subpath = Arrays.copyOfRange(path, start, Math.min(path.length, start + 1 + random.nextInt(4)));
+			long count = 0;
+			for (int[] other : paths) {
+				count += occurrences(other, subpath);
+			}
+			assertEquals(count, index.count(subpath));
+		}
+	}
+
+	@Test
+	public void samplesGrowWithRunsNotSteps() {
+		int[] route = new int[1000];
+		for (int i = 0; i < route.length; i++) {
+			route[i] = i + 1;
+		}
+		int[] variant = route.clone();
+		variant[500] = 2000;
+		HaplotypeIndex.Builder builder = new HaplotypeIndex.Builder();
+		for (int p = 0; p < 100; p++) {
+			builder.insert(p % 10 == 3 ? variant : route);
+		}
+		HaplotypeIndex index = builder.build(4, symbol -> 2);
+		// 100,000 steps on two routes, that share all but one node
+		assertTrue(index.runCount() < 1100);
+		assertTrue(index.sampleCount() <= index.runCount() + index.pathCount());
+		for (int p = 0; p < 100; p++) {
+			int[] path = p % 10 == 3 ? variant : route;
+			assertArrayEquals(path, extract(index, p));
+			assertEquals(path[777], index.symbolAt(p, 777));
+			assertEquals(2 * 777, index.offset(p, 777));
+		}
+		assertEquals(100, index.haplotypes(499, 500).length);
+		assertArrayEquals(new int[] { 3, 13, 23, 33, 43, 53, 63, 73, 83, 93 }, index.haplotypes(500, 2000, 502));
+		assertEquals(90, index.count(501, 502));
+	}
+}
@@ -0,0 +1,90 @@
+package io.github.jervenbolleman.handlegraph4j.gbwt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+
+public class HaplotypePathGraphTest {
+
+	private static TestGraph graph() {
+		TestGraph graph = new TestGraph().addNode(1, "ACGT")
+				.addNode(2, "A")
+				.addNode(3, "CCCCCCCCCC")
+				.addNode(4, "GG")
+				.addNode(5, "TTT")
+				.addEdge(1, 2)
+				.addEdge(1, 3)
+				.addEdge(2, 4)
+				.addEdge(3, 4)
+				.addEdge(4, 5);
+		long[] longPath = new long[300];
+		for (int i = 0; i < longPath.length; i++) {
+			longPath[i] = i % 2 == 0 ? 4 : -4;
+		}
+		return graph.addPath("a", 1, 2, 4, 5).addPath("b", 1, 3, 4, 5).addPath("c", -5, -4, -2, -1)
+				.addPath("long", longPath).addPath("copy", longPath);
+	}
+
+	@Test
+	public void samePathsAsTheSource() {
+		TestGraph source = graph();
+		HaplotypePathGraph<TestGraph.Node, TestGraph.Edge> graph = HaplotypePathGraph.of(source, 4);
+		assertEquals(5, graph.pathCount());
+		for (String name : List.of("a", "b", "c", "long", "copy")) {
+			TestGraph.Path expected = source.pathByName(name);
+			HaplotypePathGraph.Path path = graph.pathByName(name);
+			assertEquals(name, graph.nameOfPath(path));
+			assertArrayEquals(source.positionsOf(expected).toArray(), graph.positionsOf(path).toArray());
+			List<TestGraph.Node> nodes = new ArrayList<>();
+			try (AutoClosedIterator<HaplotypePathGraph.Step> steps = graph.stepsOf(path)) {
+				while (steps.hasNext()) {
+					HaplotypePathGraph.Step step = steps.next();
+					nodes.add(graph.nodeOfStep(step));
+					assertEquals(step, graph.stepByRankAndPath(path, graph.rankOfStep(step)));
+					assertEquals(source.beginPositionOfStep(source.stepByRankAndPath(expected, graph.rankOfStep(step))),
+							graph.beginPositionOfStep(step));
+				}
+			}
+			List<TestGraph.Node> expectedNodes = new ArrayList<>();
+			try (AutoClosedIterator<TestGraph.Step> steps = source.stepsOf(expected)) {
+				while (steps.hasNext()) {
+					expectedNodes.add(source.nodeOfStep(steps.next()));
+				}
+			}
+			assertEquals(expectedNodes, nodes);
+		}
+		assertNull(graph.stepByRankAndPath(graph.pathByName("a"), 4));
+	}
+
+	@Test
+	public void haplotypesThrough() {
+		TestGraph source = graph();
+		HaplotypePathGraph<TestGraph.Node, TestGraph.Edge> graph = HaplotypePathGraph.of(source, 4);
+		List<HaplotypePathGraph.Path> through = graph
+				.haplotypesThrough(List.of(source.fromLong(2), source.fromLong(4)));
+		assertEquals(List.of(graph.pathByName("a")), through);
+		through = graph.haplotypesThrough(List.of(source.fromLong(-4), source.fromLong(-2)));
+		assertEquals(List.of(graph.pathByName("c")), through);
+		assertEquals(2, graph.haplotypesThrough(List.of(source.fromLong(4), source.fromLong(5))).size());
+		assertEquals(List.of(graph.pathByName("long"), graph.pathByName("copy")),
+				graph.haplotypesThrough(List.of(source.fromLong(4), source.fromLong(-4))));
+	}
+
+	@Test
+	public void keepsCircularity() {
+		TestGraph source = graph().addCircularPath("ring", 4, 5);
+		HaplotypePathGraph<TestGraph.Node, TestGraph.Edge> graph = HaplotypePathGraph.of(source, 4);
+		assertTrue(graph.isCircular(graph.pathByName("ring")));
+		assertFalse(graph.isCircular(graph.pathByName("a")));
+	}
+}
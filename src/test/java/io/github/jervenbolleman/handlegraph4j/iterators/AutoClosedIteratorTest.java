@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.junit.jupiter.api.Test;
@@ -68,5 +70,127 @@ public class AutoClosedIteratorTest {
 			assertThrows(NoSuchElementException.class, () -> both.next());
 		}
 	}
+
+	@Test
+	public void nextBatchOfArray() {
+		try (AutoClosedIterator<String> iter = AutoClosedIterator.of(new String[] { "a", "b", "c" })) {
+			String[] buffer = new String[2];
+			assertEquals(2, iter.nextBatch(buffer));
+			assertEquals("b", buffer[1]);
+			assertEquals(1, iter.nextBatch(buffer));
+			assertEquals("c", buffer[0]);
+			assertEquals(0, iter.nextBatch(buffer));
+		}
+	}
+
+	@Test
+	public void nextBatchThroughCombinators() {
+		Integer[] values = new Integer[100];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		try (AutoClosedIterator<Integer> first = AutoClosedIterator.of(values);
+				AutoClosedIterator<Integer> second = AutoClosedIterator.of(values);
+				AutoClosedIterator<Integer> both = AutoClosedIterator.concat(first, second);
+				AutoClosedIterator<Integer> even = AutoClosedIterator.filter(both, i -> i % 2 == 0);
+				AutoClosedIterator<Long> mapped = AutoClosedIterator.map(even, i -> (long) i * 10)) {
+			long[] buffer = new long[7];
+			long sum = 0;
+			int count = 0;
+			int read;
+			while ((read = mapped.nextBatch(buffer, Long::longValue)) > 0) {
+				for (int i = 0; i < read; i++) {
+					sum += buffer[i];
+				}
+				count += read;
+			}
+			assertEquals(100, count);
+			assertEquals(2 * 10 * 2450, sum);
+		}
+	}
+
+	@Test
+	public void nextObjectBatchThroughCombinators() {
+		Integer[] values = new Integer[100];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		try (AutoClosedIterator<Integer> all = AutoClosedIterator.of(values);
+				AutoClosedIterator<Integer> even = AutoClosedIterator.filter(all, i -> i % 2 == 0);
+				AutoClosedIterator<String> mapped = AutoClosedIterator.map(even, i -> "n" + i)) {
+			String[] buffer = new String[7];
+			List<String> read = new ArrayList<>();
+			int filled;
+			while ((filled = mapped.nextBatch(buffer)) > 0) {
+				for (int i = 0; i < filled; i++) {
+					read.add(buffer[i]);
+				}
+			}
+			assertEquals(50, read.size());
+			assertEquals("n0", read.get(0));
+			assertEquals("n98", read.get(49));
+		}
+	}
+
+	@Test
+	public void nextBatchOfFlatMap() {
+		try (AutoClosedIterator<String> flat = AutoClosedIterator
+				.flatMap(AutoClosedIterator.of(AutoClosedIterator.of("a", "b"), AutoClosedIterator.of("c")))) {
+			String[] buffer = new String[10];
+			assertEquals(2, flat.nextBatch(buffer));
+			assertEquals("b", buffer[1]);
+			assertEquals(1, flat.nextBatch(buffer));
+			assertEquals("c", buffer[0]);
+			assertEquals(0, flat.nextBatch(buffer));
+		}
+	}
+
+	@Test
+	public void ofLongPipeline() {
+		try (AutoClosedIterator.OfLong range = AutoClosedIterator.OfLong.range(0, 1000);
+				AutoClosedIterator.OfLong odd = AutoClosedIterator.OfLong.filter(range, l -> l % 2 == 1);
+				AutoClosedIterator.OfLong doubled = AutoClosedIterator.OfLong.map(odd, l -> l * 2);
+				AutoClosedIterator.OfLong limited = AutoClosedIterator.OfLong.limit(doubled, 10)) {
+			long[] buffer = new long[4];
+			long sum = 0;
+			int count = 0;
+			int read;
+			while ((read = limited.nextBatch(buffer)) > 0) {
+				for (int i = 0; i < read; i++) {
+					sum += buffer[i];
+				}
+				count += read;
+			}
+			assertEquals(10, count);
+			assertEquals(200, sum);
+		}
+	}
+
+	@Test
+	public void ofLongConcatFlatMapAndTerminate() {
+		AutoClosedIterator<AutoClosedIterator.OfLong> parts = AutoClosedIterator.of(AutoClosedIterator.OfLong.of(1, 2),
+				AutoClosedIterator.OfLong.empty());
+		try (AutoClosedIterator.OfLong flat = AutoClosedIterator.OfLong.flatMap(parts);
+				AutoClosedIterator.OfLong both = AutoClosedIterator.OfLong.concat(flat,
+						AutoClosedIterator.OfLong.of(3, 4, 5));
+				AutoClosedIterator.OfLong small = AutoClosedIterator.OfLong.terminate(both, l -> l < 4)) {
+			assertEquals(1, small.nextLong());
+			assertEquals(2, small.nextLong());
+			assertEquals(3, small.nextLong());
+			assertFalse(small.hasNext());
+			assertThrows(NoSuchElementException.class, () -> small.nextLong());
+		}
+	}
+
+	@Test
+	public void ofIntMapToObj() {
+		try (AutoClosedIterator.OfInt ints = AutoClosedIterator.OfInt.of(1, 2, 3);
+				AutoClosedIterator<String> strings = AutoClosedIterator.OfInt.mapToObj(ints, Integer::toString)) {
+			assertEquals("1", strings.next());
+			assertEquals("2", strings.next());
+			assertEquals("3", strings.next());
+			assertFalse(strings.hasNext());
+		}
+	}
 }
 
@@ -0,0 +1,82 @@
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class PipelineTest {
+
+	@Test
+	public void mapFilterFlatMap() {
+		List<String> result = new ArrayList<>();
+		Pipeline.of(AutoClosedIterator.of(new Integer[] { 1, 2, 3, 4 }))
+				.filter(i -> i % 2 == 0)
+				.flatMap(i -> AutoClosedIterator.of(i, i * 10))
+				.map(i -> "v" + i)
+				.forEach(result::add);
+		assertEquals(List.of("v2", "v20", "v4", "v40"), result);
+	}
+
+	@Test
+	public void nullsAreElements() {
+		try (AutoClosedIterator<String> iter = Pipeline.of(AutoClosedIterator.of(new String[] { "a", null, "c" }))
+				.filter(s -> true)
+				.iterator()) {
+			assertEquals("a", iter.next());
+			assertTrue(iter.hasNext());
+			assertNull(iter.next());
+			assertEquals("c", iter.next());
+			assertFalse(iter.hasNext());
+			assertThrows(NoSuchElementException.class, () -> iter.next());
+		}
+	}
+
+	@Test
+	public void limitStopsPullingAndCloses() {
+		AtomicInteger pulled = new AtomicInteger();
+		AtomicInteger closed = new AtomicInteger();
+		AutoClosedIterator<Long> source = new AutoClosedIterator<>() {
+			long at = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Long next() {
+				pulled.incrementAndGet();
+				return at++;
+			}
+
+			@Override
+			public void close() {
+				closed.incrementAndGet();
+			}
+		};
+		long count = Pipeline.of(source)
+				.limit(2)
+				.flatMap(l -> AutoClosedIterator.of(l, l))
+				.count();
+		assertEquals(4, count);
+		assertEquals(2, pulled.get());
+		assertEquals(1, closed.get());
+	}
+
+	@Test
+	public void takeWhile() {
+		try (AutoClosedIterator.OfLong range = AutoClosedIterator.OfLong.range(0, 100)) {
+			assertEquals(10, Pipeline.of(range).takeWhile(l -> l < 10).count());
+		}
+		assertFalse(Pipeline.of(AutoClosedIterator.of("a")).limit(0).anyMatch(s -> true));
+	}
+}
@@ -0,0 +1,144 @@
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PrefetchingIteratorTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void inOrder() {
+		try (AutoClosedIterator.OfLong range = AutoClosedIterator.OfLong.range(0, 10_000);
+				AutoClosedIterator<Long> prefetched = AutoClosedIterator.prefetch(range, executor, 16)) {
+			long expected = 0;
+			while (prefetched.hasNext()) {
+				assertEquals(expected++, prefetched.next());
+			}
+			assertEquals(10_000, expected);
+			assertThrows(NoSuchElementException.class, () -> prefetched.next());
+		}
+	}
+
+	@Test
+	public void batchesAndNulls() {
+		try (AutoClosedIterator<String> prefetched = AutoClosedIterator
+				.prefetch(AutoClosedIterator.of(new String[] { "a", null, "c" }), executor, 1)) {
+			String[] buffer = new String[3];
+			int count = 0;
+			int read;
+			while ((read = prefetched.nextBatch(buffer)) > 0) {
+				for (int i = 0; i < read; i++, count++) {
+					if (count == 1) {
+						assertNull(buffer[i]);
+					}
+				}
+			}
+			assertEquals(3, count);
+		}
+	}
+
+	@Test
+	public void exceptionIsPropagated() {
+		AutoClosedIterator<Long> failing = AutoClosedIterator.OfLong.mapToObj(AutoClosedIterator.OfLong.range(0, 10), l -> {
+			if (l == 5) {
+				throw new IllegalStateException("broken disk");
+			}
+			return l;
+		});
+		try (AutoClosedIterator<Long> prefetched = AutoClosedIterator.prefetch(failing, executor, 2)) {
+			for (long i = 0; i < 5; i++) {
+				assertEquals(i, prefetched.next());
+			}
+			assertThrows(IllegalStateException.class, () -> prefetched.hasNext());
+			assertFalse(prefetched.hasNext());
+		}
+	}
+
+	@Test
+	public void earlyCloseClosesWrapped() {
+		AtomicBoolean closed = new AtomicBoolean();
+		AutoClosedIterator<Long> endless = new AutoClosedIterator<>() {
+			long at = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Long next() {
+				return at++;
+			}
+
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+		AutoClosedIterator<Long> prefetched = AutoClosedIterator.prefetch(endless, executor, 4);
+		assertEquals(0, prefetched.next());
+		prefetched.close();
+		assertTrue(closed.get());
+	}
+
+	@Test
+	public void closeDoesNotInterruptTheProducer() throws InterruptedException {
+		AtomicBoolean interrupted = new AtomicBoolean();
+		CountDownLatch reading = new CountDownLatch(1);
+		AutoClosedIterator<Long> slow = new AutoClosedIterator<>() {
+			long at = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Long next() {
+				if (at > 0) {
+					reading.countDown();
+					try {
+						// stands in for a read from an interruptible channel
+						Thread.sleep(100);
+					} catch (InterruptedException e) {
+						interrupted.set(true);
+					}
+				}
+				return at++;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		AutoClosedIterator<Long> prefetched = AutoClosedIterator.prefetch(slow, executor, 4);
+		assertEquals(0, prefetched.next());
+		reading.await();
+		prefetched.close();
+		assertFalse(interrupted.get());
+	}
+}
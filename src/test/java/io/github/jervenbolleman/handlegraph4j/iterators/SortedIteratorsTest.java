@@ -0,0 +1,76 @@
+package io.github.jervenbolleman.handlegraph4j.iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SortedIteratorsTest {
+
+	private static <T> List<T> collect(AutoClosedIterator<T> iter) {
+		List<T> result = new ArrayList<>();
+		try (iter) {
+			while (iter.hasNext()) {
+				result.add(iter.next());
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void mergeWithComparator() {
+		List<AutoClosedIterator<String>> sources = List.of(AutoClosedIterator.of(new String[] { "a", "d", "e" }),
+				AutoClosedIterator.empty(), AutoClosedIterator.of(new String[] { "b", "c", "f" }));
+		assertEquals(List.of("a", "b", "c", "d", "e", "f"),
+				collect(SortedIterators.merge(sources, Comparator.naturalOrder())));
+	}
+
+	@Test
+	public void mergeWithLongKey() {
+		List<AutoClosedIterator<String>> sources = List.of(AutoClosedIterator.of(new String[] { "1a", "3a" }),
+				AutoClosedIterator.of(new String[] { "1b", "2b", "3b" }));
+		assertEquals(List.of("1a", "1b", "2b", "3a", "3b"),
+				collect(SortedIterators.merge(sources, s -> s.charAt(0) - '0')));
+	}
+
+	@Test
+	public void mergePrimitive() {
+		List<AutoClosedIterator.OfLong> sources = List.of(AutoClosedIterator.OfLong.of(1, 4, 9),
+				AutoClosedIterator.OfLong.of(2, 3, 10), AutoClosedIterator.OfLong.of(4));
+		assertEquals(List.of(1L, 2L, 3L, 4L, 4L, 9L, 10L), collect(SortedIterators.merge(sources)));
+	}
+
+	@Test
+	public void intersectAndDistinct() {
+		AutoClosedIterator.OfLong both = SortedIterators.intersect(AutoClosedIterator.OfLong.of(1, 2, 2, 5, 7, 9),
+				AutoClosedIterator.OfLong.of(2, 3, 7, 8));
+		assertEquals(List.of(2L, 7L), collect(SortedIterators.distinct(both)));
+		assertEquals(List.of("b", "d"),
+				collect(SortedIterators.intersect(AutoClosedIterator.of(new String[] { "a", "b", "d" }),
+						AutoClosedIterator.of(new String[] { "b", "c", "d", "e" }), Comparator.naturalOrder())));
+		assertEquals(List.of("a1", "b1"), collect(SortedIterators.distinct(
+				AutoClosedIterator.of(new String[] { "a1", "a2", "b1" }), Comparator.comparing(s -> s.charAt(0)))));
+	}
+
+	@Test
+	public void joinWithDuplicateKeys() {
+		AutoClosedIterator<String> left = AutoClosedIterator.of(new String[] { "1a", "2a", "2b", "4a" });
+		AutoClosedIterator<String> right = AutoClosedIterator.of(new String[] { "0x", "2x", "2y", "3x", "4x" });
+		List<String> joined = collect(SortedIterators.join(left, right, l -> l.charAt(0) - '0',
+				r -> r.charAt(0) - '0', (l, r) -> l + r));
+		assertEquals(List.of("2a2x", "2a2y", "2b2x", "2b2y", "4a4x"), joined);
+	}
+
+	@Test
+	public void joinPrimitive() {
+		// key in the tens, payload in the units
+		AutoClosedIterator.OfLong left = AutoClosedIterator.OfLong.of(11, 21, 22, 41);
+		AutoClosedIterator.OfLong right = AutoClosedIterator.OfLong.of(5, 27, 28, 35, 49);
+		List<Long> joined = collect(SortedIterators.joinLongs(left, right, l -> l / 10, r -> r / 10,
+				(l, r) -> l * 100 + r));
+		assertEquals(List.of(2127L, 2128L, 2227L, 2228L, 4149L), joined);
+	}
+}
@@ -0,0 +1,177 @@
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.NodeCursor;
+import io.github.jervenbolleman.handlegraph4j.NodeHandle;
+import io.github.jervenbolleman.handlegraph4j.PathGraph;
+import io.github.jervenbolleman.handlegraph4j.StepCursor;
+import io.github.jervenbolleman.handlegraph4j.StepHandle;
+import io.github.jervenbolleman.handlegraph4j.TestGraph;
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceArena;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+
+public class CompactPathGraphTest {
+
+	private static <T> List<T> toList(AutoClosedIterator<T> iter) {
+		List<T> list = new ArrayList<>();
+		try (iter) {
+			iter.forEachRemaining(list::add);
+		}
+		return list;
+	}
+
+	@Test
+	public void builder() {
+		CompactPathGraph.Builder builder = new CompactPathGraph.Builder();
+		assertEquals(1, builder.addNode(SequenceType.fromString("ACGT")));
+		assertEquals(2, builder.addNode(SequenceType.fromString("GG")));
+		assertEquals(3, builder.addNode(SequenceType.fromString("T")));
+		CompactPathGraph graph = builder.addEdge(1, -2).addEdge(2, -1).addEdge(-2, 3).addPath("p", 1, -2, 3)
+				.addPath("ring", true, 1, 2).build();
+		assertEquals(2, graph.edgeCount());
+		assertEquals(2, toList(graph.edges()).size());
+		assertEquals(List.of(new CompactEdge(new CompactNode(1), new CompactNode(-2))),
+				toList(graph.followEdgesToWardsTheRight(new CompactNode(1))));
+		assertEquals(List.of(new CompactEdge(new CompactNode(-3), new CompactNode(2))),
+				toList(graph.followEdgesToWardsTheRight(new CompactNode(-3))));
+		assertEquals(List.of(new CompactEdge(new CompactNode(1), new CompactNode(-2))),
+				toList(graph.followEdgesToWardsTheLeft(new CompactNode(-2))));
+		CompactPath p = graph.pathByName("p");
+		assertEquals(3, graph.stepCountInPath(p));
+		assertEquals(4, graph.beginPositionOfStep(graph.stepByRankAndPath(p, 1)));
+		assertEquals(7, graph.endPositionOfStep(graph.stepByRankAndPath(p, 2)));
+		assertEquals(-2, graph.nodeOfStep(graph.stepByRankAndPath(p, 1)).id());
+		assertEquals(2, graph.originalId(-2));
+		assertFalse(graph.isCircular(p));
+		assertTrue(graph.isCircular(graph.pathByName("ring")));
+	}
+
+	@Test
+	public void longSequencesInArena() {
+		String longer = "acgttgcaacggttaaccggttaaggccttaagtcagtcanrykm";
+		SequenceArena arena = new SequenceArena();
+		CompactPathGraph.Builder builder = new CompactPathGraph.Builder(arena);
+		builder.addNode(SequenceType.fromString("ACGT"));
+		builder.addNode(SequenceType.fromString("ACNT"));
+		builder.addNode(SequenceType.fromString(longer));
+		CompactPathGraph graph = builder.addPath("p", 1, 3, 2).build();
+		assertEquals(SequenceType.fromString("ACGT"), graph.sequenceOf(new CompactNode(1)));
+		assertEquals(SequenceType.fromString("ACNT"), graph.sequenceOf(new CompactNode(-2)));
+		assertEquals(SequenceType.fromString(longer), graph.sequenceOf(new CompactNode(3)));
+		assertEquals(4 + longer.length(), graph.beginPositionOfStep(graph.stepByRankAndPath(graph.pathByName("p"), 2)));
+		assertTrue(arena.reservedBytes() > 0);
+	}
+
+	@Test
+	public void hasEdge() {
+		CompactPathGraph.Builder builder = new CompactPathGraph.Builder();
+		for (int i = 0; i < 1000; i++) {
+			builder.addNode(SequenceType.fromString("A"));
+		}
+		for (int i = 1000; i > 1; i -= 3) {
+			builder.addEdge(1, i);
+		}
+		builder.addEdge(-1, -5);
+		CompactPathGraph graph = builder.build();
+		assertTrue(graph.hasEdge(new CompactNode(1), new CompactNode(997)));
+		assertFalse(graph.hasEdge(new CompactNode(1), new CompactNode(996)));
+		assertTrue(graph.hasEdge(new CompactNode(-997), new CompactNode(-1)));
+		assertTrue(graph.hasEdge(new CompactNode(5), new CompactNode(1)));
+		assertArrayEquals(new boolean[] { true, false, false, true },
+				graph.hasEdges(new long[] { 1, 1, 2000, -1 }, new long[] { 4, 5, 1, -5 }));
+	}
+
+	@Test
+	public void unknownNode() {
+		CompactPathGraph.Builder builder = new CompactPathGraph.Builder();
+		builder.addNode(SequenceType.fromString("A"));
+		assertThrows(IllegalArgumentException.class, () -> builder.addEdge(1, 2).build());
+	}
+
+	@Test
+	public void copyOf() {
+		TestGraph source = new TestGraph().addNode(100, "A")
+				.addNode(7, "CC")
+				.addNode(50, "GGG")
+				.addEdge(100, 7)
+				.addEdge(7, -50)
+				.addPath("p", 100, 7, -50)
+				.addCircularPath("ring", 7, -50);
+		CompactPathGraph copy = CompactPathGraph.copyOf(source, new long[] { 100, 7, 50 });
+		assertEquals(3, copy.nodeCount());
+		assertEquals(2, copy.edgeCount());
+		assertEquals(SequenceType.fromString("CC"), copy.sequenceOf(new CompactNode(2)));
+		assertEquals(List.of(new CompactEdge(new CompactNode(2), new CompactNode(-3))),
+				toList(copy.followEdgesToWardsTheRight(new CompactNode(2))));
+		CompactPath p = copy.pathByName("p");
+		assertEquals(List.of(1L, 2L, -3L), toList(AutoClosedIterator.map(copy.stepsOf(p), s -> copy.nodeOfStep(s).id())));
+		assertEquals(3, copy.beginPositionOfStep(copy.stepByRankAndPath(p, 2)));
+		assertEquals(100, copy.originalId(1));
+		assertEquals(50, copy.originalId(-3));
+		assertFalse(copy.isCircular(p));
+		assertTrue(copy.isCircular(copy.pathByName("ring")));
+		assertThrows(IllegalArgumentException.class, () -> CompactPathGraph.copyOf(source, new long[] { 100, 7 }));
+	}
+
+	private static List<String> steps(StepCursor cursor) {
+		List<String> list = new ArrayList<>();
+		try (cursor) {
+			while (cursor.advance()) {
+				list.add(cursor.nodeAsLong() + "," + cursor.isReverse() + "," + cursor.rank() + ","
+						+ cursor.beginPosition() + "," + cursor.endPosition());
+			}
+		}
+		return list;
+	}
+
+	private static <S extends StepHandle, N extends NodeHandle> List<String> steps(PathGraph<?, S, N, ?> graph,
+			AutoClosedIterator<S> iter) {
+		return toList(AutoClosedIterator.map(iter,
+				s -> graph.asLong(graph.nodeOfStep(s)) + "," + graph.isReverseNodeHandle(graph.nodeOfStep(s)) + ","
+						+ graph.rankOfStep(s) + "," + graph.beginPositionOfStep(s) + ","
+						+ graph.endPositionOfStep(s)));
+	}
+
+	@Test
+	public void cursors() {
+		TestGraph source = new TestGraph().addNode(100, "A")
+				.addNode(7, "CC")
+				.addNode(50, "GGG")
+				.addPath("p", 100, 7, -50)
+				.addPath("q", 50);
+		CompactPathGraph copy = CompactPathGraph.copyOf(source, new long[] { 100, 7, 50 });
+		assertEquals(List.of("1,false,0,0,1", "2,false,1,1,3", "-3,true,2,3,6", "3,false,0,0,3"),
+				steps(copy.stepCursor()));
+		assertEquals(steps(copy, copy.steps()), steps(copy.stepCursor()));
+		CompactPath q = copy.pathByName("q");
+		assertEquals(steps(copy, copy.stepsOf(q)), steps(copy.stepCursor(q)));
+		List<Long> ids = new ArrayList<>();
+		try (NodeCursor nodes = copy.nodeCursor()) {
+			while (nodes.advance()) {
+				assertFalse(nodes.isReverse());
+				ids.add(nodes.asLong());
+			}
+		}
+		assertEquals(List.of(1L, 2L, 3L), ids);
+		assertEquals(List.of("-3,true,2,3,6"), steps(copy, copy.stepsOfNodeHandle(new CompactNode(-3))));
+		assertEquals(List.of("3,false,0,0,3"), steps(copy, copy.stepsOfNodeHandle(new CompactNode(3))));
+		assertEquals(List.of(), steps(copy, copy.stepsOfNodeHandle(new CompactNode(-1))));
+		// the default cursors read the iterators
+		assertEquals(steps(source, source.steps()), steps(source.stepCursor()));
+		try (NodeCursor nodes = source.nodeCursor()) {
+			assertTrue(nodes.advance());
+			assertEquals(source.asLong(source.fromLong(nodes.asLong())), nodes.asLong());
+		}
+	}
+}
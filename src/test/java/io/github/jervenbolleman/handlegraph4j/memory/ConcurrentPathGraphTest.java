@@ -0,0 +1,249 @@
+package io.github.jervenbolleman.handlegraph4j.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jervenbolleman.handlegraph4j.iterators.AutoClosedIterator;
+import io.github.jervenbolleman.handlegraph4j.sequences.SequenceType;
+
+public class ConcurrentPathGraphTest {
+
+	private static <T> List<T> toList(AutoClosedIterator<T> iter) {
+		List<T> list = new ArrayList<>();
+		try (iter) {
+			iter.forEachRemaining(list::add);
+		}
+		return list;
+	}
+
+	@Test
+	public void createAndDestroy() {
+		ConcurrentPathGraph graph = new ConcurrentPathGraph();
+		CompactNode a = graph.createHandle(SequenceType.fromString("ACGT"));
+		CompactNode b = graph.createHandle(SequenceType.fromString("GG"));
+		CompactNode c = graph.createHandle(SequenceType.fromString("T"));
+		graph.createEdge(a, graph.flip(b));
+		graph.createEdge(b, graph.flip(a));
+		graph.createEdge(graph.flip(b), c);
+		assertEquals(3, graph.nodeCount());
+		assertEquals(2, graph.edgeCount());
+		assertTrue(graph.hasEdge(graph.flip(c), b));
+		assertEquals(List.of(new CompactEdge(a, new CompactNode(-2))),
+				toList(graph.followEdgesToWardsTheLeft(new CompactNode(-2))));
+		CompactPath p = graph.createPath("p");
+		graph.appendStep(p, a);
+		graph.appendStep(p, graph.flip(b));
+		graph.appendStep(p, a);
+		assertEquals(3, graph.stepCountInPath(p));
+		assertEquals(4, graph.beginPositionOfStep(graph.stepByRankAndPath(p, 1)));
+		assertEquals(10, graph.endPositionOfStep(graph.stepByRankAndPath(p, 2)));
+		assertEquals(p, graph.pathByName("p"));
+		assertThrows(IllegalArgumentException.class, () -> graph.createPath("p"));
+		assertEquals(1, graph.pathCount());
+		assertEquals(1, toList(graph.paths()).size());
+		assertThrows(IllegalArgumentException.class, () -> graph.appendStep(new CompactPath(1), a));
+		assertThrows(IllegalArgumentException.class, () -> graph.destroyHandle(b));
+		assertEquals(3, graph.nodeCount());
+
+		assertTrue(graph.destroyHandle(graph.flip(c)));
+		assertFalse(graph.destroyHandle(c));
+		assertEquals(2, graph.nodeCount());
+		assertEquals(1, graph.edgeCount());
+		assertNull(graph.sequenceOf(c));
+		assertEquals(0, toList(graph.followEdgesToWardsTheRight(graph.flip(b))).size());
+		assertThrows(IllegalArgumentException.class, () -> graph.createEdge(a, c));
+		assertThrows(IllegalArgumentException.class, () -> graph.appendStep(p, c));
+	}
+
+	@Test
+	public void concurrentAppends() throws Exception {
+		ConcurrentPathGraph graph = new ConcurrentPathGraph();
+		int threads = 8;
+		int perThread = 5000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> done = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				String name = "path" + t;
+				done.add(executor.submit(() -> {
+					CompactPath path = graph.createPath(name);
+					CompactNode previous = null;
+					for (int i = 0; i < perThread; i++) {
+						CompactNode node = graph.createHandle(SequenceType.fromString("AC"));
+						graph.appendStep(path, node);
+						if (previous != null) {
+							graph.createEdge(previous, node);
+						}
+						previous = node;
+					}
+				}));
+			}
+			// a reader that runs while the writers do, must never see a torn path
+			done.add(executor.submit(() -> {
+				for (int i = 0; i < 100; i++) {
+					try (AutoClosedIterator<CompactPath> paths = graph.paths()) {
+						while (paths.hasNext()) {
+							CompactPath path = paths.next();
+							long steps = graph.stepCountInPath(path);
+							if (steps > 0) {
+								CompactStep last = graph.stepByRankAndPath(path, steps - 1);
+								assertEquals(steps * 2, graph.endPositionOfStep(last));
+							}
+						}
+					}
+				}
+			}));
+			for (Future<?> f : done) {
+				f.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(threads * perThread, graph.nodeCount());
+		assertEquals(threads * (perThread - 1), graph.edgeCount());
+		assertEquals(threads, graph.pathCount());
+		assertEquals(threads * perThread, graph.stepCount());
+	}
+
+	@Test
+	public void stepOrDestroy() throws Exception {
+		ConcurrentPathGraph graph = new ConcurrentPathGraph();
+		CompactPath p = graph.createPath("p");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 1000; i++) {
+				CompactNode node = graph.createHandle(SequenceType.fromString("A"));
+				Future<Boolean> appended = executor.submit(() -> {
+					try {
+						graph.appendStep(p, node);
+						return true;
+					} catch (IllegalArgumentException e) {
+						return false;
+					}
+				});
+				Future<Boolean> destroyed = executor.submit(() -> {
+					try {
+						return graph.destroyHandle(node);
+					} catch (IllegalArgumentException e) {
+						return false;
+					}
+				});
+				// exactly one of the two wins
+				assertTrue(appended.get() != destroyed.get());
+				assertEquals(appended.get(), graph.sequenceOf(node) != null);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(graph.nodeCount(), graph.stepCountInPath(p));
+	}
+
+	@Test
+	public void snapshot() {
+		ConcurrentPathGraph graph = new ConcurrentPathGraph();
+		CompactNode a = graph.createHandle(SequenceType.fromString("ACGT"));
+		CompactNode b = graph.createHandle(SequenceType.fromString("GG"));
+		graph.createEdge(a, b);
+		CompactPath p = graph.createPath("p");
+		graph.appendStep(p, b);
+		try (ConcurrentPathGraph.Snapshot snapshot = graph.snapshot()) {
+			graph.appendStep(p, b);
+			CompactNode c = graph.createHandle(SequenceType.fromString("T"));
+			graph.createEdge(b, c);
+			graph.createPath("q");
+			graph.destroyHandle(a);
+			try (ConcurrentPathGraph.Snapshot later = graph.snapshot()) {
+				graph.destroyHandle(c);
+
+				assertEquals(2, snapshot.nodeCount());
+				assertEquals(1, snapshot.edgeCount());
+				assertTrue(snapshot.hasEdge(a, b));
+				assertFalse(snapshot.hasEdge(b, c));
+				assertEquals(1, snapshot.stepCountInPath(p));
+				assertEquals(1, snapshot.pathCount());
+				assertNull(snapshot.pathByName("q"));
+				assertEquals(SequenceType.fromString("ACGT"), snapshot.sequenceOf(a));
+
+				assertEquals(2, later.nodeCount());
+				assertEquals(1, later.edgeCount());
+				assertTrue(later.hasEdge(b, c));
+				assertFalse(later.hasEdge(a, b));
+				assertEquals(2, later.stepCountInPath(p));
+				assertEquals(4, later.endPositionOfStep(later.stepByRankAndPath(p, 1)));
+				assertEquals(2, later.pathCount());
+
+				assertEquals(1, graph.nodeCount());
+				assertEquals(0, graph.edgeCount());
+			}
+		}
+	}
+
+	@Test
+	public void snapshotsWhileWriting() throws Exception {
+		ConcurrentPathGraph graph = new ConcurrentPathGraph();
+		int threads = 4;
+		int perThread = 2000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				String name = "path" + t;
+				writers.add(executor.submit(() -> {
+					CompactPath path = graph.createPath(name);
+					CompactNode previous = null;
+					for (int i = 0; i < perThread; i++) {
+						CompactNode node = graph.createHandle(SequenceType.fromString("A"));
+						if (previous != null) {
+							graph.createEdge(previous, node);
+						}
+						graph.appendStep(path, node);
+						previous = node;
+					}
+				}));
+			}
+			// every step in a snapshot follows its edge, which was created before
+			Future<Integer> reader = executor.submit(() -> {
+				int snapshots = 0;
+				while (writers.stream().anyMatch(f -> !f.isDone()) || snapshots == 0) {
+					try (ConcurrentPathGraph.Snapshot snapshot = graph.snapshot()) {
+						snapshots++;
+						try (AutoClosedIterator<CompactPath> paths = snapshot.paths()) {
+							while (paths.hasNext()) {
+								CompactPath path = paths.next();
+								long steps = snapshot.stepCountInPath(path);
+								for (long r = 1; r < steps; r++) {
+									CompactNode left = snapshot.nodeOfStep(snapshot.stepByRankAndPath(path, r - 1));
+									CompactNode right = snapshot.nodeOfStep(snapshot.stepByRankAndPath(path, r));
+									assertTrue(snapshot.hasEdge(left, right));
+									assertTrue(snapshot.hasEdge(snapshot.flip(right), snapshot.flip(left)));
+								}
+							}
+						}
+					}
+				}
+				return snapshots;
+			});
+			for (Future<?> f : writers) {
+				f.get();
+			}
+			assertTrue(reader.get() > 0);
+		} finally {
+			executor.shutdown();
+		}
+		try (ConcurrentPathGraph.Snapshot snapshot = graph.snapshot()) {
+			assertEquals(threads * perThread, snapshot.stepCount());
+			assertEquals(threads * (perThread - 1), snapshot.edgeCount());
+		}
+	}
+}
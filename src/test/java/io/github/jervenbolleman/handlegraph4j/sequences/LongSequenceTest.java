@@ -108,4 +108,21 @@ public class LongSequenceTest {
             assertEquals(new String(tttts, StandardCharsets.US_ASCII), instance.reverseComplement().toString());
         }
     }
+
+    @Test
+    public void testMixedOverManyLongs() {
+        String mixed = "acgttgcaacggttaaccggttaaggccttaagtcagtcanrykm";
+        Sequence instance = new LongSequence(mixed.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(mixed, instance.toString());
+        assertEquals("kmryntgactgacttaaggccttaaccggttaaccgttgcaacgt", instance.reverseComplement().toString());
+    }
+
+    @Test
+    public void testHashCodeAgreesWithOtherTypes() {
+        Sequence instance = new LongSequence("acgttgcaacggttaaccggttaaggcc".getBytes(StandardCharsets.US_ASCII));
+        SequenceArena arena = new SequenceArena(false);
+        Sequence same = arena.get(arena.add(instance));
+        assertEquals(same, instance);
+        assertEquals(same.hashCode(), instance.hashCode());
+    }
 }
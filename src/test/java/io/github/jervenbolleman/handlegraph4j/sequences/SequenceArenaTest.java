@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 Jerven Bolleman <jerven.bolleman@sib.swiss>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.github.jervenbolleman.handlegraph4j.sequences;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author <a href="mailto:jerven.bolleman@sib.swiss">Jerven Bolleman</a>
+ */
+public class SequenceArenaTest {
+
+    private static final String LONG = "acgttgcaacggttaaccggttaaggccttaagtcagtcanrykm";
+
+    /**
+     * A plain byte per nucleotide sequence, so that these tests do not depend
+     * on the packing of any of the other sequence types.
+     */
+    private static final class Bytes implements Sequence {
+
+        private final byte[] sequence;
+
+        private Bytes(byte[] sequence) {
+            this.sequence = sequence.clone();
+        }
+
+        private Bytes(String sequence) {
+            this(sequence.getBytes(US_ASCII));
+        }
+
+        @Override
+        public byte byteAt(int offset) {
+            return Sequence.lowercase(sequence[offset]);
+        }
+
+        @Override
+        public int length() {
+            return sequence.length;
+        }
+
+        @Override
+        public SequenceType getType() {
+            return SequenceType.OTHER;
+        }
+
+        @Override
+        public Sequence reverseComplement() {
+            byte[] reversed = new byte[sequence.length];
+            for (int i = 0; i < sequence.length; i++) {
+                reversed[sequence.length - 1 - i] = Sequence.complement(byteAt(i));
+            }
+            return new Bytes(reversed);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Sequence && Sequence.equalByBytes(this, (Sequence) obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return Sequence.hashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return asString();
+        }
+    }
+
+    @Test
+    public void addAndGet() {
+        for (boolean offHeap : new boolean[]{true, false}) {
+            SequenceArena arena = new SequenceArena(offHeap);
+            long first = arena.add(new ShortAmbiguousSequence(LONG.substring(0, ShortAmbiguousSequence.MAX_LENGTH)));
+            long second = arena.add(new Bytes("AC"));
+            long third = arena.add(new Bytes(LONG));
+            assertEquals(LONG.substring(0, ShortAmbiguousSequence.MAX_LENGTH), arena.get(first).toString());
+            assertEquals("ac", arena.get(second).toString());
+            assertEquals(LONG, arena.get(third).toString());
+            assertEquals(LONG.length(), arena.length(third));
+            assertEquals(offHeap, arena.isOffHeap());
+        }
+    }
+
+    @Test
+    public void equalsOtherSequences() {
+        SequenceArena arena = new SequenceArena();
+        Sequence expected = new Bytes(LONG);
+        ArenaSequence instance = arena.get(arena.add(expected));
+        assertEquals(expected, instance);
+        assertEquals(instance, expected);
+        assertEquals(expected.hashCode(), instance.hashCode());
+        assertEquals(SequenceType.OTHER, instance.getType());
+    }
+
+    @Test
+    public void reverseComplement() {
+        SequenceArena arena = new SequenceArena();
+        Sequence sequence = new ShortAmbiguousSequence("acgtn");
+        ArenaSequence instance = arena.get(arena.add(sequence));
+        assertEquals("nacgt", instance.reverseComplement().toString());
+        assertEquals(instance, instance.reverseComplement().reverseComplement());
+    }
+
+    @Test
+    public void growsOverChunks() {
+        SequenceArena arena = new SequenceArena();
+        byte[] big = new byte[100_000];
+        Arrays.fill(big, (byte) 'g');
+        long[] addresses = new long[8];
+        for (int i = 0; i < addresses.length; i++) {
+            big[i] = 'c';
+            addresses[i] = arena.add(new Bytes(big));
+        }
+        for (int i = 0; i < addresses.length; i++) {
+            ArenaSequence instance = arena.get(addresses[i]);
+            assertEquals(big.length, instance.length());
+            assertEquals('c', instance.byteAt(i));
+            assertEquals('g', instance.byteAt(i + 1));
+            assertTrue(addresses[i] >>> 62 == 0);
+        }
+        assertTrue(arena.reservedBytes() >= (long) addresses.length * big.length / 2);
+    }
+}